@@ -0,0 +1,295 @@
+package gamificaciondeportiva;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * La clase AccesoDatos centraliza el acceso a la base de datos de la aplicación.
+ * <p>
+ * Mantiene un pequeño conjunto de conexiones reutilizables y, para cada una de ellas, una caché de sentencias
+ * preparadas indexada por el texto SQL. Así las consultas repetidas (verificación de logros y desafíos,
+ * actualización de puntos, etc.) se preparan una sola vez por conexión y se reutilizan en llamadas sucesivas.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+ *     PreparedStatement stmt = sesion.preparar("SELECT nombre FROM Usuarios WHERE id = ?");
+ *     stmt.setString(1, usuarioId);
+ *     try (ResultSet rs = stmt.executeQuery()) {
+ *         ...
+ *     }
+ * }
+ * }
+ * </pre>
+ * <p>
+ * Las sentencias obtenidas con {@link Sesion#preparar(String)} pertenecen a la caché y no deben cerrarse.
+ * Al cerrar la sesión se cierran los ResultSet que hayan quedado abiertos y la conexión vuelve al conjunto.
+ */
+public final class AccesoDatos {
+    /**
+     * Número máximo de conexiones inactivas que se conservan para reutilizar.
+     */
+    private static final int MAX_CONEXIONES_LIBRES = 4;
+
+    /**
+     * Número máximo de sentencias preparadas que se conservan por conexión.
+     */
+    private static final int MAX_SENTENCIAS_POR_CONEXION = 64;
+
+    /**
+     * Tiempo de inactividad tras el cual se valida una conexión antes de reutilizarla.
+     */
+    private static final long VALIDAR_TRAS_MS = 30_000;
+
+    private static final BlockingDeque<ConexionReutilizable> conexionesLibres = new LinkedBlockingDeque<>();
+
+    private AccesoDatos() {
+    }
+
+    /**
+     * Abre una sesión sobre una conexión del conjunto, creando una nueva si no hay ninguna disponible.
+     *
+     * @return Una sesión lista para preparar sentencias.
+     * @throws SQLException Si no se puede establecer la conexión.
+     */
+    public static Sesion abrirSesion() throws SQLException {
+        ConexionReutilizable conexion;
+        while ((conexion = conexionesLibres.pollFirst()) != null) {
+            if (conexion.esUtilizable()) {
+                return new Sesion(conexion);
+            }
+            conexion.cerrar();
+        }
+        Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
+                Configuracion.DB_PASSWORD);
+        return new Sesion(new ConexionReutilizable(conn));
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas del conjunto junto con sus sentencias en caché.
+     */
+    public static void cerrarConexiones() {
+        ConexionReutilizable conexion;
+        while ((conexion = conexionesLibres.pollFirst()) != null) {
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * Devuelve una conexión al conjunto o la cierra si está dañada o el conjunto está lleno.
+     *
+     * @param conexion La conexión a devolver.
+     */
+    private static void devolver(ConexionReutilizable conexion) {
+        if (conexion.rota || conexionesLibres.size() >= MAX_CONEXIONES_LIBRES) {
+            conexion.cerrar();
+            return;
+        }
+        conexion.ultimoUso = System.currentTimeMillis();
+        conexionesLibres.offerFirst(conexion);
+    }
+
+    /**
+     * Conexión física junto con su caché de sentencias preparadas.
+     */
+    private static final class ConexionReutilizable {
+        private final Connection conn;
+        private final Map<String, PreparedStatement> sentencias;
+        private long ultimoUso;
+        private boolean rota;
+
+        ConexionReutilizable(Connection conn) {
+            this.conn = conn;
+            this.ultimoUso = System.currentTimeMillis();
+            // Orden de acceso: al superar el límite se descarta (y cierra) la sentencia menos usada recientemente
+            this.sentencias = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > MAX_SENTENCIAS_POR_CONEXION) {
+                        cerrarSilenciosamente(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        boolean esUtilizable() {
+            try {
+                if (conn.isClosed()) {
+                    return false;
+                }
+                return System.currentTimeMillis() - ultimoUso < VALIDAR_TRAS_MS || conn.isValid(2);
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        void cerrar() {
+            for (PreparedStatement stmt : sentencias.values()) {
+                cerrarSilenciosamente(stmt);
+            }
+            sentencias.clear();
+            try {
+                conn.close();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sesión de trabajo sobre una conexión del conjunto.
+     * <p>
+     * Una sesión no es segura para uso concurrente: cada hilo debe abrir la suya.
+     */
+    public static final class Sesion implements AutoCloseable {
+        private final ConexionReutilizable conexion;
+        /**
+         * Sentencias usadas en la sesión, cada una una sola vez aunque se prepare en cada fila de un lote.
+         */
+        private final Set<PreparedStatement> usadas = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean cerrada;
+
+        private Sesion(ConexionReutilizable conexion) {
+            this.conexion = conexion;
+        }
+
+        /**
+         * Obtiene una sentencia preparada para el SQL indicado, reutilizando la de la caché si existe.
+         * Los parámetros de la sentencia se limpian antes de devolverla.
+         *
+         * @param sql El texto SQL de la sentencia.
+         * @return La sentencia preparada. No debe cerrarse.
+         * @throws SQLException Si ocurre un error al preparar la sentencia.
+         */
+        public PreparedStatement preparar(String sql) throws SQLException {
+            try {
+                PreparedStatement stmt = conexion.sentencias.get(sql);
+                if (stmt == null || stmt.isClosed()) {
+                    stmt = conexion.conn.prepareStatement(sql);
+                    conexion.sentencias.put(sql, stmt);
+                } else {
+                    stmt.clearParameters();
+                }
+                usadas.add(stmt);
+                return stmt;
+            } catch (SQLException ex) {
+                conexion.rota = true;
+                throw ex;
+            }
+        }
+
+        /**
+         * Obtiene la conexión subyacente para el código que aún trabaja directamente con {@link Connection}.
+         * La conexión no debe cerrarse; se libera al cerrar la sesión.
+         *
+         * @return La conexión de la sesión.
+         */
+        public Connection getConexion() {
+            return conexion.conn;
+        }
+
+        /**
+         * Inicia una transacción en la conexión de la sesión.
+         *
+         * @throws SQLException Si no se puede desactivar la confirmación automática.
+         */
+        public void iniciarTransaccion() throws SQLException {
+            conexion.conn.setAutoCommit(false);
+        }
+
+        /**
+         * Confirma la transacción en curso y restablece la confirmación automática.
+         *
+         * @throws SQLException Si ocurre un error al confirmar.
+         */
+        public void confirmar() throws SQLException {
+            try {
+                conexion.conn.commit();
+            } finally {
+                conexion.conn.setAutoCommit(true);
+            }
+        }
+
+        /**
+         * Revierte la transacción en curso y restablece la confirmación automática.
+         *
+         * @throws SQLException Si ocurre un error al revertir.
+         */
+        public void revertir() throws SQLException {
+            try {
+                conexion.conn.rollback();
+            } finally {
+                conexion.conn.setAutoCommit(true);
+            }
+        }
+
+        /**
+         * Indica si hay una transacción abierta en la sesión.
+         *
+         * @return true si la conexión no está en modo de confirmación automática.
+         */
+        public boolean enTransaccion() {
+            try {
+                return !conexion.conn.getAutoCommit();
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        /**
+         * Cierra los ResultSet pendientes de las sentencias usadas y devuelve la conexión al conjunto.
+         * Si quedó una transacción sin confirmar, se revierte.
+         */
+        @Override
+        public void close() {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+            if (enTransaccion()) {
+                try {
+                    conexion.conn.rollback();
+                    conexion.conn.setAutoCommit(true);
+                } catch (SQLException ex) {
+                    conexion.rota = true;
+                }
+            }
+            for (PreparedStatement stmt : usadas) {
+                try {
+                    ResultSet rs = stmt.getResultSet();
+                    if (rs != null) {
+                        rs.close();
+                    }
+                    stmt.clearBatch();
+                } catch (SQLException ex) {
+                    conexion.rota = true;
+                }
+            }
+            usadas.clear();
+            devolver(conexion);
+        }
+    }
+
+    private static void cerrarSilenciosamente(AutoCloseable recurso) {
+        try {
+            recurso.close();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+}
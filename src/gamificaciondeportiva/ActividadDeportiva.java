@@ -10,8 +10,8 @@ import java.time.LocalTime;
  * fecha y hora de la actividad, y si es una competencia.
  *
  * <p>Proporciona métodos para obtener y establecer los atributos de la actividad,
- * así como para calcular las calorías quemadas en función del tipo de deporte,
- * duración y distancia.</p>
+ * así como para obtener las calorías quemadas, que se calculan con {@link ModeloCalorias}
+ * la primera vez que se consultan.</p>
  *
  * <p>Ejemplo de uso:</p>
  * <pre>
@@ -29,13 +29,18 @@ import java.time.LocalTime;
  * @see TipoDeporte
  */
 class ActividadDeportiva {
+    private static final int CALORIAS_SIN_CALCULAR = -1;
+
     private String id;
     private TipoDeporte tipo;
     private LocalDate fecha;
     private LocalTime hora;
     private int duracionMinutos;
     private double distanciaKm;
-    private int caloriasQuemadas;
+    /**
+     * Calorías quemadas, o {@link #CALORIAS_SIN_CALCULAR} hasta que se consultan por primera vez.
+     */
+    private int caloriasQuemadas = CALORIAS_SIN_CALCULAR;
     private Usuario usuario;
     private boolean esCompetencia;
 
@@ -59,19 +64,6 @@ class ActividadDeportiva {
         this.distanciaKm = distanciaKm;
         this.usuario = usuario;
         this.esCompetencia = esCompetencia;
-        calcularCalorias();
-    }
-
-    /**
-     * Calcula las calorías quemadas en función del tipo de deporte, duración y distancia.
-     */
-    private void calcularCalorias() {
-        switch (this.tipo) {
-            case CORRER -> this.caloriasQuemadas = (int) ((duracionMinutos * 10) + (distanciaKm * 50));
-            case NATACION -> this.caloriasQuemadas = (int) ((duracionMinutos * 12) + (distanciaKm * 60));
-            case CICLISMO -> this.caloriasQuemadas = (int) ((duracionMinutos * 8) + (distanciaKm * 40));
-            default -> this.caloriasQuemadas = duracionMinutos * 6;
-        }
     }
 
     // Métodos Getters y Setters
@@ -119,6 +111,7 @@ class ActividadDeportiva {
      */
     public void setTipo(TipoDeporte tipo) {
         this.tipo = tipo;
+        this.caloriasQuemadas = CALORIAS_SIN_CALCULAR;
     }
 
     /**
@@ -173,6 +166,7 @@ class ActividadDeportiva {
      */
     public void setDuracionMinutos(int duracionMinutos) {
         this.duracionMinutos = duracionMinutos;
+        this.caloriasQuemadas = CALORIAS_SIN_CALCULAR;
     }
 
     /**
@@ -191,14 +185,19 @@ class ActividadDeportiva {
      */
     public void setDistanciaKm(double distanciaKm) {
         this.distanciaKm = distanciaKm;
+        this.caloriasQuemadas = CALORIAS_SIN_CALCULAR;
     }
 
     /**
-     * Obtiene las calorías quemadas durante la actividad.
+     * Obtiene las calorías quemadas durante la actividad. Si no se han establecido, se calculan con
+     * {@link ModeloCalorias} en función del tipo de deporte, duración y distancia.
      *
      * @return Calorías quemadas.
      */
     public int getCaloriasQuemadas() {
+        if (caloriasQuemadas == CALORIAS_SIN_CALCULAR) {
+            caloriasQuemadas = ModeloCalorias.calcular(tipo, duracionMinutos, distanciaKm);
+        }
         return caloriasQuemadas;
     }
 
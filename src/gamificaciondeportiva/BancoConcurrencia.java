@@ -0,0 +1,295 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * La clase BancoConcurrencia somete a carga concurrente las partes del sistema que varios hilos modifican a la vez y
+ * comprueba que no se pierde ninguna actualización.
+ * <p>
+ * Modos, según el primer argumento:
+ * <ul>
+ *   <li>{@code puntos [hilos] [por hilo]}: crea un usuario de pruebas ({@value #USUARIO_CONCURRENCIA}) y lo acredita
+ *   desde muchos hilos a la vez con {@link Usuario#ganarPuntos(int)} y {@link Usuario#ganarExperiencia(int)}. Los hilos
+ *   se reparten entre dos instancias del mismo usuario, como dos equipos con la sesión abierta. Al terminar compara los
+ *   totales guardados con la suma esperada, el nivel guardado con el que corresponde a la experiencia y los contadores
+ *   en memoria con los guardados. Usa la base de datos indicada con {@code -Dgamificacion.db.url} y se niega a
+ *   ejecutarse contra la de producción.</li>
+ *   <li>{@code competencia [participantes] [ms]}: mide cuántas sumas de puntos por segundo admite
+ *   {@link Competencia#actualizarPuntuacion(Usuario, int)} con 1, 2, 4, ..., 64 hilos sumando a la vez sobre
+ *   participantes elegidos al azar, y lo compara con un {@code HashMap} protegido por un único cerrojo, que es lo que
+ *   haría falta para usar desde varios hilos el mapa que guardaba antes las puntuaciones. Cada medición comprueba que
+ *   la suma de las puntuaciones coincide con el número de sumas hechas. No necesita base de datos.</li>
+ * </ul>
+ * El proceso termina con código 1 si alguna comprobación falla.
+ * <pre>
+ * java -Dgamificacion.db.url=jdbc:mysql://localhost/gamificacion_banco -cp ... \
+ *     gamificaciondeportiva.BancoConcurrencia puntos 32 200
+ * java -cp ... gamificaciondeportiva.BancoConcurrencia competencia 1000 1000
+ * </pre>
+ */
+public final class BancoConcurrencia {
+    /**
+     * ID del usuario de pruebas del modo {@code puntos}.
+     */
+    static final String USUARIO_CONCURRENCIA = "banco_concurrencia";
+
+    private static final int PUNTOS_POR_ACREDITACION = 3;
+    private static final int EXPERIENCIA_POR_ACREDITACION = 5;
+    private static final int MAXIMO_HILOS = 64;
+
+    private BancoConcurrencia() {
+    }
+
+    /**
+     * Ejecuta la prueba indicada e imprime los resultados.
+     *
+     * @param args El modo ({@code puntos [hilos] [por hilo]} o {@code competencia [participantes] [ms]}) y sus
+     *             parámetros.
+     */
+    public static void main(String[] args) throws Exception {
+        String modo = args.length > 0 ? args[0] : "puntos";
+        boolean correcto;
+        switch (modo) {
+            case "puntos" -> correcto = estresarPuntos(args.length > 1 ? Integer.parseInt(args[1]) : 32,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 200);
+            case "competencia" -> correcto = medirCompetencia(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 1000);
+            default -> {
+                System.out.println("Modo desconocido: " + modo + ". Use puntos o competencia.");
+                System.exit(2);
+                return;
+            }
+        }
+        System.exit(correcto ? 0 : 1);
+    }
+
+    /**
+     * Acredita puntos y experiencia al usuario de pruebas desde varios hilos y comprueba los totales.
+     *
+     * @return true si no se perdió ninguna actualización.
+     */
+    private static boolean estresarPuntos(int hilos, int porHilo) throws Exception {
+        BancoRenderizado.exigirBaseDeDatosAlternativa();
+        eliminarUsuario();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            PreparedStatement stmt = sesion.preparar("INSERT INTO Usuarios (id, nombre, nivel, puntosTotales, "
+                    + "experiencia, contrasena, esAdmin) VALUES (?, ?, 1, 0, 0, '-', FALSE)");
+            stmt.setString(1, USUARIO_CONCURRENCIA);
+            stmt.setString(2, "Banco concurrencia");
+            stmt.executeUpdate();
+        }
+
+        try {
+            Usuario[] clientes = {new Usuario(USUARIO_CONCURRENCIA, "Banco concurrencia"),
+                    new Usuario(USUARIO_CONCURRENCIA, "Banco concurrencia")};
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                Usuario cliente = clientes[h % clientes.length];
+                tareas.add(ejecutor.submit(() -> {
+                    salida.await(); // Todos los hilos empiezan a la vez para maximizar la contención
+                    for (int i = 0; i < porHilo; i++) {
+                        if (i % 2 == 0) {
+                            cliente.ganarPuntos(PUNTOS_POR_ACREDITACION);
+                        } else {
+                            cliente.ganarExperiencia(EXPERIENCIA_POR_ACREDITACION);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            long duracionNanos = System.nanoTime() - inicio;
+            ejecutor.shutdown();
+
+            // ganarPuntos suma los mismos puntos como experiencia
+            long acreditacionesPuntos = (long) hilos * ((porHilo + 1) / 2);
+            long acreditacionesExperiencia = (long) hilos * (porHilo / 2);
+            long puntosEsperados = acreditacionesPuntos * PUNTOS_POR_ACREDITACION;
+            long experienciaEsperada = puntosEsperados + acreditacionesExperiencia * EXPERIENCIA_POR_ACREDITACION;
+
+            int puntosGuardados;
+            int experienciaGuardada;
+            int nivelGuardado;
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                PreparedStatement stmt = sesion.preparar(
+                        "SELECT puntosTotales, experiencia, nivel FROM Usuarios WHERE id = ?");
+                stmt.setString(1, USUARIO_CONCURRENCIA);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    puntosGuardados = rs.getInt(1);
+                    experienciaGuardada = rs.getInt(2);
+                    nivelGuardado = rs.getInt(3);
+                }
+            }
+            // Cada instancia conserva los mayores totales que recibió: la que hizo el último incremento los tiene
+            int puntosEnMemoria = 0;
+            int experienciaEnMemoria = 0;
+            for (Usuario cliente : clientes) {
+                puntosEnMemoria = Math.max(puntosEnMemoria, cliente.getPuntosTotales());
+                experienciaEnMemoria = Math.max(experienciaEnMemoria, cliente.getExperiencia());
+            }
+
+            long acreditaciones = (long) hilos * porHilo;
+            System.out.printf("%d hilos x %d acreditaciones en %.1f ms (%.0f acreditaciones/s)%n", hilos, porHilo,
+                    duracionNanos / 1e6, acreditaciones * 1e9 / duracionNanos);
+            boolean correcto = comprobar("Puntos guardados", puntosEsperados, puntosGuardados);
+            correcto &= comprobar("Experiencia guardada", experienciaEsperada, experienciaGuardada);
+            correcto &= comprobar("Nivel guardado", Usuario.calcularNivel(experienciaGuardada), nivelGuardado);
+            correcto &= comprobar("Puntos en memoria", puntosGuardados, puntosEnMemoria);
+            correcto &= comprobar("Experiencia en memoria", experienciaGuardada, experienciaEnMemoria);
+            System.out.println(correcto ? "Sin actualizaciones perdidas." : "Se perdieron actualizaciones.");
+            return correcto;
+        } finally {
+            eliminarUsuario();
+        }
+    }
+
+    /**
+     * Mide el rendimiento de las sumas de puntos de una competencia con distinto número de hilos.
+     *
+     * @return true si ninguna medición perdió sumas.
+     */
+    private static boolean medirCompetencia(int participantes, int milisegundos) throws Exception {
+        Registro.setNivel(Registro.Nivel.AVISO); // Sin una línea por participante registrado
+        Usuario[] usuarios = new Usuario[participantes];
+        for (int i = 0; i < participantes; i++) {
+            usuarios[i] = new Usuario("banco_participante_" + i, "Participante " + i);
+        }
+
+        // Primera pasada para calentar el JIT; no se informa
+        medirSumas(usuarios, 8, milisegundos, true, false);
+        medirSumas(usuarios, 8, milisegundos, false, false);
+        System.out.println("Puntuaciones de competencia (" + participantes + " participantes): hilos, variante, "
+                + "millones de sumas/s");
+        boolean correcto = true;
+        for (int hilos = 1; hilos <= MAXIMO_HILOS; hilos *= 2) {
+            correcto &= medirSumas(usuarios, hilos, milisegundos, true, true);
+            correcto &= medirSumas(usuarios, hilos, milisegundos, false, true);
+        }
+        System.out.println(correcto ? "Sin sumas perdidas." : "Se perdieron sumas.");
+        return correcto;
+    }
+
+    /**
+     * Suma un punto a participantes al azar desde varios hilos durante un tiempo fijo.
+     *
+     * @return true si la suma de las puntuaciones coincide con el número de sumas hechas.
+     */
+    private static boolean medirSumas(Usuario[] usuarios, int hilos, int milisegundos, boolean competencia,
+                                      boolean informar) throws Exception {
+        Consumer<Usuario> sumar;
+        Map<Usuario, Integer> instantanea;
+        Competencia actual = null;
+        Map<Usuario, Integer> conCerrojo = null;
+        if (competencia) {
+            actual = new Competencia("banco", "Banco", ActividadDeportiva.TipoDeporte.values()[0], LocalDate.now(),
+                    LocalDate.now().plusDays(1));
+            for (Usuario usuario : usuarios) {
+                actual.registrarParticipante(usuario);
+            }
+            actual.iniciarCompetencia();
+            Competencia destino = actual;
+            sumar = usuario -> destino.actualizarPuntuacion(usuario, 1);
+        } else {
+            conCerrojo = Collections.synchronizedMap(new HashMap<>());
+            for (Usuario usuario : usuarios) {
+                conCerrojo.put(usuario, 0);
+            }
+            Map<Usuario, Integer> destino = conCerrojo;
+            sumar = usuario -> destino.merge(usuario, 1, Integer::sum);
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicBoolean parar = new AtomicBoolean();
+        List<Future<Long>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                salida.await();
+                long sumas = 0;
+                while (true) {
+                    // Se comprueba la señal de parada cada 1024 sumas para no medir el coste de leerla
+                    for (int i = 0; i < 1024; i++) {
+                        sumar.accept(usuarios[azar.nextInt(usuarios.length)]);
+                    }
+                    sumas += 1024;
+                    if (parar.get()) {
+                        return sumas;
+                    }
+                }
+            }));
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        Thread.sleep(milisegundos);
+        parar.set(true);
+        long sumas = 0;
+        for (Future<Long> tarea : tareas) {
+            sumas += tarea.get();
+        }
+        long duracionNanos = System.nanoTime() - inicio;
+        ejecutor.shutdown();
+
+        instantanea = competencia ? actual.getParticipantesYPuntos() : conCerrojo;
+        long total = 0;
+        for (int puntos : instantanea.values()) {
+            total += puntos;
+        }
+        boolean correcto = total == sumas;
+        if (informar) {
+            System.out.printf("%4d  %-16s %8.2f%s%n", hilos, competencia ? "Competencia" : "HashMap+cerrojo",
+                    sumas * 1e3 / duracionNanos, correcto ? "" : "  FALLO: " + (sumas - total) + " sumas perdidas");
+        } else if (!correcto) {
+            System.out.println("FALLO en el calentamiento: " + (sumas - total) + " sumas perdidas");
+        }
+        return correcto;
+    }
+
+    private static boolean comprobar(String descripcion, long esperado, long obtenido) {
+        boolean correcto = esperado == obtenido;
+        System.out.printf("  %-24s esperado %10d, obtenido %10d  %s%n", descripcion, esperado, obtenido,
+                correcto ? "OK" : "FALLO");
+        return correcto;
+    }
+
+    /**
+     * Elimina el usuario de pruebas y los puntos diarios que se le anotaron.
+     */
+    private static void eliminarUsuario() throws Exception {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            sesion.iniciarTransaccion();
+            for (String sql : new String[]{"DELETE FROM PuntosDiarios WHERE usuarioId = ?",
+                    "DELETE FROM Usuarios WHERE id = ?"}) {
+                try {
+                    PreparedStatement stmt = sesion.preparar(sql);
+                    stmt.setString(1, USUARIO_CONCURRENCIA);
+                    stmt.executeUpdate();
+                } catch (java.sql.SQLSyntaxErrorException ex) {
+                    // PuntosDiarios aún no existe si nunca se han otorgado puntos
+                }
+            }
+            sesion.confirmar();
+        }
+    }
+}
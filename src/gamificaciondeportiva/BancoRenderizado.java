@@ -0,0 +1,521 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+
+/**
+ * La clase BancoRenderizado mide el coste de construir y pintar las ventanas de la aplicación sin pantalla física.
+ * <p>
+ * Todo se pinta en una {@link BufferedImage} en memoria. Tiene estos modos, según el primer argumento:
+ * <ul>
+ *   <li>{@code tabla} (por defecto): rellena la tabla de logros con N filas y la recorre entera, pintando el área
+ *   visible en cada posición de desplazamiento. Compara el {@link RenderizadorProgreso} compartido con la versión
+ *   anterior, que guardaba un {@link JProgressBar} por fila. No necesita base de datos y funciona en modo headless.</li>
+ *   <li>{@code sembrar N}: crea en la base de datos un usuario de pruebas ({@value #USUARIO_BANCO}) con N actividades,
+ *   N logros, N desafíos y N/10 competencias. {@code limpiar} los elimina.</li>
+ *   <li>{@code ventanas [usuario] [repeticiones]}: construye {@link PantallaInicio}, {@link Graficos} (abriendo cada
+ *   pestaña), {@link FormularioEditarPerfil} y {@link GraficosAdmin} con los datos del usuario, fuerza su distribución y
+ *   las pinta. Informa por ventana del tiempo de construcción, distribución y pintado y de la memoria asignada en el
+ *   hilo de Swing.</li>
+ *   <li>{@code ventanas-memoria [filas] [repeticiones]}: mide las mismas ventanas sin base de datos. El usuario, el
+ *   {@link SistemaGamificacion} y las filas de cada tabla se crean en memoria, y la URL de la base de datos apunta a
+ *   un destino inexistente para que las cargas en segundo plano de las ventanas fallen al instante en vez de salir a
+ *   la red. Es el modo que se ejecuta en integración continua.</li>
+ * </ul>
+ * Los modos {@code sembrar}, {@code limpiar} y {@code ventanas} usan la base de datos indicada con
+ * {@code -Dgamificacion.db.url} (y {@code .usuario}, {@code .contrasena}); {@code sembrar} y {@code limpiar} se niegan
+ * a ejecutarse contra la base de datos de producción.
+ * <p>
+ * Las ventanas de Swing necesitan un servidor gráfico aunque no se muestren. En un equipo Linux sin pantalla se usa
+ * un servidor virtual:
+ * <pre>
+ * java -Djava.awt.headless=true -cp ... gamificaciondeportiva.BancoRenderizado tabla
+ * xvfb-run -a java -Dgamificacion.db.url=jdbc:mysql://localhost/gamificacion_banco -cp ... \
+ *     gamificaciondeportiva.BancoRenderizado ventanas
+ * xvfb-run -a java -cp ... gamificaciondeportiva.BancoRenderizado ventanas-memoria 1000
+ * </pre>
+ */
+public final class BancoRenderizado {
+    private static final int ANCHO = 900;
+    private static final int ALTO = 600;
+    private static final int ALTO_FILA = 30;
+    private static final int[] FILAS = {100, 1_000, 10_000, 50_000};
+
+    /**
+     * ID del usuario de pruebas que crean {@code sembrar} y {@code limpiar}.
+     */
+    static final String USUARIO_BANCO = "banco_usuario";
+    private static final String PREFIJO_BANCO = "Banco ";
+    /**
+     * URL que ningún controlador acepta: {@code DriverManager} la rechaza sin abrir conexiones.
+     */
+    private static final String URL_MEMORIA = "jdbc:banco-memoria:";
+
+    private BancoRenderizado() {
+    }
+
+    /**
+     * Ejecuta las mediciones e imprime los resultados.
+     *
+     * @param args El modo ({@code tabla}, {@code sembrar N}, {@code limpiar}, {@code ventanas [usuario]
+     *             [repeticiones]} o {@code ventanas-memoria [filas] [repeticiones]}) y sus parámetros.
+     */
+    public static void main(String[] args) throws Exception {
+        String modo = args.length > 0 ? args[0] : "tabla";
+        switch (modo) {
+            case "tabla" -> SwingUtilities.invokeAndWait(BancoRenderizado::medirTablas);
+            case "sembrar" -> sembrar(args.length > 1 ? Integer.parseInt(args[1]) : 1000);
+            case "limpiar" -> limpiar();
+            case "ventanas" -> medirVentanas(args.length > 1 ? args[1] : USUARIO_BANCO,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 5);
+            case "ventanas-memoria" -> medirVentanasEnMemoria(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 5);
+            default -> {
+                System.out.println("Modo desconocido: " + modo
+                        + ". Use tabla, sembrar N, limpiar, ventanas o ventanas-memoria.");
+                System.exit(2);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void medirTablas() {
+        System.out.println("Tabla de logros: filas, variante, llenado ms, llenado KB, ms/cuadro al desplazarse");
+        // Primera pasada para calentar el JIT; no se informa
+        medirTablaLogros(FILAS[1], true, false);
+        medirTablaLogros(FILAS[1], false, false);
+        for (int filas : FILAS) {
+            medirTablaLogros(filas, true, true);
+            medirTablaLogros(filas, false, true);
+        }
+    }
+
+    private static void medirTablaLogros(int filas, boolean compartido, boolean informar) {
+        DefaultTableModel modelo = new DefaultTableModel(
+                new String[]{"Nombre", "Descripción", "Puntos", "Estado", "Progreso"}, 0);
+
+        long bytesAntes = bytesAsignados();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < filas; i++) {
+            int progreso = (i * 37) % 101;
+            Object celdaProgreso;
+            if (compartido) {
+                celdaProgreso = progreso;
+            } else {
+                JProgressBar barra = new JProgressBar(0, 100);
+                barra.setValue(progreso);
+                barra.setStringPainted(true);
+                barra.setString(progreso + "%");
+                celdaProgreso = barra;
+            }
+            modelo.addRow(new Object[]{"Logro " + i, "Descripción del logro " + i, 100, progreso == 100
+                    ? "Completado" : "Pendiente", celdaProgreso});
+        }
+        long llenadoNanos = System.nanoTime() - inicio;
+        long llenadoBytes = bytesAsignados() - bytesAntes;
+
+        JTable tabla = new JTable(modelo);
+        tabla.setRowHeight(ALTO_FILA);
+        tabla.getColumnModel().getColumn(4).setCellRenderer(compartido ? new RenderizadorProgreso()
+                : (TableCellRenderer) (t, valor, seleccionada, foco, fila, columna) -> (Component) valor);
+        JScrollPane scroll = new JScrollPane(tabla);
+        scroll.setSize(ANCHO, ALTO);
+        scroll.doLayout();
+        scroll.getViewport().doLayout();
+        tabla.doLayout();
+
+        BufferedImage imagen = new BufferedImage(ANCHO, ALTO, BufferedImage.TYPE_INT_ARGB);
+        int altoVisible = scroll.getViewport().getHeight();
+        int alturaTotal = filas * ALTO_FILA;
+        int cuadros = 0;
+        inicio = System.nanoTime();
+        for (int y = 0; y + altoVisible <= alturaTotal || cuadros == 0; y += altoVisible / 2) {
+            scroll.getViewport().setViewPosition(new Point(0, Math.min(y, Math.max(0, alturaTotal - altoVisible))));
+            Graphics2D g = imagen.createGraphics();
+            scroll.paint(g);
+            g.dispose();
+            cuadros++;
+        }
+        long pintadoNanos = System.nanoTime() - inicio;
+
+        if (informar) {
+            System.out.printf("%7d  %-12s %9.1f %10d %9.3f%n", filas, compartido ? "compartido" : "JProgressBar",
+                    llenadoNanos / 1e6, llenadoBytes / 1024, pintadoNanos / 1e6 / cuadros);
+        }
+    }
+
+    /**
+     * Construye, distribuye y pinta cada ventana varias veces y muestra la media de las repeticiones, descartando la
+     * primera (calentamiento del JIT y carga de clases).
+     */
+    private static void medirVentanas(String usuarioId, int repeticiones) throws Exception {
+        exigirServidorGrafico("ventanas");
+
+        Usuario usuario = new Usuario(usuarioId, null);
+        SistemaGamificacion sistema = new SistemaGamificacion();
+        sistema.sembrarCatalogo();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            if (!MainGamificacionDeportiva.recargarUsuario(sesion, usuario)) {
+                System.out.println("El usuario " + usuarioId + " no existe. Ejecute primero el modo sembrar.");
+                System.exit(2);
+            }
+            CargaDatos.cargarDatosRelacionados(sesion, sistema, usuario);
+        }
+        Configuracion.setUsuarioActual(usuario);
+        medirVentanas("usuario " + usuarioId, usuario, sistema, repeticiones, 0);
+    }
+
+    /**
+     * Mide las ventanas con un usuario, un catálogo y unas tablas de {@code filas} elementos creados en memoria, sin
+     * abrir ninguna conexión a la base de datos.
+     */
+    private static void medirVentanasEnMemoria(int filas, int repeticiones) throws Exception {
+        // Antes de cargar Configuracion: DB_URL se lee una sola vez, al inicializar la clase
+        System.setProperty("gamificacion.db.url", URL_MEMORIA);
+        if (!URL_MEMORIA.equals(Configuracion.DB_URL)) {
+            System.out.println("La configuración ya estaba cargada; no se puede aislar la base de datos.");
+            System.exit(2);
+        }
+        exigirServidorGrafico("ventanas-memoria");
+
+        Usuario usuario = new Usuario(USUARIO_BANCO, PREFIJO_BANCO + "usuario");
+        usuario.setNivel(1 + filas / 10);
+        usuario.setPuntosTotales(filas * 10);
+        usuario.setExperiencia(filas * 100);
+        SistemaGamificacion sistema = new SistemaGamificacion();
+        ActividadDeportiva.TipoDeporte[] tipos = ActividadDeportiva.TipoDeporte.values();
+        java.time.LocalDate hoy = java.time.LocalDate.now();
+        for (int i = 0; i < filas; i++) {
+            sistema.getLogrosDisponibles().add(new Logro("banco_" + i, PREFIJO_BANCO + "logro " + i,
+                    "Logro de pruebas " + i, 10 + i % 100, Logro.TipoLogro.DIARIO));
+            sistema.getDesafiosActivos().add(new Desafio("banco_" + i, PREFIJO_BANCO + "desafío " + i,
+                    "Desafío de pruebas " + i, 10 + i % 100, hoy.minusDays(7), hoy.plusDays(7 + i % 30)));
+            if (i % 10 == 0) {
+                sistema.getCompetencias().add(new Competencia("banco_" + i, PREFIJO_BANCO + "competencia " + i,
+                        tipos[i % tipos.length], hoy.minusDays(1), hoy.plusDays(30)));
+            }
+        }
+        sistema.getUsuarios().add(usuario);
+        Configuracion.setUsuarioActual(usuario);
+
+        // Las cargas en segundo plano de las ventanas fallan sin base de datos; sus trazas no aportan nada aquí
+        java.io.PrintStream errores = System.err;
+        System.setErr(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+        try {
+            medirVentanas(filas + " filas en memoria", usuario, sistema, repeticiones, filas);
+        } finally {
+            System.setErr(errores);
+        }
+    }
+
+    private static void medirVentanas(String descripcion, Usuario usuario, SistemaGamificacion sistema,
+                                      int repeticiones, int filasPrueba) throws Exception {
+        Medicion[] mediciones = {
+                new Medicion("PantallaInicio", PantallaInicio::new, filasPrueba),
+                new Medicion("Graficos", () -> new Graficos(sistema, usuario), filasPrueba),
+                new Medicion("FormularioEditarPerfil", () -> new FormularioEditarPerfil(null, usuario, sistema),
+                        filasPrueba),
+                new Medicion("GraficosAdmin", () -> new GraficosAdmin(sistema, usuario), filasPrueba),
+        };
+        for (int i = 0; i <= repeticiones; i++) {
+            boolean informar = i > 0;
+            for (Medicion medicion : mediciones) {
+                SwingUtilities.invokeAndWait(() -> medicion.ejecutar(informar));
+            }
+        }
+
+        System.out.printf("Ventanas (%s, media de %d repeticiones):%n", descripcion, repeticiones);
+        System.out.println("ventana / pestaña                      construir ms  distribuir ms  pintar ms  asignado KB");
+        for (Medicion medicion : mediciones) {
+            medicion.informar(repeticiones);
+        }
+    }
+
+    private static void exigirServidorGrafico(String modo) {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println("El modo " + modo + " necesita un servidor gráfico. En Linux sin pantalla, ejecútelo "
+                    + "con xvfb-run -a java ... gamificaciondeportiva.BancoRenderizado " + modo);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Mide una ventana: su construcción, distribución y pintado y, si tiene pestañas, lo mismo al abrir cada una.
+     * Con {@code filasPrueba > 0}, el llenado de las tablas vacías cuenta como parte de la construcción.
+     */
+    private static final class Medicion {
+        private final String nombre;
+        private final java.util.function.Supplier<Window> fabrica;
+        private final int filasPrueba;
+        private final java.util.Map<String, long[]> acumulados = new java.util.LinkedHashMap<>();
+
+        Medicion(String nombre, java.util.function.Supplier<Window> fabrica, int filasPrueba) {
+            this.nombre = nombre;
+            this.fabrica = fabrica;
+            this.filasPrueba = filasPrueba;
+        }
+
+        void ejecutar(boolean informar) {
+            long bytes = bytesAsignados();
+            long inicio = System.nanoTime();
+            Window ventana = fabrica.get();
+            rellenarTablas(ventana, filasPrueba);
+            long construir = System.nanoTime() - inicio;
+            bytes = bytesAsignados() - bytes;
+            long[] fases = distribuirYPintar(ventana);
+            if (informar) {
+                sumar(nombre, construir, fases[0], fases[1], bytes);
+            }
+
+            JTabbedPane pestanas = buscarPestanas(ventana);
+            if (pestanas != null) {
+                for (int i = 1; i < pestanas.getTabCount(); i++) {
+                    long bytesPestana = bytesAsignados();
+                    inicio = System.nanoTime();
+                    pestanas.setSelectedIndex(i); // Construye la pestaña diferida
+                    rellenarTablas(ventana, filasPrueba);
+                    long construirPestana = System.nanoTime() - inicio;
+                    bytesPestana = bytesAsignados() - bytesPestana;
+                    long[] fasesPestana = distribuirYPintar(ventana);
+                    if (informar) {
+                        sumar(nombre + " / " + pestanas.getTitleAt(i), construirPestana, fasesPestana[0],
+                                fasesPestana[1], bytesPestana);
+                    }
+                }
+            }
+            ventana.dispose();
+        }
+
+        private void sumar(String clave, long construir, long distribuir, long pintar, long bytes) {
+            long[] total = acumulados.computeIfAbsent(clave, k -> new long[4]);
+            total[0] += construir;
+            total[1] += distribuir;
+            total[2] += pintar;
+            total[3] += bytes;
+        }
+
+        void informar(int repeticiones) {
+            for (java.util.Map.Entry<String, long[]> fila : acumulados.entrySet()) {
+                long[] t = fila.getValue();
+                System.out.printf("%-38s %12.1f %14.1f %10.1f %12d%n", fila.getKey(), t[0] / 1e6 / repeticiones,
+                        t[1] / 1e6 / repeticiones, t[2] / 1e6 / repeticiones, t[3] / 1024 / repeticiones);
+            }
+        }
+    }
+
+    /**
+     * Distribuye la ventana sin mostrarla y la pinta en una imagen en memoria.
+     *
+     * @return Los nanosegundos de distribución y de pintado.
+     */
+    private static long[] distribuirYPintar(Window ventana) {
+        long inicio = System.nanoTime();
+        ventana.addNotify();
+        if (ventana.getWidth() == 0 || ventana.getHeight() == 0) {
+            ventana.pack();
+        }
+        ventana.validate();
+        long distribuir = System.nanoTime() - inicio;
+
+        BufferedImage imagen = new BufferedImage(Math.max(1, ventana.getWidth()), Math.max(1, ventana.getHeight()),
+                BufferedImage.TYPE_INT_ARGB);
+        inicio = System.nanoTime();
+        Graphics2D g = imagen.createGraphics();
+        if (ventana instanceof RootPaneContainer contenedor) {
+            contenedor.getRootPane().paint(g);
+        } else {
+            ventana.paint(g);
+        }
+        g.dispose();
+        return new long[]{distribuir, System.nanoTime() - inicio};
+    }
+
+    /**
+     * Añade {@code filas} filas de prueba a cada tabla vacía del contenedor, con valores elegidos según el título de
+     * la columna para que los renderizadores y ordenadores reciban el tipo que esperan.
+     */
+    private static void rellenarTablas(Container contenedor, int filas) {
+        if (filas <= 0) {
+            return;
+        }
+        for (Component hijo : contenedor.getComponents()) {
+            if (hijo instanceof JTable tabla && tabla.getModel() instanceof DefaultTableModel modelo
+                    && modelo.getRowCount() == 0) {
+                Object[] fila = new Object[modelo.getColumnCount()];
+                for (int i = 0; i < filas; i++) {
+                    for (int c = 0; c < fila.length; c++) {
+                        fila[c] = valorDePrueba(modelo.getColumnName(c), i);
+                    }
+                    modelo.addRow(fila);
+                }
+            } else if (hijo instanceof Container subcontenedor) {
+                rellenarTablas(subcontenedor, filas);
+            }
+        }
+    }
+
+    private static Object valorDePrueba(String columna, int i) {
+        ActividadDeportiva.TipoDeporte[] tipos = ActividadDeportiva.TipoDeporte.values();
+        return switch (columna) {
+            case "Progreso" -> (i * 37) % 101;
+            case "Puntos", "Puntuación", "Posición", "Calorías" -> i + 1;
+            case "Estado" -> i % 3 == 0 ? "Completado" : "Pendiente";
+            case "Deporte", "Tipo" -> tipos[i % tipos.length].name();
+            case "Fecha", "Fecha Inicio", "Fecha Fin" -> java.time.LocalDate.now().minusDays(i % 365).toString();
+            case "Duración" -> (20 + i % 90) + " min";
+            case "Distancia" -> (i % 20) / 2.0 + " km";
+            case "ID", "ID (Oculto)" -> "banco_" + i;
+            default -> columna + " " + i;
+        };
+    }
+
+    private static JTabbedPane buscarPestanas(Container contenedor) {
+        for (Component hijo : contenedor.getComponents()) {
+            if (hijo instanceof JTabbedPane pestanas) {
+                return pestanas;
+            }
+            if (hijo instanceof Container subcontenedor) {
+                JTabbedPane encontrado = buscarPestanas(subcontenedor);
+                if (encontrado != null) {
+                    return encontrado;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Crea el usuario de pruebas con {@code cantidad} actividades, logros y desafíos y {@code cantidad / 10}
+     * competencias, en lotes.
+     */
+    private static void sembrar(int cantidad) throws Exception {
+        exigirBaseDeDatosAlternativa();
+        limpiar();
+        long inicio = System.nanoTime();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            sesion.iniciarTransaccion();
+            PreparedStatement usuario = sesion.preparar("INSERT INTO Usuarios (id, nombre, nivel, puntosTotales, "
+                    + "experiencia, contrasena, esAdmin) VALUES (?, ?, ?, ?, ?, ?, ?)");
+            usuario.setString(1, USUARIO_BANCO);
+            usuario.setString(2, PREFIJO_BANCO + "usuario");
+            usuario.setInt(3, 1 + cantidad / 10);
+            usuario.setInt(4, cantidad * 10);
+            usuario.setInt(5, cantidad * 100);
+            usuario.setString(6, "-");
+            usuario.setBoolean(7, false);
+            usuario.executeUpdate();
+
+            ActividadDeportiva.TipoDeporte[] tipos = ActividadDeportiva.TipoDeporte.values();
+            PreparedStatement actividad = sesion.preparar("INSERT INTO Actividades (id, usuarioId, tipo, "
+                    + "duracionMinutos, distanciaKm, fecha, hora, caloriasQuemadas, esCompetencia) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            PreparedStatement logro = sesion.preparar(
+                    "INSERT INTO Logros (nombre, descripcion, puntosRecompensa, tipo, objetivo) VALUES (?, ?, ?, ?, ?)");
+            PreparedStatement desafio = sesion.preparar("INSERT INTO Desafios (nombre, descripcion, "
+                    + "puntosRecompensa, estado, fechaInicio, fechaFin) VALUES (?, ?, ?, 'ACTIVO', ?, ?)");
+            PreparedStatement competencia = sesion.preparar("INSERT INTO Competencias (id, nombre, tipoDeporte, "
+                    + "fechaInicio, fechaFin, estado) VALUES (?, ?, ?, ?, ?, 'EN_PROGRESO')");
+            java.time.LocalDate hoy = java.time.LocalDate.now();
+            for (int i = 0; i < cantidad; i++) {
+                ActividadDeportiva.TipoDeporte tipo = tipos[i % tipos.length];
+                int minutos = 20 + i % 90;
+                double km = (i % 20) / 2.0;
+                actividad.setString(1, "banco_" + i);
+                actividad.setString(2, USUARIO_BANCO);
+                actividad.setString(3, tipo.name());
+                actividad.setInt(4, minutos);
+                actividad.setDouble(5, km);
+                actividad.setDate(6, java.sql.Date.valueOf(hoy.minusDays(i % 365)));
+                actividad.setTime(7, java.sql.Time.valueOf(java.time.LocalTime.of(7 + i % 12, i % 60)));
+                actividad.setInt(8, ModeloCalorias.calcular(tipo, minutos, km));
+                actividad.setBoolean(9, false);
+                actividad.addBatch();
+
+                logro.setString(1, PREFIJO_BANCO + "logro " + i);
+                logro.setString(2, "Logro de pruebas " + i);
+                logro.setInt(3, 10 + i % 100);
+                logro.setString(4, "DIARIO");
+                logro.setInt(5, 60 * (1 + i % 50));
+                logro.addBatch();
+
+                desafio.setString(1, PREFIJO_BANCO + "desafío " + i);
+                desafio.setString(2, "Desafío de pruebas " + i);
+                desafio.setInt(3, 10 + i % 100);
+                desafio.setDate(4, java.sql.Date.valueOf(hoy.minusDays(7)));
+                desafio.setDate(5, java.sql.Date.valueOf(hoy.plusDays(7 + i % 30)));
+                desafio.addBatch();
+
+                if (i % 10 == 0) {
+                    competencia.setString(1, "banco_" + i);
+                    competencia.setString(2, PREFIJO_BANCO + "competencia " + i);
+                    competencia.setString(3, tipo.name());
+                    competencia.setDate(4, java.sql.Date.valueOf(hoy.minusDays(1)));
+                    competencia.setDate(5, java.sql.Date.valueOf(hoy.plusDays(30)));
+                    competencia.addBatch();
+                }
+                if ((i + 1) % 1000 == 0 || i == cantidad - 1) {
+                    actividad.executeBatch();
+                    logro.executeBatch();
+                    desafio.executeBatch();
+                    competencia.executeBatch();
+                }
+            }
+            sesion.confirmar();
+        }
+        System.out.printf("Datos de pruebas creados (%d filas por tabla) en %d ms.%n", cantidad,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Elimina el usuario de pruebas y todas las filas creadas por {@code sembrar}.
+     */
+    private static void limpiar() throws Exception {
+        exigirBaseDeDatosAlternativa();
+        String[] sentencias = {
+                "DELETE FROM LogrosCompletados WHERE usuarioId = ?",
+                "DELETE FROM DesafiosCompletados WHERE usuarioId = ?",
+                "DELETE FROM CompetenciasPuntuaciones WHERE usuarioId = ?",
+                "DELETE FROM CompetenciasParticipacion WHERE usuarioId = ?",
+                "DELETE FROM Actividades WHERE usuarioId = ?",
+                "DELETE FROM Usuarios WHERE id = ?",
+        };
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            sesion.iniciarTransaccion();
+            for (String sql : sentencias) {
+                PreparedStatement stmt = sesion.preparar(sql);
+                stmt.setString(1, USUARIO_BANCO);
+                stmt.executeUpdate();
+            }
+            for (String tabla : new String[]{"Logros", "Desafios", "Competencias"}) {
+                PreparedStatement stmt = sesion.preparar("DELETE FROM " + tabla + " WHERE nombre LIKE ?");
+                stmt.setString(1, PREFIJO_BANCO + "%");
+                stmt.executeUpdate();
+            }
+            sesion.confirmar();
+        }
+    }
+
+    static void exigirBaseDeDatosAlternativa() {
+        if (!Configuracion.usaBaseDeDatosAlternativa()) {
+            System.out.println("Indique una base de datos de pruebas con -Dgamificacion.db.url; "
+                    + "no se modifican datos en la base de datos de producción.");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Bytes asignados por el hilo actual, o 0 si la JVM no lo permite medir.
+     */
+    static long bytesAsignados() {
+        java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (hilos instanceof com.sun.management.ThreadMXBean medidor && medidor.isThreadAllocatedMemorySupported()) {
+            return medidor.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
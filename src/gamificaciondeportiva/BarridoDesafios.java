@@ -0,0 +1,146 @@
+package gamificaciondeportiva;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * La clase BarridoDesafios recalcula en la base de datos el estado de los desafíos a partir de sus fechas.
+ * <p>
+ * El estado se calcula con una sola sentencia UPDATE y una expresión CASE:
+ * <ul>
+ *   <li>PENDIENTE si la fecha de inicio aún no llega.</li>
+ *   <li>EXPIRADO si la fecha de fin ya pasó.</li>
+ *   <li>ACTIVO en otro caso.</li>
+ * </ul>
+ * Los desafíos COMPLETADO no se modifican.
+ * <p>
+ * Cada barrido guarda en la tabla BarridosEstado la fecha en que se ejecutó (la marca de agua). El siguiente barrido
+ * solo revisa las filas cuyo inicio o fin cae entre esa fecha y hoy, que son las únicas que pueden haber cambiado de
+ * estado. Si ya se barrió hoy, el coste es una lectura de una fila, así que puede ejecutarse cada minuto aunque la
+ * tabla sea grande. Conviene que Desafios tenga índices sobre fechaInicio y fechaFin.
+ * <p>
+ * Con esto el estado guardado en Desafios.estado es fiable y las lecturas no necesitan recalcularlo por fila.
+ */
+public final class BarridoDesafios {
+    private static final String TABLA = "Desafios";
+
+    private static final String ESTADO_SEGUN_FECHAS = "CASE WHEN CURDATE() < fechaInicio THEN 'PENDIENTE' "
+            + "WHEN CURDATE() > fechaFin THEN 'EXPIRADO' ELSE 'ACTIVO' END";
+
+    private static final String ACTUALIZAR = "UPDATE Desafios SET estado = " + ESTADO_SEGUN_FECHAS
+            + " WHERE estado <> 'COMPLETADO' AND estado <> " + ESTADO_SEGUN_FECHAS;
+
+    private static final String VENTANA = " AND ((fechaInicio > ? AND fechaInicio <= CURDATE()) "
+            + "OR (fechaFin >= ? AND fechaFin < CURDATE()))";
+
+    private static volatile boolean tablaVerificada;
+
+    private BarridoDesafios() {
+    }
+
+    /**
+     * Aplica el barrido incremental desde la última marca de agua. Si no hay marca, revisa la tabla completa.
+     * <p>
+     * Si la sesión no tiene una transacción abierta, el barrido y la nueva marca se confirman juntos.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return El número de desafíos que cambiaron de estado.
+     * @throws SQLException Si ocurre un error al actualizar.
+     */
+    public static int barrer(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarTabla(sesion);
+        boolean transaccionPropia = !sesion.enTransaccion();
+        if (transaccionPropia) {
+            sesion.iniciarTransaccion();
+        }
+
+        // FOR UPDATE serializa dos barridos simultáneos sobre la misma marca
+        PreparedStatement marca = sesion.preparar(
+                "SELECT fechaBarrido, fechaBarrido >= CURDATE() FROM BarridosEstado WHERE tabla = ? FOR UPDATE");
+        marca.setString(1, TABLA);
+        Date ultimaFecha = null;
+        boolean alDia = false;
+        try (ResultSet rs = marca.executeQuery()) {
+            if (rs.next()) {
+                ultimaFecha = rs.getDate(1);
+                alDia = rs.getBoolean(2);
+            }
+        }
+
+        int cambios = 0;
+        if (!alDia) {
+            PreparedStatement stmt;
+            if (ultimaFecha == null) {
+                stmt = sesion.preparar(ACTUALIZAR);
+            } else {
+                stmt = sesion.preparar(ACTUALIZAR + VENTANA);
+                stmt.setDate(1, ultimaFecha);
+                stmt.setDate(2, ultimaFecha);
+            }
+            cambios = stmt.executeUpdate();
+
+            PreparedStatement guardar = sesion.preparar(
+                    "INSERT INTO BarridosEstado (tabla, fechaBarrido, ejecutadoEn) VALUES (?, CURDATE(), NOW()) "
+                            + "ON DUPLICATE KEY UPDATE fechaBarrido = CURDATE(), ejecutadoEn = NOW()");
+            guardar.setString(1, TABLA);
+            guardar.executeUpdate();
+        }
+
+        if (transaccionPropia) {
+            sesion.confirmar();
+        }
+        invalidarCatalogo(cambios);
+        return cambios;
+    }
+
+    /**
+     * Recalcula el estado de un único desafío, por ejemplo después de editar sus fechas.
+     *
+     * @param sesion    La sesión de acceso a la base de datos.
+     * @param desafioId El ID del desafío.
+     * @return 1 si el estado cambió, 0 en caso contrario.
+     * @throws SQLException Si ocurre un error al actualizar.
+     */
+    public static int barrer(AccesoDatos.Sesion sesion, String desafioId) throws SQLException {
+        PreparedStatement stmt = sesion.preparar(ACTUALIZAR + " AND id = ?");
+        stmt.setString(1, desafioId);
+        return invalidarCatalogo(stmt.executeUpdate());
+    }
+
+    /**
+     * Recalcula el estado de todos los desafíos, sin tener en cuenta la marca de agua.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return El número de desafíos que cambiaron de estado.
+     * @throws SQLException Si ocurre un error al actualizar.
+     */
+    public static int barrerCompleto(AccesoDatos.Sesion sesion) throws SQLException {
+        return invalidarCatalogo(sesion.preparar(ACTUALIZAR).executeUpdate());
+    }
+
+    /**
+     * Hace que {@link IndiceCatalogo#DESAFIOS} vuelva a leer los estados si el barrido cambió alguno.
+     */
+    private static int invalidarCatalogo(int cambios) {
+        if (cambios > 0) {
+            IndiceCatalogo.DESAFIOS.invalidar();
+        }
+        return cambios;
+    }
+
+    private static void asegurarTabla(AccesoDatos.Sesion sesion) throws SQLException {
+        if (tablaVerificada) {
+            return;
+        }
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS BarridosEstado ("
+                    + "tabla VARCHAR(64) PRIMARY KEY, "
+                    + "fechaBarrido DATE NOT NULL, "
+                    + "ejecutadoEn TIMESTAMP NOT NULL)");
+        }
+        tablaVerificada = true;
+    }
+}
@@ -0,0 +1,191 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * La clase BusEventos distribuye los {@link EventoDominio} a todos los suscriptores interesados.
+ * <p>
+ * La publicación no bloquea: los eventos se entregan en orden desde un único hilo en segundo plano, de modo que
+ * quien publica (por ejemplo, una unidad de trabajo recién confirmada) no espera a que se actualice la interfaz.
+ * <p>
+ * Para la interfaz gráfica existe {@link #suscribirEnInterfaz(Consumer, Class[])}, que agrupa los eventos que llegan
+ * en ráfaga y ejecuta el refresco una sola vez por cuadro (unos 16 ms) en el hilo de Swing. Así una operación que
+ * otorga puntos, desbloquea varios logros y completa un desafío produce un único refresco de cada tabla.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * BusEventos.Suscripcion suscripcion = BusEventos.suscribirEnInterfaz(eventos -> actualizarLogrosTabla(),
+ *         EventoDominio.LogroDesbloqueado.class);
+ * ...
+ * suscripcion.cancelar();
+ * }
+ * </pre>
+ */
+public final class BusEventos {
+    /**
+     * Intervalo de agrupación de los refrescos de interfaz, aproximadamente un cuadro a 60 Hz.
+     */
+    private static final int INTERVALO_CUADRO_MS = 16;
+
+    private static final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    private static final ExecutorService entrega = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "bus-eventos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private BusEventos() {
+    }
+
+    /**
+     * Publica un evento. Los suscriptores lo reciben de forma asíncrona, en el orden de publicación.
+     *
+     * @param evento El evento a publicar.
+     */
+    public static void publicar(EventoDominio evento) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        entrega.execute(() -> {
+            for (Suscriptor suscriptor : suscriptores) {
+                if (suscriptor.acepta(evento)) {
+                    try {
+                        suscriptor.recibir(evento);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Suscribe un receptor a los eventos de un tipo. El receptor se ejecuta en el hilo del bus.
+     *
+     * @param tipo     La clase de evento a recibir.
+     * @param receptor El receptor de los eventos.
+     * @param <E>      El tipo de evento.
+     * @return La suscripción, que permite cancelarla.
+     */
+    public static <E extends EventoDominio> Suscripcion suscribir(Class<E> tipo, Consumer<? super E> receptor) {
+        Suscriptor suscriptor = new Suscriptor(List.of(tipo)) {
+            @Override
+            void recibir(EventoDominio evento) {
+                receptor.accept(tipo.cast(evento));
+            }
+        };
+        suscriptores.add(suscriptor);
+        return suscriptor;
+    }
+
+    /**
+     * Suscribe un refresco de interfaz a uno o varios tipos de evento.
+     * <p>
+     * Los eventos que llegan antes de que se ejecute el refresco se acumulan y se entregan juntos, en el hilo de
+     * Swing, como máximo una vez por cuadro.
+     *
+     * @param refresco El refresco a ejecutar con los eventos acumulados, en orden de llegada.
+     * @param tipos    Las clases de evento que provocan el refresco.
+     * @return La suscripción, que permite cancelarla.
+     */
+    @SafeVarargs
+    public static Suscripcion suscribirEnInterfaz(Consumer<List<EventoDominio>> refresco,
+                                                  Class<? extends EventoDominio>... tipos) {
+        // Se copia el arreglo de argumentos para no conservar una referencia a él
+        List<Class<?>> copia = new ArrayList<>(tipos.length);
+        for (Class<? extends EventoDominio> tipo : tipos) {
+            copia.add(tipo);
+        }
+        SuscriptorAgrupado suscriptor = new SuscriptorAgrupado(copia, refresco);
+        suscriptores.add(suscriptor);
+        return suscriptor;
+    }
+
+    /**
+     * Suscripción activa al bus.
+     */
+    public interface Suscripcion {
+        /**
+         * Deja de recibir eventos.
+         */
+        void cancelar();
+    }
+
+    private abstract static class Suscriptor implements Suscripcion {
+        private final List<? extends Class<?>> tipos;
+
+        Suscriptor(List<? extends Class<?>> tipos) {
+            this.tipos = tipos;
+        }
+
+        boolean acepta(EventoDominio evento) {
+            for (Class<?> tipo : tipos) {
+                if (tipo.isInstance(evento)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        abstract void recibir(EventoDominio evento);
+
+        @Override
+        public void cancelar() {
+            suscriptores.remove(this);
+        }
+    }
+
+    /**
+     * Suscriptor que acumula eventos y los entrega en el hilo de Swing mediante un temporizador de un solo disparo.
+     */
+    private static final class SuscriptorAgrupado extends Suscriptor {
+        private final Consumer<List<EventoDominio>> refresco;
+        private final Timer temporizador;
+        private List<EventoDominio> pendientes = new ArrayList<>();
+
+        SuscriptorAgrupado(List<? extends Class<?>> tipos, Consumer<List<EventoDominio>> refresco) {
+            super(tipos);
+            this.refresco = refresco;
+            this.temporizador = new Timer(INTERVALO_CUADRO_MS, e -> entregar());
+            this.temporizador.setRepeats(false);
+        }
+
+        @Override
+        void recibir(EventoDominio evento) {
+            boolean programar;
+            synchronized (this) {
+                programar = pendientes.isEmpty();
+                pendientes.add(evento);
+            }
+            // Solo el primer evento de la ráfaga programa el refresco; los demás se suman a la lista pendiente
+            if (programar) {
+                temporizador.start();
+            }
+        }
+
+        private void entregar() {
+            List<EventoDominio> eventos;
+            synchronized (this) {
+                eventos = pendientes;
+                pendientes = new ArrayList<>();
+            }
+            if (!eventos.isEmpty()) {
+                refresco.accept(eventos);
+            }
+        }
+
+        @Override
+        public void cancelar() {
+            super.cancelar();
+            SwingUtilities.invokeLater(temporizador::stop);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package gamificaciondeportiva;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
@@ -15,26 +13,25 @@ public class CargaDatos {
     /**
      * Carga los datos relacionados de un usuario en el sistema de gamificación.
      *
-     * @param conn    Conexión a la base de datos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @param sistema Sistema de gamificación.
      * @param usuario Usuario cuyos datos se van a cargar.
      * @throws Exception Si ocurre un error durante la carga de datos.
      */
-    public static void cargarDatosRelacionados(Connection conn, SistemaGamificacion sistema, Usuario usuario) throws Exception {
-        cargarLogros(conn, sistema, usuario);
-        cargarDesafios(conn, sistema, usuario);
-        cargarCompetencias(conn, sistema, usuario); // Pasa el usuario como parámetro
-        cargarActividades(conn, sistema, usuario);
+    public static void cargarDatosRelacionados(AccesoDatos.Sesion sesion, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+        cargarLogros(sesion, sistema, usuario);
+        cargarDesafios(sesion, sistema, usuario);
+        cargarCompetencias(sesion, sistema, usuario); // Pasa el usuario como parámetro
+        cargarActividades(sesion, sistema, usuario);
         // Al cargar los datos del usuario desde la base de datos
-        try (Connection conn1 = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER, Configuracion.DB_PASSWORD)) {
-
+        try {
             String query = "SELECT fotoPerfil FROM Usuarios WHERE id = ?";
-            PreparedStatement stmt = conn1.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                usuario.setFotoPerfil(rs.getBytes("fotoPerfil"));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    usuario.setFotoPerfil(rs.getBytes("fotoPerfil"));
+                }
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -45,14 +42,14 @@ public class CargaDatos {
     /**
      * Carga los logros de un usuario en el sistema de gamificación.
      *
-     * @param conn    Conexión a la base de datos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @param sistema Sistema de gamificación.
      * @param usuario Usuario cuyos logros se van a cargar.
      * @throws Exception Si ocurre un error durante la carga de logros.
      */
-    public static void cargarLogros(Connection conn, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+    public static void cargarLogros(AccesoDatos.Sesion sesion, SistemaGamificacion sistema, Usuario usuario) throws Exception {
         String logrosQuery = "SELECT l.*, " + "CASE WHEN lc.usuarioId IS NOT NULL THEN TRUE ELSE FALSE END AS completado, " + "lc.fechaCumplimiento " + "FROM Logros l " + "LEFT JOIN LogrosCompletados lc ON l.id = lc.logroId AND lc.usuarioId = ?";
-        PreparedStatement stmt = conn.prepareStatement(logrosQuery);
+        PreparedStatement stmt = sesion.preparar(logrosQuery);
         stmt.setString(1, usuario.getId());
         ResultSet rs = stmt.executeQuery();
 
@@ -69,14 +66,17 @@ public class CargaDatos {
     /**
      * Carga los desafíos de un usuario en el sistema de gamificación.
      *
-     * @param conn    Conexión a la base de datos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @param sistema Sistema de gamificación.
      * @param usuario Usuario cuyos desafíos se van a cargar.
      * @throws Exception Si ocurre un error durante la carga de desafíos.
      */
-    public static void cargarDesafios(Connection conn, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+    public static void cargarDesafios(AccesoDatos.Sesion sesion, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+        // Barrido incremental: si ya se hizo hoy solo lee la marca de agua. El estado guardado queda al día.
+        BarridoDesafios.barrer(sesion);
+
         String query = "SELECT d.*, " + "CASE WHEN dc.usuarioId IS NOT NULL THEN TRUE ELSE FALSE END AS completado " + "FROM Desafios d " + "LEFT JOIN DesafiosCompletados dc ON d.id = dc.desafioId AND dc.usuarioId = ?";
-        PreparedStatement stmt = conn.prepareStatement(query);
+        PreparedStatement stmt = sesion.preparar(query);
         stmt.setString(1, usuario.getId());
         ResultSet rs = stmt.executeQuery();
 
@@ -102,14 +102,14 @@ public class CargaDatos {
     /**
      * Carga las actividades deportivas de un usuario en el sistema de gamificación.
      *
-     * @param conn    Conexión a la base de datos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @param sistema Sistema de gamificación.
      * @param usuario Usuario cuyas actividades se van a cargar.
      * @throws Exception Si ocurre un error durante la carga de actividades.
      */
-    public static void cargarActividades(Connection conn, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+    public static void cargarActividades(AccesoDatos.Sesion sesion, SistemaGamificacion sistema, Usuario usuario) throws Exception {
         String actividadesQuery = "SELECT * FROM Actividades WHERE usuarioId = ?";
-        PreparedStatement stmt = conn.prepareStatement(actividadesQuery);
+        PreparedStatement stmt = sesion.preparar(actividadesQuery);
         stmt.setString(1, usuario.getId());
         ResultSet rs = stmt.executeQuery();
 
@@ -117,6 +117,7 @@ public class CargaDatos {
             ActividadDeportiva actividad = new ActividadDeportiva(rs.getString("id"), ActividadDeportiva.TipoDeporte.valueOf(rs.getString("tipo")), rs.getInt("duracionMinutos"), rs.getDouble("distanciaKm"), usuario, false);
             actividad.setFecha(rs.getDate("fecha").toLocalDate());
             actividad.setHora(rs.getTime("hora").toLocalTime());
+            actividad.setCaloriasQuemadas(rs.getInt("caloriasQuemadas"));
             sistema.getUsuarios().stream().filter(u -> u.getId().equals(usuario.getId())).findFirst().ifPresent(u -> u.agregarDesafio(null)); // Agrega lógica adicional si es necesario
         }
     }
@@ -124,14 +125,14 @@ public class CargaDatos {
     /**
      * Carga las competencias de un usuario en el sistema de gamificación.
      *
-     * @param conn    Conexión a la base de datos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @param sistema Sistema de gamificación.
      * @param usuario Usuario cuyas competencias se van a cargar.
      * @throws Exception Si ocurre un error durante la carga de competencias.
      */
-    public static void cargarCompetencias(Connection conn, SistemaGamificacion sistema, Usuario usuario) throws Exception {
+    public static void cargarCompetencias(AccesoDatos.Sesion sesion, SistemaGamificacion sistema, Usuario usuario) throws Exception {
         String query = "SELECT c.id, c.nombre, c.tipoDeporte, " + "cp.fechaInicio, cp.fechaFin, cp.estado " + "FROM Competencias c " + "LEFT JOIN CompetenciasParticipacion cp ON c.id = cp.competenciaId AND cp.usuarioId = ?";
-        PreparedStatement stmt = conn.prepareStatement(query);
+        PreparedStatement stmt = sesion.preparar(query);
         stmt.setString(1, usuario.getId());
         ResultSet rs = stmt.executeQuery();
 
@@ -0,0 +1,177 @@
+package gamificaciondeportiva;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * La clase ClasificacionVentana mantiene en memoria la clasificación de los puntos ganados en los últimos días.
+ * <p>
+ * Los puntos se guardan en una cubeta por día dentro de un anillo del tamaño de la ventana. Cuando empieza un día
+ * nuevo no se recalcula nada: la cubeta más antigua se resta de los totales y se vacía para reutilizarla, así que el
+ * coste del cambio de día es proporcional solo a los usuarios que puntuaron aquel día. Una ventana de 0 días abarca
+ * toda la historia: tiene una sola cubeta y nunca resta nada.
+ * <p>
+ * Los totales se mantienen además en un árbol ordenado por puntos, de modo que los primeros puestos se leen sin
+ * ordenar y el puesto de un usuario se obtiene recorriendo solo a quienes tienen más puntos que él.
+ * <p>
+ * Todos los métodos están sincronizados: la ventana se actualiza desde el hilo del bus de eventos y se consulta desde
+ * la interfaz.
+ */
+final class ClasificacionVentana {
+    private static final Comparator<Posicion> ORDEN = Comparator.comparingInt(Posicion::puntos).reversed()
+            .thenComparing(Posicion::usuarioId);
+
+    private final int dias;
+    private final boolean historica;
+    private final List<Map<String, Integer>> cubetas;
+    private final Map<String, Integer> totales = new HashMap<>();
+    private final TreeSet<Posicion> orden = new TreeSet<>(ORDEN);
+    private long ultimoDia;
+
+    /**
+     * Crea una ventana vacía.
+     *
+     * @param dias El número de días de la ventana, incluido el de hoy, o 0 para toda la historia.
+     * @param hoy  El día más reciente de la ventana.
+     */
+    ClasificacionVentana(int dias, LocalDate hoy) {
+        this.dias = dias;
+        this.historica = dias <= 0;
+        int tamano = historica ? 1 : dias;
+        this.cubetas = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            cubetas.add(new HashMap<>());
+        }
+        this.ultimoDia = hoy.toEpochDay();
+    }
+
+    /**
+     * Obtiene el número de días de la ventana.
+     *
+     * @return Los días de la ventana, o 0 si abarca toda la historia.
+     */
+    int getDias() {
+        return dias;
+    }
+
+    /**
+     * Suma puntos de un usuario en una fecha. Los puntos de días que ya salieron de la ventana se ignoran.
+     *
+     * @param fecha     La fecha en la que se ganaron los puntos.
+     * @param usuarioId El ID del usuario.
+     * @param puntos    Los puntos ganados.
+     */
+    synchronized void sumar(LocalDate fecha, String usuarioId, int puntos) {
+        long dia = fecha.toEpochDay();
+        avanzar(dia);
+        if ((!historica && dia <= ultimoDia - dias) || puntos == 0) {
+            return;
+        }
+        cubetas.get(historica ? 0 : Math.floorMod(dia, dias)).merge(usuarioId, puntos, Integer::sum);
+        cambiarTotal(usuarioId, puntos);
+    }
+
+    /**
+     * Obtiene los primeros puestos de la ventana que termina en el día indicado.
+     *
+     * @param hoy La fecha actual.
+     * @param k   El número máximo de puestos.
+     * @return Los primeros puestos, de más a menos puntos.
+     */
+    synchronized List<Posicion> primeros(LocalDate hoy, int k) {
+        avanzar(hoy.toEpochDay());
+        List<Posicion> primeros = new ArrayList<>(Math.min(k, orden.size()));
+        int puesto = 0;
+        int puntosAnteriores = Integer.MIN_VALUE;
+        for (Posicion posicion : orden) {
+            if (primeros.size() == k) {
+                break;
+            }
+            // Los empates comparten puesto
+            if (posicion.puntos() != puntosAnteriores) {
+                puesto = primeros.size() + 1;
+                puntosAnteriores = posicion.puntos();
+            }
+            primeros.add(new Posicion(posicion.usuarioId(), posicion.puntos(), puesto));
+        }
+        return primeros;
+    }
+
+    /**
+     * Obtiene el puesto de un usuario en la ventana que termina en el día indicado.
+     *
+     * @param hoy       La fecha actual.
+     * @param usuarioId El ID del usuario.
+     * @return El puesto del usuario, o null si no ganó puntos en la ventana.
+     */
+    synchronized Posicion posicionDe(LocalDate hoy, String usuarioId) {
+        avanzar(hoy.toEpochDay());
+        Integer puntos = totales.get(usuarioId);
+        if (puntos == null) {
+            return null;
+        }
+        // El ID vacío queda antes que cualquier otro con los mismos puntos: la cabeza son los que tienen más
+        int mayores = orden.headSet(new Posicion("", puntos, 0), false).size();
+        return new Posicion(usuarioId, puntos, mayores + 1);
+    }
+
+    /**
+     * Obtiene el número de usuarios con puntos en la ventana.
+     *
+     * @return El número de usuarios clasificados.
+     */
+    synchronized int getTamano() {
+        return orden.size();
+    }
+
+    /**
+     * Rota el anillo hasta el día indicado, restando de los totales las cubetas que salen de la ventana.
+     */
+    private void avanzar(long dia) {
+        if (dia <= ultimoDia) {
+            return;
+        }
+        if (historica) {
+            ultimoDia = dia;
+            return;
+        }
+        long pasos = Math.min(dia - ultimoDia, dias);
+        for (long paso = 1; paso <= pasos; paso++) {
+            Map<String, Integer> saliente = cubetas.get(Math.floorMod(ultimoDia + paso, dias));
+            for (Map.Entry<String, Integer> entrada : saliente.entrySet()) {
+                cambiarTotal(entrada.getKey(), -entrada.getValue());
+            }
+            saliente.clear();
+        }
+        ultimoDia = dia;
+    }
+
+    private void cambiarTotal(String usuarioId, int diferencia) {
+        Integer anterior = totales.get(usuarioId);
+        int nuevo = (anterior != null ? anterior : 0) + diferencia;
+        if (anterior != null) {
+            orden.remove(new Posicion(usuarioId, anterior, 0));
+        }
+        if (nuevo == 0) {
+            totales.remove(usuarioId);
+        } else {
+            totales.put(usuarioId, nuevo);
+            orden.add(new Posicion(usuarioId, nuevo, 0));
+        }
+    }
+
+    /**
+     * Un usuario en la clasificación.
+     *
+     * @param usuarioId El ID del usuario.
+     * @param puntos    Los puntos del usuario en la ventana.
+     * @param puesto    El puesto, empezando en 1; los empatados comparten puesto.
+     */
+    record Posicion(String usuarioId, int puntos, int puesto) {
+    }
+}
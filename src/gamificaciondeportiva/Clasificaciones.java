@@ -0,0 +1,367 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * La clase Clasificaciones ofrece las clasificaciones generales de los últimos días y de toda la historia, en total y
+ * por deporte.
+ * <p>
+ * Los puntos ganados se guardan por día, usuario y deporte en la tabla PuntosDiarios, dentro de la misma transacción
+ * que los suma a Usuarios (ver {@link Usuario#incrementarEnBaseDeDatos(AccesoDatos.Sesion, int, int,
+ * ActividadDeportiva.TipoDeporte)}). Los puntos que no vienen de una actividad, como los de un logro otorgado fuera de
+ * un registro, se guardan sin deporte y solo cuentan en la clasificación general.
+ * <p>
+ * En memoria hay una {@link ClasificacionVentana} por cada ventana de {@link #VENTANAS} días, para la clasificación
+ * general y para cada {@link ActividadDeportiva.TipoDeporte}. Se cargan al iniciar desde PuntosDiarios y después se
+ * actualizan con cada {@link EventoDominio.PuntosOtorgados}, así que las consultas de primeros puestos y de puesto de
+ * un usuario no tocan la base de datos. La clasificación general histórica se carga de los puntos totales de
+ * Usuarios, que incluyen los ganados antes de existir PuntosDiarios; las históricas por deporte solo cuentan los
+ * puntos guardados en PuntosDiarios.
+ * <p>
+ * Un hilo en segundo plano las recarga cada {@value #RECARGA_MINUTOS} minutos para incorporar los puntos ganados desde
+ * otros equipos. Los puntos que llegan mientras se lee la base de datos se suman a las clasificaciones en uso y se
+ * guardan para sumarlos también a las nuevas antes de sustituirlas, así que no se pierden hasta la siguiente recarga.
+ * Si una transacción se confirmó justo antes de la lectura pero su evento llega después, esos puntos se cuentan dos
+ * veces hasta la siguiente recarga.
+ */
+final class Clasificaciones {
+    /**
+     * Valor de {@link #VENTANAS} que representa toda la historia.
+     */
+    static final int HISTORICO = 0;
+
+    /**
+     * Días de las ventanas disponibles.
+     */
+    static final int[] VENTANAS = {7, 30, HISTORICO};
+
+    /**
+     * Minutos entre dos recargas desde la base de datos.
+     */
+    static final int RECARGA_MINUTOS = 10;
+
+    /**
+     * Valor de la columna tipo para los puntos que no corresponden a ningún deporte.
+     */
+    private static final String SIN_DEPORTE = "";
+
+    private static final String SUMAR = "INSERT INTO PuntosDiarios (fecha, usuarioId, tipo, puntos) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE puntos = puntos + VALUES(puntos)";
+
+    private static final Object monitor = new Object();
+    private static final Map<String, String> nombres = new ConcurrentHashMap<>();
+    private static volatile Map<Clave, ClasificacionVentana> ventanas;
+    private static List<Puntos> recibidosDuranteRecarga; // Protegido por monitor; null si no hay recarga en curso
+    private static volatile boolean tablaVerificada;
+    private static Thread hilo;
+
+    private Clasificaciones() {
+    }
+
+    /**
+     * Inicia el hilo que carga y recarga las clasificaciones, y las suscribe a los puntos otorgados.
+     */
+    static void iniciar() {
+        synchronized (monitor) {
+            if (hilo != null && hilo.isAlive()) {
+                return;
+            }
+            if (hilo == null) {
+                BusEventos.suscribir(EventoDominio.PuntosOtorgados.class, evento -> sumarEnMemoria(
+                        LocalDate.now(), evento.usuarioId(), evento.deporte(), evento.puntos()));
+            }
+            hilo = new Thread(Clasificaciones::ejecutar, "clasificaciones");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    /**
+     * Guarda puntos ganados hoy en PuntosDiarios, en la transacción de la sesión.
+     *
+     * @param sesion    La sesión con la transacción que suma los puntos al usuario.
+     * @param usuarioId El ID del usuario.
+     * @param deporte   El deporte al que se atribuyen los puntos, o null.
+     * @param puntos    Los puntos ganados.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static void registrar(AccesoDatos.Sesion sesion, String usuarioId, ActividadDeportiva.TipoDeporte deporte,
+                          int puntos) throws SQLException {
+        if (puntos == 0) {
+            return;
+        }
+        asegurarTabla(sesion);
+        PreparedStatement stmt = sesion.preparar(SUMAR);
+        stmt.setDate(1, java.sql.Date.valueOf(LocalDate.now()));
+        stmt.setString(2, usuarioId);
+        stmt.setString(3, deporte != null ? deporte.name() : SIN_DEPORTE);
+        stmt.setInt(4, puntos);
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Obtiene los primeros puestos de una clasificación.
+     *
+     * @param dias    Los días de la ventana, uno de {@link #VENTANAS}.
+     * @param deporte El deporte, o null para la clasificación general.
+     * @param k       El número máximo de puestos.
+     * @return Los primeros puestos, o una lista vacía si las clasificaciones aún no se han cargado.
+     */
+    static List<ClasificacionVentana.Posicion> primeros(int dias, ActividadDeportiva.TipoDeporte deporte, int k) {
+        ClasificacionVentana ventana = ventana(dias, deporte);
+        return ventana != null ? ventana.primeros(LocalDate.now(), k) : Collections.emptyList();
+    }
+
+    /**
+     * Obtiene el puesto de un usuario en una clasificación.
+     *
+     * @param dias      Los días de la ventana, uno de {@link #VENTANAS}.
+     * @param deporte   El deporte, o null para la clasificación general.
+     * @param usuarioId El ID del usuario.
+     * @return El puesto, o null si el usuario no ganó puntos en la ventana o aún no se han cargado.
+     */
+    static ClasificacionVentana.Posicion posicionDe(int dias, ActividadDeportiva.TipoDeporte deporte,
+                                                    String usuarioId) {
+        ClasificacionVentana ventana = ventana(dias, deporte);
+        return ventana != null ? ventana.posicionDe(LocalDate.now(), usuarioId) : null;
+    }
+
+    /**
+     * Obtiene los nombres de varios usuarios, consultando en una sola sentencia los que aún no se conocen.
+     *
+     * @param usuarioIds Los IDs de los usuarios.
+     * @return Los nombres por ID; los usuarios que no existen se omiten.
+     */
+    static Map<String, String> nombres(List<String> usuarioIds) {
+        List<String> faltantes = new ArrayList<>();
+        for (String id : usuarioIds) {
+            if (!nombres.containsKey(id)) {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                PreparedStatement stmt = sesion.preparar("SELECT id, nombre FROM Usuarios WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(faltantes.size(), "?")) + ")");
+                for (int i = 0; i < faltantes.size(); i++) {
+                    stmt.setString(i + 1, faltantes.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        nombres.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+        Map<String, String> resultado = new HashMap<>();
+        for (String id : usuarioIds) {
+            String nombre = nombres.get(id);
+            if (nombre != null) {
+                resultado.put(id, nombre);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Vuelve a construir todas las clasificaciones a partir de PuntosDiarios.
+     *
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static void recargar() throws SQLException {
+        long inicio = System.nanoTime();
+        LocalDate hoy = LocalDate.now();
+        int maximo = 0;
+        for (int dias : VENTANAS) {
+            maximo = Math.max(maximo, dias);
+        }
+        Map<Clave, ClasificacionVentana> nuevas = crearVentanas(hoy);
+        int filas = 0;
+        synchronized (monitor) {
+            recibidosDuranteRecarga = new ArrayList<>();
+        }
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            asegurarTabla(sesion);
+            PreparedStatement stmt = sesion.preparar("SELECT p.fecha, p.usuarioId, p.tipo, p.puntos, u.nombre "
+                    + "FROM PuntosDiarios p LEFT JOIN Usuarios u ON u.id = p.usuarioId WHERE p.fecha > ?");
+            stmt.setDate(1, java.sql.Date.valueOf(hoy.minusDays(maximo)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String usuarioId = rs.getString(2);
+                    if (rs.getString(5) != null) {
+                        nombres.put(usuarioId, rs.getString(5));
+                    }
+                    sumar(nuevas, rs.getDate(1).toLocalDate(), usuarioId, deporte(rs.getString(3)), rs.getInt(4),
+                            false);
+                    filas++;
+                }
+            }
+
+            // Histórico general: los puntos totales, que incluyen los anteriores a PuntosDiarios
+            ClasificacionVentana general = nuevas.get(new Clave(HISTORICO, null));
+            stmt = sesion.preparar("SELECT id, nombre, puntosTotales FROM Usuarios WHERE puntosTotales <> 0");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nombres.put(rs.getString(1), rs.getString(2));
+                    general.sumar(hoy, rs.getString(1), rs.getInt(3));
+                    filas++;
+                }
+            }
+
+            // Histórico por deporte: los puntos diarios sumados por usuario
+            stmt = sesion.preparar("SELECT usuarioId, tipo, SUM(puntos) FROM PuntosDiarios WHERE tipo <> ? "
+                    + "GROUP BY usuarioId, tipo");
+            stmt.setString(1, SIN_DEPORTE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ActividadDeportiva.TipoDeporte deporte = deporte(rs.getString(2));
+                    if (deporte != null) {
+                        nuevas.get(new Clave(HISTORICO, deporte)).sumar(hoy, rs.getString(1), rs.getInt(3));
+                    }
+                    filas++;
+                }
+            }
+        } catch (SQLException | RuntimeException ex) {
+            synchronized (monitor) {
+                recibidosDuranteRecarga = null;
+            }
+            throw ex;
+        }
+
+        synchronized (monitor) {
+            // Los puntos llegados durante la lectura ya están en las clasificaciones en uso; se suman a las nuevas
+            int recibidos = recibidosDuranteRecarga.size();
+            for (Puntos puntos : recibidosDuranteRecarga) {
+                sumar(nuevas, puntos.fecha(), puntos.usuarioId(), puntos.deporte(), puntos.puntos(), true);
+            }
+            recibidosDuranteRecarga = null;
+            ventanas = nuevas;
+            Registro.depuracion("Clasificaciones recargadas", "filas", filas, "recibidosDuranteRecarga", recibidos,
+                    "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Traduce la columna tipo de PuntosDiarios a un deporte.
+     *
+     * @param tipo El valor de la columna.
+     * @return El deporte, o null si los puntos no son de ningún deporte o el deporte ya no existe.
+     */
+    private static ActividadDeportiva.TipoDeporte deporte(String tipo) {
+        if (SIN_DEPORTE.equals(tipo)) {
+            return null;
+        }
+        try {
+            return ActividadDeportiva.TipoDeporte.valueOf(tipo);
+        } catch (IllegalArgumentException ex) {
+            Registro.aviso("Deporte desconocido en PuntosDiarios", "tipo", tipo);
+            return null;
+        }
+    }
+
+    private static ClasificacionVentana ventana(int dias, ActividadDeportiva.TipoDeporte deporte) {
+        Map<Clave, ClasificacionVentana> actuales = ventanas;
+        return actuales != null ? actuales.get(new Clave(dias, deporte)) : null;
+    }
+
+    private static Map<Clave, ClasificacionVentana> crearVentanas(LocalDate hoy) {
+        Map<Clave, ClasificacionVentana> nuevas = new HashMap<>();
+        for (int dias : VENTANAS) {
+            nuevas.put(new Clave(dias, null), new ClasificacionVentana(dias, hoy));
+            for (ActividadDeportiva.TipoDeporte deporte : ActividadDeportiva.TipoDeporte.values()) {
+                nuevas.put(new Clave(dias, deporte), new ClasificacionVentana(dias, hoy));
+            }
+        }
+        return nuevas;
+    }
+
+    private static void sumarEnMemoria(LocalDate fecha, String usuarioId, ActividadDeportiva.TipoDeporte deporte,
+                                       int puntos) {
+        if (puntos == 0) {
+            return;
+        }
+        // Con el monitor, una recarga no puede sustituir las clasificaciones entre la suma y el registro del evento
+        synchronized (monitor) {
+            if (recibidosDuranteRecarga != null) {
+                recibidosDuranteRecarga.add(new Puntos(fecha, usuarioId, deporte, puntos));
+            }
+            Map<Clave, ClasificacionVentana> actuales = ventanas;
+            if (actuales != null) {
+                sumar(actuales, fecha, usuarioId, deporte, puntos, true);
+            }
+        }
+    }
+
+    /**
+     * Suma puntos a las clasificaciones de un mapa.
+     *
+     * @param historico Si se suman también a las clasificaciones históricas, que la recarga lee por separado.
+     */
+    private static void sumar(Map<Clave, ClasificacionVentana> destino, LocalDate fecha, String usuarioId,
+                              ActividadDeportiva.TipoDeporte deporte, int puntos, boolean historico) {
+        for (int dias : VENTANAS) {
+            if (dias == HISTORICO && !historico) {
+                continue;
+            }
+            destino.get(new Clave(dias, null)).sumar(fecha, usuarioId, puntos);
+            if (deporte != null) {
+                destino.get(new Clave(dias, deporte)).sumar(fecha, usuarioId, puntos);
+            }
+        }
+    }
+
+    private static void asegurarTabla(AccesoDatos.Sesion sesion) throws SQLException {
+        if (tablaVerificada) {
+            return;
+        }
+        if (sesion.enTransaccion()) {
+            // En MySQL un CREATE TABLE confirma implícitamente la transacción en curso: se usa otra conexión
+            try (AccesoDatos.Sesion propia = AccesoDatos.abrirSesion()) {
+                asegurarTabla(propia);
+            }
+            return;
+        }
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS PuntosDiarios ("
+                    + "fecha DATE NOT NULL, "
+                    + "usuarioId VARCHAR(64) NOT NULL, "
+                    + "tipo VARCHAR(20) NOT NULL, "
+                    + "puntos INT NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY (fecha, usuarioId, tipo))");
+        }
+        tablaVerificada = true;
+    }
+
+    private static void ejecutar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                recargar();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            try {
+                Thread.sleep(RECARGA_MINUTOS * 60_000L);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private record Clave(int dias, ActividadDeportiva.TipoDeporte deporte) {
+    }
+
+    private record Puntos(LocalDate fecha, String usuarioId, ActividadDeportiva.TipoDeporte deporte, int puntos) {
+    }
+}
@@ -3,9 +3,8 @@ package gamificaciondeportiva;
 import gamificaciondeportiva.ActividadDeportiva.TipoDeporte;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,6 +20,10 @@ import java.util.Map;
  *   <li>Anunciar los ganadores de la competencia</li>
  * </ul>
  *
+ * <p>Las puntuaciones se guardan en una {@link TablaPuntuaciones}, con arreglos primitivos indexados por participante.
+ * Varios hilos pueden sumar puntos a la vez sin bloquearse entre sí, y el ranking se obtiene con una selección
+ * parcial de los mejores sin copiar ni ordenar a todos los participantes.</p>
+ *
  * <p>Constructor de la clase:</p>
  *
  * @param id          Identificador de la competencia.
@@ -35,8 +38,8 @@ public class Competencia {
     private TipoDeporte tipoDeporte;
     private LocalDate fechaInicio;
     private LocalDate fechaFin;
-    private Map<Usuario, Integer> participantesYPuntos;
-    private EstadoCompetencia estado;
+    private final TablaPuntuaciones puntuaciones;
+    private volatile EstadoCompetencia estado;
 
     /**
      * Constructor para crear una nueva competencia.
@@ -53,7 +56,7 @@ public class Competencia {
         this.tipoDeporte = tipoDeporte;
         this.fechaInicio = fechaInicio;
         this.fechaFin = fechaFin;
-        this.participantesYPuntos = new HashMap<>();
+        this.puntuaciones = new TablaPuntuaciones();
         this.estado = EstadoCompetencia.REGISTRO;
     }
 
@@ -64,8 +67,8 @@ public class Competencia {
      */
     public void registrarParticipante(Usuario usuario) {
         if (estado == EstadoCompetencia.REGISTRO) {
-            participantesYPuntos.put(usuario, 0);
-            System.out.println(usuario.getNombre() + " registrado en la competencia: " + this.nombre);
+            puntuaciones.registrar(usuario);
+            Registro.info("Participante registrado", "usuarioId", usuario.getId(), "competenciaId", id);
         }
     }
 
@@ -77,17 +80,17 @@ public class Competencia {
      */
     public void actualizarPuntuacion(Usuario usuario, int puntos) {
         if (estado == EstadoCompetencia.EN_PROGRESO) {
-            participantesYPuntos.put(usuario, participantesYPuntos.getOrDefault(usuario, 0) + puntos);
+            puntuaciones.sumar(puntuaciones.registrar(usuario), puntos);
         }
     }
 
     /**
-     * Inicia la competencia.
+     * Inicia la competencia si su fecha de inicio ya llegó.
      */
     public void iniciarCompetencia() {
-        if (estado == EstadoCompetencia.REGISTRO && LocalDate.now().isEqual(fechaInicio)) {
+        if (estado == EstadoCompetencia.REGISTRO && !LocalDate.now().isBefore(fechaInicio)) {
             estado = EstadoCompetencia.EN_PROGRESO;
-            System.out.println("La competencia " + nombre + " ha comenzado.");
+            Registro.info("Competencia iniciada", "competenciaId", id);
         }
     }
 
@@ -105,13 +108,11 @@ public class Competencia {
      * Anuncia los ganadores de la competencia.
      */
     private void anunciarGanadores() {
-        List<Map.Entry<Usuario, Integer>> ranking = new ArrayList<>(participantesYPuntos.entrySet());
-        ranking.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        int[] ranking = puntuaciones.mejores(3);
 
-        System.out.println("\u00a1Resultados de la competencia " + this.nombre + "!");
-        for (int i = 0; i < Math.min(3, ranking.size()); i++) {
-            Map.Entry<Usuario, Integer> entrada = ranking.get(i);
-            System.out.println((i + 1) + "\u00b0 lugar: " + entrada.getKey().getNombre() + " con " + entrada.getValue() + " puntos");
+        for (int i = 0; i < ranking.length; i++) {
+            Registro.info("Resultado de la competencia", "competenciaId", id, "posicion", i + 1, "usuarioId",
+                    puntuaciones.getUsuario(ranking[i]).getId(), "puntos", puntuaciones.getPuntos(ranking[i]));
         }
     }
 
@@ -208,21 +209,28 @@ public class Competencia {
     }
 
     /**
-     * Obtiene el mapa de participantes y sus puntos.
+     * Obtiene una instantánea de los participantes y sus puntos.
+     * <p>
+     * El mapa devuelto es una copia no modificable; las sumas que lleguen después no se reflejan en él.
      *
      * @return Mapa de participantes y sus puntos.
      */
     public Map<Usuario, Integer> getParticipantesYPuntos() {
-        return participantesYPuntos;
+        Map<Usuario, Integer> instantanea = new HashMap<>();
+        for (int i = 0, n = puntuaciones.tamano(); i < n; i++) {
+            instantanea.put(puntuaciones.getUsuario(i), puntuaciones.getPuntos(i));
+        }
+        return Collections.unmodifiableMap(instantanea);
     }
 
     /**
-     * Establece el mapa de participantes y sus puntos.
+     * Reemplaza los participantes y sus puntos.
      *
      * @param participantesYPuntos Mapa de participantes y sus puntos.
      */
     public void setParticipantesYPuntos(Map<Usuario, Integer> participantesYPuntos) {
-        this.participantesYPuntos = participantesYPuntos;
+        puntuaciones.reiniciar();
+        participantesYPuntos.forEach((usuario, puntos) -> puntuaciones.establecer(puntuaciones.registrar(usuario), puntos));
     }
 
     /**
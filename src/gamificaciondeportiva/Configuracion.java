@@ -6,18 +6,38 @@ package gamificaciondeportiva;
 public class Configuracion {
     /**
      * URL de la base de datos.
+     * <p>
+     * Activa las sentencias preparadas en el servidor y la caché de sentencias del controlador para que las
+     * consultas repetidas no se vuelvan a analizar en cada ejecución. Los lotes de inserciones se reescriben
+     * como un único INSERT de varias filas.
+     * <p>
+     * Se puede sustituir con la propiedad del sistema {@code gamificacion.db.url}, por ejemplo para apuntar a una
+     * base de datos local de pruebas.
      */
-    public static final String DB_URL = "jdbc:mysql://srv1009.hstgr.io/u288355303_GamificacionD";
+    public static final String DB_URL = System.getProperty("gamificacion.db.url",
+            "jdbc:mysql://srv1009.hstgr.io/u288355303_GamificacionD"
+                    + "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048"
+                    + "&rewriteBatchedStatements=true");
 
     /**
-     * Usuario de la base de datos.
+     * Usuario de la base de datos. Se puede sustituir con la propiedad del sistema {@code gamificacion.db.usuario}.
      */
-    public static final String DB_USER = "u288355303_root";
+    public static final String DB_USER = System.getProperty("gamificacion.db.usuario", "u288355303_root");
 
     /**
-     * Contraseña de la base de datos.
+     * Contraseña de la base de datos. Se puede sustituir con la propiedad del sistema
+     * {@code gamificacion.db.contrasena}.
      */
-    public static final String DB_PASSWORD = "1420Gamifi.";
+    public static final String DB_PASSWORD = System.getProperty("gamificacion.db.contrasena", "1420Gamifi.");
+
+    /**
+     * Indica si la URL de la base de datos se ha sustituido con {@code gamificacion.db.url}.
+     *
+     * @return true si se usa una base de datos distinta de la de producción.
+     */
+    public static boolean usaBaseDeDatosAlternativa() {
+        return System.getProperty("gamificacion.db.url") != null;
+    }
 
     /**
      * Usuario actual de la aplicación.
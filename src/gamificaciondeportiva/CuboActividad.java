@@ -0,0 +1,372 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * La clase CuboActividad mantiene un resumen agregado de las actividades para las estadísticas de administración.
+ * <p>
+ * La tabla CuboActividad guarda una fila por día, deporte y tramo de nivel del usuario con el número de usuarios
+ * activos, actividades, minutos, kilómetros y calorías. Las consultas de estadísticas leen solo estas filas (como
+ * mucho unas pocas decenas por día) en lugar de recorrer Actividades, así que un rango de varios años responde en
+ * milisegundos.
+ * <p>
+ * El cubo se actualiza de forma incremental dentro de la misma transacción que inserta las actividades
+ * ({@link #registrar(AccesoDatos.Sesion, ActividadDeportiva)} o un {@link Acumulador} para las importaciones por
+ * lotes), de modo que nunca se desincroniza con lo confirmado. Para contar cada usuario activo una sola vez por día y
+ * deporte, la tabla CuboActividadUsuarios marca qué usuarios ya tuvieron actividad; solo la primera actividad del día
+ * en un deporte incrementa {@code usuariosActivos}, en el tramo de nivel que el usuario tenía en ese momento. Esa
+ * misma primera actividad se añade a los estimadores de {@link UsuariosUnicos}, que permiten contar usuarios distintos
+ * en rangos de varios días.
+ * <p>
+ * Si se modifican actividades por fuera de la aplicación, {@link #reconstruir(AccesoDatos.Sesion)} regenera el cubo
+ * desde Actividades; en ese caso el tramo se calcula con el nivel actual de cada usuario.
+ */
+final class CuboActividad {
+    /**
+     * Nombres de los tramos de nivel, en orden.
+     */
+    static final String[] TRAMOS = {"Nivel 1-4", "Nivel 5-9", "Nivel 10-19", "Nivel 20+"};
+
+    private static final String SUMAR = "INSERT INTO CuboActividad "
+            + "(fecha, tipo, tramoNivel, usuariosActivos, actividades, minutos, km, calorias) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "usuariosActivos = usuariosActivos + VALUES(usuariosActivos), "
+            + "actividades = actividades + VALUES(actividades), minutos = minutos + VALUES(minutos), "
+            + "km = km + VALUES(km), calorias = calorias + VALUES(calorias)";
+
+    private static final String MARCAR_USUARIO =
+            "INSERT IGNORE INTO CuboActividadUsuarios (fecha, tipo, usuarioId) VALUES (?, ?, ?)";
+
+    /**
+     * Número máximo de marcas que se buscan en una consulta. Las consultas se redondean a una potencia de dos de
+     * marcas para que la caché de sentencias de la sesión solo vea unos pocos textos distintos.
+     */
+    private static final int MAX_MARCAS_POR_CONSULTA = 256;
+
+    private static final String TRAMO_SQL = "CASE WHEN u.nivel >= 20 THEN 3 WHEN u.nivel >= 10 THEN 2 "
+            + "WHEN u.nivel >= 5 THEN 1 ELSE 0 END";
+
+    private static volatile boolean tablasVerificadas;
+
+    private CuboActividad() {
+    }
+
+    /**
+     * Obtiene el tramo de nivel de un usuario.
+     *
+     * @param nivel El nivel del usuario.
+     * @return El índice del tramo en {@link #TRAMOS}.
+     */
+    static int tramoNivel(int nivel) {
+        if (nivel >= 20) {
+            return 3;
+        }
+        if (nivel >= 10) {
+            return 2;
+        }
+        return nivel >= 5 ? 1 : 0;
+    }
+
+    /**
+     * Suma una actividad recién insertada al cubo, en la transacción de la sesión.
+     *
+     * @param sesion    La sesión con la transacción que insertó la actividad.
+     * @param actividad La actividad.
+     * @throws SQLException Si ocurre un error al actualizar el cubo.
+     */
+    static void registrar(AccesoDatos.Sesion sesion, ActividadDeportiva actividad) throws SQLException {
+        Acumulador acumulador = new Acumulador();
+        acumulador.agregar(actividad);
+        acumulador.aplicar(sesion);
+    }
+
+    /**
+     * Regenera el cubo completo a partir de Actividades, en una sola transacción.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return El número de filas del cubo.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static int reconstruir(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarTablas(sesion);
+        sesion.iniciarTransaccion();
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("DELETE FROM CuboActividadUsuarios");
+            stmt.executeUpdate("DELETE FROM CuboActividad");
+            stmt.executeUpdate("INSERT INTO CuboActividadUsuarios (fecha, tipo, usuarioId) "
+                    + "SELECT DISTINCT fecha, tipo, usuarioId FROM Actividades");
+            int filas = stmt.executeUpdate("INSERT INTO CuboActividad "
+                    + "(fecha, tipo, tramoNivel, usuariosActivos, actividades, minutos, km, calorias) "
+                    + "SELECT a.fecha, a.tipo, " + TRAMO_SQL + ", COUNT(DISTINCT a.usuarioId), COUNT(*), "
+                    + "SUM(a.duracionMinutos), SUM(a.distanciaKm), SUM(a.caloriasQuemadas) "
+                    + "FROM Actividades a JOIN Usuarios u ON u.id = a.usuarioId "
+                    + "GROUP BY a.fecha, a.tipo, " + TRAMO_SQL);
+            UsuariosUnicos.reconstruirDeportes(sesion);
+            sesion.confirmar();
+            Registro.info("Cubo de actividad reconstruido", "filas", filas);
+            return filas;
+        } catch (SQLException ex) {
+            sesion.revertir();
+            throw ex;
+        }
+    }
+
+    /**
+     * Totales por día en un rango de fechas, sumando todos los deportes y tramos seleccionados.
+     * <p>
+     * Los usuarios activos se suman por deporte: quien practicó dos deportes el mismo día cuenta dos veces.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @param desde  El primer día, incluido.
+     * @param hasta  El último día, incluido.
+     * @param tramo  El tramo de nivel, o -1 para todos.
+     * @return Una fila por día con actividad, en orden de fecha.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static List<Totales> porDia(AccesoDatos.Sesion sesion, LocalDate desde, LocalDate hasta, int tramo)
+            throws SQLException {
+        return consultar(sesion, "fecha", desde, hasta, tramo);
+    }
+
+    /**
+     * Totales por deporte en un rango de fechas.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @param desde  El primer día, incluido.
+     * @param hasta  El último día, incluido.
+     * @param tramo  El tramo de nivel, o -1 para todos.
+     * @return Una fila por deporte con actividad, de más a menos minutos.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static List<Totales> porDeporte(AccesoDatos.Sesion sesion, LocalDate desde, LocalDate hasta, int tramo)
+            throws SQLException {
+        List<Totales> filas = consultar(sesion, "tipo", desde, hasta, tramo);
+        filas.sort((a, b) -> Long.compare(b.minutos(), a.minutos()));
+        return filas;
+    }
+
+    private static List<Totales> consultar(AccesoDatos.Sesion sesion, String grupo, LocalDate desde, LocalDate hasta,
+                                           int tramo) throws SQLException {
+        asegurarTablas(sesion);
+        // Con la clave primaria (fecha, tipo, tramoNivel) el rango de fechas se lee por índice
+        String sql = "SELECT " + grupo + ", SUM(usuariosActivos), SUM(actividades), SUM(minutos), SUM(km), "
+                + "SUM(calorias) FROM CuboActividad WHERE fecha BETWEEN ? AND ?"
+                + (tramo >= 0 ? " AND tramoNivel = ?" : "") + " GROUP BY " + grupo + " ORDER BY " + grupo;
+        PreparedStatement stmt = sesion.preparar(sql);
+        stmt.setDate(1, java.sql.Date.valueOf(desde));
+        stmt.setDate(2, java.sql.Date.valueOf(hasta));
+        if (tramo >= 0) {
+            stmt.setInt(3, tramo);
+        }
+        List<Totales> filas = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                filas.add(new Totales(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getDouble(5),
+                        rs.getLong(6)));
+            }
+        }
+        return filas;
+    }
+
+    private static void asegurarTablas(AccesoDatos.Sesion sesion) throws SQLException {
+        if (tablasVerificadas) {
+            return;
+        }
+        if (sesion.enTransaccion()) {
+            // En MySQL un CREATE TABLE confirma implícitamente la transacción en curso: se usa otra conexión
+            try (AccesoDatos.Sesion propia = AccesoDatos.abrirSesion()) {
+                asegurarTablas(propia);
+            }
+            return;
+        }
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS CuboActividad ("
+                    + "fecha DATE NOT NULL, "
+                    + "tipo VARCHAR(20) NOT NULL, "
+                    + "tramoNivel TINYINT NOT NULL, "
+                    + "usuariosActivos INT NOT NULL DEFAULT 0, "
+                    + "actividades INT NOT NULL DEFAULT 0, "
+                    + "minutos BIGINT NOT NULL DEFAULT 0, "
+                    + "km DOUBLE NOT NULL DEFAULT 0, "
+                    + "calorias BIGINT NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY (fecha, tipo, tramoNivel))");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS CuboActividadUsuarios ("
+                    + "fecha DATE NOT NULL, "
+                    + "tipo VARCHAR(20) NOT NULL, "
+                    + "usuarioId VARCHAR(64) NOT NULL, "
+                    + "PRIMARY KEY (fecha, tipo, usuarioId))");
+        }
+        tablasVerificadas = true;
+    }
+
+    /**
+     * Totales agregados de un día o de un deporte.
+     *
+     * @param clave           La fecha (yyyy-MM-dd) o el deporte.
+     * @param usuariosActivos Los usuarios activos, sumados por deporte.
+     * @param actividades     El número de actividades.
+     * @param minutos         Los minutos de actividad.
+     * @param km              Los kilómetros recorridos.
+     * @param calorias        Las calorías quemadas.
+     */
+    record Totales(String clave, long usuariosActivos, long actividades, long minutos, double km,
+                          long calorias) {
+    }
+
+    /**
+     * Agrupa en memoria las actividades de un lote y las aplica al cubo con una sentencia por celda en lugar de una
+     * por actividad. Las marcas de usuario se buscan con una consulta y las que faltan se insertan en un solo envío.
+     */
+    static final class Acumulador {
+        private final Map<Celda, long[]> celdas = new HashMap<>();
+        private final Map<Celda, Double> kilometros = new HashMap<>();
+        private final List<Object[]> usuarios = new ArrayList<>();
+        private final Set<String> usuariosVistos = new HashSet<>();
+
+        /**
+         * Añade una actividad al lote.
+         *
+         * @param actividad La actividad.
+         */
+        void agregar(ActividadDeportiva actividad) {
+            Usuario usuario = actividad.getUsuario();
+            int tramo = tramoNivel(usuario.getNivel());
+            Celda celda = new Celda(actividad.getFecha(), actividad.getTipo().name(), tramo);
+            long[] totales = celdas.computeIfAbsent(celda, c -> new long[3]);
+            totales[0]++;
+            totales[1] += actividad.getDuracionMinutos();
+            totales[2] += actividad.getCaloriasQuemadas();
+            kilometros.merge(celda, actividad.getDistanciaKm(), Double::sum);
+            if (usuariosVistos.add(claveMarca(celda, usuario.getId()))) {
+                usuarios.add(new Object[]{celda, usuario.getId()});
+            }
+        }
+
+        /**
+         * Indica si no hay actividades pendientes.
+         *
+         * @return true si el lote está vacío.
+         */
+        boolean estaVacio() {
+            return celdas.isEmpty();
+        }
+
+        /**
+         * Escribe el lote en el cubo, en la transacción de la sesión, y lo vacía.
+         *
+         * @param sesion La sesión con la transacción que insertó las actividades.
+         * @throws SQLException Si ocurre un error al actualizar el cubo.
+         */
+        void aplicar(AccesoDatos.Sesion sesion) throws SQLException {
+            if (estaVacio()) {
+                return;
+            }
+            asegurarTablas(sesion);
+
+            // Sin marca previa, es la primera actividad del usuario ese día en ese deporte. Se decide con la consulta
+            // y no con el resultado de cada INSERT IGNORE: con rewriteBatchedStatements el lote se envía como un solo
+            // INSERT de varias filas y el controlador no devuelve cuántas insertó cada una. Dos lotes simultáneos del
+            // mismo usuario, día y deporte podrían contarlo dos veces; reconstruir() corrige esa rara desviación
+            Set<String> marcados = leerMarcas(sesion);
+            Map<Celda, Integer> nuevosActivos = new HashMap<>();
+            UsuariosUnicos.Lote unicos = new UsuariosUnicos.Lote();
+            PreparedStatement marcar = sesion.preparar(MARCAR_USUARIO);
+            boolean pendientes = false;
+            for (Object[] usuario : usuarios) {
+                Celda celda = (Celda) usuario[0];
+                if (marcados.contains(claveMarca(celda, (String) usuario[1]))) {
+                    continue;
+                }
+                marcar.setDate(1, java.sql.Date.valueOf(celda.fecha()));
+                marcar.setString(2, celda.tipo());
+                marcar.setString(3, (String) usuario[1]);
+                marcar.addBatch();
+                pendientes = true;
+                nuevosActivos.merge(celda, 1, Integer::sum);
+                unicos.agregarDeporte(celda.tipo(), celda.fecha(), (String) usuario[1]);
+            }
+            if (pendientes) {
+                marcar.executeBatch();
+            }
+
+            PreparedStatement sumar = sesion.preparar(SUMAR);
+            for (Map.Entry<Celda, long[]> entrada : celdas.entrySet()) {
+                Celda celda = entrada.getKey();
+                long[] totales = entrada.getValue();
+                sumar.setDate(1, java.sql.Date.valueOf(celda.fecha()));
+                sumar.setString(2, celda.tipo());
+                sumar.setInt(3, celda.tramo());
+                sumar.setInt(4, nuevosActivos.getOrDefault(celda, 0));
+                sumar.setLong(5, totales[0]);
+                sumar.setLong(6, totales[1]);
+                sumar.setDouble(7, kilometros.get(celda));
+                sumar.setLong(8, totales[2]);
+                sumar.addBatch();
+            }
+            sumar.executeBatch();
+            unicos.aplicar(sesion);
+            limpiar();
+        }
+
+        /**
+         * Lee cuáles de las marcas de usuario del lote ya existen, en consultas de hasta
+         * {@value #MAX_MARCAS_POR_CONSULTA} marcas por clave primaria.
+         *
+         * @param sesion La sesión con la transacción en curso.
+         * @return Las claves de las marcas existentes, con el formato de {@link #claveMarca(Celda, String)}.
+         * @throws SQLException Si ocurre un error en la base de datos.
+         */
+        private Set<String> leerMarcas(AccesoDatos.Sesion sesion) throws SQLException {
+            Set<String> marcados = new HashSet<>();
+            for (int inicio = 0; inicio < usuarios.size(); inicio += MAX_MARCAS_POR_CONSULTA) {
+                int cantidad = Math.min(MAX_MARCAS_POR_CONSULTA, usuarios.size() - inicio);
+                // Los huecos hasta la potencia de dos se rellenan repitiendo la última marca
+                int huecos = cantidad == 1 ? 1 : Integer.highestOneBit(cantidad - 1) << 1;
+                PreparedStatement stmt = sesion.preparar("SELECT fecha, tipo, usuarioId FROM CuboActividadUsuarios "
+                        + "WHERE (fecha, tipo, usuarioId) IN (" + String.join(", ", Collections.nCopies(huecos,
+                        "(?, ?, ?)")) + ")");
+                for (int i = 0; i < huecos; i++) {
+                    Object[] usuario = usuarios.get(inicio + Math.min(i, cantidad - 1));
+                    Celda celda = (Celda) usuario[0];
+                    stmt.setDate(3 * i + 1, java.sql.Date.valueOf(celda.fecha()));
+                    stmt.setString(3 * i + 2, celda.tipo());
+                    stmt.setString(3 * i + 3, (String) usuario[1]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        marcados.add(rs.getDate(1).toLocalDate() + "|" + rs.getString(2) + "|" + rs.getString(3));
+                    }
+                }
+            }
+            return marcados;
+        }
+
+        private static String claveMarca(Celda celda, String usuarioId) {
+            return celda.fecha() + "|" + celda.tipo() + "|" + usuarioId;
+        }
+
+        /**
+         * Descarta las actividades pendientes, por ejemplo si se revirtió la transacción que las insertaba.
+         */
+        void limpiar() {
+            celdas.clear();
+            kilometros.clear();
+            usuarios.clear();
+            usuariosVistos.clear();
+        }
+
+        private record Celda(LocalDate fecha, String tipo, int tramo) {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * La clase Cumplimientos guarda qué logros y desafíos ha completado un usuario, como conjuntos de bits indexados por
+ * {@link IndiceCatalogo}.
+ * <p>
+ * Los conjuntos se leen de LogrosCompletados y DesafiosCompletados una sola vez y después se marcan al confirmarse
+ * cada cumplimiento, así que comprobar si un logro está completado es una lectura de bit y los pendientes son los
+ * vigentes del catálogo menos los completados, sin consultar la base de datos en cada actividad.
+ * <p>
+ * Los cumplimientos registrados desde otro equipo no se ven hasta que se vuelve a cargar el usuario; el registro en la
+ * base de datos no otorga dos veces el mismo cumplimiento, de modo que a lo sumo se evalúa de nuevo una regla ya
+ * cumplida.
+ * <p>
+ * Todos los métodos están sincronizados: se usan desde el evaluador, en el hilo que registra la actividad, y desde la
+ * interfaz.
+ */
+final class Cumplimientos {
+    private final String usuarioId;
+    private BitSet logros;
+    private BitSet desafios;
+
+    /**
+     * Crea los cumplimientos de un usuario, sin cargar.
+     *
+     * @param usuarioId El ID del usuario.
+     */
+    Cumplimientos(String usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    /**
+     * Lee de la base de datos los logros y desafíos completados si aún no se han leído.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    synchronized void asegurarCargados(AccesoDatos.Sesion sesion) throws SQLException {
+        if (logros == null) {
+            logros = leer(sesion, "SELECT logroId FROM LogrosCompletados WHERE usuarioId = ?", IndiceCatalogo.LOGROS);
+        }
+        if (desafios == null) {
+            desafios = leer(sesion, "SELECT desafioId FROM DesafiosCompletados WHERE usuarioId = ?",
+                    IndiceCatalogo.DESAFIOS);
+        }
+    }
+
+    /**
+     * Obtiene los índices de los logros del catálogo que el usuario aún no ha completado.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return Los índices pendientes en {@link IndiceCatalogo#LOGROS}.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    synchronized BitSet logrosPendientes(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarCargados(sesion);
+        BitSet pendientes = IndiceCatalogo.LOGROS.vigentes(sesion);
+        pendientes.andNot(logros);
+        return pendientes;
+    }
+
+    /**
+     * Obtiene los índices de los desafíos del catálogo que el usuario aún no ha completado.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return Los índices pendientes en {@link IndiceCatalogo#DESAFIOS}.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    synchronized BitSet desafiosPendientes(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarCargados(sesion);
+        BitSet pendientes = IndiceCatalogo.DESAFIOS.vigentes(sesion);
+        pendientes.andNot(desafios);
+        return pendientes;
+    }
+
+    /**
+     * Indica si el usuario completó un logro. Requiere haber llamado antes a {@link #asegurarCargados}.
+     *
+     * @param logroId El ID del logro.
+     * @return true si está completado.
+     */
+    synchronized boolean completoLogro(String logroId) {
+        return logros != null && logros.get(IndiceCatalogo.LOGROS.indice(logroId));
+    }
+
+    /**
+     * Indica si el usuario completó un desafío. Requiere haber llamado antes a {@link #asegurarCargados}.
+     *
+     * @param desafioId El ID del desafío.
+     * @return true si está completado.
+     */
+    synchronized boolean completoDesafio(String desafioId) {
+        return desafios != null && desafios.get(IndiceCatalogo.DESAFIOS.indice(desafioId));
+    }
+
+    /**
+     * Marca un logro como completado. Si los cumplimientos aún no se han leído no hace nada: la lectura ya lo incluirá.
+     *
+     * @param logroId El ID del logro.
+     */
+    synchronized void marcarLogro(String logroId) {
+        if (logros != null) {
+            logros.set(IndiceCatalogo.LOGROS.indice(logroId));
+        }
+    }
+
+    /**
+     * Marca un desafío como completado. Si los cumplimientos aún no se han leído no hace nada: la lectura ya lo
+     * incluirá.
+     *
+     * @param desafioId El ID del desafío.
+     */
+    synchronized void marcarDesafio(String desafioId) {
+        if (desafios != null) {
+            desafios.set(IndiceCatalogo.DESAFIOS.indice(desafioId));
+        }
+    }
+
+    private BitSet leer(AccesoDatos.Sesion sesion, String consulta, IndiceCatalogo<?> catalogo)
+            throws SQLException {
+        BitSet completados = new BitSet();
+        PreparedStatement stmt = sesion.preparar(consulta);
+        stmt.setString(1, usuarioId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                completados.set(catalogo.indice(rs.getString(1)));
+            }
+        }
+        return completados;
+    }
+}
@@ -0,0 +1,178 @@
+package gamificaciondeportiva;
+
+import java.util.Arrays;
+
+/**
+ * La clase CurvaProgresion define cuánta experiencia hace falta para alcanzar cada nivel.
+ * <p>
+ * La curva se precalcula en un arreglo ordenado de umbrales: {@code umbrales[i]} es la experiencia mínima del nivel
+ * {@code i + 1}, y el último nivel del arreglo es el nivel máximo. Con ello el nivel, el progreso dentro del nivel y la
+ * experiencia que falta para el siguiente se obtienen con una búsqueda binaria, en O(log L) para L niveles.
+ * <p>
+ * Todos los usuarios comparten la curva activa ({@link #actual()}). Se puede sustituir en cualquier momento con
+ * {@link #establecer(CurvaProgresion)}; como cada curva es inmutable, los usuarios ya cargados pasan a usar la nueva
+ * en la siguiente consulta, sin recargarlos.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * CurvaProgresion.establecer(CurvaProgresion.geometrica(500, 1.15, 50));
+ * int nivel = CurvaProgresion.actual().nivel(usuario.getExperiencia());
+ * }
+ * </pre>
+ */
+public final class CurvaProgresion {
+    /**
+     * Curva por defecto: 1000 puntos de experiencia por nivel, como calculaba la aplicación originalmente.
+     */
+    private static volatile CurvaProgresion actual = lineal(1000, 1000);
+
+    private final int[] umbrales;
+
+    private CurvaProgresion(int[] umbrales) {
+        this.umbrales = umbrales;
+    }
+
+    /**
+     * Obtiene la curva activa.
+     *
+     * @return La curva compartida por todos los usuarios.
+     */
+    public static CurvaProgresion actual() {
+        return actual;
+    }
+
+    /**
+     * Sustituye la curva activa.
+     *
+     * @param curva La nueva curva.
+     */
+    public static void establecer(CurvaProgresion curva) {
+        actual = curva;
+    }
+
+    /**
+     * Crea una curva con la misma experiencia para cada nivel.
+     *
+     * @param experienciaPorNivel La experiencia necesaria para subir cada nivel.
+     * @param nivelMaximo         El nivel máximo.
+     * @return La curva.
+     */
+    public static CurvaProgresion lineal(int experienciaPorNivel, int nivelMaximo) {
+        int[] umbrales = new int[nivelMaximo];
+        for (int i = 1; i < nivelMaximo; i++) {
+            umbrales[i] = (int) Math.min(Integer.MAX_VALUE, (long) experienciaPorNivel * i);
+        }
+        return new CurvaProgresion(umbrales);
+    }
+
+    /**
+     * Crea una curva en la que cada nivel cuesta un factor más que el anterior.
+     *
+     * @param primerNivel El coste del nivel 1 al 2.
+     * @param factor      El factor de crecimiento del coste de cada nivel (por ejemplo 1.15).
+     * @param nivelMaximo El nivel máximo.
+     * @return La curva.
+     */
+    public static CurvaProgresion geometrica(int primerNivel, double factor, int nivelMaximo) {
+        int[] umbrales = new int[nivelMaximo];
+        double coste = primerNivel;
+        double acumulado = 0;
+        for (int i = 1; i < nivelMaximo; i++) {
+            acumulado += coste;
+            if (acumulado >= Integer.MAX_VALUE) {
+                // Los niveles que no caben en un int quedan fuera: el nivel máximo es el último representable
+                return desdeUmbrales(Arrays.copyOf(umbrales, i));
+            }
+            umbrales[i] = (int) Math.round(acumulado);
+            coste *= factor;
+        }
+        return desdeUmbrales(umbrales);
+    }
+
+    /**
+     * Crea una curva a partir de los umbrales de experiencia de cada nivel.
+     *
+     * @param umbrales La experiencia mínima de cada nivel, empezando por el nivel 1 (que debe ser 0).
+     * @return La curva.
+     * @throws IllegalArgumentException Si los umbrales están vacíos, no empiezan en 0 o no son estrictamente
+     *                                  crecientes.
+     */
+    public static CurvaProgresion desdeUmbrales(int... umbrales) {
+        if (umbrales.length == 0 || umbrales[0] != 0) {
+            throw new IllegalArgumentException("El nivel 1 debe empezar con 0 de experiencia");
+        }
+        for (int i = 1; i < umbrales.length; i++) {
+            if (umbrales[i] <= umbrales[i - 1]) {
+                throw new IllegalArgumentException("Los umbrales deben ser crecientes (nivel " + (i + 1) + ")");
+            }
+        }
+        return new CurvaProgresion(umbrales.clone());
+    }
+
+    /**
+     * Calcula el nivel correspondiente a una cantidad de experiencia.
+     *
+     * @param experiencia La experiencia acumulada.
+     * @return El nivel, entre 1 y el nivel máximo.
+     */
+    public int nivel(int experiencia) {
+        if (experiencia <= 0) {
+            return 1;
+        }
+        int posicion = Arrays.binarySearch(umbrales, experiencia);
+        // Si no hay coincidencia exacta, binarySearch devuelve -(punto de inserción) - 1
+        return posicion >= 0 ? posicion + 1 : -posicion - 1;
+    }
+
+    /**
+     * Obtiene el nivel máximo de la curva.
+     *
+     * @return El nivel máximo.
+     */
+    public int nivelMaximo() {
+        return umbrales.length;
+    }
+
+    /**
+     * Obtiene la experiencia mínima de un nivel.
+     *
+     * @param nivel El nivel.
+     * @return La experiencia con la que se alcanza el nivel.
+     */
+    public int experienciaDeNivel(int nivel) {
+        return umbrales[Math.max(1, Math.min(nivel, umbrales.length)) - 1];
+    }
+
+    /**
+     * Obtiene la experiencia acumulada dentro del nivel actual.
+     *
+     * @param experiencia La experiencia acumulada.
+     * @return La experiencia ganada desde que se alcanzó el nivel actual.
+     */
+    public int progresoEnNivel(int experiencia) {
+        return Math.max(0, experiencia - umbrales[nivel(experiencia) - 1]);
+    }
+
+    /**
+     * Obtiene la experiencia que separa el nivel actual del siguiente.
+     *
+     * @param experiencia La experiencia acumulada.
+     * @return El tamaño del nivel actual, o 0 si ya se alcanzó el nivel máximo.
+     */
+    public int tamanoNivel(int experiencia) {
+        int nivel = nivel(experiencia);
+        return nivel < umbrales.length ? umbrales[nivel] - umbrales[nivel - 1] : 0;
+    }
+
+    /**
+     * Obtiene la experiencia que falta para subir al siguiente nivel.
+     *
+     * @param experiencia La experiencia acumulada.
+     * @return La experiencia restante, o 0 si ya se alcanzó el nivel máximo.
+     */
+    public int experienciaParaSiguiente(int experiencia) {
+        int nivel = nivel(experiencia);
+        return nivel < umbrales.length ? umbrales[nivel] - Math.max(0, experiencia) : 0;
+    }
+}
@@ -1,9 +1,8 @@
 package gamificaciondeportiva;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -217,12 +216,29 @@ class Desafio {
      * @return true si cumple las condiciones, false en caso contrario.
      */
     public boolean cumpleCondiciones(Usuario usuario) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            return cumpleCondiciones(usuario, sesion);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Verifica si un usuario cumple las condiciones del desafío usando una sesión existente.
+     *
+     * @param usuario Usuario a verificar.
+     * @param sesion  Sesión de acceso a la base de datos.
+     * @return true si cumple las condiciones, false en caso contrario.
+     * @throws SQLException Si ocurre un error durante la verificación.
+     */
+    boolean cumpleCondiciones(Usuario usuario, AccesoDatos.Sesion sesion) throws SQLException {
         // Ejemplo de lógica para diferentes tipos de desafíos
         switch (this.getId()) {
             case "D001": // Reto de distancia
-                return verificarDistanciaTotal(usuario, 5); // 5 km como meta
+                return verificarDistanciaTotal(usuario, 5, sesion); // 5 km como meta
             case "D002": // Entrenamiento constante
-                return verificarRacha(usuario, 3); // 3 días consecutivos
+                return verificarRacha(usuario, 3, sesion); // 3 días consecutivos
             default:
                 return false;
         }
@@ -233,23 +249,20 @@ class Desafio {
      *
      * @param usuario         Usuario a verificar.
      * @param metaDistanciaKm Distancia mínima en kilómetros.
+     * @param sesion          Sesión de acceso a la base de datos.
      * @return true si ha recorrido la distancia mínima, false en caso contrario.
+     * @throws SQLException Si ocurre un error en la consulta.
      */
-    private boolean verificarDistanciaTotal(Usuario usuario, double metaDistanciaKm) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT SUM(distanciaKm) AS totalDistancia FROM Actividades WHERE usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
-
+    private boolean verificarDistanciaTotal(Usuario usuario, double metaDistanciaKm, AccesoDatos.Sesion sesion)
+            throws SQLException {
+        String query = "SELECT SUM(distanciaKm) AS totalDistancia FROM Actividades WHERE usuarioId = ?";
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
                 double totalDistancia = rs.getDouble("totalDistancia");
                 return totalDistancia >= metaDistanciaKm;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
         return false;
     }
@@ -259,28 +272,23 @@ class Desafio {
      *
      * @param usuario Usuario a verificar.
      * @param dias    Número de días consecutivos.
+     * @param sesion  Sesión de acceso a la base de datos.
      * @return true si ha mantenido la racha, false en caso contrario.
+     * @throws SQLException Si ocurre un error en la consulta.
      */
-    private boolean verificarRacha(Usuario usuario, int dias) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT DISTINCT fecha FROM Actividades WHERE usuarioId = ? AND fecha >= ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuario.getId());
-            stmt.setDate(2, java.sql.Date.valueOf(LocalDate.now().minusDays(dias - 1)));
-            ResultSet rs = stmt.executeQuery();
-
+    private boolean verificarRacha(Usuario usuario, int dias, AccesoDatos.Sesion sesion) throws SQLException {
+        String query = "SELECT DISTINCT fecha FROM Actividades WHERE usuarioId = ? AND fecha >= ?";
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        stmt.setDate(2, java.sql.Date.valueOf(LocalDate.now().minusDays(dias - 1)));
+        try (ResultSet rs = stmt.executeQuery()) {
             int diasActivos = 0;
             while (rs.next()) {
                 diasActivos++;
             }
 
             return diasActivos >= dias;
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
-        return false;
     }
 
     /**
@@ -291,7 +299,7 @@ class Desafio {
     public void unirseAlDesafio(Usuario usuario) {
         if (!participantes.contains(usuario)) {
             participantes.add(usuario);
-            System.out.println(usuario.getNombre() + " se ha unido al desafío: " + this.nombre);
+            Registro.info("Usuario unido al desafío", "usuarioId", usuario.getId(), "desafioId", id);
         }
     }
 
@@ -318,8 +326,8 @@ class Desafio {
         if (estado == EstadoDesafio.ACTIVO && participantes.contains(usuario)) {
             estado = EstadoDesafio.COMPLETADO;
             usuario.ganarPuntos(puntosRecompensa);
-            System.out.println("Desafío completado: " + nombre + ". ¡" + usuario.getNombre() + " ha ganado "
-                    + puntosRecompensa + " puntos!");
+            Registro.info("Desafío completado", "usuarioId", usuario.getId(), "desafioId", id, "puntos",
+                    puntosRecompensa);
         }
     }
 
@@ -0,0 +1,260 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * La clase DetectorBloqueosEDT mide cuánto tarda cada evento en el hilo de eventos de Swing (EDT) y registra los que
+ * lo bloquean más de un umbral.
+ * <p>
+ * Se activa con la propiedad del sistema {@code -Dgamificacion.detectorEDT=true}; el umbral se ajusta con
+ * {@code -Dgamificacion.detectorEDT.umbralMs} (100 ms por defecto). Al instalarse, sustituye la cola de eventos por
+ * una que anota el inicio y el fin de cada despacho. Un hilo vigilante revisa periódicamente el evento en curso y, si
+ * supera el umbral, captura la pila del EDT en ese momento: la pila apunta al código que está bloqueando, por ejemplo
+ * una consulta JDBC dentro de un {@code ActionListener}.
+ * <p>
+ * Cada bloqueo se agrupa por su origen (el primer método de la aplicación en la pila o, si no se pudo capturar, el
+ * oyente o el tipo de evento) con el número de veces, el tiempo total y el peor caso. El resumen se escribe en el
+ * {@link Registro} al cerrar la aplicación y se puede consultar con {@link #informe()}.
+ */
+public final class DetectorBloqueosEDT {
+    /**
+     * Propiedad del sistema que activa el detector.
+     */
+    public static final String PROPIEDAD_ACTIVAR = "gamificacion.detectorEDT";
+
+    /**
+     * Propiedad del sistema con el umbral en milisegundos.
+     */
+    public static final String PROPIEDAD_UMBRAL = "gamificacion.detectorEDT.umbralMs";
+
+    private static final String PAQUETE_APLICACION = "gamificaciondeportiva.";
+    private static final int MAX_MARCOS_PILA = 25;
+
+    private static final Map<String, Estadistica> estadisticas = new ConcurrentHashMap<>();
+    private static volatile boolean instalado;
+
+    private final long umbralNanos;
+
+    /**
+     * Despacho en curso, o null si el EDT está libre. Lo escribe el EDT y lo lee el vigilante.
+     */
+    private volatile Despacho enCurso;
+
+    private DetectorBloqueosEDT(long umbralMs) {
+        this.umbralNanos = umbralMs * 1_000_000L;
+    }
+
+    /**
+     * Instala el detector si está activado con la propiedad {@value #PROPIEDAD_ACTIVAR}.
+     */
+    public static void instalarSiActivado() {
+        if (Boolean.getBoolean(PROPIEDAD_ACTIVAR)) {
+            instalar(Long.getLong(PROPIEDAD_UMBRAL, 100L));
+        }
+    }
+
+    /**
+     * Instala el detector con un umbral dado. Llamarlo más de una vez no tiene efecto.
+     *
+     * @param umbralMs Duración a partir de la cual un evento se considera un bloqueo.
+     */
+    public static synchronized void instalar(long umbralMs) {
+        if (instalado) {
+            return;
+        }
+        instalado = true;
+        DetectorBloqueosEDT detector = new DetectorBloqueosEDT(umbralMs);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(detector.new ColaVigilada());
+
+        Thread vigilante = new Thread(detector::vigilar, "detector-bloqueos-edt");
+        vigilante.setDaemon(true);
+        vigilante.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!estadisticas.isEmpty()) {
+                // Los ganchos de cierre corren a la vez: se vacía aquí para que el informe no se pierda
+                Registro.aviso(informe());
+                Registro.vaciar();
+            }
+        }, "detector-bloqueos-edt-informe"));
+        Registro.info("Detector de bloqueos del EDT activo", "umbralMs", umbralMs);
+    }
+
+    /**
+     * Resume los bloqueos registrados, ordenados por tiempo total bloqueado.
+     *
+     * @return El informe en texto.
+     */
+    public static String informe() {
+        List<Map.Entry<String, Estadistica>> filas = new ArrayList<>(estadisticas.entrySet());
+        filas.sort(Comparator.comparingLong((Map.Entry<String, Estadistica> e) -> e.getValue().totalNanos).reversed());
+
+        StringBuilder texto = new StringBuilder("Bloqueos del EDT (veces, total ms, peor ms, origen):\n");
+        for (Map.Entry<String, Estadistica> fila : filas) {
+            Estadistica e = fila.getValue();
+            synchronized (e) {
+                texto.append(String.format("%6d %9d %7d  %s%n", e.veces, e.totalNanos / 1_000_000,
+                        e.peorNanos / 1_000_000, fila.getKey()));
+                if (e.pilaPeor != null) {
+                    for (StackTraceElement marco : e.pilaPeor) {
+                        texto.append("                            at ").append(marco).append('\n');
+                    }
+                }
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Bucle del hilo vigilante: revisa el despacho en curso varias veces por umbral y captura la pila del EDT la
+     * primera vez que lo supera.
+     */
+    private void vigilar() {
+        long intervaloMs = Math.max(1, umbralNanos / 4_000_000);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Despacho despacho = enCurso;
+            if (despacho != null && despacho.pila == null && !despacho.anidado
+                    && System.nanoTime() - despacho.inicio > umbralNanos) {
+                StackTraceElement[] pila = despacho.hilo.getStackTrace();
+                // Si el evento terminó mientras se capturaba, la pila ya no es la suya
+                if (enCurso == despacho) {
+                    despacho.pila = pila;
+                }
+            }
+        }
+    }
+
+    private void registrar(Despacho despacho, long duracion) {
+        StackTraceElement[] pila = despacho.pila;
+        String origen = origen(despacho.evento, pila);
+        Estadistica estadistica = estadisticas.computeIfAbsent(origen, k -> new Estadistica());
+        synchronized (estadistica) {
+            estadistica.veces++;
+            estadistica.totalNanos += duracion;
+            if (duracion > estadistica.peorNanos) {
+                estadistica.peorNanos = duracion;
+                if (pila != null) {
+                    estadistica.pilaPeor = recortar(pila);
+                }
+            }
+        }
+        Registro.aviso("EDT bloqueado", "duracionMs", duracion / 1_000_000, "origen", origen, "evento",
+                descripcion(despacho.evento));
+    }
+
+    /**
+     * Determina a qué código atribuir un bloqueo. Con la pila capturada, es el método de la aplicación más externo
+     * (normalmente el oyente que recibió el evento) seguido del más interno (el que estaba esperando). Sin pila, son
+     * los oyentes del componente que originó el evento.
+     */
+    private static String origen(AWTEvent evento, StackTraceElement[] pila) {
+        if (pila != null) {
+            StackTraceElement interno = null;
+            StackTraceElement externo = null;
+            for (StackTraceElement marco : pila) {
+                String clase = marco.getClassName();
+                // Las clases sintéticas de las lambdas no aportan nada: el cuerpo aparece en el marco siguiente
+                if (clase.startsWith(PAQUETE_APLICACION) && !clase.contains("$$Lambda")
+                        && !clase.startsWith(DetectorBloqueosEDT.class.getName())) {
+                    if (interno == null) {
+                        interno = marco;
+                    }
+                    externo = marco;
+                }
+            }
+            if (interno != null) {
+                return interno == externo ? describir(interno) : describir(externo) + " > " + describir(interno);
+            }
+        }
+        if (evento instanceof ActionEvent && evento.getSource() instanceof AbstractButton boton) {
+            StringBuilder oyentes = new StringBuilder();
+            for (ActionListener oyente : boton.getActionListeners()) {
+                if (oyentes.length() > 0) {
+                    oyentes.append(", ");
+                }
+                oyentes.append(oyente.getClass().getName());
+            }
+            return "ActionListener " + oyentes + " de \"" + boton.getText() + "\"";
+        }
+        return evento.getClass().getSimpleName() + " de " + evento.getSource().getClass().getName();
+    }
+
+    private static String describir(StackTraceElement marco) {
+        return marco.getClassName().substring(PAQUETE_APLICACION.length()) + "." + marco.getMethodName() + "("
+                + marco.getFileName() + ":" + marco.getLineNumber() + ")";
+    }
+
+    private static String descripcion(AWTEvent evento) {
+        String texto = evento.paramString();
+        return evento.getClass().getSimpleName() + (texto.length() > 120 ? texto.substring(0, 120) + "..." : ": " + texto);
+    }
+
+    private static StackTraceElement[] recortar(StackTraceElement[] pila) {
+        if (pila.length <= MAX_MARCOS_PILA) {
+            return pila;
+        }
+        StackTraceElement[] recortada = new StackTraceElement[MAX_MARCOS_PILA];
+        System.arraycopy(pila, 0, recortada, 0, MAX_MARCOS_PILA);
+        return recortada;
+    }
+
+    /**
+     * Cola de eventos que mide cada despacho.
+     */
+    private final class ColaVigilada extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent evento) {
+            Despacho anterior = enCurso;
+            if (anterior != null) {
+                // Un diálogo modal despacha eventos anidados mientras espera al usuario: esa espera no es un bloqueo
+                anterior.anidado = true;
+            }
+            Despacho despacho = new Despacho(evento, Thread.currentThread(), System.nanoTime());
+            enCurso = despacho;
+            try {
+                super.dispatchEvent(evento);
+            } finally {
+                enCurso = anterior;
+                long duracion = System.nanoTime() - despacho.inicio;
+                if (duracion > umbralNanos && !despacho.anidado) {
+                    registrar(despacho, duracion);
+                }
+            }
+        }
+    }
+
+    private static final class Despacho {
+        final AWTEvent evento;
+        final Thread hilo;
+        final long inicio;
+        volatile StackTraceElement[] pila;
+        volatile boolean anidado;
+
+        Despacho(AWTEvent evento, Thread hilo, long inicio) {
+            this.evento = evento;
+            this.hilo = hilo;
+            this.inicio = inicio;
+        }
+    }
+
+    private static final class Estadistica {
+        long veces;
+        long totalNanos;
+        long peorNanos;
+        StackTraceElement[] pilaPeor;
+    }
+}
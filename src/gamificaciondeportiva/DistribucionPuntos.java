@@ -0,0 +1,182 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * La clase DistribucionPuntos mantiene en memoria un histograma de los puntos totales de todos los usuarios para
+ * responder "estás en el top 7 %" sin ordenar la tabla Usuarios en cada visita al perfil.
+ * <p>
+ * Los puntos se agrupan en cubetas logarítmicas: los valores de 0 a 15 tienen una cubeta cada uno y, a partir de ahí,
+ * cada potencia de dos se divide en 16 cubetas, de modo que el ancho de una cubeta nunca supera el 6,25 % de su valor.
+ * Todo el rango de {@code int} cabe en {@value #CUBETAS} contadores. Dentro de una cubeta se supone un reparto
+ * uniforme, así que el percentil tiene un error de como mucho la fracción de usuarios de esa cubeta; la consulta solo
+ * recorre los contadores y tarda menos de un microsegundo.
+ * <p>
+ * Cada {@link EventoDominio.PuntosOtorgados} mueve al usuario de la cubeta de sus puntos anteriores a la de los
+ * nuevos. Las altas, los cambios hechos fuera de la aplicación y los movimientos que coincidan con una recalibración
+ * se corrigen en la siguiente: un hilo en segundo plano reconstruye el histograma exacto desde la base de datos cada
+ * {@value #RECALIBRACION_MINUTOS} minutos con una sola consulta agrupada.
+ */
+final class DistribucionPuntos {
+    /**
+     * Número de cubetas del histograma.
+     */
+    static final int CUBETAS = 16 + 27 * 16;
+
+    /**
+     * Minutos entre dos recalibraciones desde la base de datos.
+     */
+    static final int RECALIBRACION_MINUTOS = 10;
+
+    private static final int BITS_SUBCUBETA = 4;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+
+    private static final Object monitor = new Object();
+    private static volatile Histograma actual;
+    private static Thread hilo;
+
+    private DistribucionPuntos() {
+    }
+
+    /**
+     * Suscribe el histograma a los puntos otorgados e inicia el hilo de recalibración si aún no está en ejecución.
+     */
+    static void iniciar() {
+        synchronized (monitor) {
+            if (hilo != null && hilo.isAlive()) {
+                return;
+            }
+            if (hilo == null) {
+                BusEventos.suscribir(EventoDominio.PuntosOtorgados.class, evento -> {
+                    if (evento.puntos() != 0) {
+                        mover(evento.puntosTotales() - evento.puntos(), evento.puntosTotales());
+                    }
+                });
+            }
+            hilo = new Thread(DistribucionPuntos::ejecutar, "distribucion-puntos");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    /**
+     * Mueve a un usuario de la cubeta de sus puntos anteriores a la de los nuevos.
+     *
+     * @param anteriores Los puntos totales antes del cambio.
+     * @param nuevos     Los puntos totales después del cambio.
+     */
+    static void mover(int anteriores, int nuevos) {
+        Histograma histograma = actual;
+        if (histograma == null) {
+            return; // Aún no calibrado: la primera recalibración ya incluirá el cambio
+        }
+        int origen = cubeta(anteriores);
+        int destino = cubeta(nuevos);
+        if (origen != destino && histograma.contadores.get(origen) > 0) {
+            histograma.contadores.decrementAndGet(origen);
+            histograma.contadores.incrementAndGet(destino);
+        }
+    }
+
+    /**
+     * Calcula qué porcentaje de usuarios tiene al menos tantos puntos como los indicados, contando al propio usuario:
+     * 1 significa que está en el 1 % superior.
+     *
+     * @param puntos Los puntos totales del usuario.
+     * @return El porcentaje superior, entre 0 y 100, o -1 si el histograma aún no está calibrado.
+     */
+    static double porcentajeSuperior(int puntos) {
+        Histograma histograma = actual;
+        if (histograma == null || histograma.total.get() == 0) {
+            return -1;
+        }
+        int propia = cubeta(puntos);
+        double mayores = 0;
+        for (int i = CUBETAS - 1; i > propia; i--) {
+            mayores += histograma.contadores.get(i);
+        }
+        // Parte de la propia cubeta que queda por encima de los puntos, suponiendo un reparto uniforme
+        long inicio = limiteInferior(propia);
+        long ancho = limiteInferior(propia + 1) - inicio;
+        mayores += histograma.contadores.get(propia) * (double) (inicio + ancho - 1 - Math.max(0, puntos)) / ancho;
+        return Math.min(100, 100 * (mayores + 1) / histograma.total.get());
+    }
+
+    /**
+     * Reconstruye el histograma exacto a partir de la tabla Usuarios.
+     *
+     * @throws Exception Si ocurre un error en la base de datos.
+     */
+    static void recalibrar() throws Exception {
+        long inicio = System.nanoTime();
+        Histograma nuevo = new Histograma();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            PreparedStatement stmt = sesion.preparar(
+                    "SELECT puntosTotales, COUNT(*) FROM Usuarios GROUP BY puntosTotales");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nuevo.contadores.addAndGet(cubeta(rs.getInt(1)), rs.getLong(2));
+                    nuevo.total.addAndGet(rs.getLong(2));
+                }
+            }
+        }
+
+        Histograma anterior = actual;
+        long corregidos = 0;
+        if (anterior != null) {
+            for (int i = 0; i < CUBETAS; i++) {
+                corregidos += Math.abs(anterior.contadores.get(i) - nuevo.contadores.get(i));
+            }
+        }
+        actual = nuevo;
+        Registro.depuracion("Distribución de puntos recalibrada", "usuarios", nuevo.total.get(), "corregidos",
+                corregidos, "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Obtiene la cubeta de una cantidad de puntos. Los valores negativos van a la cubeta 0.
+     *
+     * @param puntos Los puntos totales.
+     * @return El índice de la cubeta.
+     */
+    static int cubeta(int puntos) {
+        if (puntos < SUBCUBETAS) {
+            return Math.max(0, puntos);
+        }
+        int exponente = 31 - Integer.numberOfLeadingZeros(puntos);
+        int subcubeta = (puntos >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return SUBCUBETAS + (exponente - BITS_SUBCUBETA) * SUBCUBETAS + subcubeta;
+    }
+
+    private static long limiteInferior(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int desplazamiento = (cubeta - SUBCUBETAS) / SUBCUBETAS;
+        int subcubeta = (cubeta - SUBCUBETAS) % SUBCUBETAS;
+        return (long) (SUBCUBETAS + subcubeta) << desplazamiento;
+    }
+
+    private static void ejecutar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                recalibrar();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            try {
+                Thread.sleep(RECALIBRACION_MINUTOS * 60_000L);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private static final class Histograma {
+        final AtomicLongArray contadores = new AtomicLongArray(CUBETAS);
+        final AtomicLong total = new AtomicLong();
+    }
+}
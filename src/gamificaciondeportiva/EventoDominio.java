@@ -0,0 +1,79 @@
+package gamificaciondeportiva;
+
+/**
+ * Eventos de dominio publicados en el {@link BusEventos} cuando cambia el estado del sistema de gamificación.
+ * <p>
+ * Los eventos son inmutables y solo llevan identificadores y valores; los suscriptores consultan lo que necesiten a
+ * partir de ellos. Se publican después de que los cambios se confirman en la base de datos.
+ */
+public sealed interface EventoDominio {
+
+    /**
+     * Obtiene el ID del usuario afectado por el evento, o null si el evento no es de un usuario concreto.
+     *
+     * @return El ID del usuario.
+     */
+    String usuarioId();
+
+    /**
+     * Se registró una actividad deportiva.
+     *
+     * @param usuarioId   El ID del usuario.
+     * @param actividadId El ID de la actividad.
+     * @param tipo        El tipo de deporte.
+     */
+    record ActividadRegistrada(String usuarioId, String actividadId, ActividadDeportiva.TipoDeporte tipo)
+            implements EventoDominio {
+    }
+
+    /**
+     * Un usuario ganó puntos o experiencia.
+     *
+     * @param usuarioId     El ID del usuario.
+     * @param puntos        Los puntos ganados en este incremento.
+     * @param experiencia   La experiencia ganada en este incremento.
+     * @param puntosTotales Los puntos totales tras el incremento.
+     * @param nivel         El nivel tras el incremento.
+     * @param deporte       El deporte de la actividad que originó los puntos, o null si no vienen de una actividad.
+     */
+    record PuntosOtorgados(String usuarioId, int puntos, int experiencia, int puntosTotales, int nivel,
+                           ActividadDeportiva.TipoDeporte deporte) implements EventoDominio {
+    }
+
+    /**
+     * Un usuario desbloqueó un logro.
+     *
+     * @param usuarioId El ID del usuario.
+     * @param logroId   El ID del logro.
+     * @param nombre    El nombre del logro.
+     */
+    record LogroDesbloqueado(String usuarioId, String logroId, String nombre) implements EventoDominio {
+    }
+
+    /**
+     * Un usuario completó un desafío.
+     *
+     * @param usuarioId El ID del usuario.
+     * @param desafioId El ID del desafío.
+     * @param nombre    El nombre del desafío.
+     */
+    record DesafioCompletado(String usuarioId, String desafioId, String nombre) implements EventoDominio {
+    }
+
+    /**
+     * Cambió la puntuación de una competencia.
+     *
+     * @param usuarioId     El ID del usuario cuya puntuación cambió.
+     * @param competenciaId El ID de la competencia.
+     */
+    record RankingCambiado(String usuarioId, String competenciaId) implements EventoDominio {
+    }
+
+    /**
+     * Cambiaron los datos de perfil de un usuario (nombre, foto).
+     *
+     * @param usuarioId El ID del usuario.
+     */
+    record DatosUsuarioActualizados(String usuarioId) implements EventoDominio {
+    }
+}
@@ -9,8 +9,6 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 
 
@@ -217,8 +215,7 @@ public class FormularioEditarPerfil extends JDialog {
             return;
         }
 
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
             String query;
             PreparedStatement stmt;
 
@@ -226,7 +223,7 @@ public class FormularioEditarPerfil extends JDialog {
                 // Si la contraseña no está vacía, actualizarla también
                 String contrasenaCifrada = PantallaInicio.cifrarContrasena(contrasena);
                 query = "UPDATE Usuarios SET nombre = ?, contrasena = ?, fotoPerfil = ? WHERE id = ?";
-                stmt = conn.prepareStatement(query);
+                stmt = sesion.preparar(query);
                 stmt.setString(1, nombre); // Nombre del usuario
                 stmt.setString(2, contrasenaCifrada); // Establece la contraseña cifrada
                 stmt.setBytes(3, usuarioActual.getFotoPerfil()); // Foto de perfil en bytes
@@ -234,7 +231,7 @@ public class FormularioEditarPerfil extends JDialog {
             } else {
                 // Si no hay contraseña, no la actualices
                 query = "UPDATE Usuarios SET nombre = ?, fotoPerfil = ? WHERE id = ?";
-                stmt = conn.prepareStatement(query);
+                stmt = sesion.preparar(query);
                 stmt.setString(1, nombre); // Nombre del usuario
                 stmt.setBytes(2, usuarioActual.getFotoPerfil()); // Foto de perfil en bytes
                 stmt.setString(3, usuarioActual.getId()); // ID del usuario
@@ -263,7 +260,7 @@ public class FormularioEditarPerfil extends JDialog {
             defaultImage = escalarImagen(defaultImage, 150, 150); // Escalar antes de convertir
             return hacerImagenCircular(defaultImage, 150); // Convertir en circular
         } catch (Exception ex) {
-            System.err.println("Error al cargar la imagen predeterminada: " + ex.getMessage());
+            Registro.error("Error al cargar la imagen predeterminada", ex);
             ex.printStackTrace();
             // Retorna un ícono vacío si ocurre un error.
             BufferedImage emptyImage = new BufferedImage(150, 150, BufferedImage.TYPE_INT_ARGB);
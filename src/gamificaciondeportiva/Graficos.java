@@ -2,6 +2,7 @@ package gamificaciondeportiva;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -10,11 +11,13 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * La clase Graficos extiende JFrame y representa la interfaz gráfica de la aplicación de gamificación deportiva.
@@ -56,8 +59,15 @@ public class Graficos extends JFrame {
     private JPanel panelCompetencias;
     private JPanel panelRanking;
     private DefaultTableModel modeloTablaRanking;
+    private DefaultTableModel modeloClasificacion;
+    private JComboBox<String> cmbVentanaClasificacion;
+    private JComboBox<Object> cmbDeporteClasificacion;
+    private JLabel lblMiPosicion;
     private JTable tablaCompetencias; // Declarar como variable de instancia
     private JLabel lblFotoPerfil;
+    private JLabel lblNombre, lblNivel, lblPuntos, lblExperiencia, lblPercentil;
+    private JProgressBar barraExperiencia;
+    private final List<BusEventos.Suscripcion> suscripciones = new ArrayList<>();
 
     /**
      * Constructor de la clase Graficos.
@@ -71,126 +81,251 @@ public class Graficos extends JFrame {
 
         configurarVentana();
         inicializarComponentes();
+        suscribirEventos();
 
         try {
             setIconImage(ImageIO.read(this.getClass().getResource("resources/Cubo-EnfocadoL.png")));
         } catch (IOException e) {
-            System.out.println("La imagen no se encuentra");
+            Registro.aviso("La imagen no se encuentra");
         }
     }
 
     /**
-     * Actualiza la tabla de desafíos con los datos de la base de datos.
+     * Suscribe los refrescos de la interfaz a los eventos del usuario actual.
+     * <p>
+     * Cada refresco se ejecuta como máximo una vez por cuadro, aunque lleguen varios eventos seguidos.
      */
-    private void actualizarDesafiosTabla() {
-        modeloTablaDesafios.setRowCount(0); // Limpiar la tabla actual
+    private void suscribirEventos() {
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> {
+            if (esDelUsuarioActual(eventos)) {
+                actualizarProgresoPerfil();
+            }
+        }, EventoDominio.PuntosOtorgados.class, EventoDominio.DatosUsuarioActualizados.class));
 
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        // Tras recargar el perfil (por ejemplo, al arrancar desde la sesión guardada) la foto ya está en memoria
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> {
+            if (esDelUsuarioActual(eventos)) {
+                mostrarFotoPerfil();
+            }
+        }, EventoDominio.DatosUsuarioActualizados.class));
 
-            String query = "SELECT d.id, d.nombre, d.descripcion, d.estado, dc.fechaCumplimiento " + "FROM Desafios d "
-                    + "LEFT JOIN DesafiosCompletados dc ON d.id = dc.desafioId AND dc.usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuarioActual.getId());
-            ResultSet rs = stmt.executeQuery();
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> {
+            if (esDelUsuarioActual(eventos)) {
+                actualizarLogrosTabla();
+            }
+        }, EventoDominio.LogroDesbloqueado.class, EventoDominio.ActividadRegistrada.class));
 
-            while (rs.next()) {
-                String estado = rs.getString("estado");
-                if (rs.getDate("fechaCumplimiento") != null) {
-                    estado = "COMPLETADO";
-                }
-                modeloTablaDesafios.addRow(new Object[]{rs.getString("id"), rs.getString("nombre"),
-                        rs.getString("descripcion"), estado});
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> {
+            if (esDelUsuarioActual(eventos)) {
+                actualizarDesafiosTabla();
+            }
+        }, EventoDominio.DesafioCompletado.class, EventoDominio.ActividadRegistrada.class));
+
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> cargarClasificacionGeneral(),
+                EventoDominio.PuntosOtorgados.class));
+
+        suscripciones.add(BusEventos.suscribirEnInterfaz(eventos -> {
+            // Solo se recarga la última competencia afectada de la ráfaga
+            EventoDominio.RankingCambiado ultimo = (EventoDominio.RankingCambiado) eventos.get(eventos.size() - 1);
+            cargarRanking(ultimo.competenciaId());
+        }, EventoDominio.RankingCambiado.class));
+    }
+
+    private boolean esDelUsuarioActual(List<EventoDominio> eventos) {
+        for (EventoDominio evento : eventos) {
+            if (usuarioActual.getId().equals(evento.usuarioId())) {
+                return true;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
+        return false;
     }
 
     /**
-     * Carga el ranking de una competencia específica.
-     *
-     * @param competenciaId Identificador de la competencia.
+     * Actualiza las etiquetas de nivel, puntos y experiencia del perfil.
      */
-    private void cargarRanking(String competenciaId) {
-        modeloTablaRanking.setRowCount(0); // Limpiar la tabla
+    private void actualizarProgresoPerfil() {
+        lblNombre.setText("Nombre: " + usuarioActual.getNombre());
+        lblNivel.setText("Nivel: " + usuarioActual.getNivel());
+        lblPuntos.setText("Puntos Totales: " + usuarioActual.getPuntosTotales());
+        lblExperiencia.setText("Experiencia: " + usuarioActual.getExperiencia());
+        lblPercentil.setText(textoPercentil());
+        actualizarBarraExperiencia();
+    }
 
-        List<Usuario> ranking = sistema.consultarRanking(competenciaId);
-        int posicion = 1;
+    /**
+     * Describe la posición del usuario entre todos los deportistas según sus puntos totales.
+     *
+     * @return El texto del percentil, o un espacio si la distribución aún no está disponible.
+     */
+    private String textoPercentil() {
+        double porcentaje = DistribucionPuntos.porcentajeSuperior(usuarioActual.getPuntosTotales());
+        if (porcentaje < 0) {
+            return " ";
+        }
+        return "Estás en el top " + Math.max(1, (int) Math.ceil(porcentaje)) + "% de todos los deportistas";
+    }
 
-        for (Usuario usuario : ranking) {
-            modeloTablaRanking.addRow(new Object[]{posicion++, // Posición
-                    usuario.getNombre(), // Nombre del usuario
-                    usuario.getPuntosTotales() // Puntos acumulados
-            });
+    /**
+     * Ajusta la barra de experiencia al nivel actual según la curva de progresión activa.
+     */
+    private void actualizarBarraExperiencia() {
+        CurvaProgresion curva = CurvaProgresion.actual();
+        int experiencia = usuarioActual.getExperiencia();
+        int tamanoNivel = curva.tamanoNivel(experiencia);
+        if (tamanoNivel == 0) {
+            // Nivel máximo alcanzado: barra completa
+            barraExperiencia.setMaximum(1);
+            barraExperiencia.setValue(1);
+            barraExperiencia.setString("Nivel máximo");
+        } else {
+            barraExperiencia.setMaximum(tamanoNivel);
+            barraExperiencia.setValue(curva.progresoEnNivel(experiencia));
+            barraExperiencia.setString(curva.experienciaParaSiguiente(experiencia) + " XP para el nivel "
+                    + (curva.nivel(experiencia) + 1));
         }
     }
 
     /**
-     * Obtiene el estado de un logro específico.
-     *
-     * @param logroId Identificador del logro.
-     * @return Estado del logro.
+     * Cancela las suscripciones al bus de eventos antes de cerrar la ventana.
      */
-    private String obtenerEstadoLogro(String logroId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+    @Override
+    public void dispose() {
+        suscripciones.forEach(BusEventos.Suscripcion::cancelar);
+        suscripciones.clear();
+        super.dispose();
+    }
 
-            String query = "SELECT COUNT(*) FROM LogrosCompletados WHERE usuarioId = ? AND logroId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuarioActual.getId());
-            stmt.setString(2, logroId);
-            ResultSet rs = stmt.executeQuery();
+    /**
+     * Actualiza en segundo plano la tabla de desafíos con los datos de la base de datos.
+     */
+    private void actualizarDesafiosTabla() {
+        if (modeloTablaDesafios == null) {
+            return; // La pestaña aún no se ha abierto; se cargará al abrirla
+        }
+        cargarFilas(modeloTablaDesafios, this::leerFilasDesafios);
+    }
 
-            if (rs.next() && rs.getInt(1) > 0) {
-                return "Completado";
+    /**
+     * Lee las filas de la tabla de desafíos. Se ejecuta fuera del hilo de Swing. El estado mostrado es el guardado,
+     * que el barrido mantiene al día, salvo que el usuario ya haya completado el desafío.
+     *
+     * @return Las filas de la tabla.
+     * @throws Exception Si ocurre un error en la base de datos.
+     */
+    private List<Object[]> leerFilasDesafios() throws Exception {
+        List<Object[]> filas = new ArrayList<>();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            // Barrido incremental: si ya se hizo hoy solo lee la marca de agua
+            BarridoDesafios.barrer(sesion);
+
+            // Catálogo indexado y cumplimientos del usuario en memoria, en lugar de una subconsulta por desafío
+            Cumplimientos cumplimientos = usuarioActual.getCumplimientos();
+            cumplimientos.asegurarCargados(sesion);
+            BitSet vigentes = IndiceCatalogo.DESAFIOS.vigentes(sesion);
+            for (int i = vigentes.nextSetBit(0); i >= 0; i = vigentes.nextSetBit(i + 1)) {
+                Desafio desafio = IndiceCatalogo.DESAFIOS.elemento(i);
+                filas.add(new Object[]{desafio.getNombre(), desafio.getDescripcion(),
+                        cumplimientos.completoDesafio(desafio.getId()) ? "Completado"
+                                : etiquetaEstado(desafio.getEstado())});
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
-        return "Pendiente"; // Estado predeterminado si no está completado
+        return filas;
     }
 
     /**
-     * Calcula el progreso de un logro específico.
+     * Carga en segundo plano el ranking de una competencia específica.
      *
-     * @param logroId  Identificador del logro.
-     * @param objetivo Objetivo del logro.
-     * @return Progreso del logro en porcentaje.
+     * @param competenciaId Identificador de la competencia.
      */
-    private int calcularProgresoLogro(String logroId, int objetivo) {
-        if (objetivo == 0) {
-            return 100; // Si el logro no tiene un objetivo definido, se considera completado automáticamente
+    private void cargarRanking(String competenciaId) {
+        if (modeloTablaRanking == null) {
+            return; // La pestaña aún no se ha abierto; se cargará al abrirla
         }
+        cargarFilas(modeloTablaRanking, () -> {
+            List<Object[]> filas = new ArrayList<>();
+            int posicion = 1;
+            for (Usuario usuario : sistema.consultarRanking(competenciaId)) {
+                filas.add(new Object[]{posicion++, // Posición
+                        usuario.getNombre(), // Nombre del usuario
+                        usuario.getPuntosTotales() // Puntos acumulados
+                });
+            }
+            return filas;
+        });
+    }
 
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            // Verificar si el logro ya está completado
-            String queryCompletado = "SELECT COUNT(*) AS completado FROM LogrosCompletados WHERE usuarioId = ? AND logroId = ?";
-            PreparedStatement stmtCompletado = conn.prepareStatement(queryCompletado);
-            stmtCompletado.setString(1, usuarioActual.getId());
-            stmtCompletado.setString(2, logroId);
-            ResultSet rsCompletado = stmtCompletado.executeQuery();
+    /**
+     * Lee filas en un {@link SwingWorker} y, en el hilo de Swing, reemplaza con ellas el contenido de un modelo.
+     * Así las consultas de los refrescos y de la primera carga de cada pestaña no bloquean la interfaz.
+     *
+     * @param modelo El modelo de la tabla.
+     * @param lector La lectura de las filas, que se ejecuta fuera del hilo de Swing.
+     */
+    private void cargarFilas(DefaultTableModel modelo, Callable<List<Object[]>> lector) {
+        new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() throws Exception {
+                return lector.call();
+            }
 
-            if (rsCompletado.next() && rsCompletado.getInt("completado") > 0) {
-                return 100; // Si el logro está completado, devuelve 100%
+            @Override
+            protected void done() {
+                try {
+                    List<Object[]> filas = get();
+                    modelo.setRowCount(0);
+                    for (Object[] fila : filas) {
+                        modelo.addRow(fila);
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
             }
+        }.execute();
+    }
 
-            // Calcular el progreso actual según actividades relacionadas con el logro
-            String queryProgreso = "SELECT SUM(duracionMinutos) AS progresoActual FROM Actividades WHERE usuarioId = ?";
-            PreparedStatement stmtProgreso = conn.prepareStatement(queryProgreso);
-            stmtProgreso.setString(1, usuarioActual.getId());
-            ResultSet rsProgreso = stmtProgreso.executeQuery();
+    /**
+     * Carga en segundo plano la clasificación general con la ventana y el deporte seleccionados.
+     */
+    private void cargarClasificacionGeneral() {
+        if (modeloClasificacion == null) {
+            return; // La pestaña aún no se ha abierto; se cargará al abrirla
+        }
+        int dias = Clasificaciones.VENTANAS[cmbVentanaClasificacion.getSelectedIndex()];
+        Object seleccion = cmbDeporteClasificacion.getSelectedItem();
+        ActividadDeportiva.TipoDeporte deporte = seleccion instanceof ActividadDeportiva.TipoDeporte tipo ? tipo : null;
+        new SwingWorker<Object[], Void>() {
+            @Override
+            protected Object[] doInBackground() {
+                // Los puestos salen de memoria; solo los nombres aún desconocidos se consultan
+                List<ClasificacionVentana.Posicion> primeros = Clasificaciones.primeros(dias, deporte, 10);
+                List<String> ids = new ArrayList<>();
+                for (ClasificacionVentana.Posicion posicion : primeros) {
+                    ids.add(posicion.usuarioId());
+                }
+                return new Object[]{primeros, Clasificaciones.nombres(ids),
+                        Clasificaciones.posicionDe(dias, deporte, usuarioActual.getId())};
+            }
 
-            if (rsProgreso.next()) {
-                int progresoActual = rsProgreso.getInt("progresoActual");
-                return Math.min(100, (progresoActual * 100) / objetivo); // Calcular el porcentaje basado en el objetivo
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void done() {
+                try {
+                    Object[] resultado = get();
+                    Map<String, String> nombres = (Map<String, String>) resultado[1];
+                    modeloClasificacion.setRowCount(0);
+                    for (ClasificacionVentana.Posicion posicion : (List<ClasificacionVentana.Posicion>) resultado[0]) {
+                        modeloClasificacion.addRow(new Object[]{posicion.puesto(),
+                                nombres.getOrDefault(posicion.usuarioId(), posicion.usuarioId()), posicion.puntos()});
+                    }
+                    ClasificacionVentana.Posicion propia = (ClasificacionVentana.Posicion) resultado[2];
+                    lblMiPosicion.setText(propia != null
+                            ? "Tu posición: " + propia.puesto() + "º con " + propia.puntos() + " puntos"
+                            : "Aún no has ganado puntos en este periodo");
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-        return 0; // En caso de error o sin datos, retorna 0% de progreso
+        }.execute();
     }
 
     /**
@@ -212,19 +347,32 @@ public class Graficos extends JFrame {
         tabbedPane = new JTabbedPane();
         estilizarTabbedPane(tabbedPane);
 
-        inicializarPanelPerfil();
-        inicializarPanelActividades();
-        inicializarPanelLogros();
-        inicializarPanelDesafios();
-        inicializarPanelCompetencias();
-        inicializarPanelRanking();
-
-        tabbedPane.addTab("Perfil", null, panelPerfil, "Perfil de usuario");
-        tabbedPane.addTab("Actividades", null, panelActividades, "Registro de actividades");
-        tabbedPane.addTab("Logros", null, panelLogros, "Logros disponibles");
-        tabbedPane.addTab("Desafíos", null, panelDesafios, "Desafíos activos");
-        tabbedPane.addTab("Competencias", null, panelCompetencias, "Competencias disponibles");
-        tabbedPane.addTab("Ranking", null, panelRanking, "Ranking de competencias");
+        // Solo el perfil se construye antes de mostrar la ventana; el resto, al abrir cada pestaña
+        PestanasDiferidas pestanas = new PestanasDiferidas(tabbedPane);
+        pestanas.agregar("Perfil", "Perfil de usuario", () -> {
+            inicializarPanelPerfil();
+            return panelPerfil;
+        });
+        pestanas.agregar("Actividades", "Registro de actividades", () -> {
+            inicializarPanelActividades();
+            return panelActividades;
+        });
+        pestanas.agregar("Logros", "Logros disponibles", () -> {
+            inicializarPanelLogros();
+            return panelLogros;
+        });
+        pestanas.agregar("Desafíos", "Desafíos activos", () -> {
+            inicializarPanelDesafios();
+            return panelDesafios;
+        });
+        pestanas.agregar("Competencias", "Competencias disponibles", () -> {
+            inicializarPanelCompetencias();
+            return panelCompetencias;
+        });
+        pestanas.agregar("Ranking", "Clasificación general y ranking de competencias", () -> {
+            inicializarPanelRanking();
+            return panelRanking;
+        });
 
         add(tabbedPane, BorderLayout.CENTER);
     }
@@ -251,10 +399,7 @@ public class Graficos extends JFrame {
      * Cierra la sesión del usuario actual.
      */
     private void cerrarSesion() {
-        File sesionFile = new File("sesion.txt");
-        if (sesionFile.exists()) {
-            sesionFile.delete();
-        }
+        SesionGuardada.eliminar();
         Configuracion.setUsuarioActual(null);
         new PantallaInicio().setVisible(true);
         this.dispose();
@@ -291,31 +436,19 @@ public class Graficos extends JFrame {
         JScrollPane scrollTabla = new JScrollPane(tablaDesafios);
         scrollTabla.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
 
-        cargarDesafiosDesdeBaseDeDatos();
+        actualizarDesafiosTabla();
         panelDesafios.add(scrollTabla, BorderLayout.CENTER);
     }
 
     /**
-     * Carga los desafíos desde la base de datos.
+     * Obtiene el texto con el que se muestra el estado de un desafío, por ejemplo "Expirado".
+     *
+     * @param estado El estado guardado.
+     * @return El texto del estado.
      */
-    private void cargarDesafiosDesdeBaseDeDatos() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT d.*, "
-                    + "(SELECT COUNT(*) FROM DesafiosCompletados WHERE usuarioId = ? AND desafioId = d.id) AS completado "
-                    + "FROM Desafios d";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuarioActual.getId());
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                modeloTablaDesafios.addRow(new Object[]{rs.getString("nombre"), rs.getString("descripcion"),
-                        rs.getInt("completado") > 0 ? "Completado" : "Pendiente"});
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+    private static String etiquetaEstado(Desafio.EstadoDesafio estado) {
+        String nombre = estado.name();
+        return nombre.charAt(0) + nombre.substring(1).toLowerCase();
     }
 
     /**
@@ -329,7 +462,7 @@ public class Graficos extends JFrame {
             defaultImage = escalarImagen(defaultImage, 150, 150); // Escalar antes de convertir
             return hacerImagenCircular(defaultImage, 150); // Convertir en circular
         } catch (Exception ex) {
-            System.err.println("Error al cargar la imagen predeterminada: " + ex.getMessage());
+            Registro.error("Error al cargar la imagen predeterminada", ex);
             ex.printStackTrace();
             // Retorna un ícono vacío si ocurre un error.
             BufferedImage emptyImage = new BufferedImage(150, 150, BufferedImage.TYPE_INT_ARGB);
@@ -394,20 +527,10 @@ public class Graficos extends JFrame {
                 .setBorder(BorderFactory.createCompoundBorder(BorderFactory.createTitledBorder("Información General"),
                         BorderFactory.createEmptyBorder(10, 10, 10, 10)));
 
-        JLabel lblNombre = new JLabel("Nombre: " + usuarioActual.getNombre());
-        JLabel lblNivel = new JLabel("Nivel: " + usuarioActual.getNivel());
+        lblNombre = new JLabel("Nombre: " + usuarioActual.getNombre());
+        lblNivel = new JLabel("Nivel: " + usuarioActual.getNivel());
 
-        try {
-            if (usuarioActual.getFotoPerfil() != null) {
-                ImageIcon iconoCircular = hacerImagenCircular(usuarioActual.getFotoPerfil(), 150);
-                lblFotoPerfil.setIcon(iconoCircular);
-            } else {
-                lblFotoPerfil.setIcon(cargarImagenPredeterminada());
-            }
-        } catch (Exception ex) {
-            lblFotoPerfil.setText("Error al cargar foto");
-            ex.printStackTrace();
-        }
+        mostrarFotoPerfil();
 
         estilizarEtiquetaPerfil(lblNombre);
         estilizarEtiquetaPerfil(lblNivel);
@@ -423,21 +546,24 @@ public class Graficos extends JFrame {
         panelProgreso.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createTitledBorder("Progreso"),
                 BorderFactory.createEmptyBorder(10, 10, 10, 10)));
 
-        JLabel lblPuntos = new JLabel("Puntos Totales: " + usuarioActual.getPuntosTotales());
+        lblPuntos = new JLabel("Puntos Totales: " + usuarioActual.getPuntosTotales());
         estilizarEtiquetaPerfil(lblPuntos);
 
-        JLabel lblExperiencia = new JLabel("Experiencia: " + usuarioActual.getExperiencia());
+        lblExperiencia = new JLabel("Experiencia: " + usuarioActual.getExperiencia());
         estilizarEtiquetaPerfil(lblExperiencia);
 
-        JProgressBar barraExperiencia = new JProgressBar();
-        barraExperiencia.setMaximum(1000); // Máximo fijo
-        barraExperiencia.setValue(usuarioActual.getExperiencia() % 1000);
+        lblPercentil = new JLabel(textoPercentil());
+        estilizarEtiquetaPerfil(lblPercentil);
+
+        barraExperiencia = new JProgressBar();
         barraExperiencia.setStringPainted(true);
+        actualizarBarraExperiencia();
         barraExperiencia.setBackground(new Color(230, 230, 230));
         barraExperiencia.setForeground(new Color(70, 130, 180));
 
         panelProgreso.add(lblPuntos);
         panelProgreso.add(lblExperiencia);
+        panelProgreso.add(lblPercentil);
         panelProgreso.add(Box.createRigidArea(new Dimension(0, 10)));
         panelProgreso.add(barraExperiencia);
 
@@ -520,10 +646,9 @@ public class Graficos extends JFrame {
         formulario.setVisible(true); // Abre el formulario de edición
 
         // Refrescar datos desde la base de datos
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
             String query = "SELECT nombre, fotoPerfil FROM Usuarios WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioActual.getId());
             ResultSet rs = stmt.executeQuery();
 
@@ -557,6 +682,23 @@ public class Graficos extends JFrame {
         }
     }
 
+    /**
+     * Muestra la foto de perfil que el usuario tiene cargada en memoria, o la imagen predeterminada si no tiene.
+     */
+    private void mostrarFotoPerfil() {
+        try {
+            if (usuarioActual.getFotoPerfil() != null) {
+                ImageIcon iconoCircular = hacerImagenCircular(usuarioActual.getFotoPerfil(), 150);
+                lblFotoPerfil.setIcon(iconoCircular);
+            } else {
+                lblFotoPerfil.setIcon(cargarImagenPredeterminada());
+            }
+        } catch (Exception ex) {
+            lblFotoPerfil.setText("Error al cargar foto");
+            ex.printStackTrace();
+        }
+    }
+
     /**
      * Actualiza la foto de perfil del usuario en la interfaz.
      */
@@ -608,11 +750,10 @@ public class Graficos extends JFrame {
      * @return Un ImageIcon con la foto de perfil o null si no se encuentra.
      */
     public ImageIcon obtenerFotoDesdeBaseDeDatos(String usuarioId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT fotoPerfil FROM Usuarios WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioId);
             ResultSet rs = stmt.executeQuery();
 
@@ -622,7 +763,7 @@ public class Graficos extends JFrame {
                     BufferedImage img = ImageIO.read(new ByteArrayInputStream(fotoBytes));
                     return new ImageIcon(img);
                 } else {
-                    System.out.println("El usuario no tiene foto de perfil almacenada.");
+                    Registro.info("El usuario no tiene foto de perfil almacenada", "usuarioId", usuarioId);
                 }
             }
         } catch (Exception ex) {
@@ -691,7 +832,7 @@ public class Graficos extends JFrame {
         btnActualizarRanking.setFocusPainted(false);
         btnActualizarRanking.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
         btnActualizarRanking.addActionListener(e -> {
-            int row = tablaCompetencias.getSelectedRow();
+            int row = tablaCompetencias != null ? tablaCompetencias.getSelectedRow() : -1;
             if (row != -1) {
                 String competenciaId = (String) modeloTablaCompetencias.getValueAt(row, 0);
                 cargarRanking(competenciaId);
@@ -701,8 +842,74 @@ public class Graficos extends JFrame {
             }
         });
 
-        panelRanking.add(scrollRanking, BorderLayout.CENTER);
-        panelRanking.add(btnActualizarRanking, BorderLayout.SOUTH);
+        JPanel panelCompetencia = new JPanel(new BorderLayout(10, 10));
+        panelCompetencia.setOpaque(false);
+        panelCompetencia.setBorder(BorderFactory.createTitledBorder("Ranking de la competencia"));
+        panelCompetencia.add(scrollRanking, BorderLayout.CENTER);
+        panelCompetencia.add(btnActualizarRanking, BorderLayout.SOUTH);
+
+        JPanel panelesRanking = new JPanel(new GridLayout(1, 2, 10, 0));
+        panelesRanking.setOpaque(false);
+        panelesRanking.add(inicializarPanelClasificacionGeneral());
+        panelesRanking.add(panelCompetencia);
+        panelRanking.add(panelesRanking, BorderLayout.CENTER);
+    }
+
+    /**
+     * Crea el panel de la clasificación general de los últimos días, con filtro por deporte.
+     *
+     * @return El panel de la clasificación general.
+     */
+    private JPanel inicializarPanelClasificacionGeneral() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setOpaque(false);
+        panel.setBorder(BorderFactory.createTitledBorder("Clasificación general"));
+
+        String[] ventanas = new String[Clasificaciones.VENTANAS.length];
+        for (int i = 0; i < ventanas.length; i++) {
+            int dias = Clasificaciones.VENTANAS[i];
+            ventanas[i] = dias == Clasificaciones.HISTORICO ? "Desde siempre" : "Últimos " + dias + " días";
+        }
+        cmbVentanaClasificacion = new JComboBox<>(ventanas);
+        cmbDeporteClasificacion = new JComboBox<>();
+        cmbDeporteClasificacion.addItem("Todos los deportes");
+        for (ActividadDeportiva.TipoDeporte tipo : ActividadDeportiva.TipoDeporte.values()) {
+            cmbDeporteClasificacion.addItem(tipo);
+        }
+        cmbVentanaClasificacion.addActionListener(e -> cargarClasificacionGeneral());
+        cmbDeporteClasificacion.addActionListener(e -> cargarClasificacionGeneral());
+
+        JPanel filtros = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        filtros.setOpaque(false);
+        filtros.add(cmbVentanaClasificacion);
+        filtros.add(cmbDeporteClasificacion);
+
+        modeloClasificacion = new DefaultTableModel(new String[]{"Posición", "Nombre", "Puntos"}, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable tablaClasificacion = new JTable(modeloClasificacion);
+        tablaClasificacion.setRowHeight(25);
+        tablaClasificacion.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        tablaClasificacion.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        tablaClasificacion.getTableHeader().setBackground(new Color(70, 130, 180));
+        tablaClasificacion.getTableHeader().setForeground(Color.WHITE);
+
+        JScrollPane scroll = new JScrollPane(tablaClasificacion);
+        scroll.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
+
+        lblMiPosicion = new JLabel(" ");
+        estilizarEtiquetaPerfil(lblMiPosicion);
+
+        panel.add(filtros, BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(lblMiPosicion, BorderLayout.SOUTH);
+        cargarClasificacionGeneral();
+        return panel;
     }
 
     /**
@@ -823,15 +1030,25 @@ public class Graficos extends JFrame {
     }
 
     /**
-     * Carga las competencias desde la base de datos y las muestra en la tabla.
+     * Carga las competencias desde la base de datos en segundo plano y las muestra en la tabla.
      */
     private void cargarCompetenciasDesdeBaseDeDatos() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        cargarFilas(modeloTablaCompetencias, this::leerFilasCompetencias);
+    }
+
+    /**
+     * Lee las filas de la tabla de competencias, con el estado de participación del usuario actual.
+     *
+     * @return Las filas de la tabla.
+     * @throws Exception Si ocurre un error en la base de datos.
+     */
+    private List<Object[]> leerFilasCompetencias() throws Exception {
+        List<Object[]> filas = new ArrayList<>();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT c.id, c.nombre, c.tipoDeporte, cp.estado " + "FROM Competencias c "
                     + "LEFT JOIN CompetenciasParticipacion cp ON c.id = cp.competenciaId AND cp.usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioActual.getId());
             ResultSet rs = stmt.executeQuery();
 
@@ -843,15 +1060,14 @@ public class Graficos extends JFrame {
                 tipoDeporte = transformarTipoDeporte(tipoDeporte);
                 estado = transformarEstado(estado);
 
-                modeloTablaCompetencias.addRow(new Object[]{rs.getString("id"), // ID de la competencia
+                filas.add(new Object[]{rs.getString("id"), // ID de la competencia
                         rs.getString("nombre"), // Nombre de la competencia
                         tipoDeporte, // Tipo de deporte transformado
                         estado != null ? estado : "No registrado" // Estado transformado
                 });
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
+        return filas;
     }
 
     /**
@@ -912,7 +1128,7 @@ public class Graficos extends JFrame {
         panelLogros.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         panelLogros.setBackground(new Color(245, 245, 250));
 
-        String[] columnas = {"Nombre", "Descripción", "Puntos", "Estado"};
+        String[] columnas = {"Nombre", "Descripción", "Puntos", "Estado", "Progreso"};
         modeloTablaLogros = new DefaultTableModel(columnas, 0) {
             private static final long serialVersionUID = 1L;
 
@@ -920,6 +1136,11 @@ public class Graficos extends JFrame {
             public boolean isCellEditable(int row, int column) {
                 return false; // Hace las celdas no editables
             }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                return columnIndex == 2 || columnIndex == 4 ? Integer.class : String.class;
+            }
         };
 
         JTable tablaLogros = new JTable(modeloTablaLogros) {
@@ -940,21 +1161,8 @@ public class Graficos extends JFrame {
         habilitarToolTipsTabla(tablaLogros);
         tablaLogros.setRowHeight(30);
 
-    /* // Configuración de renderizador para la columna de progreso
-    tablaLogros.getColumnModel().getColumn(4).setCellRenderer(new TableCellRenderer() {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                                                       boolean hasFocus, int row, int column) {
-            if (value instanceof JProgressBar) {
-                JProgressBar progressBar = (JProgressBar) value;
-                progressBar.setStringPainted(true); // Mostrar el texto del progreso
-                progressBar.setBackground(new Color(230, 230, 230));
-                progressBar.setForeground(new Color(70, 130, 180));
-                return progressBar;
-            }
-            return null;
-        }
-    });*/
+        // Un único renderizador pinta todas las barras a partir del porcentaje guardado en el modelo
+        tablaLogros.getColumnModel().getColumn(4).setCellRenderer(new RenderizadorProgreso());
 
         tablaLogros.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
         tablaLogros.getTableHeader().setBackground(new Color(70, 130, 180));
@@ -998,38 +1206,57 @@ public class Graficos extends JFrame {
     }
 
     /**
-     * Actualiza la tabla de logros con los datos de la base de datos.
+     * Actualiza en segundo plano la tabla de logros con los datos de la base de datos.
      */
     private void actualizarLogrosTabla() {
-        modeloTablaLogros.setRowCount(0); // Limpiar la tabla antes de llenarla
-
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        if (modeloTablaLogros == null) {
+            return; // La pestaña aún no se ha abierto; se cargará al abrirla
+        }
+        cargarFilas(modeloTablaLogros, this::leerFilasLogros);
+    }
 
-            String query = "SELECT * FROM Logros";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
+    /**
+     * Lee las filas de la tabla de logros. Se ejecuta fuera del hilo de Swing.
+     *
+     * @return Las filas de la tabla.
+     * @throws Exception Si ocurre un error en la base de datos.
+     */
+    private List<Object[]> leerFilasLogros() throws Exception {
+        List<Object[]> filas = new ArrayList<>();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            // El progreso se mide con los minutos totales del usuario, comunes a todos los logros: una sola consulta
+            PreparedStatement stmtMinutos = sesion.preparar(
+                    "SELECT COALESCE(SUM(duracionMinutos), 0) FROM Actividades WHERE usuarioId = ?");
+            stmtMinutos.setString(1, usuarioActual.getId());
+            long minutosTotales = 0;
+            try (ResultSet rs = stmtMinutos.executeQuery()) {
+                if (rs.next()) {
+                    minutosTotales = rs.getLong(1);
+                }
+            }
 
-            while (rs.next()) {
-                String nombre = rs.getString("nombre");
-                String descripcion = rs.getString("descripcion");
-                int puntosRecompensa = rs.getInt("puntosRecompensa");
-                String logroId = rs.getString("id");
-                int objetivo = rs.getInt("objetivo");
-                String estado = obtenerEstadoLogro(logroId);
-                int progreso = calcularProgresoLogro(logroId, objetivo);
-
-                // Crear barra de progreso para la columna
-                JProgressBar barraProgreso = new JProgressBar(0, 100);
-                barraProgreso.setValue(progreso);
-                barraProgreso.setStringPainted(true);
-                barraProgreso.setString(progreso + "%");
-
-                modeloTablaLogros.addRow(new Object[]{nombre, descripcion, puntosRecompensa, estado, barraProgreso});
+            // Logros en una sola consulta; el estado del usuario sale de sus cumplimientos en memoria
+            Cumplimientos cumplimientos = usuarioActual.getCumplimientos();
+            cumplimientos.asegurarCargados(sesion);
+            String query = "SELECT id, nombre, descripcion, puntosRecompensa, objetivo FROM Logros";
+            PreparedStatement stmt = sesion.preparar(query);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    boolean completado = cumplimientos.completoLogro(rs.getString("id"));
+                    int objetivo = rs.getInt("objetivo");
+                    int progreso;
+                    if (completado || objetivo == 0) {
+                        // Sin objetivo definido, el logro se considera completado automáticamente
+                        progreso = 100;
+                    } else {
+                        progreso = (int) Math.min(100, minutosTotales * 100 / objetivo);
+                    }
+                    filas.add(new Object[]{rs.getString("nombre"), rs.getString("descripcion"),
+                            rs.getInt("puntosRecompensa"), completado ? "Completado" : "Pendiente", progreso});
+                }
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
+        return filas;
     }
 
     /**
@@ -1137,17 +1364,17 @@ public class Graficos extends JFrame {
                             String competenciaId = sistema.obtenerCompetenciaRelacionada(usuarioActual.getId(), tipo);
                             if (competenciaId != null) {
                                 sistema.registrarActividadEnCompetencia(competenciaId, usuarioActual, actividad);
-                                cargarRanking(competenciaId);
                             } else {
                                 JOptionPane.showMessageDialog(null,
                                         "No estás registrado en una competencia activa para este deporte.",
                                         "Advertencia", JOptionPane.WARNING_MESSAGE);
                                 return null;
                             }
-                        } else {
-                            sistema.registrarActividad(actividad);
-                            sistema.verificarYActualizarLogros(usuarioActual);
-                            sistema.verificarYActualizarDesafios(usuarioActual);
+                        } else if (!sistema.registrarActividad(actividad)) {
+                            JOptionPane.showMessageDialog(null,
+                                    "No se pudo registrar la actividad. Inténtelo de nuevo.", "Error",
+                                    JOptionPane.ERROR_MESSAGE);
+                            return null;
                         }
 
                         modeloTablaActividades.addRow(
@@ -1158,9 +1385,6 @@ public class Graficos extends JFrame {
                         txtDistancia.setText("");
                         chkEsCompetencia.setSelected(false);
 
-                        actualizarLogrosTabla();
-                        actualizarDesafiosTabla();
-
                         JOptionPane.showMessageDialog(null, "Actividad registrada con éxito!");
                     } catch (NumberFormatException ex) {
                         JOptionPane.showMessageDialog(null, "Por favor, ingrese valores numéricos válidos.", "Error",
@@ -1179,10 +1403,70 @@ public class Graficos extends JFrame {
             pantallaCarga.setVisible(true);
         });
 
+        JButton btnImportar = new JButton("Importar CSV/GPX");
+        btnImportar.setBackground(new Color(70, 130, 180));
+        btnImportar.setForeground(Color.WHITE);
+        btnImportar.setFocusPainted(false);
+        btnImportar.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        btnImportar.addActionListener(e -> importarActividades());
+
+        JPanel panelBotonesActividades = new JPanel(new GridLayout(1, 2, 10, 0));
+        panelBotonesActividades.setOpaque(false);
+        panelBotonesActividades.add(btnRegistrar);
+        panelBotonesActividades.add(btnImportar);
+
         // Organizar componentes
         panelActividades.add(formulario, BorderLayout.NORTH);
         panelActividades.add(scrollTabla, BorderLayout.CENTER);
-        panelActividades.add(btnRegistrar, BorderLayout.SOUTH);
+        panelActividades.add(panelBotonesActividades, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Importa actividades desde un archivo CSV o GPX elegido por el usuario y muestra el resumen de la importación.
+     */
+    private void importarActividades() {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new FileNameExtensionFilter("Actividades (CSV, GPX)", "csv", "gpx"));
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File archivo = selector.getSelectedFile();
+        PantallaCarga pantallaCarga = new PantallaCarga(this, "Importando actividades, por favor espere...");
+
+        SwingWorker<ImportadorActividades.Resultado, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ImportadorActividades.Resultado doInBackground() throws Exception {
+                return ImportadorActividades.importar(archivo.toPath(), usuarioActual, sistema);
+            }
+
+            @Override
+            protected void done() {
+                pantallaCarga.dispose();
+                try {
+                    ImportadorActividades.Resultado resultado = get();
+                    cargarActividadesDesdeBaseDeDatos(modeloTablaActividades);
+
+                    String resumen = resultado.getImportadas() + " actividades importadas, "
+                            + resultado.getFallidas() + " filas con errores.";
+                    if (resultado.getErrores().isEmpty()) {
+                        JOptionPane.showMessageDialog(Graficos.this, resumen);
+                    } else {
+                        JTextArea detalle = new JTextArea(String.join("\n", resultado.getErrores()), 12, 50);
+                        detalle.setEditable(false);
+                        JOptionPane.showMessageDialog(Graficos.this, new Object[]{resumen, new JScrollPane(detalle)},
+                                "Importación", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(Graficos.this, "Error al importar: " + causa.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+
+        worker.execute();
+        pantallaCarga.setVisible(true);
     }
 
     /**
@@ -1193,11 +1477,10 @@ public class Graficos extends JFrame {
      * @return Estado de la competencia.
      */
     public String obtenerEstadoCompetencia(String competenciaId, String usuarioId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT estado FROM CompetenciasParticipacion WHERE competenciaId = ? AND usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competenciaId);
             stmt.setString(2, usuarioId);
             ResultSet rs = stmt.executeQuery();
@@ -1212,26 +1495,35 @@ public class Graficos extends JFrame {
     }
 
     /**
-     * Carga las actividades del usuario desde la base de datos y las muestra en la tabla.
+     * Carga las actividades del usuario desde la base de datos en segundo plano y las muestra en la tabla.
      *
      * @param modeloTabla Modelo de la tabla donde se mostrarán las actividades.
      */
     private void cargarActividadesDesdeBaseDeDatos(DefaultTableModel modeloTabla) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        cargarFilas(modeloTabla, this::leerFilasActividades);
+    }
+
+    /**
+     * Lee las filas de la tabla de actividades del usuario actual.
+     *
+     * @return Las filas de la tabla.
+     * @throws Exception Si ocurre un error en la base de datos.
+     */
+    private List<Object[]> leerFilasActividades() throws Exception {
+        List<Object[]> filas = new ArrayList<>();
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT * FROM Actividades WHERE usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioActual.getId());
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                modeloTabla.addRow(new Object[]{rs.getDate("fecha").toString() + " " + rs.getTime("hora").toString(),
+                filas.add(new Object[]{rs.getDate("fecha").toString() + " " + rs.getTime("hora").toString(),
                         rs.getString("tipo"), rs.getInt("duracionMinutos") + " min",
                         rs.getDouble("distanciaKm") + " km", rs.getInt("caloriasQuemadas")});
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
+        return filas;
     }
 }
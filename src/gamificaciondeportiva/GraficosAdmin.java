@@ -7,13 +7,13 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Clase para la administración de competencias, logros y desafíos en la aplicación de gamificación deportiva.
@@ -39,6 +39,7 @@ public class GraficosAdmin extends JFrame {
     private SistemaGamificacion sistema;
     private Usuario usuarioActual;
     private DefaultTableModel modeloTablaCompetencias;
+    private TablaPaginada paginasCompetencias, paginasLogros, paginasDesafios;
     private JDateChooser dateChooserInicio;
     private JDateChooser dateChooserFin;
     private DefaultTableModel modeloTablaLogros, modeloTablaDesafios;
@@ -93,17 +94,44 @@ public class GraficosAdmin extends JFrame {
      * Cierra la sesión del usuario actual.
      */
     private void cerrarSesion() {
-        // Elimina el archivo de sesión
-        File sesionFile = new File("sesion.txt");
-        if (sesionFile.exists()) {
-            sesionFile.delete();
-        }
+        SesionGuardada.eliminar(); // Elimina el archivo de sesión
 
         Configuracion.setUsuarioActual(null); // Limpia el usuario actual
         new PantallaInicio().setVisible(true); // Muestra la pantalla de inicio
         dispose(); // Cierra la ventana actual
     }
 
+    /**
+     * Recalcula en segundo plano las calorías guardadas de todas las actividades con el modelo de calorías actual y,
+     * si alguna cambió, reconstruye el cubo de estadísticas para que sus totales de calorías coincidan.
+     */
+    private void recalcularCalorias() {
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                    int actualizadas = ModeloCalorias.recalcularAlmacenadas(sesion);
+                    if (actualizadas > 0) {
+                        // El cubo guarda las calorías sumadas por celda sin el detalle por actividad: se regenera
+                        CuboActividad.reconstruir(sesion);
+                    }
+                    return actualizadas;
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    JOptionPane.showMessageDialog(GraficosAdmin.this, get() + " actividades actualizadas.");
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(GraficosAdmin.this, "Error al recalcular las calorías.", "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Configura la ventana principal de la interfaz de administración.
      */
@@ -115,7 +143,7 @@ public class GraficosAdmin extends JFrame {
         try {
             setIconImage(ImageIO.read(this.getClass().getResource("resources/Cubo-EnfocadoL.png")));
         } catch (IOException e) {
-            System.out.println("La imagen no se encuentra");
+            Registro.aviso("La imagen no se encuentra");
         }
     }
 
@@ -125,14 +153,12 @@ public class GraficosAdmin extends JFrame {
     private void inicializarComponentes() {
         JTabbedPane tabbedPane = new JTabbedPane();
 
-        // Pestaña de Competencias
-        tabbedPane.addTab("Competencias", inicializarPanelCompetencias());
-
-        // Pestaña de Logros
-        tabbedPane.addTab("Logros", inicializarPanelLogros());
-
-        // Pestaña de Desafíos
-        tabbedPane.addTab("Desafíos", inicializarPanelDesafios());
+        // Cada pestaña se construye y carga sus datos al abrirla por primera vez
+        PestanasDiferidas pestanas = new PestanasDiferidas(tabbedPane);
+        pestanas.agregar("Competencias", null, this::inicializarPanelCompetencias);
+        pestanas.agregar("Logros", null, this::inicializarPanelLogros);
+        pestanas.agregar("Desafíos", null, this::inicializarPanelDesafios);
+        pestanas.agregar("Estadísticas", "Actividad por día, deporte y nivel", this::inicializarPanelAnaliticas);
 
         // Configuración general del panel
         add(tabbedPane, BorderLayout.CENTER);
@@ -140,6 +166,17 @@ public class GraficosAdmin extends JFrame {
         setLocationRelativeTo(null);
     }
 
+    /**
+     * Inicializa el panel de estadísticas de actividad.
+     *
+     * @return El panel de estadísticas.
+     */
+    private JPanel inicializarPanelAnaliticas() {
+        PanelAnaliticas panelAnaliticas = new PanelAnaliticas();
+        panelAnaliticas.cargar();
+        return panelAnaliticas;
+    }
+
     /**
      * Inicializa el panel de desafíos.
      *
@@ -150,18 +187,20 @@ public class GraficosAdmin extends JFrame {
         panelDesafios.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         panelDesafios.setBackground(new Color(245, 245, 250));
 
-        // Tabla de desafíos
-        String[] columnas = {"ID", "Nombre", "Descripción", "Fecha Inicio", "Fecha Fin", "Estado"};
-        modeloTablaDesafios = new DefaultTableModel(columnas, 0);
-        JTable tablaDesafios = new JTable(modeloTablaDesafios);
+        // Tabla de desafíos, paginada y filtrada en la base de datos
+        paginasDesafios = new TablaPaginada("Desafios",
+                new String[]{"ID", "Nombre", "Descripción", "Puntos", "Estado", "Fecha Inicio", "Fecha Fin"},
+                new String[]{"id", "nombre", "descripcion", "puntosRecompensa", "estado", "fechaInicio", "fechaFin"});
+        paginasDesafios.buscarEn("nombre", "descripcion");
+        paginasDesafios.agregarFiltro("Estado", "estado", "PENDIENTE", "ACTIVO", "COMPLETADO", "EXPIRADO");
+        modeloTablaDesafios = paginasDesafios.getModelo();
+        JTable tablaDesafios = paginasDesafios.getTabla();
         tablaDesafios.setRowHeight(25);
         tablaDesafios.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
         tablaDesafios.getTableHeader().setBackground(new Color(70, 130, 180));
         tablaDesafios.getTableHeader().setForeground(Color.WHITE);
 
-        cargarDesafiosDesdeBaseDeDatos(modeloTablaDesafios);
-
-        JScrollPane scrollTabla = new JScrollPane(tablaDesafios);
+        paginasDesafios.cargar();
 
         // Botones
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
@@ -172,35 +211,12 @@ public class GraficosAdmin extends JFrame {
         panelBotones.add(btnEditar);
         panelBotones.add(btnEliminar);
 
-        panelDesafios.add(scrollTabla, BorderLayout.CENTER);
+        panelDesafios.add(paginasDesafios, BorderLayout.CENTER);
         panelDesafios.add(panelBotones, BorderLayout.SOUTH);
 
         return panelDesafios;
     }
 
-    /**
-     * Carga los logros desde la base de datos y los muestra en la tabla.
-     *
-     * @param modeloTabla El modelo de la tabla donde se mostrarán los logros.
-     */
-    private void cargarLogrosDesdeBaseDeDatos(DefaultTableModel modeloTabla) {
-        modeloTabla.setRowCount(0); // Limpia la tabla
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT * FROM Logros";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                modeloTabla.addRow(new Object[]{rs.getString("id"), rs.getString("nombre"),
-                        rs.getString("descripcion"), rs.getInt("puntosRecompensa"), rs.getString("tipo")});
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
-
     /**
      * Abre un diálogo para agregar un nuevo desafío.
      */
@@ -268,18 +284,31 @@ public class GraficosAdmin extends JFrame {
                     return;
                 }
 
-                try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                        Configuracion.DB_PASSWORD)) {
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
                     String query = "INSERT INTO Desafios (nombre, descripcion, puntosRecompensa, estado, fechaInicio, fechaFin) VALUES (?, ?, ?, ?, ?, ?)";
-                    PreparedStatement stmt = conn.prepareStatement(query);
-                    stmt.setString(1, nombre);
-                    stmt.setString(2, descripcion);
-                    stmt.setInt(3, puntos);
-                    stmt.setString(4, estado);
-                    stmt.setDate(5, new java.sql.Date(fechaInicio.getTime()));
-                    stmt.setDate(6, new java.sql.Date(fechaFin.getTime()));
-                    stmt.executeUpdate();
-                    cargarDesafiosDesdeBaseDeDatos(modeloTablaDesafios);
+                    String desafioId = null;
+                    try (PreparedStatement stmt = sesion.getConexion().prepareStatement(query,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                        stmt.setString(1, nombre);
+                        stmt.setString(2, descripcion);
+                        stmt.setInt(3, puntos);
+                        stmt.setString(4, estado);
+                        stmt.setDate(5, new java.sql.Date(fechaInicio.getTime()));
+                        stmt.setDate(6, new java.sql.Date(fechaFin.getTime()));
+                        stmt.executeUpdate();
+                        try (ResultSet claves = stmt.getGeneratedKeys()) {
+                            if (claves.next()) {
+                                desafioId = claves.getString(1);
+                            }
+                        }
+                    }
+                    IndiceCatalogo.DESAFIOS.invalidar();
+                    // Solo cambia el desafío nuevo: no hace falta revisar la tabla entera
+                    if (desafioId != null) {
+                        BarridoDesafios.barrer(sesion, desafioId);
+                    }
+                    PlanificadorEstados.despertar();
+                    paginasDesafios.recargar();
                     dialog.dispose();
                 } catch (Exception ex) {
                     ex.printStackTrace();
@@ -307,6 +336,12 @@ public class GraficosAdmin extends JFrame {
      * @param tablaDesafios La tabla que contiene los desafíos.
      */
     private void editarDesafio(JTable tablaDesafios) {
+        if (tablaDesafios.getSelectedRowCount() > 1) {
+            editarSeleccionMasiva("Desafios", "desafíos", idsSeleccionados(tablaDesafios), "estado",
+                    new String[]{"PENDIENTE", "ACTIVO", "COMPLETADO", "EXPIRADO"},
+                    (sesion, id) -> BarridoDesafios.barrer(sesion, id.toString()), paginasDesafios);
+            return;
+        }
         int row = tablaDesafios.getSelectedRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "Selecciona un desafío para editar.", "Advertencia",
@@ -372,10 +407,9 @@ public class GraficosAdmin extends JFrame {
 
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
         JButton btnGuardar = crearBoton("Guardar", e -> {
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
                 String query = "UPDATE Desafios SET nombre = ?, descripcion = ?, puntosRecompensa = ?, estado = ?, fechaInicio = ?, fechaFin = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
                 stmt.setString(1, txtNombre.getText());
                 stmt.setString(2, txtDescripcion.getText());
                 stmt.setInt(3, Integer.parseInt(txtPuntos.getText()));
@@ -384,7 +418,10 @@ public class GraficosAdmin extends JFrame {
                 stmt.setDate(6, new java.sql.Date(dateChooserFin.getDate().getTime()));
                 stmt.setString(7, desafioId);
                 stmt.executeUpdate();
-                cargarDesafiosDesdeBaseDeDatos(modeloTablaDesafios);
+                IndiceCatalogo.DESAFIOS.invalidar();
+                BarridoDesafios.barrer(sesion, desafioId);
+                PlanificadorEstados.despertar();
+                paginasDesafios.recargar();
                 dialog.dispose();
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -403,34 +440,25 @@ public class GraficosAdmin extends JFrame {
     }
 
     /**
-     * Elimina un desafío seleccionado.
+     * Elimina los desafíos seleccionados y sus registros de cumplimiento.
      *
      * @param tablaDesafios La tabla que contiene los desafíos.
      */
     private void eliminarDesafio(JTable tablaDesafios) {
-        int row = tablaDesafios.getSelectedRow();
-        if (row == -1) {
-            JOptionPane.showMessageDialog(this, "Selecciona un desafío para eliminar.", "Advertencia",
+        List<Object> ids = idsSeleccionados(tablaDesafios);
+        if (ids.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Selecciona uno o más desafíos para eliminar.", "Advertencia",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        String desafioId = modeloTablaDesafios.getValueAt(row, 0).toString();
-        int confirm = JOptionPane.showConfirmDialog(this, "¿Estás seguro de eliminar este desafío?",
-                "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
+        String mensaje = ids.size() == 1 ? "¿Estás seguro de eliminar este desafío?"
+                : "¿Estás seguro de eliminar " + ids.size() + " desafíos?";
+        int confirm = JOptionPane.showConfirmDialog(this, mensaje, "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
-                String query = "DELETE FROM Desafios WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, desafioId);
-                stmt.executeUpdate();
-                cargarDesafiosDesdeBaseDeDatos(modeloTablaDesafios);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error al eliminar el desafío.", "Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            ejecutarOperacionMasiva("Eliminando desafíos", ids.size(),
+                    progreso -> OperacionesMasivas.eliminarDesafios(ids, progreso), "desafíos eliminados",
+                    paginasDesafios);
         }
     }
 
@@ -444,18 +472,19 @@ public class GraficosAdmin extends JFrame {
         panelLogros.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         panelLogros.setBackground(new Color(245, 245, 250));
 
-        // Tabla de logros
-        String[] columnas = {"ID", "Nombre", "Descripción", "Puntos", "Tipo"};
-        modeloTablaLogros = new DefaultTableModel(columnas, 0);
-        JTable tablaLogros = new JTable(modeloTablaLogros);
+        // Tabla de logros, paginada y filtrada en la base de datos
+        paginasLogros = new TablaPaginada("Logros", new String[]{"ID", "Nombre", "Descripción", "Puntos", "Tipo"},
+                new String[]{"id", "nombre", "descripcion", "puntosRecompensa", "tipo"});
+        paginasLogros.buscarEn("nombre", "descripcion");
+        paginasLogros.agregarFiltro("Tipo", "tipo", "DIARIO", "SEMANAL", "MENSUAL");
+        modeloTablaLogros = paginasLogros.getModelo();
+        JTable tablaLogros = paginasLogros.getTabla();
         tablaLogros.setRowHeight(25);
         tablaLogros.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
         tablaLogros.getTableHeader().setBackground(new Color(70, 130, 180));
         tablaLogros.getTableHeader().setForeground(Color.WHITE);
 
-        cargarLogrosDesdeBaseDeDatos(modeloTablaLogros);
-
-        JScrollPane scrollTabla = new JScrollPane(tablaLogros);
+        paginasLogros.cargar();
 
         // Botones
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
@@ -466,7 +495,7 @@ public class GraficosAdmin extends JFrame {
         panelBotones.add(btnEditar);
         panelBotones.add(btnEliminar);
 
-        panelLogros.add(scrollTabla, BorderLayout.CENTER);
+        panelLogros.add(paginasLogros, BorderLayout.CENTER);
         panelLogros.add(panelBotones, BorderLayout.SOUTH);
 
         return panelLogros;
@@ -517,16 +546,16 @@ public class GraficosAdmin extends JFrame {
             String tipo = cmbTipo.getSelectedItem().toString();
 
             // Guardar en base de datos
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
                 String query = "INSERT INTO Logros (nombre, descripcion, puntosRecompensa, tipo) VALUES (?, ?, ?, ?)";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
                 stmt.setString(1, nombre);
                 stmt.setString(2, descripcion);
                 stmt.setInt(3, puntos);
                 stmt.setString(4, tipo);
                 stmt.executeUpdate();
-                cargarLogrosDesdeBaseDeDatos(modeloTablaLogros);
+                IndiceCatalogo.LOGROS.invalidar();
+                paginasLogros.recargar();
                 dialog.dispose();
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -549,6 +578,11 @@ public class GraficosAdmin extends JFrame {
      * @param tablaLogros La tabla que contiene los logros.
      */
     private void editarLogro(JTable tablaLogros) {
+        if (tablaLogros.getSelectedRowCount() > 1) {
+            editarSeleccionMasiva("Logros", "logros", idsSeleccionados(tablaLogros), "tipo",
+                    new String[]{"DIARIO", "SEMANAL", "MENSUAL"}, null, paginasLogros);
+            return;
+        }
         int row = tablaLogros.getSelectedRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "Selecciona un logro para editar.", "Advertencia",
@@ -598,17 +632,17 @@ public class GraficosAdmin extends JFrame {
 
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
         JButton btnGuardar = crearBoton("Guardar", e -> {
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
                 String query = "UPDATE Logros SET nombre = ?, descripcion = ?, puntosRecompensa = ?, tipo = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
                 stmt.setString(1, txtNombre.getText());
                 stmt.setString(2, txtDescripcion.getText());
                 stmt.setInt(3, Integer.parseInt(txtPuntos.getText()));
                 stmt.setString(4, cmbTipo.getSelectedItem().toString());
                 stmt.setString(5, logroId);
                 stmt.executeUpdate();
-                cargarLogrosDesdeBaseDeDatos(modeloTablaLogros);
+                IndiceCatalogo.LOGROS.invalidar();
+                paginasLogros.recargar();
                 dialog.dispose();
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -627,33 +661,24 @@ public class GraficosAdmin extends JFrame {
     }
 
     /**
-     * Elimina un logro seleccionado.
+     * Elimina los logros seleccionados y sus registros de cumplimiento.
      *
      * @param tablaLogros La tabla que contiene los logros.
      */
     private void eliminarLogro(JTable tablaLogros) {
-        int row = tablaLogros.getSelectedRow();
-        if (row == -1) {
-            JOptionPane.showMessageDialog(this, "Selecciona un logro para eliminar.", "Advertencia",
+        List<Object> ids = idsSeleccionados(tablaLogros);
+        if (ids.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Selecciona uno o más logros para eliminar.", "Advertencia",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        String logroId = modeloTablaLogros.getValueAt(row, 0).toString();
-        int confirm = JOptionPane.showConfirmDialog(this, "¿Estás seguro de eliminar este logro?",
-                "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
+        String mensaje = ids.size() == 1 ? "¿Estás seguro de eliminar este logro?"
+                : "¿Estás seguro de eliminar " + ids.size() + " logros?";
+        int confirm = JOptionPane.showConfirmDialog(this, mensaje, "Confirmar eliminación", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
-                String query = "DELETE FROM Logros WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, logroId);
-                stmt.executeUpdate();
-                cargarLogrosDesdeBaseDeDatos(modeloTablaLogros);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error al eliminar el logro.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            ejecutarOperacionMasiva("Eliminando logros", ids.size(),
+                    progreso -> OperacionesMasivas.eliminarLogros(ids, progreso), "logros eliminados", paginasLogros);
         }
     }
 
@@ -665,18 +690,16 @@ public class GraficosAdmin extends JFrame {
     private JPanel inicializarPanelCompetencias() {
         JPanel panelCompetencias = new JPanel(new BorderLayout(10, 10));
 
-        modeloTablaCompetencias = new DefaultTableModel(
-                new String[]{"ID", "Nombre", "Tipo", "Fecha Inicio", "Fecha Fin", "Estado"}, 0) {
-
-            private static final long serialVersionUID = 1L;
+        paginasCompetencias = new TablaPaginada("Competencias",
+                new String[]{"ID", "Nombre", "Tipo", "Fecha Inicio", "Fecha Fin", "Estado"},
+                new String[]{"id", "nombre", "tipoDeporte", "fechaInicio", "fechaFin", "estado"});
+        paginasCompetencias.buscarEn("nombre");
+        paginasCompetencias.agregarFiltro("Deporte", "tipoDeporte", "CORRER", "NATACION", "CICLISMO", "FUTBOL",
+                "BALONCESTO", "VOLLEYBALL", "GIMNASIO");
+        paginasCompetencias.agregarFiltro("Estado", "estado", "REGISTRO", "EN_PROGRESO", "FINALIZADA");
+        modeloTablaCompetencias = paginasCompetencias.getModelo();
 
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hace las celdas no editables
-            }
-        };
-
-        JTable tablaCompetencias = new JTable(modeloTablaCompetencias);
+        JTable tablaCompetencias = paginasCompetencias.getTabla();
         tablaCompetencias.setRowHeight(25);
         tablaCompetencias.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         tablaCompetencias.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -685,8 +708,7 @@ public class GraficosAdmin extends JFrame {
         tablaCompetencias.setSelectionBackground(new Color(135, 206, 250));
         tablaCompetencias.setSelectionForeground(Color.BLACK);
 
-        JScrollPane scrollTabla = new JScrollPane(tablaCompetencias);
-        panelCompetencias.add(scrollTabla, BorderLayout.CENTER);
+        panelCompetencias.add(paginasCompetencias, BorderLayout.CENTER);
 
         // Panel de Botones
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
@@ -695,67 +717,23 @@ public class GraficosAdmin extends JFrame {
         JButton btnAgregar = crearBoton("Agregar Competencia", e -> agregarCompetencia());
         JButton btnEditar = crearBoton("Editar Competencia", e -> editarCompetencia(tablaCompetencias));
         JButton btnEliminar = crearBoton("Eliminar Competencia", e -> eliminarCompetencia(tablaCompetencias));
+        JButton btnRecalcularCalorias = crearBoton("Recalcular Calorías", e -> recalcularCalorias());
         JButton btnCerrarSesion = crearBoton("Cerrar Sesión", e -> cerrarSesion());
 
         panelBotones.add(btnAgregar);
         panelBotones.add(btnEditar);
         panelBotones.add(btnEliminar);
+        panelBotones.add(btnRecalcularCalorias);
         panelBotones.add(btnCerrarSesion);
 
         panelCompetencias.add(panelBotones, BorderLayout.SOUTH);
 
-        // Cargar datos iniciales
-        cargarCompetenciasDesdeBaseDeDatos();
+        // Cargar la primera página
+        paginasCompetencias.cargar();
 
         return panelCompetencias;
     }
 
-    /**
-     * Carga los desafíos desde la base de datos y los muestra en la tabla.
-     *
-     * @param modeloTabla El modelo de la tabla donde se mostrarán los desafíos.
-     */
-    private void cargarDesafiosDesdeBaseDeDatos(DefaultTableModel modeloTabla) {
-        modeloTabla.setRowCount(0); // Limpia la tabla
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT * FROM Desafios";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                modeloTabla
-                        .addRow(new Object[]{rs.getString("id"), rs.getString("nombre"), rs.getString("descripcion"),
-                                rs.getDate("fechaInicio"), rs.getDate("fechaFin"), rs.getString("estado")});
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    /**
-     * Carga las competencias desde la base de datos y las muestra en la tabla.
-     */
-    private void cargarCompetenciasDesdeBaseDeDatos() {
-        modeloTablaCompetencias.setRowCount(0); // Limpiar la tabla antes de llenarla
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "SELECT * FROM Competencias";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                modeloTablaCompetencias
-                        .addRow(new Object[]{rs.getString("id"), rs.getString("nombre"), rs.getString("tipoDeporte"),
-                                rs.getDate("fechaInicio"), rs.getDate("fechaFin"), rs.getString("estado")});
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
-
     /**
      * Crea un botón con el texto y la acción especificados.
      *
@@ -852,23 +830,22 @@ public class GraficosAdmin extends JFrame {
                 return;
             }
 
-            // Determinar el estado de la competencia según las fechas
+            // Estado inicial según las fechas; el planificador de estados lo mantiene al día después
             String estado;
             Date hoy = new Date();
             if (hoy.before(fechaInicio)) {
-                estado = "PENDIENTE";
+                estado = Competencia.EstadoCompetencia.REGISTRO.name();
             } else if (hoy.after(fechaFin)) {
-                estado = "FINALIZADA";
+                estado = Competencia.EstadoCompetencia.FINALIZADA.name();
             } else {
-                estado = "ACTIVO";
+                estado = Competencia.EstadoCompetencia.EN_PROGRESO.name();
             }
 
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
                 String query = "INSERT INTO Competencias (id, nombre, tipoDeporte, fechaInicio, fechaFin, estado) "
                         + "VALUES (?, ?, ?, ?, ?, ?)";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
 
                 // Generar un ID único para la competencia
                 String id = "COMP" + System.currentTimeMillis();
@@ -881,10 +858,11 @@ public class GraficosAdmin extends JFrame {
                 stmt.setString(6, estado); // Estado calculado
 
                 stmt.executeUpdate();
+                PlanificadorEstados.despertar();
 
                 JOptionPane.showMessageDialog(this, "Competencia agregada con éxito.", "Éxito",
                         JOptionPane.INFORMATION_MESSAGE);
-                cargarCompetenciasDesdeBaseDeDatos(); // Refrescar la tabla
+                paginasCompetencias.recargar(); // Refrescar la tabla
                 dialog.dispose();
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Error al agregar la competencia: " + ex.getMessage(), "Error",
@@ -987,11 +965,10 @@ public class GraficosAdmin extends JFrame {
                 return;
             }
 
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
+            try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
                 String query = "UPDATE Competencias SET nombre = ?, tipoDeporte = ?, fechaInicio = ?, fechaFin = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
 
                 stmt.setString(1, nuevoNombre);
                 stmt.setString(2, nuevoTipoDeporte);
@@ -1000,9 +977,10 @@ public class GraficosAdmin extends JFrame {
                 stmt.setString(5, id);
 
                 stmt.executeUpdate();
+                PlanificadorEstados.despertar();
 
                 mostrarMensaje("Competencia actualizada con éxito.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                cargarCompetenciasDesdeBaseDeDatos(); // Refrescar la tabla
+                paginasCompetencias.recargar(); // Refrescar la tabla
                 dialog.dispose();
             } catch (Exception ex) {
                 mostrarMensaje("Error al actualizar la competencia: " + ex.getMessage(), "Error",
@@ -1037,35 +1015,171 @@ public class GraficosAdmin extends JFrame {
     }
 
     /**
-     * Elimina una competencia seleccionada.
+     * Elimina las competencias seleccionadas con sus participaciones y puntuaciones.
      *
      * @param tabla La tabla que contiene las competencias.
      */
     private void eliminarCompetencia(JTable tabla) {
-        int row = tabla.getSelectedRow();
-        if (row == -1) {
-            JOptionPane.showMessageDialog(this, "Selecciona una competencia para eliminar.", "Advertencia",
+        List<Object> ids = idsSeleccionados(tabla);
+        if (ids.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Selecciona una o más competencias para eliminar.", "Advertencia",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        String id = (String) tabla.getValueAt(row, 0);
-        int confirm = JOptionPane.showConfirmDialog(this, "¿Estás seguro de que deseas eliminar esta competencia?",
-                "Confirmar Eliminación", JOptionPane.YES_NO_OPTION);
+        String mensaje = ids.size() == 1 ? "¿Estás seguro de que deseas eliminar esta competencia?"
+                : "¿Estás seguro de que deseas eliminar " + ids.size() + " competencias?";
+        int confirm = JOptionPane.showConfirmDialog(this, mensaje, "Confirmar Eliminación", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                    Configuracion.DB_PASSWORD)) {
-                String query = "DELETE FROM Competencias WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, id);
-                stmt.executeUpdate();
-                JOptionPane.showMessageDialog(this, "Competencia eliminada con éxito.");
-                cargarCompetenciasDesdeBaseDeDatos();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error al eliminar la competencia.", "Error",
-                        JOptionPane.ERROR_MESSAGE);
+            ejecutarOperacionMasiva("Eliminando competencias", ids.size(),
+                    progreso -> OperacionesMasivas.eliminarCompetencias(ids, progreso), "competencias eliminadas",
+                    paginasCompetencias);
+        }
+    }
+
+    /**
+     * Abre un diálogo para asignar los mismos puntos de recompensa y el mismo valor de una columna a varias filas. Los
+     * campos que se dejan sin cambios no se modifican.
+     *
+     * @param tabla    La tabla de la base de datos.
+     * @param entidad  El nombre de las filas en plural, para los mensajes.
+     * @param ids      Los IDs de las filas seleccionadas.
+     * @param columna  La columna que se elige con la lista de opciones.
+     * @param opciones Los valores posibles de esa columna.
+     * @param porFila  Acción adicional para cada fila actualizada, o null.
+     * @param paginas  La tabla a recargar al terminar.
+     */
+    private void editarSeleccionMasiva(String tabla, String entidad, List<Object> ids, String columna,
+                                       String[] opciones, OperacionesMasivas.AccionPorFila porFila,
+                                       TablaPaginada paginas) {
+        String sinCambios = "(sin cambios)";
+        JTextField txtPuntos = new JTextField();
+        estilizarCampoTexto(txtPuntos);
+        JComboBox<String> cmbValor = new JComboBox<>();
+        cmbValor.addItem(sinCambios);
+        for (String opcion : opciones) {
+            cmbValor.addItem(opcion);
+        }
+
+        JPanel panelFormulario = new JPanel(new GridLayout(0, 1, 5, 5));
+        panelFormulario.add(new JLabel("Editar " + ids.size() + " " + entidad + ". Deja en blanco lo que no cambie."));
+        panelFormulario.add(new JLabel("Puntos de Recompensa:"));
+        panelFormulario.add(txtPuntos);
+        panelFormulario.add(new JLabel(Character.toUpperCase(columna.charAt(0)) + columna.substring(1) + ":"));
+        panelFormulario.add(cmbValor);
+        int opcion = JOptionPane.showConfirmDialog(this, panelFormulario, "Editar " + entidad,
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (opcion != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        List<String> columnas = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        if (!txtPuntos.getText().isBlank()) {
+            try {
+                valores.add(Integer.parseInt(txtPuntos.getText().trim()));
+                columnas.add("puntosRecompensa");
+            } catch (NumberFormatException ex) {
+                mostrarMensaje("Los puntos deben ser un número entero.", "Advertencia", JOptionPane.WARNING_MESSAGE);
+                return;
             }
         }
+        boolean cambiaValor = !sinCambios.equals(cmbValor.getSelectedItem());
+        if (cambiaValor) {
+            columnas.add(columna);
+            valores.add(cmbValor.getSelectedItem());
+        }
+        if (columnas.isEmpty()) {
+            return;
+        }
+
+        OperacionesMasivas.AccionPorFila accion = cambiaValor ? porFila : null;
+        ejecutarOperacionMasiva("Editando " + entidad, ids.size(), progreso -> OperacionesMasivas.actualizar(tabla,
+                columnas.toArray(new String[0]), valores.toArray(), ids, accion, progreso), entidad + " actualizados",
+                paginas);
+    }
+
+    /**
+     * Obtiene los IDs de las filas seleccionadas de una tabla, cuya primera columna es el ID.
+     *
+     * @param tabla La tabla.
+     * @return Los IDs seleccionados, en el orden de la tabla.
+     */
+    private List<Object> idsSeleccionados(JTable tabla) {
+        List<Object> ids = new ArrayList<>();
+        for (int fila : tabla.getSelectedRows()) {
+            ids.add(tabla.getModel().getValueAt(tabla.convertRowIndexToModel(fila), 0));
+        }
+        return ids;
+    }
+
+    /**
+     * Ejecuta una operación masiva en segundo plano mostrando su avance. La operación puede cancelarse entre dos
+     * lotes; al terminar se informa del resultado y se recarga la tabla.
+     *
+     * @param titulo    El título del diálogo de progreso.
+     * @param total     El número de filas a procesar.
+     * @param tarea     La operación.
+     * @param resultado El texto que sigue al número de filas procesadas en el mensaje final.
+     * @param paginas   La tabla a recargar al terminar.
+     */
+    private void ejecutarOperacionMasiva(String titulo, int total, TareaMasiva tarea, String resultado,
+                                         TablaPaginada paginas) {
+        ProgressMonitor monitor = new ProgressMonitor(this, titulo, "", 0, total);
+        monitor.setMillisToDecideToPopup(200);
+        monitor.setMillisToPopup(200);
+
+        new SwingWorker<Integer, String>() {
+            private volatile int procesados;
+            private volatile boolean cancelado;
+
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return tarea.ejecutar(new OperacionesMasivas.Progreso() {
+                    @Override
+                    public void avanzar(int hechos, String nota) {
+                        procesados = hechos;
+                        publish(nota);
+                    }
+
+                    @Override
+                    public boolean cancelado() {
+                        return cancelado;
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<String> notas) {
+                if (monitor.isCanceled()) {
+                    cancelado = true;
+                    return;
+                }
+                monitor.setProgress(procesados);
+                monitor.setNote(notas.get(notas.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                paginas.recargar();
+                try {
+                    int filas = get();
+                    mostrarMensaje(filas + " " + resultado + (cancelado ? " antes de cancelar." : "."), titulo,
+                            JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    mostrarMensaje("Error: " + ex.getMessage(), titulo, JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Operación masiva que informa de su avance.
+     */
+    @FunctionalInterface
+    private interface TareaMasiva {
+        int ejecutar(OperacionesMasivas.Progreso progreso) throws Exception;
     }
 }
\ No newline at end of file
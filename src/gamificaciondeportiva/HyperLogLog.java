@@ -0,0 +1,174 @@
+package gamificaciondeportiva;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * La clase HyperLogLog estima cuántos elementos distintos se han añadido usando una cantidad fija de memoria.
+ * <p>
+ * Usa 2<sup>{@value #PRECISION}</sup> registros de un byte (4 KB como máximo), con un error estándar de
+ * {@code 1.04 / sqrt(4096)}, aproximadamente un 1,6 %: el 95 % de las estimaciones quedan a menos de un 3,3 % del valor
+ * real, tanto para cien usuarios como para diez millones. Con pocos elementos se usa el conteo lineal, que es casi
+ * exacto.
+ * <p>
+ * Dos estimadores se fusionan tomando el máximo de cada registro, y el resultado es el mismo que si todos los
+ * elementos se hubieran añadido a uno solo. Así los usuarios únicos de una semana o un mes se obtienen fusionando los
+ * estimadores de cada día, sin contar dos veces a quien estuvo activo varios días.
+ * <p>
+ * Esta clase no es segura para hilos.
+ */
+final class HyperLogLog {
+    /**
+     * Bits del hash que eligen el registro.
+     */
+    static final int PRECISION = 12;
+
+    /**
+     * Número de registros.
+     */
+    static final int REGISTROS = 1 << PRECISION;
+
+    /**
+     * Error estándar relativo de la estimación.
+     */
+    static final double ERROR_ESTANDAR = 1.04 / Math.sqrt(REGISTROS);
+
+    private static final byte FORMATO_DENSO = 1;
+    private static final byte FORMATO_DISPERSO = 2;
+    private static final double ALFA = 0.7213 / (1 + 1.079 / REGISTROS);
+
+    private final byte[] registros = new byte[REGISTROS];
+
+    /**
+     * Añade un elemento.
+     *
+     * @param valor El elemento, por ejemplo el ID de un usuario.
+     * @return true si cambió algún registro.
+     */
+    boolean agregar(String valor) {
+        long hash = hash(valor);
+        int indice = (int) (hash >>> (64 - PRECISION));
+        // El bit de guarda limita el rango cuando los bits restantes son todos cero
+        byte rango = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rango > registros[indice]) {
+            registros[indice] = rango;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Incorpora los elementos de otro estimador.
+     *
+     * @param otro El estimador a fusionar.
+     * @return true si cambió algún registro.
+     */
+    boolean fusionar(HyperLogLog otro) {
+        boolean cambio = false;
+        for (int i = 0; i < REGISTROS; i++) {
+            if (otro.registros[i] > registros[i]) {
+                registros[i] = otro.registros[i];
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    /**
+     * Estima el número de elementos distintos añadidos.
+     *
+     * @return La estimación.
+     */
+    long estimar() {
+        double suma = 0;
+        int vacios = 0;
+        for (byte registro : registros) {
+            suma += 1.0 / (1L << registro);
+            if (registro == 0) {
+                vacios++;
+            }
+        }
+        double estimacion = ALFA * REGISTROS * REGISTROS / suma;
+        if (estimacion <= 2.5 * REGISTROS && vacios > 0) {
+            estimacion = REGISTROS * Math.log((double) REGISTROS / vacios); // Conteo lineal
+        }
+        return Math.round(estimacion);
+    }
+
+    /**
+     * Serializa el estimador. Con pocos registros ocupados se guardan solo esos (3 bytes cada uno), de modo que un día
+     * con diez usuarios ocupa unos 30 bytes en lugar de 4 KB.
+     *
+     * @return Los bytes del estimador.
+     */
+    byte[] aBytes() {
+        int ocupados = 0;
+        for (byte registro : registros) {
+            if (registro != 0) {
+                ocupados++;
+            }
+        }
+        if (ocupados * 3 >= REGISTROS) {
+            byte[] bytes = new byte[REGISTROS + 1];
+            bytes[0] = FORMATO_DENSO;
+            System.arraycopy(registros, 0, bytes, 1, REGISTROS);
+            return bytes;
+        }
+        byte[] bytes = new byte[ocupados * 3 + 1];
+        bytes[0] = FORMATO_DISPERSO;
+        int posicion = 1;
+        for (int i = 0; i < REGISTROS; i++) {
+            if (registros[i] != 0) {
+                bytes[posicion++] = (byte) (i >>> 8);
+                bytes[posicion++] = (byte) i;
+                bytes[posicion++] = registros[i];
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reconstruye un estimador serializado con {@link #aBytes()}.
+     *
+     * @param bytes Los bytes del estimador, o null para uno vacío.
+     * @return El estimador.
+     * @throws IllegalArgumentException Si los bytes no tienen un formato válido.
+     */
+    static HyperLogLog desdeBytes(byte[] bytes) {
+        HyperLogLog estimador = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return estimador;
+        }
+        if (bytes[0] == FORMATO_DENSO && bytes.length == REGISTROS + 1) {
+            System.arraycopy(bytes, 1, estimador.registros, 0, REGISTROS);
+        } else if (bytes[0] == FORMATO_DISPERSO && (bytes.length - 1) % 3 == 0) {
+            for (int posicion = 1; posicion < bytes.length; posicion += 3) {
+                int indice = ((bytes[posicion] & 0xFF) << 8) | (bytes[posicion + 1] & 0xFF);
+                if (indice >= REGISTROS) {
+                    throw new IllegalArgumentException("Índice de registro fuera de rango: " + indice);
+                }
+                estimador.registros[indice] = bytes[posicion + 2];
+            }
+        } else {
+            throw new IllegalArgumentException("Formato de HyperLogLog desconocido");
+        }
+        return estimador;
+    }
+
+    /**
+     * Hash de 64 bits: FNV-1a sobre los bytes UTF-8 seguido de la mezcla final de MurmurHash3, que reparte bien
+     * también los bits altos con los que se elige el registro.
+     */
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,375 @@
+package gamificaciondeportiva;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La clase ImportadorActividades carga actividades deportivas en bloque desde archivos CSV o GPX.
+ * <p>
+ * Los archivos se leen de forma secuencial, sin cargarlos completos en memoria:
+ * <ul>
+ *   <li><b>CSV</b>: una actividad por fila. La primera fila es la cabecera y debe incluir las columnas
+ *       {@code tipo}, {@code duracionMinutos} y {@code distanciaKm}; las columnas {@code fecha} (yyyy-MM-dd),
+ *       {@code hora} (HH:mm[:ss]) y {@code esCompetencia} son opcionales. Se acepta coma o punto y coma como
+ *       separador.</li>
+ *   <li><b>GPX</b>: el archivo completo es una actividad. La duración y la distancia se calculan a partir de los
+ *       puntos del recorrido.</li>
+ * </ul>
+ * Las filas válidas se insertan en lotes de {@value #TAMANO_LOTE}, confirmando cada lote por separado. Las filas
+ * inválidas no detienen la importación: se anotan en el {@link Resultado} con su número de línea. Si la base de datos
+ * rechaza una fila de un lote, el lote se revierte y se vuelve a insertar fila a fila, de modo que solo se pierden las
+ * filas rechazadas y cada una se anota con su propio error. Al terminar se hace una única evaluación de logros y
+ * desafíos para el usuario.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * ImportadorActividades.Resultado resultado = ImportadorActividades.importar(Path.of("actividades.csv"), usuario, sistema);
+ * System.out.println(resultado.getImportadas() + " actividades importadas, " + resultado.getFallidas() + " errores");
+ * }
+ * </pre>
+ */
+public final class ImportadorActividades {
+    /**
+     * Número de actividades por lote de inserción.
+     */
+    static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Número máximo de mensajes de error que se conservan en el resultado.
+     */
+    private static final int MAX_ERRORES_GUARDADOS = 1000;
+
+    private static final String INSERTAR = "INSERT INTO Actividades (id, usuarioId, tipo, duracionMinutos, distanciaKm, "
+            + "fecha, hora, caloriasQuemadas, esCompetencia) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final AtomicLong secuencia = new AtomicLong();
+
+    private ImportadorActividades() {
+    }
+
+    /**
+     * Importa las actividades de un archivo CSV o GPX, según su extensión.
+     *
+     * @param archivo El archivo a importar.
+     * @param usuario El usuario al que pertenecen las actividades.
+     * @param sistema El sistema de gamificación, para evaluar logros y desafíos al terminar.
+     * @return El resultado de la importación.
+     * @throws Exception Si el archivo no se puede leer o la base de datos no está disponible.
+     */
+    public static Resultado importar(Path archivo, Usuario usuario, SistemaGamificacion sistema) throws Exception {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        Resultado resultado = new Resultado();
+
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            Lote lote = new Lote(sesion, resultado);
+            if (nombre.endsWith(".gpx")) {
+                importarGpx(archivo, usuario, lote);
+            } else if (nombre.endsWith(".csv")) {
+                importarCsv(archivo, usuario, lote);
+            } else {
+                throw new IllegalArgumentException("Formato no soportado: " + archivo.getFileName());
+            }
+            lote.vaciar();
+        }
+
+        if (resultado.importadas > 0) {
+            sistema.verificarLogrosYDesafios(usuario);
+        }
+        return resultado;
+    }
+
+    private static void importarCsv(Path archivo, Usuario usuario, Lote lote) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String cabecera = reader.readLine();
+            if (cabecera == null) {
+                return;
+            }
+            if (cabecera.startsWith("\uFEFF")) {
+                cabecera = cabecera.substring(1);
+            }
+            char separador = cabecera.indexOf(';') >= 0 && cabecera.indexOf(',') < 0 ? ';' : ',';
+            List<String> columnas = dividir(cabecera, separador, new ArrayList<>());
+            int colTipo = -1, colDuracion = -1, colDistancia = -1, colFecha = -1, colHora = -1, colCompetencia = -1;
+            for (int i = 0; i < columnas.size(); i++) {
+                switch (columnas.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "tipo" -> colTipo = i;
+                    case "duracionminutos", "duracion" -> colDuracion = i;
+                    case "distanciakm", "distancia" -> colDistancia = i;
+                    case "fecha" -> colFecha = i;
+                    case "hora" -> colHora = i;
+                    case "escompetencia", "competencia" -> colCompetencia = i;
+                    default -> {
+                    }
+                }
+            }
+            if (colTipo < 0 || colDuracion < 0 || colDistancia < 0) {
+                throw new IllegalArgumentException(
+                        "La cabecera debe incluir las columnas tipo, duracionMinutos y distanciaKm.");
+            }
+
+            List<String> campos = new ArrayList<>();
+            String linea;
+            int numeroLinea = 1;
+            while ((linea = reader.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                ActividadDeportiva actividad;
+                try {
+                    dividir(linea, separador, campos);
+                    ActividadDeportiva.TipoDeporte tipo = ActividadDeportiva.TipoDeporte
+                            .valueOf(campo(campos, colTipo).toUpperCase(Locale.ROOT));
+                    int duracion = Integer.parseInt(campo(campos, colDuracion));
+                    double distancia = Double.parseDouble(campo(campos, colDistancia).replace(',', '.'));
+                    if (duracion <= 0 || distancia < 0) {
+                        throw new IllegalArgumentException("duración o distancia fuera de rango");
+                    }
+                    boolean esCompetencia = colCompetencia >= 0 && esVerdadero(campoOpcional(campos, colCompetencia));
+
+                    actividad = new ActividadDeportiva(nuevoId(), tipo, duracion, distancia, usuario, esCompetencia);
+                    String fecha = campoOpcional(campos, colFecha);
+                    if (!fecha.isEmpty()) {
+                        actividad.setFecha(LocalDate.parse(fecha));
+                    }
+                    String hora = campoOpcional(campos, colHora);
+                    if (!hora.isEmpty()) {
+                        actividad.setHora(LocalTime.parse(hora));
+                    }
+                } catch (Exception ex) {
+                    lote.resultado.registrarError(numeroLinea, ex);
+                    continue;
+                }
+                // Los errores de base de datos no son de la fila: interrumpen la importación
+                lote.agregar(actividad, numeroLinea);
+            }
+        }
+    }
+
+    private static void importarGpx(Path archivo, Usuario usuario, Lote lote) throws Exception {
+        LectorTrackGPS.Resumen recorrido = LectorTrackGPS.leer(archivo);
+        if (!recorrido.tieneDuracion()) {
+            lote.resultado.registrarError(0, new IllegalArgumentException("el recorrido no tiene marcas de tiempo"));
+            return;
+        }
+        ActividadDeportiva actividad = new ActividadDeportiva(nuevoId(), tipoDesdeGpx(recorrido.tipo()), 0, 0,
+                usuario, false);
+        recorrido.aplicarA(actividad);
+        lote.agregar(actividad, 0);
+    }
+
+    /**
+     * Traduce el tipo de actividad de un GPX (por ejemplo "running" o "cycling") al deporte de la aplicación.
+     */
+    static ActividadDeportiva.TipoDeporte tipoDesdeGpx(String tipo) {
+        if (tipo == null) {
+            return ActividadDeportiva.TipoDeporte.CORRER;
+        }
+        String t = tipo.toLowerCase(Locale.ROOT);
+        if (t.contains("cycl") || t.contains("bik") || t.contains("cicl")) {
+            return ActividadDeportiva.TipoDeporte.CICLISMO;
+        }
+        if (t.contains("swim") || t.contains("nata")) {
+            return ActividadDeportiva.TipoDeporte.NATACION;
+        }
+        return ActividadDeportiva.TipoDeporte.CORRER;
+    }
+
+    /**
+     * Genera un ID único para una actividad importada: milisegundos actuales y un contador del proceso.
+     */
+    private static String nuevoId() {
+        return "I" + System.currentTimeMillis() + "_" + secuencia.incrementAndGet();
+    }
+
+    /**
+     * Divide una línea CSV en campos, respetando los valores entre comillas dobles.
+     */
+    private static List<String> dividir(String linea, char separador, List<String> campos) {
+        campos.clear();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == separador && !entreComillas) {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    private static String campo(List<String> campos, int indice) {
+        if (indice >= campos.size() || campos.get(indice).isBlank()) {
+            throw new IllegalArgumentException("falta la columna " + (indice + 1));
+        }
+        return campos.get(indice).trim();
+    }
+
+    private static String campoOpcional(List<String> campos, int indice) {
+        return indice >= 0 && indice < campos.size() ? campos.get(indice).trim() : "";
+    }
+
+    private static boolean esVerdadero(String valor) {
+        return valor.equalsIgnoreCase("true") || valor.equals("1") || valor.equalsIgnoreCase("si")
+                || valor.equalsIgnoreCase("sí");
+    }
+
+    /**
+     * Acumula actividades y las inserta por lotes, confirmando cada lote en su propia transacción.
+     */
+    private static final class Lote {
+        private final AccesoDatos.Sesion sesion;
+        private final Resultado resultado;
+        private final int[] lineas = new int[TAMANO_LOTE];
+        private final ActividadDeportiva[] actividades = new ActividadDeportiva[TAMANO_LOTE];
+        private final CuboActividad.Acumulador cubo = new CuboActividad.Acumulador();
+        private int tamano;
+
+        Lote(AccesoDatos.Sesion sesion, Resultado resultado) {
+            this.sesion = sesion;
+            this.resultado = resultado;
+        }
+
+        void agregar(ActividadDeportiva actividad, int linea) throws SQLException {
+            if (tamano == 0) {
+                sesion.iniciarTransaccion();
+            }
+            PreparedStatement stmt = sesion.preparar(INSERTAR);
+            asignar(stmt, actividad);
+            stmt.addBatch();
+            cubo.agregar(actividad);
+            actividades[tamano] = actividad;
+            lineas[tamano++] = linea;
+            if (tamano == TAMANO_LOTE) {
+                vaciar();
+            }
+        }
+
+        void vaciar() throws SQLException {
+            if (tamano == 0) {
+                return;
+            }
+            PreparedStatement stmt = sesion.preparar(INSERTAR);
+            try {
+                stmt.executeBatch();
+                cubo.aplicar(sesion); // El cubo de estadísticas se actualiza en la misma transacción
+                sesion.confirmar();
+                resultado.importadas += tamano;
+            } catch (BatchUpdateException ex) {
+                // Una fila rechazada revierte el lote completo: se reintenta fila a fila para importar las válidas
+                // y anotar el error real de cada una de las demás
+                sesion.revertir();
+                stmt.clearBatch();
+                cubo.limpiar();
+                insertarFilaAFila();
+            } finally {
+                cubo.limpiar();
+                Arrays.fill(actividades, 0, tamano, null);
+                tamano = 0;
+            }
+        }
+
+        /**
+         * Inserta las actividades del lote una a una, cada una en su propia transacción con su parte del cubo.
+         */
+        private void insertarFilaAFila() throws SQLException {
+            PreparedStatement stmt = sesion.preparar(INSERTAR);
+            for (int i = 0; i < tamano; i++) {
+                sesion.iniciarTransaccion();
+                try {
+                    asignar(stmt, actividades[i]);
+                    stmt.executeUpdate();
+                } catch (SQLException ex) {
+                    sesion.revertir();
+                    resultado.registrarError(lineas[i], ex);
+                    continue;
+                }
+                // Los errores del cubo no son de la fila: interrumpen la importación, como en el envío por lotes
+                cubo.agregar(actividades[i]);
+                cubo.aplicar(sesion);
+                sesion.confirmar();
+                resultado.importadas++;
+            }
+        }
+
+        private static void asignar(PreparedStatement stmt, ActividadDeportiva actividad) throws SQLException {
+            stmt.setString(1, actividad.getId());
+            stmt.setString(2, actividad.getUsuario().getId());
+            stmt.setString(3, actividad.getTipo().name());
+            stmt.setInt(4, actividad.getDuracionMinutos());
+            stmt.setDouble(5, actividad.getDistanciaKm());
+            stmt.setDate(6, java.sql.Date.valueOf(actividad.getFecha()));
+            stmt.setTime(7, java.sql.Time.valueOf(actividad.getHora()));
+            stmt.setInt(8, actividad.getCaloriasQuemadas());
+            stmt.setBoolean(9, actividad.esCompetencia());
+        }
+    }
+
+    /**
+     * Resultado de una importación: actividades insertadas y errores por línea.
+     */
+    public static final class Resultado {
+        private int importadas;
+        private int fallidas;
+        private final List<String> errores = new ArrayList<>();
+
+        void registrarError(int linea, Exception ex) {
+            fallidas++;
+            if (errores.size() < MAX_ERRORES_GUARDADOS) {
+                String mensaje = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+                errores.add(linea > 0 ? "Línea " + linea + ": " + mensaje : mensaje);
+            }
+        }
+
+        /**
+         * Obtiene el número de actividades insertadas.
+         *
+         * @return Las actividades importadas.
+         */
+        public int getImportadas() {
+            return importadas;
+        }
+
+        /**
+         * Obtiene el número de filas que no se pudieron importar.
+         *
+         * @return Las filas fallidas.
+         */
+        public int getFallidas() {
+            return fallidas;
+        }
+
+        /**
+         * Obtiene los mensajes de error por línea. Se conservan como máximo los primeros mil.
+         *
+         * @return Los mensajes de error.
+         */
+        public List<String> getErrores() {
+            return errores;
+        }
+    }
+}
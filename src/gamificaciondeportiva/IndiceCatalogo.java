@@ -0,0 +1,189 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * La clase IndiceCatalogo asigna a cada logro o desafío del catálogo un índice entero denso, para que el estado de
+ * cada usuario se guarde como un {@link BitSet} (ver {@link Cumplimientos}).
+ * <p>
+ * Los índices son estables mientras dura la aplicación: un ID conserva su índice aunque se recargue el catálogo y los
+ * nuevos se añaden al final, de modo que los conjuntos de bits ya cargados siguen siendo válidos. El índice de un
+ * elemento eliminado no se reutiliza: se quita de {@link #vigentes()} y, si el ID vuelve a aparecer, recibe uno nuevo
+ * para que no herede los bits de cumplimientos que se borraron con él. Los elementos del catálogo se leen de la base
+ * de datos la primera vez que se necesitan y de nuevo cuando pasan {@value #VIGENCIA_MINUTOS} minutos o alguien llama
+ * a {@link #invalidar()}, por ejemplo tras editar el catálogo desde la administración o tras un barrido de estados que
+ * cambió algún desafío.
+ *
+ * @param <T> El tipo de los elementos del catálogo.
+ */
+final class IndiceCatalogo<T> {
+    /**
+     * Minutos tras los que se vuelve a leer el catálogo.
+     */
+    static final int VIGENCIA_MINUTOS = 10;
+
+    /**
+     * Catálogo de logros.
+     */
+    static final IndiceCatalogo<Logro> LOGROS = new IndiceCatalogo<>("Logros",
+            "SELECT id, nombre, descripcion, puntosRecompensa, tipo FROM Logros",
+            rs -> new Logro(rs.getString("id"), rs.getString("nombre"), rs.getString("descripcion"),
+                    rs.getInt("puntosRecompensa"), Logro.TipoLogro.valueOf(rs.getString("tipo"))));
+
+    /**
+     * Catálogo de desafíos, con el estado guardado por {@link BarridoDesafios}.
+     */
+    static final IndiceCatalogo<Desafio> DESAFIOS = new IndiceCatalogo<>("Desafios",
+            "SELECT id, nombre, descripcion, puntosRecompensa, fechaInicio, fechaFin, estado FROM Desafios",
+            rs -> {
+                Desafio desafio = new Desafio(rs.getString("id"), rs.getString("nombre"), rs.getString("descripcion"),
+                        rs.getInt("puntosRecompensa"), rs.getDate("fechaInicio").toLocalDate(),
+                        rs.getDate("fechaFin").toLocalDate());
+                if (rs.getString("estado") != null) {
+                    desafio.setEstado(Desafio.EstadoDesafio.valueOf(rs.getString("estado")));
+                }
+                return desafio;
+            });
+
+    private final String tabla;
+    private final String consulta;
+    private final Lector<T> lector;
+    private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private int siguiente; // Protegido por this
+    private volatile Object[] elementos = new Object[0];
+    private volatile BitSet vigentes = new BitSet();
+    private volatile long cargadoEn;
+    private volatile boolean invalido = true;
+
+    private IndiceCatalogo(String tabla, String consulta, Lector<T> lector) {
+        this.tabla = tabla;
+        this.consulta = consulta;
+        this.lector = lector;
+    }
+
+    /**
+     * Obtiene el índice de un ID, asignándole uno nuevo si aún no lo tenía.
+     *
+     * @param id El ID del logro o desafío.
+     * @return El índice del ID.
+     */
+    int indice(String id) {
+        Integer indice = indices.get(id);
+        if (indice != null) {
+            return indice;
+        }
+        synchronized (this) {
+            return indices.computeIfAbsent(id, clave -> siguiente++);
+        }
+    }
+
+    /**
+     * Obtiene el elemento del catálogo con un índice.
+     *
+     * @param indice El índice.
+     * @return El elemento, o null si el índice no corresponde a ningún elemento vigente.
+     */
+    @SuppressWarnings("unchecked")
+    T elemento(int indice) {
+        Object[] actuales = elementos;
+        return indice < actuales.length ? (T) actuales[indice] : null;
+    }
+
+    /**
+     * Obtiene los índices de los elementos que existen en el catálogo, leyéndolo si hace falta.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @return Una copia de los índices vigentes, que el llamador puede modificar.
+     * @throws SQLException Si ocurre un error al leer el catálogo.
+     */
+    BitSet vigentes(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarCargado(sesion);
+        return (BitSet) vigentes.clone();
+    }
+
+    /**
+     * Obtiene los índices de los elementos que existen en el catálogo según la última lectura, sin consultar la base
+     * de datos.
+     *
+     * @return Una copia de los índices vigentes, que el llamador puede modificar.
+     */
+    BitSet vigentes() {
+        return (BitSet) vigentes.clone();
+    }
+
+    /**
+     * Marca el catálogo para que se vuelva a leer la próxima vez que se use.
+     */
+    void invalidar() {
+        invalido = true;
+    }
+
+    /**
+     * Marca para volver a leer el catálogo guardado en una tabla, si la tabla es la de alguno.
+     *
+     * @param tabla El nombre de la tabla modificada.
+     */
+    static void invalidarTabla(String tabla) {
+        for (IndiceCatalogo<?> catalogo : new IndiceCatalogo<?>[]{LOGROS, DESAFIOS}) {
+            if (catalogo.tabla.equalsIgnoreCase(tabla)) {
+                catalogo.invalidar();
+            }
+        }
+    }
+
+    private void asegurarCargado(AccesoDatos.Sesion sesion) throws SQLException {
+        if (!invalido && System.nanoTime() - cargadoEn < VIGENCIA_MINUTOS * 60_000_000_000L) {
+            return;
+        }
+        synchronized (this) {
+            if (!invalido && System.nanoTime() - cargadoEn < VIGENCIA_MINUTOS * 60_000_000_000L) {
+                return;
+            }
+            invalido = false; // Antes de leer: una invalidación durante la lectura fuerza otra
+            long inicio = System.nanoTime();
+            Object[] nuevos = new Object[siguiente];
+            BitSet nuevosVigentes = new BitSet();
+            PreparedStatement stmt = sesion.preparar(consulta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int indice = indice(rs.getString("id"));
+                    if (indice >= nuevos.length) {
+                        nuevos = Arrays.copyOf(nuevos, Math.max(indice + 1, nuevos.length * 2));
+                    }
+                    nuevos[indice] = lector.leer(rs);
+                    nuevosVigentes.set(indice);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                invalido = true;
+                throw ex;
+            }
+            // Los eliminados desde la lectura anterior pierden su índice
+            BitSet retirados = (BitSet) vigentes.clone();
+            retirados.andNot(nuevosVigentes);
+            if (!retirados.isEmpty()) {
+                indices.values().removeIf(retirados::get);
+            }
+            elementos = nuevos;
+            vigentes = nuevosVigentes;
+            cargadoEn = System.nanoTime();
+            Registro.depuracion("Catálogo indexado", "tabla", tabla, "elementos", nuevosVigentes.cardinality(),
+                    "duracionMs", (cargadoEn - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Construye un elemento del catálogo a partir de la fila actual.
+     *
+     * @param <T> El tipo de los elementos.
+     */
+    @FunctionalInterface
+    interface Lector<T> {
+        T leer(ResultSet rs) throws SQLException;
+    }
+}
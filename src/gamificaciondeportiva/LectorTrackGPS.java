@@ -0,0 +1,461 @@
+package gamificaciondeportiva;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * La clase LectorTrackGPS extrae distancia, duración y desnivel de un recorrido GPX a gran velocidad.
+ * <p>
+ * El archivo se proyecta en memoria por ventanas ({@link FileChannel#map}) y se recorre byte a byte buscando los
+ * elementos {@code <trkpt>}, sin construir un árbol DOM ni usar un analizador XML. De cada punto se leen los atributos
+ * {@code lat} y {@code lon} y los elementos {@code <ele>} y {@code <time>}. Los números y las fechas se convierten
+ * directamente desde los bytes, de modo que no se crea ningún objeto por punto; el recorrido completo se resume en
+ * una sola pasada:
+ * <ul>
+ *   <li>Distancia: suma de distancias haversine entre puntos consecutivos.</li>
+ *   <li>Tiempo en movimiento: suma de los intervalos cuya velocidad supera {@value #VELOCIDAD_MINIMA_MS} m/s.</li>
+ *   <li>Desnivel positivo: subidas acumuladas, ignorando oscilaciones menores de {@value #UMBRAL_DESNIVEL_M} m.</li>
+ * </ul>
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * LectorTrackGPS.Resumen resumen = LectorTrackGPS.leer(Path.of("salida.gpx"));
+ * resumen.aplicarA(actividad); // distanciaKm, duracionMinutos, fecha, hora y calorías
+ * }
+ * </pre>
+ */
+public final class LectorTrackGPS {
+    /**
+     * Tamaño de cada ventana proyectada en memoria.
+     */
+    private static final int TAMANO_VENTANA = 64 * 1024 * 1024;
+
+    /**
+     * Velocidad por debajo de la cual un intervalo se considera parado.
+     */
+    static final double VELOCIDAD_MINIMA_MS = 0.3;
+
+    /**
+     * Variación mínima de altitud que se contabiliza como subida, para filtrar el ruido del GPS.
+     */
+    static final double UMBRAL_DESNIVEL_M = 2.0;
+
+    private static final double RADIO_TIERRA_M = 6_371_008.8;
+
+    private static final byte[] TRKPT = "<trkpt".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIN_TRKPT = "</trkpt>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ELE = "<ele>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIME = "<time>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TYPE = "<type>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIN_TYPE = "</type>".getBytes(StandardCharsets.US_ASCII);
+
+    private static final double[] POTENCIAS_10 = new double[23];
+
+    static {
+        POTENCIAS_10[0] = 1;
+        for (int i = 1; i < POTENCIAS_10.length; i++) {
+            POTENCIAS_10[i] = POTENCIAS_10[i - 1] * 10;
+        }
+    }
+
+    private LectorTrackGPS() {
+    }
+
+    /**
+     * Lee un archivo GPX y resume su recorrido.
+     *
+     * @param archivo El archivo GPX.
+     * @return El resumen del recorrido.
+     * @throws IOException Si el archivo no se puede leer o un punto no cabe en una ventana.
+     */
+    public static Resumen leer(Path archivo) throws IOException {
+        Acumulador acumulador = new Acumulador();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanoArchivo = canal.size();
+            long posicion = 0;
+            while (posicion < tamanoArchivo) {
+                long longitud = Math.min(TAMANO_VENTANA, tamanoArchivo - posicion);
+                boolean ultima = posicion + longitud == tamanoArchivo;
+                MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, longitud);
+                int consumido = procesarVentana(ventana, (int) longitud, ultima, acumulador, posicion == 0);
+                if (consumido == 0 && !ultima) {
+                    throw new IOException("Punto de recorrido demasiado grande en la posición " + posicion);
+                }
+                posicion += ultima ? longitud : consumido;
+            }
+        }
+        return acumulador.resumen();
+    }
+
+    /**
+     * Procesa los puntos completos de una ventana.
+     *
+     * @return El número de bytes consumidos; los bytes restantes pertenecen a un punto incompleto que se vuelve a
+     * leer al principio de la siguiente ventana.
+     */
+    private static int procesarVentana(MappedByteBuffer b, int limite, boolean ultima, Acumulador acc,
+                                       boolean primera) {
+        int i = 0;
+        if (primera) {
+            int inicioTipo = buscar(b, TYPE, 0, limite);
+            int primerPunto = buscar(b, TRKPT, 0, limite);
+            if (inicioTipo >= 0 && (primerPunto < 0 || inicioTipo < primerPunto)) {
+                int finTipo = buscar(b, FIN_TYPE, inicioTipo, limite);
+                if (finTipo > inicioTipo) {
+                    byte[] texto = new byte[finTipo - inicioTipo - TYPE.length];
+                    b.get(inicioTipo + TYPE.length, texto);
+                    acc.tipo = new String(texto, StandardCharsets.UTF_8).trim();
+                }
+            }
+        }
+
+        while (true) {
+            int inicio = buscar(b, TRKPT, i, limite);
+            if (inicio < 0) {
+                // Conserva los últimos bytes por si "<trkpt" quedó partido entre dos ventanas
+                return ultima ? limite : Math.max(i, limite - TRKPT.length);
+            }
+            int finEtiqueta = buscarByte(b, (byte) '>', inicio, limite);
+            if (finEtiqueta < 0) {
+                return ultima ? limite : inicio;
+            }
+            int fin;
+            if (b.get(finEtiqueta - 1) == '/') {
+                fin = finEtiqueta + 1;
+            } else {
+                int cierre = buscar(b, FIN_TRKPT, finEtiqueta, limite);
+                if (cierre < 0) {
+                    return ultima ? limite : inicio;
+                }
+                fin = cierre + FIN_TRKPT.length;
+            }
+            procesarPunto(b, inicio + TRKPT.length, finEtiqueta, fin, acc);
+            i = fin;
+        }
+    }
+
+    private static void procesarPunto(MappedByteBuffer b, int inicioAtributos, int finEtiqueta, int fin,
+                                      Acumulador acc) {
+        double lat = Double.NaN;
+        double lon = Double.NaN;
+        int i = inicioAtributos;
+        while (i < finEtiqueta) {
+            byte c = b.get(i);
+            if (c == 'l' && i + 4 < finEtiqueta && b.get(i + 1) == 'a' && b.get(i + 2) == 't' && b.get(i + 3) == '=') {
+                lat = leerNumero(b, i + 5, finEtiqueta);
+                i = buscarByte(b, b.get(i + 4), i + 5, finEtiqueta) + 1;
+            } else if (c == 'l' && i + 4 < finEtiqueta && b.get(i + 1) == 'o' && b.get(i + 2) == 'n'
+                    && b.get(i + 3) == '=') {
+                lon = leerNumero(b, i + 5, finEtiqueta);
+                i = buscarByte(b, b.get(i + 4), i + 5, finEtiqueta) + 1;
+            } else {
+                i++;
+            }
+            if (i <= 0) {
+                break;
+            }
+        }
+        if (Double.isNaN(lat) || Double.isNaN(lon)) {
+            return;
+        }
+
+        double ele = Double.NaN;
+        long instante = Long.MIN_VALUE;
+        int inicioEle = buscar(b, ELE, finEtiqueta, fin);
+        if (inicioEle >= 0) {
+            ele = leerNumero(b, inicioEle + ELE.length, fin);
+        }
+        int inicioTime = buscar(b, TIME, finEtiqueta, fin);
+        if (inicioTime >= 0) {
+            instante = leerInstante(b, inicioTime + TIME.length, fin);
+        }
+        acc.agregar(lat, lon, ele, instante);
+    }
+
+    /**
+     * Busca una secuencia de bytes en el intervalo [desde, hasta).
+     */
+    private static int buscar(MappedByteBuffer b, byte[] patron, int desde, int hasta) {
+        byte primero = patron[0];
+        int ultimoInicio = hasta - patron.length;
+        for (int i = desde; i <= ultimoInicio; i++) {
+            if (b.get(i) != primero) {
+                continue;
+            }
+            int j = 1;
+            while (j < patron.length && b.get(i + j) == patron[j]) {
+                j++;
+            }
+            if (j == patron.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int buscarByte(MappedByteBuffer b, byte valor, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (b.get(i) == valor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convierte a double un número decimal escrito en ASCII (con signo, decimales y exponente opcionales).
+     */
+    static double leerNumero(MappedByteBuffer b, int i, int hasta) {
+        while (i < hasta && b.get(i) == ' ') {
+            i++;
+        }
+        boolean negativo = false;
+        if (i < hasta && (b.get(i) == '-' || b.get(i) == '+')) {
+            negativo = b.get(i) == '-';
+            i++;
+        }
+        long mantisa = 0;
+        int digitos = 0;
+        int escala = 0;
+        boolean hayDigitos = false;
+        for (; i < hasta; i++) {
+            int d = b.get(i) - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            hayDigitos = true;
+            if (digitos < 18) {
+                mantisa = mantisa * 10 + d;
+                if (mantisa != 0) {
+                    digitos++;
+                }
+            } else {
+                escala++;
+            }
+        }
+        if (i < hasta && b.get(i) == '.') {
+            for (i++; i < hasta; i++) {
+                int d = b.get(i) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                hayDigitos = true;
+                if (digitos < 18) {
+                    mantisa = mantisa * 10 + d;
+                    if (mantisa != 0) {
+                        digitos++;
+                    }
+                    escala--;
+                }
+            }
+        }
+        if (!hayDigitos) {
+            return Double.NaN;
+        }
+        if (i < hasta && (b.get(i) == 'e' || b.get(i) == 'E')) {
+            i++;
+            boolean exponenteNegativo = false;
+            if (i < hasta && (b.get(i) == '-' || b.get(i) == '+')) {
+                exponenteNegativo = b.get(i) == '-';
+                i++;
+            }
+            int exponente = 0;
+            for (; i < hasta; i++) {
+                int d = b.get(i) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                exponente = exponente * 10 + d;
+            }
+            escala += exponenteNegativo ? -exponente : exponente;
+        }
+
+        double valor = mantisa;
+        if (escala < 0) {
+            valor = -escala < POTENCIAS_10.length ? valor / POTENCIAS_10[-escala] : valor * Math.pow(10, escala);
+        } else if (escala > 0) {
+            valor = escala < POTENCIAS_10.length ? valor * POTENCIAS_10[escala] : valor * Math.pow(10, escala);
+        }
+        return negativo ? -valor : valor;
+    }
+
+    /**
+     * Convierte a milisegundos desde la época un instante ISO-8601 ({@code 2024-05-01T07:30:15.250Z} o con
+     * desplazamiento {@code +02:00}).
+     *
+     * @return Los milisegundos, o {@link Long#MIN_VALUE} si el formato no es válido.
+     */
+    static long leerInstante(MappedByteBuffer b, int i, int hasta) {
+        while (i < hasta && b.get(i) == ' ') {
+            i++;
+        }
+        if (i + 19 > hasta || b.get(i + 4) != '-' || b.get(i + 10) != 'T') {
+            return Long.MIN_VALUE;
+        }
+        int anio = digitos(b, i, 4);
+        int mes = digitos(b, i + 5, 2);
+        int dia = digitos(b, i + 8, 2);
+        int hora = digitos(b, i + 11, 2);
+        int minuto = digitos(b, i + 14, 2);
+        int segundo = digitos(b, i + 17, 2);
+        i += 19;
+
+        int milis = 0;
+        if (i < hasta && b.get(i) == '.') {
+            int factor = 100;
+            for (i++; i < hasta; i++) {
+                int d = b.get(i) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                milis += d * factor;
+                factor /= 10;
+            }
+        }
+        int desplazamientoMin = 0;
+        if (i + 5 < hasta && (b.get(i) == '+' || b.get(i) == '-')) {
+            desplazamientoMin = digitos(b, i + 1, 2) * 60 + digitos(b, i + 4, 2);
+            if (b.get(i) == '+') {
+                desplazamientoMin = -desplazamientoMin;
+            }
+        }
+
+        long dias = diasDesdeEpoca(anio, mes, dia);
+        return ((dias * 24 + hora) * 60 + minuto + desplazamientoMin) * 60_000L + segundo * 1000L + milis;
+    }
+
+    private static int digitos(MappedByteBuffer b, int i, int cantidad) {
+        int valor = 0;
+        for (int k = 0; k < cantidad; k++) {
+            valor = valor * 10 + (b.get(i + k) - '0');
+        }
+        return valor;
+    }
+
+    /**
+     * Días desde 1970-01-01 para una fecha del calendario gregoriano.
+     */
+    private static long diasDesdeEpoca(int anio, int mes, int dia) {
+        int a = mes <= 2 ? anio - 1 : anio;
+        int era = Math.floorDiv(a, 400);
+        int anioDeEra = a - era * 400;
+        int diaDelAnio = (153 * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+        int diaDeEra = anioDeEra * 365 + anioDeEra / 4 - anioDeEra / 100 + diaDelAnio;
+        return era * 146097L + diaDeEra - 719468;
+    }
+
+    /**
+     * Acumula las métricas del recorrido a medida que se leen los puntos.
+     */
+    private static final class Acumulador {
+        private int puntos;
+        private double distanciaM;
+        private long movimientoMs;
+        private double desnivelM;
+        private long primerInstante = Long.MIN_VALUE;
+        private long ultimoInstante = Long.MIN_VALUE;
+        private double latAnterior, lonAnterior, cosLatAnterior;
+        private double eleReferencia = Double.NaN;
+        private String tipo;
+
+        void agregar(double lat, double lon, double ele, long instante) {
+            double latRad = Math.toRadians(lat);
+            double cosLat = Math.cos(latRad);
+            double segmentoM = 0;
+            if (puntos > 0) {
+                double dLat = latRad - latAnterior;
+                double dLon = Math.toRadians(lon) - lonAnterior;
+                double sLat = Math.sin(dLat / 2);
+                double sLon = Math.sin(dLon / 2);
+                double a = sLat * sLat + cosLatAnterior * cosLat * sLon * sLon;
+                segmentoM = 2 * RADIO_TIERRA_M * Math.asin(Math.min(1, Math.sqrt(a)));
+                distanciaM += segmentoM;
+            }
+
+            if (instante != Long.MIN_VALUE) {
+                if (primerInstante == Long.MIN_VALUE) {
+                    primerInstante = instante;
+                } else if (ultimoInstante != Long.MIN_VALUE && instante > ultimoInstante) {
+                    long intervalo = instante - ultimoInstante;
+                    if (segmentoM * 1000 / intervalo >= VELOCIDAD_MINIMA_MS) {
+                        movimientoMs += intervalo;
+                    }
+                }
+                ultimoInstante = instante;
+            }
+
+            if (!Double.isNaN(ele)) {
+                if (Double.isNaN(eleReferencia)) {
+                    eleReferencia = ele;
+                } else if (ele >= eleReferencia + UMBRAL_DESNIVEL_M) {
+                    desnivelM += ele - eleReferencia;
+                    eleReferencia = ele;
+                } else if (ele <= eleReferencia - UMBRAL_DESNIVEL_M) {
+                    eleReferencia = ele;
+                }
+            }
+
+            latAnterior = latRad;
+            lonAnterior = Math.toRadians(lon);
+            cosLatAnterior = cosLat;
+            puntos++;
+        }
+
+        Resumen resumen() {
+            long duracionMs = primerInstante != Long.MIN_VALUE && ultimoInstante != Long.MIN_VALUE
+                    ? ultimoInstante - primerInstante : 0;
+            return new Resumen(puntos, distanciaM / 1000, duracionMs / 1000, movimientoMs / 1000, desnivelM,
+                    primerInstante, tipo);
+        }
+    }
+
+    /**
+     * Resumen de un recorrido GPS.
+     *
+     * @param puntos            Número de puntos leídos.
+     * @param distanciaKm       Distancia total en kilómetros.
+     * @param duracionSegundos  Tiempo entre el primer y el último punto con marca de tiempo.
+     * @param movimientoSegundos Tiempo en movimiento.
+     * @param desnivelPositivoM Desnivel positivo acumulado en metros.
+     * @param inicioEpochMs     Instante del primer punto en milisegundos desde la época, o {@link Long#MIN_VALUE}.
+     * @param tipo              Tipo de actividad declarado en el archivo, o null.
+     */
+    public record Resumen(int puntos, double distanciaKm, long duracionSegundos, long movimientoSegundos,
+                          double desnivelPositivoM, long inicioEpochMs, String tipo) {
+
+        /**
+         * Indica si el recorrido tiene marcas de tiempo suficientes para calcular una duración.
+         *
+         * @return true si la duración es mayor que cero.
+         */
+        public boolean tieneDuracion() {
+            return duracionSegundos > 0;
+        }
+
+        /**
+         * Copia la distancia, la duración en movimiento y el inicio del recorrido a una actividad. Sus calorías
+         * se recalculan al consultarlas.
+         *
+         * @param actividad La actividad a completar.
+         */
+        public void aplicarA(ActividadDeportiva actividad) {
+            long segundos = movimientoSegundos > 0 ? movimientoSegundos : duracionSegundos;
+            actividad.setDistanciaKm(Math.round(distanciaKm * 100) / 100.0);
+            actividad.setDuracionMinutos((int) Math.max(1, Math.round(segundos / 60.0)));
+            if (inicioEpochMs != Long.MIN_VALUE) {
+                LocalDateTime inicio = LocalDateTime.ofInstant(Instant.ofEpochMilli(inicioEpochMs),
+                        ZoneId.systemDefault());
+                actividad.setFecha(inicio.toLocalDate());
+                actividad.setHora(inicio.toLocalTime().withNano(0));
+            }
+        }
+    }
+}
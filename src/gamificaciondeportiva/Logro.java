@@ -1,9 +1,8 @@
 package gamificaciondeportiva;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 
 /**
@@ -163,7 +162,7 @@ public class Logro {
             this.fechaCumplimiento = LocalDate.now();
             this.usuarioId = usuario.getId();
             usuario.ganarPuntos(puntosRecompensa);
-            System.out.println("¡Logro desbloqueado: " + this.nombre + "!");
+            Registro.info("Logro desbloqueado", "usuarioId", usuario.getId(), "logroId", id);
         }
     }
 
@@ -174,41 +173,55 @@ public class Logro {
      * @return true si el logro cumple sus condiciones, false en caso contrario.
      */
     public boolean cumpleCondiciones(Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-            switch (this.id) {
-                case "1": // Primera actividad del día
-                    return verificarPrimeraActividad(usuario, conn);
-                case "2": // Cumplir meta de tiempo o distancia
-                    return verificarMeta(usuario, conn);
-                case "3": // Participar en actividad grupal
-                    return verificarActividadGrupal(usuario, conn);
-                case "4": // Mantener racha de días
-                    return verificarRacha(usuario, conn);
-                case "5": // Variedad de deportes
-                    return verificarVariedadDeportes(usuario, conn);
-                default:
-                    return false;
-            }
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            return cumpleCondiciones(usuario, sesion);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
         return false;
     }
 
+    /**
+     * Verifica si el logro cumple sus condiciones usando una sesión existente.
+     * <p>
+     * Dentro de una {@link UnidadDeTrabajo}, las consultas ven la actividad recién insertada aunque aún no se
+     * haya confirmado.
+     *
+     * @param usuario El usuario a verificar.
+     * @param sesion  La sesión de acceso a la base de datos.
+     * @return true si el logro cumple sus condiciones, false en caso contrario.
+     * @throws Exception Si ocurre un error durante la verificación.
+     */
+    boolean cumpleCondiciones(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
+        switch (this.id) {
+            case "1": // Primera actividad del día
+                return verificarPrimeraActividad(usuario, sesion);
+            case "2": // Cumplir meta de tiempo o distancia
+                return verificarMeta(usuario, sesion);
+            case "3": // Participar en actividad grupal
+                return verificarActividadGrupal(usuario, sesion);
+            case "4": // Mantener racha de días
+                return verificarRacha(usuario, sesion);
+            case "5": // Variedad de deportes
+                return verificarVariedadDeportes(usuario, sesion);
+            default:
+                return false;
+        }
+    }
+
     /**
      * Verifica si el usuario ha realizado la primera actividad del día.
      *
      * @param usuario El usuario a verificar.
-     * @param conn    La conexión a la base de datos.
+     * @param sesion  La sesión de acceso a la base de datos.
      * @return true si el usuario ha realizado la primera actividad del día, false en caso contrario.
      * @throws Exception Si ocurre un error durante la verificación.
      */
-    private boolean verificarPrimeraActividad(Usuario usuario, Connection conn) throws Exception {
+    private boolean verificarPrimeraActividad(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
         String query = "SELECT hora FROM Actividades WHERE usuarioId = ? AND fecha = CURDATE() ORDER BY hora ASC LIMIT 1";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
                 return rs.getTime("hora").toLocalTime().isBefore(java.time.LocalTime.of(12, 0));
             }
@@ -220,15 +233,15 @@ public class Logro {
      * Verifica si el usuario ha participado en una actividad grupal.
      *
      * @param usuario El usuario a verificar.
-     * @param conn    La conexión a la base de datos.
+     * @param sesion  La sesión de acceso a la base de datos.
      * @return true si el usuario ha participado en una actividad grupal, false en caso contrario.
      * @throws Exception Si ocurre un error durante la verificación.
      */
-    private boolean verificarActividadGrupal(Usuario usuario, Connection conn) throws Exception {
+    private boolean verificarActividadGrupal(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
         String query = "SELECT COUNT(*) AS total " + "FROM Actividades WHERE usuarioId = ? AND esCompetencia = TRUE";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
                 return rs.getInt("total") > 0;
             }
@@ -240,17 +253,16 @@ public class Logro {
      * Verifica si el usuario ha practicado una variedad de deportes en la última semana.
      *
      * @param usuario El usuario a verificar.
-     * @param conn    La conexión a la base de datos.
+     * @param sesion  La sesión de acceso a la base de datos.
      * @return true si el usuario ha practicado al menos 3 deportes diferentes en la última semana, false en caso contrario.
      * @throws Exception Si ocurre un error durante la verificación.
      */
-    private boolean verificarVariedadDeportes(Usuario usuario, Connection conn) throws Exception {
+    private boolean verificarVariedadDeportes(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
         String query = "SELECT DISTINCT tipo FROM Actividades "
                 + "WHERE usuarioId = ? AND fecha >= CURDATE() - INTERVAL 7 DAY";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
-
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
             int tiposDeportes = 0;
             while (rs.next()) {
                 tiposDeportes++;
@@ -274,39 +286,49 @@ public class Logro {
      * @param usuario El usuario que ha cumplido el logro.
      */
     public void registrarCumplimiento(Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-            String query = "INSERT INTO LogrosCompletados (usuarioId, logroId, fechaCumplimiento) "
-                    + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE fechaCumplimiento = VALUES(fechaCumplimiento)";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setString(1, usuario.getId());
-                stmt.setString(2, this.id);
-                stmt.setTimestamp(3, java.sql.Timestamp.valueOf(java.time.LocalDateTime.now()));
-                stmt.executeUpdate();
-
-                System.out.println("Logro registrado: " + this.nombre);
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            if (registrarCumplimiento(usuario, sesion)) {
+                usuario.getCumplimientos().marcarLogro(id);
+                Registro.info("Logro registrado", "usuarioId", usuario.getId(), "logroId", id);
             }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Registra el cumplimiento del logro usando una sesión existente, sin confirmar la transacción.
+     * Si el usuario ya lo tenía registrado no se modifica nada.
+     *
+     * @param usuario El usuario que ha cumplido el logro.
+     * @param sesion  La sesión de acceso a la base de datos.
+     * @return true si se insertó el registro, false si ya existía.
+     * @throws SQLException Si ocurre un error al insertar el registro.
+     */
+    boolean registrarCumplimiento(Usuario usuario, AccesoDatos.Sesion sesion) throws SQLException {
+        String query = "INSERT IGNORE INTO LogrosCompletados (usuarioId, logroId, fechaCumplimiento) VALUES (?, ?, ?)";
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        stmt.setString(2, this.id);
+        stmt.setTimestamp(3, java.sql.Timestamp.valueOf(java.time.LocalDateTime.now()));
+        return stmt.executeUpdate() > 0;
+    }
+
     /**
      * Verifica si el usuario ha mantenido una racha de días consecutivos realizando actividad física.
      *
      * @param usuario El usuario a verificar.
-     * @param conn    La conexión a la base de datos.
+     * @param sesion  La sesión de acceso a la base de datos.
      * @return true si el usuario ha mantenido la racha, false en caso contrario.
      * @throws Exception Si ocurre un error durante la verificación.
      */
-    private boolean verificarRacha(Usuario usuario, Connection conn) throws Exception {
+    private boolean verificarRacha(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
         String query = "SELECT DISTINCT fecha FROM Actividades "
                 + "WHERE usuarioId = ? AND fecha BETWEEN CURDATE() - INTERVAL ? DAY AND CURDATE()";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, usuario.getId());
-            stmt.setInt(2, this.getObjetivo());
-            ResultSet rs = stmt.executeQuery();
-
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        stmt.setInt(2, this.getObjetivo());
+        try (ResultSet rs = stmt.executeQuery()) {
             int diasConActividad = 0;
             while (rs.next()) {
                 diasConActividad++;
@@ -319,16 +341,16 @@ public class Logro {
      * Verifica si el usuario ha cumplido una meta de tiempo o distancia en el día actual.
      *
      * @param usuario El usuario a verificar.
-     * @param conn    La conexión a la base de datos.
+     * @param sesion  La sesión de acceso a la base de datos.
      * @return true si el usuario ha cumplido la meta, false en caso contrario.
      * @throws Exception Si ocurre un error durante la verificación.
      */
-    private boolean verificarMeta(Usuario usuario, Connection conn) throws Exception {
+    private boolean verificarMeta(Usuario usuario, AccesoDatos.Sesion sesion) throws Exception {
         String query = "SELECT SUM(duracionMinutos) AS totalTiempo, SUM(distanciaKm) AS totalDistancia "
                 + "FROM Actividades WHERE usuarioId = ? AND fecha = CURDATE()";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, usuario.getId());
-            ResultSet rs = stmt.executeQuery();
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
                 int tiempo = rs.getInt("totalTiempo");
                 double distancia = rs.getDouble("totalDistancia");
@@ -1,11 +1,6 @@
 package gamificaciondeportiva;
 
 import javax.swing.*;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
@@ -13,109 +8,159 @@ public class MainGamificacionDeportiva {
 
     /**
      * Método principal que inicia la aplicación de gamificación deportiva.
+     * <p>
+     * Si hay una sesión guardada con un resumen firmado ({@link SesionGuardada}), el panel se muestra de inmediato
+     * con esos datos y la recarga desde la base de datos, incluido el catálogo predeterminado, se hace en segundo
+     * plano. Si el resumen falta o no es
+     * válido, se carga el usuario antes de mostrar el panel, como en un inicio de sesión normal.
      *
      * @param args Argumentos de la línea de comandos.
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            PantallaCarga pantallaCarga = new PantallaCarga(null, "Cargando datos...");
-            pantallaCarga.mostrar();
-
-            SwingWorker<Void, Void> worker = new SwingWorker<>() {
-                @Override
-                protected Void doInBackground() {
-                    try {
-                        Usuario usuario = cargarSesionDesdeArchivo();
-                        if (usuario != null) {
-                            Configuracion.setUsuarioActual(usuario);
+        long inicio = System.nanoTime();
+        DetectorBloqueosEDT.instalarSiActivado();
+        PlanificadorEstados.iniciar();
+        DistribucionPuntos.iniciar();
+        Clasificaciones.iniciar();
+        SesionGuardada.Resumen resumen = SesionGuardada.leer();
+        if (resumen != null && resumen.firmado()) {
+            SwingUtilities.invokeLater(() -> arrancarDesdeResumen(resumen, inicio));
+        } else {
+            SwingUtilities.invokeLater(() -> arrancarDesdeBaseDeDatos(resumen, inicio));
+        }
+    }
 
-                            SistemaGamificacion sistema = new SistemaGamificacion();
-                            try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL,
-                                    Configuracion.DB_USER, Configuracion.DB_PASSWORD)) {
-                                CargaDatos.cargarDatosRelacionados(conn, sistema, usuario);
-                            }
+    /**
+     * Muestra el panel con el resumen guardado y recarga el usuario y sus datos en segundo plano.
+     */
+    private static void arrancarDesdeResumen(SesionGuardada.Resumen resumen, long inicio) {
+        Usuario usuario = resumen.crearUsuario();
+        Configuracion.setUsuarioActual(usuario);
+        SistemaGamificacion sistema = new SistemaGamificacion();
+        JFrame ventana = usuario.isEsAdmin() ? new GraficosAdmin(sistema, usuario) : new Graficos(sistema, usuario);
+        ventana.setVisible(true);
+        Registro.info("Arranque: panel visible", "origen", "resumen", "duracionMs", milisDesde(inicio));
 
-                            SwingUtilities.invokeLater(() -> {
-                                pantallaCarga.ocultar();
-                                if (usuario.isEsAdmin()) {
-                                    new GraficosAdmin(sistema, usuario).setVisible(true);
-                                } else {
-                                    new Graficos(sistema, usuario).setVisible(true);
-                                }
-                            });
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws Exception {
+                long recarga = System.nanoTime();
+                sistema.sembrarCatalogo();
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                    if (!recargarUsuario(sesion, usuario) || usuario.isEsAdmin() != resumen.esAdmin()) {
+                        return false;
                     }
-                    return null;
+                    CargaDatos.cargarDatosRelacionados(sesion, sistema, usuario);
                 }
+                SesionGuardada.guardar(usuario);
+                Registro.info("Arranque: datos recargados", "usuarioId", usuario.getId(), "duracionMs",
+                        milisDesde(recarga), "totalMs", milisDesde(inicio));
+                return true;
+            }
 
-                @Override
-                protected void done() {
-                    pantallaCarga.ocultar();
-                    if (Configuracion.getUsuarioActual() == null) {
-                        new PantallaInicio().setVisible(true);
+            @Override
+            protected void done() {
+                try {
+                    if (get()) {
+                        BusEventos.publicar(new EventoDominio.DatosUsuarioActualizados(usuario.getId()));
+                        return;
                     }
+                    // El usuario ya no existe o cambió de tipo: la sesión guardada no sirve
+                    SesionGuardada.eliminar();
+                } catch (Exception ex) {
+                    // Sin conexión se sigue trabajando con el resumen; las operaciones mostrarán sus propios errores
+                    ex.printStackTrace();
+                    return;
                 }
-            };
-
-            worker.execute();
-        });
+                Configuracion.setUsuarioActual(null);
+                ventana.dispose();
+                new PantallaInicio().setVisible(true);
+            }
+        }.execute();
     }
 
     /**
-     * Carga la sesión del usuario desde un archivo.
-     *
-     * @return El usuario cargado desde el archivo, o null si no se encuentra.
+     * Carga el usuario y sus datos desde la base de datos antes de mostrar el panel.
      */
-    private static Usuario cargarSesionDesdeArchivo() {
-        File sesionFile = new File("sesion.txt");
-        if (!sesionFile.exists()) {
-            System.out.println("El archivo sesion.txt no existe.");
-            return null;
-        }
+    private static void arrancarDesdeBaseDeDatos(SesionGuardada.Resumen resumen, long inicio) {
+        PantallaCarga pantallaCarga = new PantallaCarga(null, "Cargando datos...");
+        pantallaCarga.mostrar();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(sesionFile))) {
-            String id = reader.readLine();
-            String tipo = reader.readLine();
+        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() {
+                if (resumen == null) {
+                    return null;
+                }
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                    Usuario usuario = new Usuario(resumen.id(), null);
+                    if (!recargarUsuario(sesion, usuario)) {
+                        SesionGuardada.eliminar();
+                        return null;
+                    }
+                    Configuracion.setUsuarioActual(usuario);
+
+                    SistemaGamificacion sistema = new SistemaGamificacion();
+                    sistema.sembrarCatalogo();
+                    CargaDatos.cargarDatosRelacionados(sesion, sistema, usuario);
+                    // Se reescribe con el formato firmado para que el próximo arranque use la vía rápida
+                    SesionGuardada.guardar(usuario);
 
-            Usuario usuario = cargarUsuarioDesdeBaseDeDatos(id); // Método para obtener datos del usuario
-            if (usuario != null) {
-                usuario.setEsAdmin("admin".equalsIgnoreCase(tipo)); // Define si es administrador
+                    SwingUtilities.invokeLater(() -> {
+                        pantallaCarga.ocultar();
+                        if (usuario.isEsAdmin()) {
+                            new GraficosAdmin(sistema, usuario).setVisible(true);
+                        } else {
+                            new Graficos(sistema, usuario).setVisible(true);
+                        }
+                        Registro.info("Arranque: panel visible", "origen", "baseDeDatos", "duracionMs",
+                                milisDesde(inicio));
+                    });
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                return null;
             }
-            return usuario;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+
+            @Override
+            protected void done() {
+                pantallaCarga.ocultar();
+                if (Configuracion.getUsuarioActual() == null) {
+                    new PantallaInicio().setVisible(true);
+                }
+            }
+        };
+
+        worker.execute();
     }
 
     /**
-     * Carga un usuario desde la base de datos utilizando su ID.
+     * Actualiza un usuario con los datos de la base de datos. Solo se leen las columnas necesarias; la foto de perfil
+     * se carga después, junto con el resto de datos relacionados.
      *
-     * @param id El ID del usuario a cargar.
-     * @return El usuario cargado desde la base de datos, o null si no se encuentra.
+     * @param sesion  La sesión de base de datos.
+     * @param usuario El usuario a actualizar.
+     * @return true si el usuario existe, false en caso contrario.
+     * @throws Exception Si ocurre un error en la consulta.
      */
-    private static Usuario cargarUsuarioDesdeBaseDeDatos(String id) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-            String query = "SELECT * FROM Usuarios WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Usuario usuario = new Usuario(rs.getString("id"), rs.getString("nombre"));
-                usuario.setNivel(rs.getInt("nivel"));
-                usuario.setPuntosTotales(rs.getInt("puntosTotales"));
-                usuario.setExperiencia(rs.getInt("experiencia"));
-                usuario.setEsAdmin(rs.getBoolean("esAdmin"));
-                return usuario;
+    static boolean recargarUsuario(AccesoDatos.Sesion sesion, Usuario usuario) throws Exception {
+        String query = "SELECT nombre, nivel, puntosTotales, experiencia, esAdmin FROM Usuarios WHERE id = ?";
+        PreparedStatement stmt = sesion.preparar(query);
+        stmt.setString(1, usuario.getId());
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return false;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            usuario.setNombre(rs.getString("nombre"));
+            usuario.setNivel(rs.getInt("nivel"));
+            usuario.setPuntosTotales(rs.getInt("puntosTotales"));
+            usuario.setExperiencia(rs.getInt("experiencia"));
+            usuario.setEsAdmin(rs.getBoolean("esAdmin"));
+            return true;
         }
-        return null;
     }
 
-}
\ No newline at end of file
+    private static long milisDesde(long inicioNanos) {
+        return (System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,214 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * La clase ModeloCalorias calcula las calorías quemadas en una actividad a partir de coeficientes por deporte.
+ * <p>
+ * Cada {@link ActividadDeportiva.TipoDeporte} tiene dos coeficientes:
+ * <ul>
+ *   <li>El MET (equivalente metabólico): kcal por kilogramo de peso y hora de actividad.</li>
+ *   <li>Un término por distancia: kcal por kilogramo y kilómetro recorrido, para los deportes en los que el ritmo
+ *   importa (correr, nadar, ciclismo).</li>
+ * </ul>
+ * <pre>
+ * calorías = peso × (MET × minutos / 60 + kcalPorKgKm × km)
+ * </pre>
+ * Los coeficientes se guardan en una tabla plana de primitivos indexada por el ordinal del deporte y precalculada
+ * para el peso de referencia ({@value #PESO_REFERENCIA_KG} kg), de modo que el cálculo de una actividad son dos
+ * multiplicaciones y una suma. Los valores por defecto reproducen, con el peso de referencia, las fórmulas que usaba
+ * la aplicación para correr, natación y ciclismo; el resto de deportes pasa a tener su propio MET en lugar de un
+ * valor común.
+ * <p>
+ * Los coeficientes se pueden sustituir con {@link #registrar(ActividadDeportiva.TipoDeporte, double, double)}.
+ * Las calorías ya guardadas se actualizan con {@link #recalcularAlmacenadas(AccesoDatos.Sesion)}.
+ */
+final class ModeloCalorias {
+    /**
+     * Peso que se usa cuando no se conoce el del usuario.
+     */
+    static final double PESO_REFERENCIA_KG = 70.0;
+
+    /**
+     * Número de filas que el recálculo lee, calcula y confirma de cada vez.
+     */
+    private static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Coeficientes por kilogramo: MET y kcal/(kg·km), intercalados por ordinal del deporte.
+     */
+    private static double[] coeficientesPorKg = new double[2 * ActividadDeportiva.TipoDeporte.values().length];
+
+    /**
+     * Coeficientes para el peso de referencia: kcal/min y kcal/km, intercalados por ordinal del deporte. Se
+     * reemplaza entera al registrar un modelo, así que los lectores siempre ven una tabla coherente.
+     */
+    private static volatile double[] tablaReferencia;
+
+    static {
+        coeficiente(ActividadDeportiva.TipoDeporte.CORRER, 60.0 / 7, 5.0 / 7);
+        coeficiente(ActividadDeportiva.TipoDeporte.NATACION, 72.0 / 7, 6.0 / 7);
+        coeficiente(ActividadDeportiva.TipoDeporte.CICLISMO, 48.0 / 7, 4.0 / 7);
+        coeficiente(ActividadDeportiva.TipoDeporte.FUTBOL, 7.0, 0);
+        coeficiente(ActividadDeportiva.TipoDeporte.BALONCESTO, 6.5, 0);
+        coeficiente(ActividadDeportiva.TipoDeporte.VOLLEYBALL, 4.0, 0);
+        coeficiente(ActividadDeportiva.TipoDeporte.GIMNASIO, 5.0, 0);
+        tablaReferencia = tablaParaPeso(coeficientesPorKg, PESO_REFERENCIA_KG);
+    }
+
+    private ModeloCalorias() {
+    }
+
+    private static void coeficiente(ActividadDeportiva.TipoDeporte tipo, double met, double kcalPorKgKm) {
+        coeficientesPorKg[2 * tipo.ordinal()] = met;
+        coeficientesPorKg[2 * tipo.ordinal() + 1] = kcalPorKgKm;
+    }
+
+    private static double[] tablaParaPeso(double[] porKg, double pesoKg) {
+        double[] tabla = new double[porKg.length];
+        for (int i = 0; i < tabla.length; i += 2) {
+            tabla[i] = porKg[i] * pesoKg / 60;
+            tabla[i + 1] = porKg[i + 1] * pesoKg;
+        }
+        return tabla;
+    }
+
+    /**
+     * Sustituye los coeficientes de un deporte.
+     *
+     * @param tipo        El deporte.
+     * @param met         Equivalente metabólico: kcal por kilogramo y hora.
+     * @param kcalPorKgKm kcal por kilogramo y kilómetro recorrido.
+     */
+    static synchronized void registrar(ActividadDeportiva.TipoDeporte tipo, double met, double kcalPorKgKm) {
+        double[] copia = Arrays.copyOf(coeficientesPorKg, coeficientesPorKg.length);
+        copia[2 * tipo.ordinal()] = met;
+        copia[2 * tipo.ordinal() + 1] = kcalPorKgKm;
+        coeficientesPorKg = copia;
+        tablaReferencia = tablaParaPeso(copia, PESO_REFERENCIA_KG);
+    }
+
+    /**
+     * Calcula las calorías de una actividad con el peso de referencia.
+     *
+     * @param tipo            El deporte.
+     * @param duracionMinutos La duración en minutos.
+     * @param distanciaKm     La distancia en kilómetros.
+     * @return Las calorías quemadas.
+     */
+    static int calcular(ActividadDeportiva.TipoDeporte tipo, int duracionMinutos, double distanciaKm) {
+        double[] tabla = tablaReferencia;
+        int i = 2 * tipo.ordinal();
+        return (int) (tabla[i] * duracionMinutos + tabla[i + 1] * distanciaKm);
+    }
+
+    /**
+     * Calcula las calorías de una actividad para un peso concreto.
+     *
+     * @param tipo            El deporte.
+     * @param duracionMinutos La duración en minutos.
+     * @param distanciaKm     La distancia en kilómetros.
+     * @param pesoKg          El peso del usuario en kilogramos, o 0 si no se conoce.
+     * @return Las calorías quemadas.
+     */
+    static int calcular(ActividadDeportiva.TipoDeporte tipo, int duracionMinutos, double distanciaKm, double pesoKg) {
+        if (pesoKg <= 0) {
+            return calcular(tipo, duracionMinutos, distanciaKm);
+        }
+        double[] porKg = coeficientesPorKg;
+        int i = 2 * tipo.ordinal();
+        return (int) (pesoKg * (porKg[i] * duracionMinutos / 60 + porKg[i + 1] * distanciaKm));
+    }
+
+    /**
+     * Calcula las calorías de muchas actividades a la vez con el peso de referencia.
+     * <p>
+     * Los datos van en arreglos paralelos. El bucle no tiene ramas ni llamadas, solo lecturas de la tabla y
+     * aritmética, para que el compilador JIT pueda desenrollarlo y vectorizarlo.
+     *
+     * @param tipos    Los ordinales de los deportes.
+     * @param minutos  Las duraciones en minutos.
+     * @param km       Las distancias en kilómetros.
+     * @param calorias Arreglo de salida con las calorías de cada actividad.
+     * @param cantidad El número de actividades a calcular.
+     */
+    static void calcularLote(int[] tipos, int[] minutos, double[] km, int[] calorias, int cantidad) {
+        double[] tabla = tablaReferencia;
+        for (int i = 0; i < cantidad; i++) {
+            int t = 2 * tipos[i];
+            calorias[i] = (int) (tabla[t] * minutos[i] + tabla[t + 1] * km[i]);
+        }
+    }
+
+    /**
+     * Recalcula las calorías guardadas de todas las actividades con el modelo actual.
+     * <p>
+     * Las filas se recorren por lotes ordenados por ID, cada lote se calcula con
+     * {@link #calcularLote(int[], int[], double[], int[], int)} y solo se escriben, en un único envío por lotes, las
+     * filas cuyo valor cambia. Cada lote se confirma por separado para no mantener bloqueos largos. No toca
+     * {@link CuboActividad}: si hay cambios, quien lo llama debe reconstruirlo.
+     *
+     * @param sesion La sesión de base de datos.
+     * @return El número de actividades actualizadas.
+     * @throws SQLException Si ocurre un error al leer o actualizar.
+     */
+    static int recalcularAlmacenadas(AccesoDatos.Sesion sesion) throws SQLException {
+        PreparedStatement consulta = sesion.preparar("SELECT id, tipo, duracionMinutos, distanciaKm, caloriasQuemadas "
+                + "FROM Actividades WHERE id > ? ORDER BY id LIMIT " + TAMANO_LOTE);
+        PreparedStatement actualizacion = sesion.preparar(
+                "UPDATE Actividades SET caloriasQuemadas = ? WHERE id = ?");
+
+        String[] ids = new String[TAMANO_LOTE];
+        int[] tipos = new int[TAMANO_LOTE];
+        int[] minutos = new int[TAMANO_LOTE];
+        double[] km = new double[TAMANO_LOTE];
+        int[] guardadas = new int[TAMANO_LOTE];
+        int[] calculadas = new int[TAMANO_LOTE];
+
+        int actualizadas = 0;
+        String ultimoId = "";
+        while (true) {
+            int cantidad = 0;
+            consulta.setString(1, ultimoId);
+            try (ResultSet rs = consulta.executeQuery()) {
+                while (rs.next()) {
+                    ids[cantidad] = rs.getString(1);
+                    tipos[cantidad] = ActividadDeportiva.TipoDeporte.valueOf(rs.getString(2)).ordinal();
+                    minutos[cantidad] = rs.getInt(3);
+                    km[cantidad] = rs.getDouble(4);
+                    guardadas[cantidad] = rs.getInt(5);
+                    cantidad++;
+                }
+            }
+            if (cantidad == 0) {
+                break;
+            }
+            ultimoId = ids[cantidad - 1];
+
+            calcularLote(tipos, minutos, km, calculadas, cantidad);
+
+            int cambios = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (calculadas[i] != guardadas[i]) {
+                    actualizacion.setInt(1, calculadas[i]);
+                    actualizacion.setString(2, ids[i]);
+                    actualizacion.addBatch();
+                    cambios++;
+                }
+            }
+            if (cambios > 0) {
+                sesion.iniciarTransaccion();
+                actualizacion.executeBatch();
+                sesion.confirmar();
+                actualizadas += cambios;
+            }
+            if (cantidad < TAMANO_LOTE) {
+                break;
+            }
+        }
+        return actualizadas;
+    }
+}
@@ -0,0 +1,234 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase OperacionesMasivas elimina y modifica muchas filas del catálogo (logros, desafíos y competencias) por lotes.
+ * <p>
+ * Cada operación trabaja en bloques pequeños, cada uno en su propia transacción corta, para que borrar una competencia
+ * con cien mil puntuaciones no mantenga bloqueadas las tablas durante todo el proceso:
+ * <ul>
+ *   <li>Las filas dependientes (cumplimientos, participaciones y puntuaciones) se borran primero con
+ *   {@code DELETE ... LIMIT} de {@value #FILAS_POR_SENTENCIA} filas, enviadas en lote para todo el bloque de IDs y
+ *   repetidas solo para los IDs a los que aún les quedan filas.</li>
+ *   <li>Después se borran o actualizan las filas principales, {@value #IDS_POR_LOTE} por lote.</li>
+ * </ul>
+ * Si se cancela, se detiene entre dos bloques: lo ya confirmado queda hecho y nunca queda una fila principal sin sus
+ * dependientes borrados a medias, porque los dependientes se eliminan antes que la fila a la que pertenecen.
+ * <p>
+ * Los métodos están pensados para ejecutarse en segundo plano e informan del avance mediante {@link Progreso}.
+ */
+final class OperacionesMasivas {
+    /**
+     * IDs de la tabla principal que se procesan en cada transacción.
+     */
+    static final int IDS_POR_LOTE = 500;
+
+    /**
+     * Filas dependientes que borra como máximo cada sentencia.
+     */
+    static final int FILAS_POR_SENTENCIA = 5000;
+
+    private static final String[][] DEPENDIENTES_LOGRO = {{"LogrosCompletados", "logroId"}};
+    private static final String[][] DEPENDIENTES_DESAFIO = {{"DesafiosCompletados", "desafioId"}};
+    private static final String[][] DEPENDIENTES_COMPETENCIA = {{"CompetenciasPuntuaciones", "competenciaId"},
+            {"CompetenciasParticipacion", "competenciaId"}};
+
+    private OperacionesMasivas() {
+    }
+
+    /**
+     * Recibe el avance de una operación masiva y permite cancelarla.
+     */
+    interface Progreso {
+        /**
+         * Informa del avance.
+         *
+         * @param procesados Los IDs principales ya terminados.
+         * @param nota       Una descripción breve del paso actual.
+         */
+        void avanzar(int procesados, String nota);
+
+        /**
+         * Indica si el usuario pidió detener la operación.
+         *
+         * @return true para detenerse antes del siguiente bloque.
+         */
+        boolean cancelado();
+    }
+
+    /**
+     * Acción adicional sobre cada fila actualizada, dentro de la misma transacción.
+     */
+    @FunctionalInterface
+    interface AccionPorFila {
+        /**
+         * Aplica la acción a una fila.
+         *
+         * @param sesion La sesión con la transacción del lote.
+         * @param id     El ID de la fila.
+         * @throws SQLException Si ocurre un error en la base de datos.
+         */
+        void aplicar(AccesoDatos.Sesion sesion, Object id) throws SQLException;
+    }
+
+    /**
+     * Elimina logros y sus registros de cumplimiento.
+     *
+     * @param ids      Los IDs de los logros.
+     * @param progreso El receptor del avance.
+     * @return El número de logros eliminados.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static int eliminarLogros(List<Object> ids, Progreso progreso) throws SQLException {
+        try {
+            return eliminar("Logros", DEPENDIENTES_LOGRO, ids, progreso);
+        } finally {
+            IndiceCatalogo.LOGROS.invalidar();
+        }
+    }
+
+    /**
+     * Elimina desafíos y sus registros de cumplimiento.
+     *
+     * @param ids      Los IDs de los desafíos.
+     * @param progreso El receptor del avance.
+     * @return El número de desafíos eliminados.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static int eliminarDesafios(List<Object> ids, Progreso progreso) throws SQLException {
+        try {
+            return eliminar("Desafios", DEPENDIENTES_DESAFIO, ids, progreso);
+        } finally {
+            IndiceCatalogo.DESAFIOS.invalidar();
+        }
+    }
+
+    /**
+     * Elimina competencias con sus participaciones y puntuaciones.
+     *
+     * @param ids      Los IDs de las competencias.
+     * @param progreso El receptor del avance.
+     * @return El número de competencias eliminadas.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static int eliminarCompetencias(List<Object> ids, Progreso progreso) throws SQLException {
+        return eliminar("Competencias", DEPENDIENTES_COMPETENCIA, ids, progreso);
+    }
+
+    /**
+     * Asigna los mismos valores a varias filas de una tabla, por lotes.
+     *
+     * @param tabla    La tabla a modificar.
+     * @param columnas Las columnas a asignar.
+     * @param valores  Los valores, en el mismo orden que las columnas.
+     * @param ids      Los IDs de las filas.
+     * @param porFila  Acción adicional para cada fila actualizada, o null.
+     * @param progreso El receptor del avance.
+     * @return El número de filas actualizadas.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static int actualizar(String tabla, String[] columnas, Object[] valores, List<Object> ids, AccionPorFila porFila,
+                          Progreso progreso) throws SQLException {
+        String sql = "UPDATE " + tabla + " SET " + String.join(" = ?, ", columnas) + " = ? WHERE id = ?";
+        int actualizadas = 0;
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            for (int inicio = 0; inicio < ids.size() && !progreso.cancelado(); inicio += IDS_POR_LOTE) {
+                List<Object> lote = ids.subList(inicio, Math.min(ids.size(), inicio + IDS_POR_LOTE));
+                sesion.iniciarTransaccion();
+                PreparedStatement stmt = sesion.preparar(sql);
+                for (Object id : lote) {
+                    for (int i = 0; i < valores.length; i++) {
+                        stmt.setObject(i + 1, valores[i]);
+                    }
+                    stmt.setObject(valores.length + 1, id);
+                    stmt.addBatch();
+                }
+                actualizadas += sumar(stmt.executeBatch());
+                if (porFila != null) {
+                    for (Object id : lote) {
+                        porFila.aplicar(sesion, id);
+                    }
+                }
+                sesion.confirmar();
+                progreso.avanzar(inicio + lote.size(), actualizadas + " filas actualizadas");
+            }
+        } finally {
+            IndiceCatalogo.invalidarTabla(tabla);
+        }
+        return actualizadas;
+    }
+
+    private static int eliminar(String tabla, String[][] dependientes, List<Object> ids, Progreso progreso)
+            throws SQLException {
+        int eliminadas = 0;
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            for (int inicio = 0; inicio < ids.size() && !progreso.cancelado(); inicio += IDS_POR_LOTE) {
+                List<Object> lote = ids.subList(inicio, Math.min(ids.size(), inicio + IDS_POR_LOTE));
+                for (String[] dependiente : dependientes) {
+                    if (!eliminarDependientes(sesion, dependiente[0], dependiente[1], lote, inicio, progreso)) {
+                        return eliminadas; // Cancelado a mitad de los dependientes: las filas principales se conservan
+                    }
+                }
+
+                PreparedStatement stmt = sesion.preparar("DELETE FROM " + tabla + " WHERE id = ?");
+                for (Object id : lote) {
+                    stmt.setObject(1, id);
+                    stmt.addBatch();
+                }
+                eliminadas += sumar(stmt.executeBatch()); // Con confirmación automática, cada DELETE es corto
+                progreso.avanzar(inicio + lote.size(), eliminadas + " filas de " + tabla + " eliminadas");
+            }
+        }
+        Registro.info("Eliminación masiva", "tabla", tabla, "solicitadas", ids.size(), "eliminadas", eliminadas);
+        return eliminadas;
+    }
+
+    /**
+     * Borra las filas dependientes de un lote de IDs en sentencias limitadas. Cada ronda envía en un solo lote un
+     * DELETE por ID; los IDs cuyo DELETE alcanzó el límite pueden tener más filas y pasan a la ronda siguiente.
+     *
+     * @return false si se canceló antes de terminar.
+     */
+    private static boolean eliminarDependientes(AccesoDatos.Sesion sesion, String tabla, String columna,
+                                                List<Object> lote, int procesados, Progreso progreso)
+            throws SQLException {
+        PreparedStatement stmt = sesion.preparar(
+                "DELETE FROM " + tabla + " WHERE " + columna + " = ? LIMIT " + FILAS_POR_SENTENCIA);
+        List<Object> pendientes = lote;
+        long borradas = 0;
+        while (!pendientes.isEmpty()) {
+            if (progreso.cancelado()) {
+                return false;
+            }
+            for (Object id : pendientes) {
+                stmt.setObject(1, id);
+                stmt.addBatch();
+            }
+            int[] resultados = stmt.executeBatch(); // Cada DELETE se confirma por separado
+            List<Object> siguientes = new ArrayList<>();
+            for (int i = 0; i < resultados.length; i++) {
+                borradas += Math.max(0, resultados[i]);
+                if (resultados[i] >= FILAS_POR_SENTENCIA) {
+                    siguientes.add(pendientes.get(i));
+                }
+            }
+            pendientes = siguientes;
+            progreso.avanzar(procesados, borradas + " filas de " + tabla + " eliminadas");
+        }
+        return true;
+    }
+
+    private static int sumar(int[] resultados) {
+        int total = 0;
+        for (int resultado : resultados) {
+            // El controlador puede devolver SUCCESS_NO_INFO sin el número de filas: se cuenta como una
+            total += resultado == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, resultado);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,416 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase PanelAnaliticas muestra las estadísticas de actividad de la pestaña de administración.
+ * <p>
+ * Los datos salen de {@link CuboActividad}, nunca de la tabla Actividades, así que cambiar el rango o el tramo de nivel
+ * responde al instante incluso con años de historial. Se dibujan dos gráficos: la evolución diaria de una métrica y la
+ * popularidad de cada deporte en el rango elegido.
+ * <p>
+ * Los usuarios únicos del rango, en total, por deporte y por competencia, se estiman con los {@link HyperLogLog} de
+ * {@link UsuariosUnicos} y se muestran con su margen de error.
+ */
+final class PanelAnaliticas extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] RANGOS = {"Últimos 30 días", "Últimos 90 días", "Último año", "Últimos 5 años"};
+    private static final int[] DIAS_RANGO = {30, 90, 365, 5 * 365};
+    private static final String[] METRICAS = {"Actividades", "Usuarios activos", "Minutos", "Kilómetros", "Calorías"};
+    private static final Color FONDO = new Color(245, 245, 250);
+    private static final Color SERIE = new Color(70, 130, 180);
+    private static final Color REJILLA = new Color(220, 220, 225);
+    private static final Font FUENTE = new Font("Segoe UI", Font.PLAIN, 12);
+
+    /**
+     * Margen del 95 % de las estimaciones de usuarios únicos.
+     */
+    private static final String MARGEN = String.format("±%.1f %%", 200 * HyperLogLog.ERROR_ESTANDAR);
+
+    private final JComboBox<String> cmbRango = new JComboBox<>(RANGOS);
+    private final JComboBox<String> cmbTramo = new JComboBox<>();
+    private final JComboBox<String> cmbMetrica = new JComboBox<>(METRICAS);
+    private final JButton btnReconstruir = new JButton("Reconstruir cubo");
+    private final JLabel lblEstado = new JLabel(" ");
+    private final GraficoSerie graficoSerie = new GraficoSerie();
+    private final GraficoBarras graficoBarras = new GraficoBarras();
+    private final DefaultTableModel modeloCompetencias = new DefaultTableModel(
+            new String[]{"Competencia", "Usuarios únicos"}, 0) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private Datos datos;
+    private LocalDate desde;
+    private int generacion;
+
+    /**
+     * Crea el panel. Los datos se cargan al llamar a {@link #cargar()}.
+     */
+    PanelAnaliticas() {
+        super(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        setBackground(FONDO);
+
+        cmbTramo.addItem("Todos los niveles");
+        for (String tramo : CuboActividad.TRAMOS) {
+            cmbTramo.addItem(tramo);
+        }
+        cmbRango.addActionListener(e -> cargar());
+        cmbTramo.addActionListener(e -> cargar());
+        cmbMetrica.addActionListener(e -> mostrar()); // Los datos ya traen todas las métricas
+        btnReconstruir.addActionListener(e -> reconstruir());
+
+        JPanel controles = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        controles.setOpaque(false);
+        controles.add(new JLabel("Rango:"));
+        controles.add(cmbRango);
+        controles.add(new JLabel("Nivel:"));
+        controles.add(cmbTramo);
+        controles.add(new JLabel("Métrica:"));
+        controles.add(cmbMetrica);
+
+        JPanel graficos = new JPanel(new GridLayout(2, 1, 0, 10));
+        graficos.setOpaque(false);
+        graficos.add(graficoSerie);
+        graficos.add(graficoBarras);
+
+        add(controles, BorderLayout.NORTH);
+        add(graficos, BorderLayout.CENTER);
+        JScrollPane competencias = new JScrollPane(new JTable(modeloCompetencias));
+        competencias.setPreferredSize(new Dimension(240, 0));
+        competencias.setBorder(BorderFactory.createTitledBorder("Por competencia"));
+        add(competencias, BorderLayout.EAST);
+        JPanel pie = new JPanel(new BorderLayout());
+        pie.setOpaque(false);
+        pie.add(lblEstado, BorderLayout.CENTER);
+        pie.add(btnReconstruir, BorderLayout.EAST);
+        add(pie, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Consulta el cubo en segundo plano con el rango y el tramo seleccionados.
+     */
+    void cargar() {
+        int consulta = ++generacion;
+        LocalDate hasta = LocalDate.now();
+        LocalDate inicio = hasta.minusDays(DIAS_RANGO[cmbRango.getSelectedIndex()] - 1L);
+        int tramo = cmbTramo.getSelectedIndex() - 1;
+        lblEstado.setText("Cargando...");
+
+        new SwingWorker<Datos, Void>() {
+            private long duracionMs;
+
+            @Override
+            protected Datos doInBackground() throws Exception {
+                long comienzo = System.nanoTime();
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                    Datos leidos = leer(sesion, inicio, hasta, tramo);
+                    duracionMs = (System.nanoTime() - comienzo) / 1_000_000;
+                    return leidos;
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (consulta != generacion) {
+                    return; // Se cambió el rango antes de que terminara
+                }
+                try {
+                    datos = get();
+                    desde = inicio;
+                    mostrar();
+                    lblEstado.setText("Usuarios únicos en el rango (todos los niveles): "
+                            + estimacion(datos.unicos().get(UsuariosUnicos.TODOS)) + " · consulta: " + duracionMs
+                            + " ms");
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    lblEstado.setText("Error al cargar las estadísticas");
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Regenera el cubo desde Actividades y vuelve a cargar los gráficos.
+     */
+    private void reconstruir() {
+        int opcion = JOptionPane.showConfirmDialog(this,
+                "Se recalcularán las estadísticas desde todas las actividades. ¿Continuar?",
+                "Reconstruir cubo", JOptionPane.YES_NO_OPTION);
+        if (opcion != JOptionPane.YES_OPTION) {
+            return;
+        }
+        btnReconstruir.setEnabled(false);
+        lblEstado.setText("Reconstruyendo el cubo...");
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+                    return CuboActividad.reconstruir(sesion);
+                }
+            }
+
+            @Override
+            protected void done() {
+                btnReconstruir.setEnabled(true);
+                try {
+                    get();
+                    cargar();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    lblEstado.setText("Error al reconstruir el cubo");
+                }
+            }
+        }.execute();
+    }
+
+    private static Datos leer(AccesoDatos.Sesion sesion, LocalDate inicio, LocalDate hasta, int tramo)
+            throws SQLException {
+        Map<String, HyperLogLog> unicos = UsuariosUnicos.porClave(sesion, UsuariosUnicos.DEPORTE, inicio, hasta);
+        Map<String, HyperLogLog> porCompetencia = UsuariosUnicos.porClave(sesion, UsuariosUnicos.COMPETENCIA, inicio,
+                hasta);
+        List<Object[]> competencias = new ArrayList<>();
+        if (!porCompetencia.isEmpty()) {
+            // Los nombres se leen en una sola consulta para las competencias con actividad en el rango
+            String marcadores = String.join(", ", Collections.nCopies(porCompetencia.size(), "?"));
+            PreparedStatement stmt = sesion.preparar(
+                    "SELECT id, nombre FROM Competencias WHERE id IN (" + marcadores + ")");
+            int i = 1;
+            for (String id : porCompetencia.keySet()) {
+                stmt.setString(i++, id);
+            }
+            Map<String, String> nombres = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nombres.put(rs.getString(1), rs.getString(2));
+                }
+            }
+            for (Map.Entry<String, HyperLogLog> entrada : porCompetencia.entrySet()) {
+                competencias.add(new Object[]{nombres.getOrDefault(entrada.getKey(), entrada.getKey()),
+                        entrada.getValue().estimar()});
+            }
+            competencias.sort((a, b) -> Long.compare((Long) b[1], (Long) a[1]));
+        }
+        return new Datos(CuboActividad.porDia(sesion, inicio, hasta, tramo),
+                CuboActividad.porDeporte(sesion, inicio, hasta, tramo), unicos, competencias, tramo);
+    }
+
+    private void mostrar() {
+        if (desde == null) {
+            return;
+        }
+        int metrica = cmbMetrica.getSelectedIndex();
+        String nombre = METRICAS[metrica];
+
+        // Los días sin actividad no tienen fila en el cubo y se dibujan como cero
+        double[] serie = new double[(int) ChronoUnit.DAYS.between(desde, LocalDate.now()) + 1];
+        for (CuboActividad.Totales dia : datos.porDia()) {
+            int indice = (int) ChronoUnit.DAYS.between(desde, LocalDate.parse(dia.clave()));
+            if (indice >= 0 && indice < serie.length) {
+                serie[indice] = valor(dia, metrica);
+            }
+        }
+        graficoSerie.mostrar(nombre + " por día", serie, desde);
+
+        // Los usuarios de todo el rango no se pueden sumar día a día sin contarlos varias veces: con todos los
+        // niveles se usan los estimadores, que no distinguen tramos
+        boolean usarEstimadores = metrica == 1 && datos.tramo() < 0;
+        List<CuboActividad.Totales> porDeporte = datos.porDeporte();
+        String[] deportes = new String[porDeporte.size()];
+        double[] valores = new double[porDeporte.size()];
+        for (int i = 0; i < deportes.length; i++) {
+            deportes[i] = porDeporte.get(i).clave();
+            HyperLogLog unicos = datos.unicos().get(deportes[i]);
+            valores[i] = usarEstimadores ? (unicos != null ? unicos.estimar() : 0) : valor(porDeporte.get(i), metrica);
+        }
+        graficoBarras.mostrar(usarEstimadores ? "Usuarios únicos por deporte (" + MARGEN + ")"
+                : nombre + " por deporte", deportes, valores);
+
+        modeloCompetencias.setRowCount(0);
+        for (Object[] competencia : datos.competencias()) {
+            modeloCompetencias.addRow(new Object[]{competencia[0], "~" + competencia[1]});
+        }
+    }
+
+    private static String estimacion(HyperLogLog unicos) {
+        return "~" + (unicos != null ? unicos.estimar() : 0) + " (" + MARGEN + ")";
+    }
+
+    private static double valor(CuboActividad.Totales totales, int metrica) {
+        return switch (metrica) {
+            case 1 -> totales.usuariosActivos();
+            case 2 -> totales.minutos();
+            case 3 -> totales.km();
+            case 4 -> totales.calorias();
+            default -> totales.actividades();
+        };
+    }
+
+    private static String formatear(double valor) {
+        return valor == Math.rint(valor) ? String.valueOf((long) valor) : String.format("%.1f", valor);
+    }
+
+    /**
+     * Gráfico de líneas de una métrica diaria.
+     */
+    private static final class GraficoSerie extends JComponent {
+        private static final long serialVersionUID = 1L;
+        private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yy");
+
+        private String titulo = "";
+        private double[] valores = new double[0];
+        private LocalDate inicio = LocalDate.now();
+
+        GraficoSerie() {
+            setFont(FUENTE);
+            setPreferredSize(new Dimension(600, 220));
+        }
+
+        void mostrar(String titulo, double[] valores, LocalDate inicio) {
+            this.titulo = titulo;
+            this.valores = valores;
+            this.inicio = inicio;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            FontMetrics fm = g2.getFontMetrics();
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(titulo, 10, fm.getAscent() + 4);
+
+            int izquierda = 60;
+            int arriba = fm.getHeight() + 12;
+            int ancho = getWidth() - izquierda - 15;
+            int alto = getHeight() - arriba - fm.getHeight() - 10;
+            if (valores.length == 0 || ancho <= 0 || alto <= 0) {
+                g2.dispose();
+                return;
+            }
+            double maximo = 0;
+            for (double valor : valores) {
+                maximo = Math.max(maximo, valor);
+            }
+            if (maximo == 0) {
+                maximo = 1;
+            }
+
+            for (int i = 0; i <= 4; i++) {
+                int y = arriba + alto - alto * i / 4;
+                g2.setColor(REJILLA);
+                g2.drawLine(izquierda, y, izquierda + ancho, y);
+                g2.setColor(Color.GRAY);
+                String etiqueta = formatear(maximo * i / 4);
+                g2.drawString(etiqueta, izquierda - fm.stringWidth(etiqueta) - 5, y + fm.getAscent() / 2);
+            }
+            String primera = inicio.format(FORMATO);
+            String ultima = inicio.plusDays(valores.length - 1L).format(FORMATO);
+            g2.drawString(primera, izquierda, arriba + alto + fm.getAscent() + 4);
+            g2.drawString(ultima, izquierda + ancho - fm.stringWidth(ultima), arriba + alto + fm.getAscent() + 4);
+
+            // Con más días que píxeles se dibuja un punto por píxel
+            int puntos = Math.min(valores.length, Math.max(2, ancho));
+            int[] xs = new int[puntos];
+            int[] ys = new int[puntos];
+            for (int p = 0; p < puntos; p++) {
+                int i = puntos == 1 ? 0 : (int) ((long) p * (valores.length - 1) / (puntos - 1));
+                xs[p] = izquierda + (valores.length == 1 ? 0 : (int) ((long) i * ancho / (valores.length - 1)));
+                ys[p] = arriba + alto - (int) (valores[i] / maximo * alto);
+            }
+            g2.setColor(SERIE);
+            g2.setStroke(new BasicStroke(2f));
+            g2.drawPolyline(xs, ys, puntos);
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Gráfico de barras horizontales con una barra por deporte.
+     */
+    private static final class GraficoBarras extends JComponent {
+        private static final long serialVersionUID = 1L;
+
+        private String titulo = "";
+        private String[] etiquetas = new String[0];
+        private double[] valores = new double[0];
+
+        GraficoBarras() {
+            setFont(FUENTE);
+            setPreferredSize(new Dimension(600, 220));
+        }
+
+        void mostrar(String titulo, String[] etiquetas, double[] valores) {
+            this.titulo = titulo;
+            this.etiquetas = etiquetas;
+            this.valores = valores;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            FontMetrics fm = g2.getFontMetrics();
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(titulo, 10, fm.getAscent() + 4);
+            if (valores.length == 0) {
+                g2.setColor(Color.GRAY);
+                g2.drawString("Sin actividades en el rango", 10, fm.getHeight() * 2 + 8);
+                g2.dispose();
+                return;
+            }
+
+            int izquierda = 110;
+            int arriba = fm.getHeight() + 12;
+            int ancho = getWidth() - izquierda - 70;
+            int altoBarra = Math.max(4, Math.min(28, (getHeight() - arriba - 10) / valores.length - 6));
+            double maximo = 0;
+            for (double valor : valores) {
+                maximo = Math.max(maximo, valor);
+            }
+            for (int i = 0; i < valores.length; i++) {
+                int y = arriba + i * (altoBarra + 6);
+                int largo = maximo > 0 ? (int) (valores[i] / maximo * Math.max(0, ancho)) : 0;
+                g2.setColor(Color.DARK_GRAY);
+                g2.drawString(etiquetas[i], 10, y + (altoBarra + fm.getAscent()) / 2 - 1);
+                g2.setColor(SERIE);
+                g2.fillRect(izquierda, y, largo, altoBarra);
+                g2.setColor(Color.GRAY);
+                g2.drawString(formatear(valores[i]), izquierda + largo + 5, y + (altoBarra + fm.getAscent()) / 2 - 1);
+            }
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Resultado de una carga: totales del cubo y estimadores de usuarios únicos del rango.
+     */
+    private record Datos(List<CuboActividad.Totales> porDia, List<CuboActividad.Totales> porDeporte,
+                         Map<String, HyperLogLog> unicos, List<Object[]> competencias, int tramo) {
+    }
+}
@@ -44,7 +44,7 @@ import java.io.IOException;
  *                try {
  *                    setIconImage(ImageIO.read(this.getClass().getResource("resources/Cubo-EnfocadoL.png")));
  *                } catch (IOException e) {
- *                    System.out.println("La imagen no se encuentra");
+ *                    Registro.aviso("La imagen no se encuentra");
  *                }
  *                }
  *                </pre>
@@ -75,7 +75,7 @@ public class PantallaCarga extends JDialog {
         try {
             setIconImage(ImageIO.read(this.getClass().getResource("resources/Cubo-EnfocadoL.png")));
         } catch (IOException e) {
-            System.out.println("La imagen no se encuentra");
+            Registro.aviso("La imagen no se encuentra");
         }
 
         JPanel panelPrincipal = new JPanel(new BorderLayout(10, 10));
@@ -4,7 +4,6 @@ import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -64,7 +63,7 @@ public class PantallaInicio extends JFrame {
         try {
             setIconImage(ImageIO.read(this.getClass().getResource("resources/Cubo-EnfocadoL.png")));
         } catch (IOException e) {
-            System.out.println("La imagen no se encuentra");
+            Registro.aviso("La imagen no se encuentra");
         }
         mostrarInicioSesion();
     }
@@ -239,8 +238,7 @@ public class PantallaInicio extends JFrame {
      * @param txtNombre          Campo de texto para el nombre.
      */
     private void crearCuenta(JTextField txtNuevoUsuario, JPasswordField txtNuevaContrasena, JTextField txtNombre) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String id = txtNuevoUsuario.getText();
             String nombre = txtNombre.getText();
@@ -253,7 +251,7 @@ public class PantallaInicio extends JFrame {
             }
 
             String checkQuery = "SELECT COUNT(*) FROM Usuarios WHERE id = ? OR nombre = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
+            PreparedStatement checkStmt = sesion.preparar(checkQuery);
             checkStmt.setString(1, id);
             checkStmt.setString(2, nombre);
 
@@ -266,7 +264,7 @@ public class PantallaInicio extends JFrame {
             String contrasenaCifrada = cifrarContrasena(contrasena);
 
             String insertQuery = "INSERT INTO Usuarios (id, nombre, nivel, puntosTotales, experiencia, contrasena) VALUES (?, ?, ?, ?, ?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(insertQuery);
+            PreparedStatement stmt = sesion.preparar(insertQuery);
             stmt.setString(1, id);
             stmt.setString(2, nombre);
             stmt.setInt(3, 1);
@@ -297,11 +295,10 @@ public class PantallaInicio extends JFrame {
             protected Void doInBackground() {
                 try {
                     Class.forName("com.mysql.cj.jdbc.Driver");
-                    try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                            Configuracion.DB_PASSWORD)) {
+                    try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
                         String query = "SELECT * FROM Usuarios WHERE id = ?";
-                        PreparedStatement stmt = conn.prepareStatement(query);
+                        PreparedStatement stmt = sesion.preparar(query);
                         stmt.setString(1, txtUsuario.getText());
                         ResultSet rs = stmt.executeQuery();
 
@@ -328,7 +325,8 @@ public class PantallaInicio extends JFrame {
                             Configuracion.setUsuarioActual(usuario);
 
                             SistemaGamificacion sistema = new SistemaGamificacion();
-                            CargaDatos.cargarDatosRelacionados(conn, sistema, usuario);
+                            sistema.sembrarCatalogo();
+                            CargaDatos.cargarDatosRelacionados(sesion, sistema, usuario);
 
                             SwingUtilities.invokeLater(() -> {
                                 pantallaCarga.ocultar();
@@ -387,9 +385,8 @@ public class PantallaInicio extends JFrame {
      * @param usuario El usuario cuya sesión se va a guardar.
      */
     private void guardarSesion(Usuario usuario) {
-        try (FileWriter writer = new FileWriter("sesion.txt")) {
-            writer.write(usuario.getId() + "\n");
-            writer.write((usuario.isEsAdmin() ? "admin" : "normal") + "\n"); // Almacena si es admin o no
+        try {
+            SesionGuardada.guardar(usuario); // ID, tipo y resumen firmado para el siguiente arranque
         } catch (IOException e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error al guardar la sesión.", "Error", JOptionPane.ERROR_MESSAGE);
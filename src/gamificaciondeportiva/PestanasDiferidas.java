@@ -0,0 +1,126 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * La clase PestanasDiferidas construye el contenido de las pestañas de un {@link JTabbedPane} solo cuando hace falta.
+ * <p>
+ * Cada pestaña se añade con un panel vacío que hace de marcador. Su contenido real se construye la primera vez que se
+ * selecciona la pestaña. Así la ventana puede mostrarse en cuanto está lista la pestaña inicial. La construcción se
+ * hace en el hilo de Swing, así que debe limitarse a crear los componentes: las filas que vienen de la base de datos
+ * se cargan después con un {@link SwingWorker}.
+ * <p>
+ * Cuando la interfaz queda inactiva un momento, se construye por adelantado la pestaña que probablemente se abra
+ * después (la siguiente a la seleccionada), una cada vez y solo si no hay eventos pendientes en la cola de Swing, para
+ * que el cambio de pestaña sea inmediato sin entorpecer al usuario. Precargar una pestaña solo crea sus componentes y
+ * lanza su carga en segundo plano.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * PestanasDiferidas pestanas = new PestanasDiferidas(tabbedPane);
+ * pestanas.agregar("Logros", "Logros disponibles", this::crearPanelLogros);
+ * }
+ * </pre>
+ */
+final class PestanasDiferidas {
+    /**
+     * Tiempo sin cambios de pestaña tras el cual se considera que la interfaz está inactiva.
+     */
+    private static final int ESPERA_INACTIVIDAD_MS = 500;
+
+    private final JTabbedPane tabbedPane;
+    private final List<Pestana> pestanas = new ArrayList<>();
+    private final Timer precarga;
+    private boolean mostrado;
+
+    /**
+     * Crea el gestor de pestañas diferidas para un panel de pestañas vacío.
+     *
+     * @param tabbedPane El panel de pestañas.
+     */
+    PestanasDiferidas(JTabbedPane tabbedPane) {
+        this.tabbedPane = tabbedPane;
+        this.precarga = new Timer(ESPERA_INACTIVIDAD_MS, e -> precargarSiguiente());
+        this.precarga.setRepeats(false);
+        tabbedPane.addChangeListener(e -> {
+            construir(tabbedPane.getSelectedIndex());
+            precarga.restart();
+        });
+    }
+
+    /**
+     * Añade una pestaña cuyo contenido se construirá al seleccionarla por primera vez.
+     *
+     * @param titulo   El título de la pestaña.
+     * @param tooltip  El texto de ayuda de la pestaña, o null.
+     * @param contenido La función que construye el contenido de la pestaña.
+     */
+    void agregar(String titulo, String tooltip, Supplier<? extends Component> contenido) {
+        Pestana pestana = new Pestana(contenido);
+        pestanas.add(pestana);
+        tabbedPane.addTab(titulo, null, pestana.marcador, tooltip);
+        // La primera pestaña queda seleccionada al añadirla; se construye ya porque es la que se verá
+        if (tabbedPane.getSelectedIndex() == pestanas.size() - 1) {
+            construir(pestanas.size() - 1);
+            precarga.restart();
+        }
+    }
+
+    private void construir(int indice) {
+        if (indice >= 0 && indice < pestanas.size()) {
+            pestanas.get(indice).construir();
+        }
+    }
+
+    /**
+     * Construye la siguiente pestaña pendiente a partir de la seleccionada, si la interfaz sigue inactiva.
+     */
+    private void precargarSiguiente() {
+        if (!tabbedPane.isShowing()) {
+            if (!mostrado) {
+                precarga.restart(); // La ventana aún no se ha mostrado
+            }
+            return; // Si ya se mostró, la ventana se ocultó o se cerró: no se precarga nada más
+        }
+        mostrado = true;
+        if (Toolkit.getDefaultToolkit().getSystemEventQueue().peekEvent() != null) {
+            precarga.restart(); // Hay trabajo pendiente en la interfaz: se reintenta más tarde
+            return;
+        }
+        int seleccionada = Math.max(0, tabbedPane.getSelectedIndex());
+        for (int i = 1; i < pestanas.size(); i++) {
+            Pestana pestana = pestanas.get((seleccionada + i) % pestanas.size());
+            if (!pestana.construida) {
+                pestana.construir();
+                precarga.restart(); // Una pestaña por periodo de inactividad
+                return;
+            }
+        }
+    }
+
+    private static final class Pestana {
+        private final JPanel marcador = new JPanel(new BorderLayout());
+        private final Supplier<? extends Component> contenido;
+        private boolean construida;
+
+        Pestana(Supplier<? extends Component> contenido) {
+            this.contenido = contenido;
+            marcador.setOpaque(false);
+        }
+
+        void construir() {
+            if (construida) {
+                return;
+            }
+            construida = true;
+            marcador.add(contenido.get(), BorderLayout.CENTER);
+            marcador.revalidate();
+            marcador.repaint();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package gamificaciondeportiva;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * La clase PlanificadorEstados mantiene al día el estado de competencias y desafíos según sus fechas.
+ * <p>
+ * Un hilo en segundo plano aplica todas las transiciones vencidas con unas pocas sentencias UPDATE sobre conjuntos
+ * de filas:
+ * <ul>
+ *   <li>Competencias y participaciones: REGISTRO → EN_PROGRESO → FINALIZADA.</li>
+ *   <li>Desafíos: PENDIENTE → ACTIVO → EXPIRADO, mediante {@link BarridoDesafios}.</li>
+ * </ul>
+ * Después consulta con una sola sentencia la próxima fecha en la que alguna fila cambiará de estado y duerme hasta
+ * entonces. El coste no depende del número de competencias o desafíos programados: no se revisa cada uno por
+ * separado ni se consulta periódicamente.
+ * <p>
+ * Cuando se crean o editan fechas desde la aplicación, se debe llamar a {@link #despertar()} para recalcular la
+ * próxima transición.
+ */
+public final class PlanificadorEstados {
+    /**
+     * Espera máxima entre revisiones, por si las fechas se modifican fuera de la aplicación o el reloj del servidor
+     * de base de datos usa otra zona horaria.
+     */
+    private static final long ESPERA_MAXIMA_MS = 60 * 60 * 1000L;
+
+    /**
+     * Transiciones a aplicar, en orden. Las de finalización van primero para que una fila cuyo periodo ya terminó
+     * no pase antes por el estado intermedio.
+     */
+    private static final String[] TRANSICIONES = {
+            "UPDATE Competencias SET estado = 'FINALIZADA' "
+                    + "WHERE estado <> 'FINALIZADA' AND fechaFin < CURDATE()",
+            "UPDATE Competencias SET estado = 'EN_PROGRESO' "
+                    + "WHERE estado IN ('REGISTRO', 'PENDIENTE', 'ACTIVO') AND fechaInicio <= CURDATE() AND fechaFin >= CURDATE()",
+            "UPDATE CompetenciasParticipacion SET estado = 'FINALIZADA' "
+                    + "WHERE estado <> 'FINALIZADA' AND fechaFin < CURDATE()",
+            "UPDATE CompetenciasParticipacion SET estado = 'EN_PROGRESO' "
+                    + "WHERE estado = 'REGISTRO' AND fechaInicio <= CURDATE() AND fechaFin >= CURDATE()"
+    };
+
+    /**
+     * Próxima fecha en la que alguna fila cambia de estado: el día de inicio de lo que aún no ha empezado, o el día
+     * siguiente al fin de lo que aún no ha terminado.
+     */
+    private static final String CONSULTA_PROXIMA_TRANSICION = "SELECT MIN(proxima) FROM ("
+            + "SELECT MIN(fechaInicio) AS proxima FROM Competencias "
+            + "WHERE estado IN ('REGISTRO', 'PENDIENTE') AND fechaInicio > CURDATE() "
+            + "UNION ALL SELECT MIN(fechaFin) + INTERVAL 1 DAY FROM Competencias "
+            + "WHERE estado <> 'FINALIZADA' AND fechaFin >= CURDATE() "
+            + "UNION ALL SELECT MIN(fechaInicio) FROM CompetenciasParticipacion "
+            + "WHERE estado = 'REGISTRO' AND fechaInicio > CURDATE() "
+            + "UNION ALL SELECT MIN(fechaFin) + INTERVAL 1 DAY FROM CompetenciasParticipacion "
+            + "WHERE estado <> 'FINALIZADA' AND fechaFin >= CURDATE() "
+            + "UNION ALL SELECT MIN(fechaInicio) FROM Desafios "
+            + "WHERE estado = 'PENDIENTE' AND fechaInicio > CURDATE() "
+            + "UNION ALL SELECT MIN(fechaFin) + INTERVAL 1 DAY FROM Desafios "
+            + "WHERE estado IN ('PENDIENTE', 'ACTIVO') AND fechaFin >= CURDATE()"
+            + ") transiciones";
+
+    private static final Object monitor = new Object();
+    private static Thread hilo;
+    private static boolean despertado;
+
+    private PlanificadorEstados() {
+    }
+
+    /**
+     * Inicia el hilo del planificador si aún no está en ejecución.
+     */
+    public static void iniciar() {
+        synchronized (monitor) {
+            if (hilo != null && hilo.isAlive()) {
+                return;
+            }
+            hilo = new Thread(PlanificadorEstados::ejecutar, "planificador-estados");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    /**
+     * Detiene el hilo del planificador.
+     */
+    public static void detener() {
+        synchronized (monitor) {
+            if (hilo != null) {
+                hilo.interrupt();
+                hilo = null;
+            }
+        }
+    }
+
+    /**
+     * Pide al planificador que aplique las transiciones y recalcule la próxima sin esperar al plazo actual.
+     */
+    public static void despertar() {
+        synchronized (monitor) {
+            despertado = true;
+            monitor.notifyAll();
+        }
+    }
+
+    private static void ejecutar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long espera = ESPERA_MAXIMA_MS;
+            try {
+                int cambios = aplicarTransiciones();
+                if (cambios > 0) {
+                    Registro.info("Planificador: cambios de estado aplicados", "cambios", cambios);
+                }
+                LocalDate proxima = consultarProximaTransicion();
+                if (proxima != null) {
+                    long hasta = proxima.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    espera = Math.min(espera, Math.max(1000L, hasta - System.currentTimeMillis()));
+                }
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+
+            try {
+                synchronized (monitor) {
+                    long limite = System.currentTimeMillis() + espera;
+                    while (!despertado) {
+                        long restante = limite - System.currentTimeMillis();
+                        if (restante <= 0) {
+                            break;
+                        }
+                        monitor.wait(restante);
+                    }
+                    despertado = false;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Aplica todas las transiciones de estado vencidas. Las de competencias se confirman en una sola transacción;
+     * el barrido de desafíos confirma la suya junto con su marca de agua.
+     *
+     * @return El número de filas que cambiaron de estado.
+     * @throws Exception Si ocurre un error al actualizar.
+     */
+    static int aplicarTransiciones() throws Exception {
+        int cambios = 0;
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            cambios += BarridoDesafios.barrer(sesion);
+            sesion.iniciarTransaccion();
+            for (String sql : TRANSICIONES) {
+                cambios += sesion.preparar(sql).executeUpdate();
+            }
+            sesion.confirmar();
+        }
+        return cambios;
+    }
+
+    /**
+     * Consulta la próxima fecha en la que alguna competencia, participación o desafío cambiará de estado.
+     *
+     * @return La fecha de la próxima transición, o null si no hay ninguna programada.
+     * @throws Exception Si ocurre un error en la consulta.
+     */
+    static LocalDate consultarProximaTransicion() throws Exception {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            PreparedStatement stmt = sesion.preparar(CONSULTA_PROXIMA_TRANSICION);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Date fecha = rs.getDate(1);
+                    return fecha != null ? fecha.toLocalDate() : null;
+                }
+            }
+        }
+        return null;
+    }
+}
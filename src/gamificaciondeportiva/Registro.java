@@ -0,0 +1,504 @@
+package gamificaciondeportiva;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * La clase Registro escribe los mensajes de diagnóstico de la aplicación de forma asíncrona y estructurada.
+ * <p>
+ * Quien registra un mensaje solo lo copia a un búfer circular de tamaño fijo, sin bloquearse ni tomar el candado de
+ * {@code System.out}; un único hilo en segundo plano lo formatea y lo escribe. Cada línea tiene un formato clave=valor
+ * fácil de procesar:
+ * <pre>
+ * 2024-05-01T10:15:30.125 INFO  [bus-eventos] Logro completado usuarioId=u12 logroId=7
+ * </pre>
+ * Los datos variables van como pares clave-valor, no concatenados al mensaje. Si el nivel está desactivado, la llamada
+ * termina en la primera comprobación sin construir nada. Las variantes con hasta tres pares no crean arreglos.
+ * <p>
+ * El nivel mínimo se elige con {@code -Dgamificacion.registro.nivel} (INFO por defecto). Si el búfer se llena porque se
+ * registran mensajes más deprisa de lo que se escriben, los nuevos se descartan y se informa de cuántos se perdieron;
+ * quien registra nunca espera. Al cerrar la aplicación se escriben los pendientes.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * Registro.info("Participante registrado", "usuarioId", usuario.getId(), "competenciaId", competencia.getId());
+ * Registro.error("No se pudo guardar la actividad", ex, "usuarioId", usuario.getId());
+ * }
+ * </pre>
+ */
+public final class Registro {
+    /**
+     * Propiedad del sistema con el nivel mínimo que se escribe.
+     */
+    public static final String PROPIEDAD_NIVEL = "gamificacion.registro.nivel";
+
+    /**
+     * Niveles de importancia de los mensajes, de menor a mayor.
+     */
+    public enum Nivel {
+        DEPURACION, INFO, AVISO, ERROR, NINGUNO
+    }
+
+    private static final int CAPACIDAD = 8192; // Potencia de dos
+    private static final int MAX_PARES = 3;
+    private static final long ESPERA_VACIO_NANOS = 5_000_000L;
+    private static final DateTimeFormatter FORMATO_FECHA =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static volatile int nivelMinimo = leerNivel();
+    private static volatile PrintStream destino = System.out;
+
+    private static final Entrada[] entradas = new Entrada[CAPACIDAD];
+    private static final AtomicLong siguienteEscritura = new AtomicLong();
+    private static final AtomicLong descartados = new AtomicLong();
+    private static volatile long siguienteLectura; // Solo lo avanza el hilo escritor
+    private static final Thread escritor;
+
+    static {
+        for (int i = 0; i < CAPACIDAD; i++) {
+            entradas[i] = new Entrada(i);
+        }
+        escritor = new Thread(Registro::escribirContinuamente, "registro");
+        escritor.setDaemon(true);
+        escritor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Registro::vaciar, "registro-cierre"));
+    }
+
+    private Registro() {
+    }
+
+    /**
+     * Cambia el nivel mínimo que se escribe.
+     *
+     * @param nivel El nuevo nivel mínimo.
+     */
+    public static void setNivel(Nivel nivel) {
+        nivelMinimo = nivel.ordinal();
+    }
+
+    /**
+     * Cambia el flujo donde se escriben los mensajes (por defecto, la salida estándar).
+     *
+     * @param flujo El nuevo destino.
+     */
+    public static void setDestino(PrintStream flujo) {
+        destino = flujo;
+    }
+
+    /**
+     * Indica si se escriben los mensajes de un nivel. Sirve para evitar calcular valores costosos que no se usarían.
+     *
+     * @param nivel El nivel a comprobar.
+     * @return true si los mensajes de ese nivel se escriben.
+     */
+    public static boolean estaActivo(Nivel nivel) {
+        return nivel.ordinal() >= nivelMinimo;
+    }
+
+    /**
+     * Registra un mensaje de depuración.
+     *
+     * @param mensaje El mensaje.
+     */
+    public static void depuracion(String mensaje) {
+        if (Nivel.DEPURACION.ordinal() >= nivelMinimo) {
+            publicar(Nivel.DEPURACION, mensaje, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de depuración con un par clave-valor.
+     *
+     * @param mensaje El mensaje.
+     * @param clave   El nombre del campo.
+     * @param valor   El valor del campo.
+     */
+    public static void depuracion(String mensaje, String clave, Object valor) {
+        if (Nivel.DEPURACION.ordinal() >= nivelMinimo) {
+            publicar(Nivel.DEPURACION, mensaje, null, clave, valor, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de depuración con dos pares clave-valor.
+     */
+    public static void depuracion(String mensaje, String clave1, Object valor1, String clave2, Object valor2) {
+        if (Nivel.DEPURACION.ordinal() >= nivelMinimo) {
+            publicar(Nivel.DEPURACION, mensaje, null, clave1, valor1, clave2, valor2, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de depuración con tres pares clave-valor.
+     */
+    public static void depuracion(String mensaje, String clave1, Object valor1, String clave2, Object valor2,
+                                  String clave3, Object valor3) {
+        if (Nivel.DEPURACION.ordinal() >= nivelMinimo) {
+            publicar(Nivel.DEPURACION, mensaje, null, clave1, valor1, clave2, valor2, clave3, valor3, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de depuración con más de tres pares clave-valor, alternando claves y valores.
+     *
+     * @param mensaje El mensaje.
+     * @param campos  Claves y valores alternados.
+     */
+    public static void depuracion(String mensaje, Object... campos) {
+        if (Nivel.DEPURACION.ordinal() >= nivelMinimo) {
+            publicar(Nivel.DEPURACION, mensaje, null, null, null, null, null, null, null, campos);
+        }
+    }
+
+    /**
+     * Registra un mensaje informativo.
+     *
+     * @param mensaje El mensaje.
+     */
+    public static void info(String mensaje) {
+        if (Nivel.INFO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.INFO, mensaje, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje informativo con un par clave-valor.
+     *
+     * @param mensaje El mensaje.
+     * @param clave   El nombre del campo.
+     * @param valor   El valor del campo.
+     */
+    public static void info(String mensaje, String clave, Object valor) {
+        if (Nivel.INFO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.INFO, mensaje, null, clave, valor, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje informativo con dos pares clave-valor.
+     */
+    public static void info(String mensaje, String clave1, Object valor1, String clave2, Object valor2) {
+        if (Nivel.INFO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.INFO, mensaje, null, clave1, valor1, clave2, valor2, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje informativo con tres pares clave-valor.
+     */
+    public static void info(String mensaje, String clave1, Object valor1, String clave2, Object valor2,
+                            String clave3, Object valor3) {
+        if (Nivel.INFO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.INFO, mensaje, null, clave1, valor1, clave2, valor2, clave3, valor3, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje informativo con más de tres pares clave-valor, alternando claves y valores.
+     *
+     * @param mensaje El mensaje.
+     * @param campos  Claves y valores alternados.
+     */
+    public static void info(String mensaje, Object... campos) {
+        if (Nivel.INFO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.INFO, mensaje, null, null, null, null, null, null, null, campos);
+        }
+    }
+
+    /**
+     * Registra un mensaje de aviso.
+     *
+     * @param mensaje El mensaje.
+     */
+    public static void aviso(String mensaje) {
+        if (Nivel.AVISO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.AVISO, mensaje, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de aviso con un par clave-valor.
+     *
+     * @param mensaje El mensaje.
+     * @param clave   El nombre del campo.
+     * @param valor   El valor del campo.
+     */
+    public static void aviso(String mensaje, String clave, Object valor) {
+        if (Nivel.AVISO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.AVISO, mensaje, null, clave, valor, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de aviso con dos pares clave-valor.
+     */
+    public static void aviso(String mensaje, String clave1, Object valor1, String clave2, Object valor2) {
+        if (Nivel.AVISO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.AVISO, mensaje, null, clave1, valor1, clave2, valor2, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de aviso con tres pares clave-valor.
+     */
+    public static void aviso(String mensaje, String clave1, Object valor1, String clave2, Object valor2,
+                             String clave3, Object valor3) {
+        if (Nivel.AVISO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.AVISO, mensaje, null, clave1, valor1, clave2, valor2, clave3, valor3, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje de aviso con más de tres pares clave-valor, alternando claves y valores.
+     *
+     * @param mensaje El mensaje.
+     * @param campos  Claves y valores alternados.
+     */
+    public static void aviso(String mensaje, Object... campos) {
+        if (Nivel.AVISO.ordinal() >= nivelMinimo) {
+            publicar(Nivel.AVISO, mensaje, null, null, null, null, null, null, null, campos);
+        }
+    }
+
+    /**
+     * Registra un error con su excepción, cuya pila se escribe a continuación del mensaje.
+     *
+     * @param mensaje El mensaje.
+     * @param error   La excepción.
+     */
+    public static void error(String mensaje, Throwable error) {
+        if (Nivel.ERROR.ordinal() >= nivelMinimo) {
+            publicar(Nivel.ERROR, mensaje, error, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un error con su excepción y un par clave-valor.
+     */
+    public static void error(String mensaje, Throwable error, String clave, Object valor) {
+        if (Nivel.ERROR.ordinal() >= nivelMinimo) {
+            publicar(Nivel.ERROR, mensaje, error, clave, valor, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un error con su excepción y dos pares clave-valor.
+     */
+    public static void error(String mensaje, Throwable error, String clave1, Object valor1, String clave2,
+                             Object valor2) {
+        if (Nivel.ERROR.ordinal() >= nivelMinimo) {
+            publicar(Nivel.ERROR, mensaje, error, clave1, valor1, clave2, valor2, null, null, null);
+        }
+    }
+
+    /**
+     * Registra un error con su excepción y tres pares clave-valor.
+     */
+    public static void error(String mensaje, Throwable error, String clave1, Object valor1, String clave2,
+                             Object valor2, String clave3, Object valor3) {
+        if (Nivel.ERROR.ordinal() >= nivelMinimo) {
+            publicar(Nivel.ERROR, mensaje, error, clave1, valor1, clave2, valor2, clave3, valor3, null);
+        }
+    }
+
+    /**
+     * Registra un error con su excepción y más de tres pares clave-valor, alternando claves y valores.
+     *
+     * @param mensaje El mensaje.
+     * @param error   La excepción.
+     * @param campos  Claves y valores alternados.
+     */
+    public static void error(String mensaje, Throwable error, Object... campos) {
+        if (Nivel.ERROR.ordinal() >= nivelMinimo) {
+            publicar(Nivel.ERROR, mensaje, error, null, null, null, null, null, null, campos);
+        }
+    }
+
+    /**
+     * Escribe los mensajes pendientes y espera a que terminen. Se usa al cerrar la aplicación.
+     */
+    public static void vaciar() {
+        long hasta = siguienteEscritura.get();
+        long limite = System.nanoTime() + 2_000_000_000L;
+        while (siguienteLectura < hasta && escritor.isAlive() && System.nanoTime() < limite) {
+            LockSupport.unpark(escritor);
+            Thread.onSpinWait();
+        }
+        destino.flush();
+    }
+
+    /**
+     * Reserva una entrada del búfer circular y copia el mensaje. Es un búfer de varios productores y un consumidor:
+     * cada entrada lleva un número de secuencia que indica si está libre para la vuelta actual o ya está lista para
+     * leer.
+     */
+    private static void publicar(Nivel nivel, String mensaje, Throwable error, String clave1, Object valor1,
+                                 String clave2, Object valor2, String clave3, Object valor3, Object[] campos) {
+        long posicion;
+        Entrada entrada;
+        while (true) {
+            posicion = siguienteEscritura.get();
+            entrada = entradas[(int) (posicion & (CAPACIDAD - 1))];
+            long diferencia = entrada.secuencia - posicion;
+            if (diferencia == 0) {
+                if (siguienteEscritura.compareAndSet(posicion, posicion + 1)) {
+                    break;
+                }
+            } else if (diferencia < 0) {
+                descartados.incrementAndGet(); // Búfer lleno
+                return;
+            }
+        }
+        entrada.instante = System.currentTimeMillis();
+        entrada.nivel = nivel;
+        entrada.hilo = Thread.currentThread().getName();
+        entrada.mensaje = mensaje;
+        entrada.error = error;
+        entrada.claves[0] = clave1;
+        entrada.valores[0] = valor1;
+        entrada.claves[1] = clave2;
+        entrada.valores[1] = valor2;
+        entrada.claves[2] = clave3;
+        entrada.valores[2] = valor3;
+        entrada.campos = campos;
+        entrada.secuencia = posicion + 1; // Escritura volátil: publica los campos anteriores al escritor
+    }
+
+    private static void escribirContinuamente() {
+        StringBuilder linea = new StringBuilder(256);
+        long descartadosInformados = 0;
+        while (true) {
+            boolean escrito = false;
+            PrintStream flujo = destino;
+            Entrada entrada;
+            while ((entrada = entradas[(int) (siguienteLectura & (CAPACIDAD - 1))]).secuencia == siguienteLectura + 1) {
+                linea.setLength(0);
+                formatear(entrada, linea);
+                entrada.limpiar();
+                entrada.secuencia = siguienteLectura + CAPACIDAD; // Libre para la siguiente vuelta
+                siguienteLectura++;
+                flujo.append(linea);
+                escrito = true;
+            }
+            long perdidos = descartados.get();
+            if (perdidos != descartadosInformados) {
+                flujo.append(FORMATO_FECHA.format(Instant.now())).append(" AVISO [registro] Mensajes descartados por ")
+                        .append("búfer lleno descartados=").append(String.valueOf(perdidos - descartadosInformados))
+                        .append(System.lineSeparator());
+                descartadosInformados = perdidos;
+                escrito = true;
+            }
+            if (escrito) {
+                flujo.flush();
+            } else {
+                LockSupport.parkNanos(ESPERA_VACIO_NANOS);
+            }
+        }
+    }
+
+    private static void formatear(Entrada entrada, StringBuilder linea) {
+        FORMATO_FECHA.formatTo(Instant.ofEpochMilli(entrada.instante), linea);
+        linea.append(' ').append(entrada.nivel.name());
+        for (int i = entrada.nivel.name().length(); i < 5; i++) {
+            linea.append(' ');
+        }
+        linea.append(" [").append(entrada.hilo).append("] ").append(entrada.mensaje);
+        for (int i = 0; i < MAX_PARES; i++) {
+            if (entrada.claves[i] != null) {
+                agregarCampo(linea, entrada.claves[i], entrada.valores[i]);
+            }
+        }
+        if (entrada.campos != null) {
+            for (int i = 0; i + 1 < entrada.campos.length; i += 2) {
+                agregarCampo(linea, String.valueOf(entrada.campos[i]), entrada.campos[i + 1]);
+            }
+        }
+        if (entrada.error != null) {
+            agregarCampo(linea, "error", entrada.error.toString());
+            StringWriter pila = new StringWriter();
+            entrada.error.printStackTrace(new PrintWriter(pila));
+            linea.append(System.lineSeparator()).append(pila.toString().stripTrailing());
+        }
+        linea.append(System.lineSeparator());
+    }
+
+    /**
+     * Añade " clave=valor", entre comillas si el valor contiene espacios, comillas o signos igual.
+     */
+    private static void agregarCampo(StringBuilder linea, String clave, Object valor) {
+        linea.append(' ').append(clave).append('=');
+        String texto = String.valueOf(valor);
+        boolean comillas = texto.isEmpty();
+        for (int i = 0; i < texto.length() && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ' ' || c == '"' || c == '=' || c == '\n';
+        }
+        if (!comillas) {
+            linea.append(texto);
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                linea.append('\\').append(c);
+            } else if (c == '\n') {
+                linea.append("\\n");
+            } else {
+                linea.append(c);
+            }
+        }
+        linea.append('"');
+    }
+
+    private static int leerNivel() {
+        String valor = System.getProperty(PROPIEDAD_NIVEL);
+        if (valor != null) {
+            try {
+                return Nivel.valueOf(valor.trim().toUpperCase()).ordinal();
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Nivel de registro desconocido: " + valor + "; se usa INFO.");
+            }
+        }
+        return Nivel.INFO.ordinal();
+    }
+
+    /**
+     * Entrada reutilizable del búfer circular.
+     */
+    private static final class Entrada {
+        volatile long secuencia;
+        long instante;
+        Nivel nivel;
+        String hilo;
+        String mensaje;
+        Throwable error;
+        final String[] claves = new String[MAX_PARES];
+        final Object[] valores = new Object[MAX_PARES];
+        Object[] campos;
+
+        Entrada(long secuencia) {
+            this.secuencia = secuencia;
+        }
+
+        /**
+         * Suelta las referencias para no retener objetos hasta la siguiente vuelta del búfer.
+         */
+        void limpiar() {
+            mensaje = null;
+            error = null;
+            campos = null;
+            for (int i = 0; i < MAX_PARES; i++) {
+                claves[i] = null;
+                valores[i] = null;
+            }
+        }
+    }
+}
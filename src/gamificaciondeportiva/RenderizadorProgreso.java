@@ -0,0 +1,123 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * La clase RenderizadorProgreso dibuja una barra de progreso en las celdas de una tabla cuyo valor es un porcentaje
+ * entero (0-100).
+ * <p>
+ * Una sola instancia sirve para todas las celdas de la columna: el modelo solo guarda números y el renderizador pinta
+ * la barra y el texto directamente, sin crear un {@link JProgressBar} por fila. Como {@code DefaultTableCellRenderer},
+ * anula la invalidación y el repintado propios, que en un renderizador no tienen efecto y solo cuestan tiempo.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * tabla.getColumnModel().getColumn(4).setCellRenderer(new RenderizadorProgreso());
+ * modelo.addRow(new Object[]{nombre, descripcion, puntos, estado, 75});
+ * }
+ * </pre>
+ */
+public class RenderizadorProgreso extends JComponent implements TableCellRenderer {
+    private static final long serialVersionUID = 1L;
+
+    private static final Color FONDO = new Color(230, 230, 230);
+    private static final Color BARRA = new Color(70, 130, 180);
+    private static final Color BARRA_COMPLETA = new Color(60, 179, 113);
+    private static final int MARGEN = 4;
+
+    /**
+     * Textos "0%" a "100%" precalculados para no crear cadenas al pintar.
+     */
+    private static final String[] TEXTOS = new String[101];
+
+    static {
+        for (int i = 0; i < TEXTOS.length; i++) {
+            TEXTOS[i] = i + "%";
+        }
+    }
+
+    private int progreso;
+    private boolean seleccionada;
+    private Color fondoSeleccion;
+
+    /**
+     * Crea el renderizador con la fuente de las tablas de la aplicación.
+     */
+    public RenderizadorProgreso() {
+        setFont(new Font("Segoe UI", Font.BOLD, 12));
+        setOpaque(true);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
+                                                   int row, int column) {
+        progreso = value instanceof Number numero ? Math.max(0, Math.min(100, numero.intValue())) : 0;
+        seleccionada = isSelected;
+        fondoSeleccion = table.getSelectionBackground();
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int ancho = getWidth();
+        int alto = getHeight();
+        g.setColor(seleccionada ? fondoSeleccion : Color.WHITE);
+        g.fillRect(0, 0, ancho, alto);
+
+        int x = MARGEN;
+        int y = MARGEN;
+        int anchoBarra = ancho - 2 * MARGEN;
+        int altoBarra = alto - 2 * MARGEN;
+        if (anchoBarra <= 0 || altoBarra <= 0) {
+            return;
+        }
+        g.setColor(FONDO);
+        g.fillRect(x, y, anchoBarra, altoBarra);
+        g.setColor(progreso == 100 ? BARRA_COMPLETA : BARRA);
+        g.fillRect(x, y, anchoBarra * progreso / 100, altoBarra);
+
+        String texto = TEXTOS[progreso];
+        FontMetrics metricas = g.getFontMetrics(getFont());
+        g.setFont(getFont());
+        g.setColor(progreso >= 50 ? Color.WHITE : Color.DARK_GRAY);
+        g.drawString(texto, (ancho - metricas.stringWidth(texto)) / 2,
+                (alto - metricas.getHeight()) / 2 + metricas.getAscent());
+    }
+
+    // Métodos anulados por rendimiento, igual que en DefaultTableCellRenderer
+
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public void validate() {
+    }
+
+    @Override
+    public void revalidate() {
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void repaint(Rectangle r) {
+    }
+
+    @Override
+    public void repaint() {
+    }
+
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {
+    }
+}
@@ -0,0 +1,187 @@
+package gamificaciondeportiva;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase SesionGuardada guarda en disco la sesión iniciada y un resumen firmado del usuario.
+ * <p>
+ * El archivo {@code sesion.txt} contiene, además del ID y el tipo de usuario, su nombre, nivel, puntos y experiencia.
+ * Todo el contenido se firma con HMAC-SHA256 usando una clave aleatoria local ({@code sesion.key}), de modo que al
+ * arrancar se puede mostrar el panel con esos datos sin esperar a la base de datos, y un archivo modificado a mano se
+ * detecta y se descarta. Los datos del resumen son solo una caché: la aplicación los sustituye por los de la base de
+ * datos en cuanto termina la recarga en segundo plano.
+ * <p>
+ * Los archivos con el formato anterior (solo ID y tipo) se siguen aceptando, sin resumen.
+ */
+final class SesionGuardada {
+    private static final Path ARCHIVO = Path.of("sesion.txt");
+    private static final Path ARCHIVO_CLAVE = Path.of("sesion.key");
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final String VERSION = "v2";
+
+    private SesionGuardada() {
+    }
+
+    /**
+     * Guarda la sesión y el resumen firmado del usuario.
+     *
+     * @param usuario El usuario que inició sesión.
+     * @throws IOException Si no se puede escribir el archivo de sesión o la clave.
+     */
+    static void guardar(Usuario usuario) throws IOException {
+        String contenido = VERSION + "\n"
+                + "id=" + usuario.getId() + "\n"
+                + "tipo=" + (usuario.isEsAdmin() ? "admin" : "normal") + "\n"
+                + "nombre=" + Base64.getEncoder().encodeToString(usuario.getNombre().getBytes(StandardCharsets.UTF_8)) + "\n"
+                + "nivel=" + usuario.getNivel() + "\n"
+                + "puntosTotales=" + usuario.getPuntosTotales() + "\n"
+                + "experiencia=" + usuario.getExperiencia() + "\n";
+        String firma = HexFormat.of().formatHex(firmar(contenido.getBytes(StandardCharsets.UTF_8)));
+        Files.writeString(ARCHIVO, contenido + "firma=" + firma + "\n", StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee la sesión guardada.
+     *
+     * @return La sesión, o null si no hay ninguna o el archivo no es válido.
+     */
+    static Resumen leer() {
+        if (!Files.exists(ARCHIVO)) {
+            return null;
+        }
+        try {
+            List<String> lineas = Files.readAllLines(ARCHIVO, StandardCharsets.UTF_8);
+            if (lineas.isEmpty()) {
+                return null;
+            }
+            if (!VERSION.equals(lineas.get(0))) {
+                // Formato anterior: ID y tipo, sin resumen
+                String tipo = lineas.size() > 1 ? lineas.get(1) : "normal";
+                return new Resumen(lineas.get(0), "admin".equalsIgnoreCase(tipo), null, 0, 0, 0, false);
+            }
+
+            Map<String, String> campos = new HashMap<>();
+            StringBuilder firmado = new StringBuilder();
+            for (String linea : lineas) {
+                if (linea.startsWith("firma=")) {
+                    campos.put("firma", linea.substring("firma=".length()));
+                    break;
+                }
+                firmado.append(linea).append('\n');
+                int separador = linea.indexOf('=');
+                if (separador > 0) {
+                    campos.put(linea.substring(0, separador), linea.substring(separador + 1));
+                }
+            }
+
+            String id = campos.get("id");
+            if (id == null) {
+                return null;
+            }
+            boolean esAdmin = "admin".equalsIgnoreCase(campos.get("tipo"));
+            String firma = campos.get("firma");
+            if (firma == null || !Files.exists(ARCHIVO_CLAVE) || !MessageDigest.isEqual(
+                    firmar(firmado.toString().getBytes(StandardCharsets.UTF_8)), HexFormat.of().parseHex(firma))) {
+                Registro.aviso("Firma del resumen de sesión no válida; se cargará desde la base de datos", "usuarioId",
+                        id);
+                return new Resumen(id, esAdmin, null, 0, 0, 0, false);
+            }
+            return new Resumen(id, esAdmin,
+                    new String(Base64.getDecoder().decode(campos.get("nombre")), StandardCharsets.UTF_8),
+                    Integer.parseInt(campos.get("nivel")), Integer.parseInt(campos.get("puntosTotales")),
+                    Integer.parseInt(campos.get("experiencia")), true);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Elimina la sesión guardada. La clave se conserva para las siguientes sesiones.
+     */
+    static void eliminar() {
+        try {
+            Files.deleteIfExists(ARCHIVO);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static byte[] firmar(byte[] datos) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(obtenerClave(), ALGORITMO));
+            return mac.doFinal(datos);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("No se pudo firmar la sesión", ex);
+        }
+    }
+
+    /**
+     * Lee la clave local de firma, creándola la primera vez con permisos solo para el propietario cuando el sistema
+     * de archivos lo permite.
+     */
+    private static byte[] obtenerClave() throws IOException {
+        if (Files.exists(ARCHIVO_CLAVE)) {
+            return Files.readAllBytes(ARCHIVO_CLAVE);
+        }
+        byte[] clave = new byte[32];
+        new SecureRandom().nextBytes(clave);
+        try {
+            Files.write(ARCHIVO_CLAVE, clave, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (FileAlreadyExistsException ex) {
+            return Files.readAllBytes(ARCHIVO_CLAVE);
+        }
+        try {
+            Files.setPosixFilePermissions(ARCHIVO_CLAVE, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException ex) {
+            // Sistema de archivos sin permisos POSIX (Windows): se mantiene el permiso por defecto
+        }
+        return clave;
+    }
+
+    /**
+     * Sesión leída del disco.
+     *
+     * @param id            El ID del usuario.
+     * @param esAdmin       Si el usuario es administrador.
+     * @param nombre        El nombre del usuario, o null si no hay resumen válido.
+     * @param nivel         El nivel guardado.
+     * @param puntosTotales Los puntos totales guardados.
+     * @param experiencia   La experiencia guardada.
+     * @param firmado       Si el resumen está presente y su firma es válida.
+     */
+    record Resumen(String id, boolean esAdmin, String nombre, int nivel, int puntosTotales, int experiencia,
+                   boolean firmado) {
+
+        /**
+         * Crea un usuario con los datos del resumen, sin consultar la base de datos.
+         *
+         * @return El usuario.
+         */
+        Usuario crearUsuario() {
+            Usuario usuario = new Usuario(id, nombre);
+            usuario.setNivel(nivel);
+            usuario.setPuntosTotales(puntosTotales);
+            usuario.setExperiencia(experiencia);
+            usuario.setEsAdmin(esAdmin);
+            return usuario;
+        }
+    }
+}
@@ -6,12 +6,12 @@ import java.awt.*;
 import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -28,8 +28,8 @@ import java.util.List;
  * </ul>
  * <p>
  * Además, la clase soporta la creación de competiciones y desafíos predeterminados, y la actualización de las
- * puntuaciones de los usuarios en los mismos. También incluye mecanismos para mantener el sistema actualizado mediante
- * la notificación de cambios a través de callbacks (Runnable).
+ * puntuaciones de los usuarios en los mismos. Los cambios se notifican publicando {@link EventoDominio} en el
+ * {@link BusEventos}.
  */
 public class SistemaGamificacion {
     private List<Usuario> usuarios;
@@ -37,17 +37,26 @@ public class SistemaGamificacion {
     private List<Desafio> desafiosActivos;
     private List<Competencia> competencias;
 
-    private Runnable onLogrosActualizados;
+    private BusEventos.Suscripcion suscripcionLogros;
 
     /**
      * Constructor de la clase SistemaGamificacion.
-     * Inicializa las listas de usuarios, logros, desafíos y competencias.
+     * Inicializa las listas de usuarios, logros, desafíos y competencias. No accede a la base de datos, así que puede
+     * crearse en el hilo de Swing; el catálogo predeterminado se asegura después con {@link #sembrarCatalogo()}.
      */
     public SistemaGamificacion() {
         usuarios = new ArrayList<>();
         logrosDisponibles = new ArrayList<>();
         desafiosActivos = new ArrayList<>();
         competencias = new ArrayList<>();
+    }
+
+    /**
+     * Crea en la base de datos los logros, competencias y desafíos predeterminados que aún no existan. Abre varias
+     * sesiones y ejecuta una docena de sentencias, así que debe llamarse fuera del hilo de Swing y antes de cargar
+     * los datos del usuario.
+     */
+    public void sembrarCatalogo() {
         inicializarLogros();
         inicializarCompetencias();
         inicializarDesafios();
@@ -60,24 +69,39 @@ public class SistemaGamificacion {
      * @param usuario El usuario que completó el logro.
      */
     public void registrarLogroCompletado(Logro logro, Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "INSERT INTO LogrosCompletados (usuarioId, logroId, fechaCumplimiento) VALUES (?, ?, ?) "
-                    + "ON DUPLICATE KEY UPDATE fechaCumplimiento = VALUES(fechaCumplimiento)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuario.getId());
-            stmt.setString(2, logro.getId());
-            stmt.setTimestamp(3, java.sql.Timestamp.valueOf(java.time.LocalDateTime.now()));
-            stmt.executeUpdate();
-
-            usuario.ganarPuntos(logro.getPuntosRecompensa());
-            notificarLogrosActualizados();
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            registrarLogroCompletado(logro, usuario, unidad);
+            unidad.confirmar();
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Registra un logro completado dentro de una unidad de trabajo.
+     * <p>
+     * La inserción y los puntos de recompensa se confirman junto con el resto de la unidad; la notificación
+     * de logros actualizados se emite solo tras la confirmación.
+     *
+     * @param logro   El logro completado.
+     * @param usuario El usuario que completó el logro.
+     * @param unidad  La unidad de trabajo en curso.
+     * @throws SQLException Si ocurre un error al registrar el logro.
+     */
+    private void registrarLogroCompletado(Logro logro, Usuario usuario, UnidadDeTrabajo unidad) throws SQLException {
+        if (!logro.registrarCumplimiento(usuario, unidad.getSesion())) {
+            // Ya estaba registrado, por ejemplo desde otro equipo: se corrige el estado en memoria sin otorgar puntos
+            unidad.alConfirmar(() -> usuario.getCumplimientos().marcarLogro(logro.getId()));
+            return;
+        }
+        unidad.sumarPuntos(usuario, logro.getPuntosRecompensa());
+        unidad.alConfirmar(() -> {
+            usuario.getCumplimientos().marcarLogro(logro.getId());
+            Registro.info("Logro completado", "usuarioId", usuario.getId(), "logroId", logro.getId());
+            BusEventos.publicar(new EventoDominio.LogroDesbloqueado(usuario.getId(), logro.getId(), logro.getNombre()));
+        });
+    }
+
     /**
      * Obtiene el estado de una competencia para un usuario específico.
      *
@@ -86,11 +110,10 @@ public class SistemaGamificacion {
      * @return El estado de la competencia o null si no se encuentra.
      */
     public String obtenerEstadoCompetencia(String competenciaId, String usuarioId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT estado FROM CompetenciasParticipacion WHERE competenciaId = ? AND usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competenciaId);
             stmt.setString(2, usuarioId);
             ResultSet rs = stmt.executeQuery();
@@ -111,10 +134,9 @@ public class SistemaGamificacion {
      * @return Un ImageIcon con la foto de perfil o null si no se encuentra.
      */
     public ImageIcon obtenerFotoDesdeBaseDeDatos(String usuarioId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
             String query = "SELECT fotoPerfil FROM Usuarios WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioId);
             ResultSet rs = stmt.executeQuery();
 
@@ -197,14 +219,15 @@ public class SistemaGamificacion {
      * @param usuario El usuario a actualizar.
      */
     public void actualizarUsuario(Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
             String query = "UPDATE Usuarios SET nombre = ?, fotoPerfil = ? WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuario.getNombre());
             stmt.setBytes(2, usuario.getFotoPerfil()); // Actualizar solo la foto
             stmt.setString(3, usuario.getId());
             stmt.executeUpdate();
+
+            BusEventos.publicar(new EventoDominio.DatosUsuarioActualizados(usuario.getId()));
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -217,10 +240,9 @@ public class SistemaGamificacion {
      * @return El ID de la competencia o null si no se encuentra.
      */
     public String obtenerCompetenciaRelacionada(String usuarioId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
             String query = "SELECT competenciaId FROM CompetenciasParticipacion WHERE usuarioId = ? AND estado = 'EN_PROGRESO'";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioId);
             ResultSet rs = stmt.executeQuery();
 
@@ -235,14 +257,19 @@ public class SistemaGamificacion {
 
     /**
      * Registra una actividad deportiva en la base de datos.
+     * <p>
+     * La actividad, sus puntos y los logros y desafíos que complete se guardan en una sola transacción: si cualquier
+     * paso falla no queda nada guardado y el método devuelve false para que quien lo llama lo comunique.
      *
      * @param actividad La actividad deportiva a registrar.
+     * @return true si la actividad quedó guardada.
      */
-    public void registrarActividad(ActividadDeportiva actividad) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+    public boolean registrarActividad(ActividadDeportiva actividad) {
+        long inicio = System.nanoTime();
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            unidad.atribuirA(actividad.getTipo());
             String query = "INSERT INTO Actividades (id, usuarioId, tipo, duracionMinutos, distanciaKm, fecha, hora, caloriasQuemadas, esCompetencia) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = unidad.getSesion().preparar(query);
             stmt.setString(1, actividad.getId());
             stmt.setString(2, actividad.getUsuario().getId());
             stmt.setString(3, actividad.getTipo().name());
@@ -253,11 +280,22 @@ public class SistemaGamificacion {
             stmt.setInt(8, actividad.getCaloriasQuemadas());
             stmt.setBoolean(9, actividad.esCompetencia());
             stmt.executeUpdate();
-
-            verificarYActualizarLogros(actividad.getUsuario());
-            verificarYActualizarDesafios(actividad.getUsuario());
+            CuboActividad.registrar(unidad.getSesion(), actividad);
+
+            unidad.alConfirmar(() -> BusEventos.publicar(new EventoDominio.ActividadRegistrada(
+                    actividad.getUsuario().getId(), actividad.getId(), actividad.getTipo())));
+
+            // Las verificaciones leen la actividad recién insertada dentro de la misma transacción
+            verificarYActualizarLogros(actividad.getUsuario(), unidad);
+            verificarYActualizarDesafios(actividad.getUsuario(), unidad);
+            unidad.confirmar();
+            Registro.info("Actividad registrada", "usuarioId", actividad.getUsuario().getId(), "actividadId",
+                    actividad.getId(), "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            return true;
         } catch (Exception ex) {
+            Registro.error("Error al registrar la actividad", ex, "actividadId", actividad.getId());
             ex.printStackTrace();
+            return false;
         }
     }
 
@@ -299,19 +337,20 @@ public class SistemaGamificacion {
 
     /**
      * Establece un Runnable que se ejecutará cuando los logros sean actualizados.
+     * <p>
+     * El Runnable se suscribe al {@link BusEventos} y se ejecuta en el hilo de Swing, una sola vez aunque se
+     * desbloqueen varios logros seguidos. Establecer uno nuevo cancela el anterior.
      *
-     * @param onLogrosActualizados El Runnable a ejecutar.
+     * @param onLogrosActualizados El Runnable a ejecutar, o null para no recibir avisos.
      */
     public void setOnLogrosActualizados(Runnable onLogrosActualizados) {
-        this.onLogrosActualizados = onLogrosActualizados;
-    }
-
-    /**
-     * Notifica que los logros han sido actualizados.
-     */
-    private void notificarLogrosActualizados() {
+        if (suscripcionLogros != null) {
+            suscripcionLogros.cancelar();
+            suscripcionLogros = null;
+        }
         if (onLogrosActualizados != null) {
-            onLogrosActualizados.run();
+            suscripcionLogros = BusEventos.suscribirEnInterfaz(eventos -> onLogrosActualizados.run(),
+                    EventoDominio.LogroDesbloqueado.class);
         }
     }
 
@@ -319,8 +358,7 @@ public class SistemaGamificacion {
      * Inicializa los logros en la base de datos.
      */
     private void inicializarLogros() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             for (Logro logro : List.of(Logro.crearLogroDiario(), Logro.crearLogroMetaTiempo(),
                     Logro.crearLogroParticipacionGrupal(), Logro.crearLogroRachaSemanal(),
@@ -329,7 +367,7 @@ public class SistemaGamificacion {
                     Logro.crearLogroLiderarRanking())) {
 
                 String query = "INSERT IGNORE INTO Logros (id, nombre, descripcion, puntosRecompensa, tipo) VALUES (?, ?, ?, ?, ?)";
-                PreparedStatement stmt = conn.prepareStatement(query);
+                PreparedStatement stmt = sesion.preparar(query);
                 stmt.setString(1, logro.getId());
                 stmt.setString(2, logro.getNombre());
                 stmt.setString(3, logro.getDescripcion());
@@ -346,18 +384,17 @@ public class SistemaGamificacion {
      * Inicializa los desafíos en la base de datos.
      */
     public void inicializarDesafios() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT COUNT(*) FROM Desafios";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next() && rs.getInt(1) == 0) {
                 // Insertar desafíos por defecto
                 String insertQuery = "INSERT INTO Desafios (id, nombre, descripcion, fechaInicio, fechaFin, puntosRecompensa, estado) "
                         + "VALUES (?, ?, ?, ?, ?, ?, ?)";
-                PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
+                PreparedStatement insertStmt = sesion.preparar(insertQuery);
 
                 // Primer desafío
                 insertStmt.setString(1, "D001");
@@ -391,23 +428,46 @@ public class SistemaGamificacion {
      * @param usuario El usuario que completó el desafío.
      */
     public void registrarDesafioCompletado(Desafio desafio, Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "INSERT INTO DesafiosCompletados (usuarioId, desafioId, fechaCumplimiento) "
-                    + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE fechaCumplimiento = VALUES(fechaCumplimiento)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, usuario.getId());
-            stmt.setString(2, desafio.getId());
-            stmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
-            stmt.executeUpdate();
-
-            System.out.println("Desafío completado registrado: " + desafio.getNombre());
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            registrarDesafioCompletado(desafio, usuario, unidad);
+            unidad.confirmar();
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Registra un desafío completado dentro de una unidad de trabajo y acumula sus puntos de recompensa.
+     *
+     * @param desafio El desafío completado.
+     * @param usuario El usuario que completó el desafío.
+     * @param unidad  La unidad de trabajo en curso.
+     * @throws SQLException Si ocurre un error al registrar el desafío.
+     */
+    private void registrarDesafioCompletado(Desafio desafio, Usuario usuario, UnidadDeTrabajo unidad)
+            throws SQLException {
+        String query = "INSERT IGNORE INTO DesafiosCompletados (usuarioId, desafioId, fechaCumplimiento) "
+                + "VALUES (?, ?, ?)";
+        PreparedStatement stmt = unidad.getSesion().preparar(query);
+        stmt.setString(1, usuario.getId());
+        stmt.setString(2, desafio.getId());
+        stmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
+        if (stmt.executeUpdate() == 0) {
+            // Ya estaba registrado, por ejemplo desde otro equipo: se corrige el estado en memoria sin otorgar puntos
+            unidad.alConfirmar(() -> usuario.getCumplimientos().marcarDesafio(desafio.getId()));
+            return;
+        }
+
+        unidad.sumarPuntos(usuario, desafio.getPuntosRecompensa());
+        unidad.alConfirmar(() -> {
+            usuario.getCumplimientos().marcarDesafio(desafio.getId());
+            Registro.info("Desafío completado registrado", "usuarioId", usuario.getId(), "desafioId",
+                    desafio.getId());
+            BusEventos.publicar(
+                    new EventoDominio.DesafioCompletado(usuario.getId(), desafio.getId(), desafio.getNombre()));
+        });
+    }
+
     /**
      * Calcula los puntos obtenidos por una actividad deportiva.
      *
@@ -439,8 +499,8 @@ public class SistemaGamificacion {
         // Actualizar puntuación en la competencia
         actualizarPuntuacion(competenciaId, usuario, puntos);
 
-        System.out.println(
-                "Actividad registrada en la competencia: " + actividad.getTipo() + ". Puntos obtenidos: " + puntos);
+        Registro.info("Actividad registrada en la competencia", "usuarioId", usuario.getId(), "competenciaId",
+                competenciaId, "puntos", puntos);
     }
 
     /**
@@ -451,19 +511,23 @@ public class SistemaGamificacion {
      * @param puntos        Los puntos a añadir.
      */
     public void actualizarPuntuacion(String competenciaId, Usuario usuario, int puntos) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "UPDATE CompetenciasPuntuaciones SET puntuacion = puntuacion + ? "
                     + "WHERE competenciaId = ? AND usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            sesion.iniciarTransaccion();
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setInt(1, puntos);
             stmt.setString(2, competenciaId);
             stmt.setString(3, usuario.getId());
             stmt.executeUpdate();
+            UsuariosUnicos.registrar(sesion, UsuariosUnicos.COMPETENCIA, competenciaId, LocalDate.now(),
+                    usuario.getId());
+            sesion.confirmar();
 
-            System.out.println(
-                    "Puntuación actualizada: " + puntos + " puntos añadidos para el usuario " + usuario.getNombre());
+            BusEventos.publicar(new EventoDominio.RankingCambiado(usuario.getId(), competenciaId));
+            Registro.info("Puntuación actualizada", "usuarioId", usuario.getId(), "competenciaId", competenciaId,
+                    "puntos", puntos);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -475,15 +539,14 @@ public class SistemaGamificacion {
      * @param competenciaId El ID de la competencia.
      */
     public void finalizarCompetencia(String competenciaId) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "UPDATE CompetenciasParticipacion SET estado = 'FINALIZADA' WHERE competenciaId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competenciaId);
             stmt.executeUpdate();
 
-            System.out.println("Competencia " + competenciaId + " marcada como FINALIZADA.");
+            Registro.info("Competencia finalizada", "competenciaId", competenciaId);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -497,13 +560,12 @@ public class SistemaGamificacion {
      * @return El ID de la competencia relacionada o null si no se encuentra.
      */
     public String obtenerCompetenciaRelacionada(String usuarioId, ActividadDeportiva.TipoDeporte tipo) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT competenciaId FROM CompetenciasParticipacion cp "
                     + "JOIN Competencias c ON cp.competenciaId = c.id "
                     + "WHERE cp.usuarioId = ? AND cp.estado = 'EN_PROGRESO' AND c.tipoDeporte = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, usuarioId);
             stmt.setString(2, tipo.name());
             ResultSet rs = stmt.executeQuery();
@@ -523,24 +585,43 @@ public class SistemaGamificacion {
      * @param usuario El usuario a verificar y actualizar.
      */
     public void verificarYActualizarDesafios(Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String queryDesafios = "SELECT * FROM Desafios WHERE id NOT IN "
-                    + "(SELECT desafioId FROM DesafiosCompletados WHERE usuarioId = ?)";
-            PreparedStatement stmtDesafios = conn.prepareStatement(queryDesafios);
-            stmtDesafios.setString(1, usuario.getId());
-            ResultSet rsDesafios = stmtDesafios.executeQuery();
-
-            while (rsDesafios.next()) {
-                Desafio desafio = new Desafio(rsDesafios.getString("id"), rsDesafios.getString("nombre"),
-                        rsDesafios.getString("descripcion"), rsDesafios.getInt("puntosRecompensa"),
-                        rsDesafios.getDate("fechaInicio").toLocalDate(), rsDesafios.getDate("fechaFin").toLocalDate());
-
-                if (desafio.cumpleCondiciones(usuario)) {
-                    registrarDesafioCompletado(desafio, usuario);
-                }
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            verificarYActualizarDesafios(usuario, unidad);
+            unidad.confirmar();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Verifica los desafíos pendientes de un usuario y registra los completados dentro de una unidad de trabajo.
+     *
+     * @param usuario El usuario a verificar y actualizar.
+     * @param unidad  La unidad de trabajo en curso.
+     * @throws SQLException Si ocurre un error durante la verificación.
+     */
+    private void verificarYActualizarDesafios(Usuario usuario, UnidadDeTrabajo unidad) throws SQLException {
+        IndiceCatalogo<Desafio> catalogo = IndiceCatalogo.DESAFIOS;
+        BitSet pendientes = usuario.getCumplimientos().desafiosPendientes(unidad.getSesion());
+        for (int i = pendientes.nextSetBit(0); i >= 0; i = pendientes.nextSetBit(i + 1)) {
+            Desafio desafio = catalogo.elemento(i);
+            if (desafio != null && desafio.cumpleCondiciones(usuario, unidad.getSesion())) {
+                registrarDesafioCompletado(desafio, usuario, unidad);
             }
+        }
+    }
+
+    /**
+     * Verifica los logros y desafíos de un usuario en una sola unidad de trabajo.
+     * Se usa tras importar actividades en bloque, para evaluar una sola vez al final.
+     *
+     * @param usuario El usuario a verificar y actualizar.
+     */
+    public void verificarLogrosYDesafios(Usuario usuario) {
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            verificarYActualizarLogros(usuario, unidad);
+            verificarYActualizarDesafios(usuario, unidad);
+            unidad.confirmar();
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -552,43 +633,36 @@ public class SistemaGamificacion {
      * @param usuario El usuario a verificar y actualizar.
      */
     public void verificarYActualizarLogros(Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            // Consulta los logros que aún no se han completado
-            String queryLogros = "SELECT * FROM Logros WHERE id NOT IN "
-                    + "(SELECT logroId FROM LogrosCompletados WHERE usuarioId = ?)";
-            PreparedStatement stmtLogros = conn.prepareStatement(queryLogros);
-            stmtLogros.setString(1, usuario.getId());
-            ResultSet rsLogros = stmtLogros.executeQuery();
-
-            // Revisión de cada logro pendiente
-            while (rsLogros.next()) {
-                Logro logro = new Logro(rsLogros.getString("id"), rsLogros.getString("nombre"),
-                        rsLogros.getString("descripcion"), rsLogros.getInt("puntosRecompensa"),
-                        Logro.TipoLogro.valueOf(rsLogros.getString("tipo")));
-
-                // Validar las condiciones del logro
-                if (logro.cumpleCondiciones(usuario)) {
-                    logro.registrarCumplimiento(usuario);
-
-                    // Registrar en la base de datos el logro cumplido
-                    String insertQuery = "INSERT INTO LogrosCompletados (usuarioId, logroId, fechaCumplimiento) "
-                            + "VALUES (?, ?, ?)";
-                    PreparedStatement stmtInsert = conn.prepareStatement(insertQuery);
-                    stmtInsert.setString(1, usuario.getId());
-                    stmtInsert.setString(2, logro.getId());
-                    stmtInsert.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
-                    stmtInsert.executeUpdate();
-
-                    System.out.println("Logro completado: " + logro.getNombre());
-                }
-            }
+        try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+            verificarYActualizarLogros(usuario, unidad);
+            unidad.confirmar();
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Verifica los logros pendientes de un usuario y registra los completados dentro de una unidad de trabajo.
+     * Cada logro cumplido se inserta una sola vez en LogrosCompletados.
+     *
+     * @param usuario El usuario a verificar y actualizar.
+     * @param unidad  La unidad de trabajo en curso.
+     * @throws Exception Si ocurre un error durante la verificación.
+     */
+    private void verificarYActualizarLogros(Usuario usuario, UnidadDeTrabajo unidad) throws Exception {
+        // Logros vigentes del catálogo que el usuario aún no ha completado
+        IndiceCatalogo<Logro> catalogo = IndiceCatalogo.LOGROS;
+        BitSet pendientes = usuario.getCumplimientos().logrosPendientes(unidad.getSesion());
+
+        // Revisión de cada logro pendiente
+        for (int i = pendientes.nextSetBit(0); i >= 0; i = pendientes.nextSetBit(i + 1)) {
+            Logro logro = catalogo.elemento(i);
+            if (logro != null && logro.cumpleCondiciones(usuario, unidad.getSesion())) {
+                registrarLogroCompletado(logro, usuario, unidad);
+            }
+        }
+    }
+
     /**
      * Registra a un usuario en una competencia.
      *
@@ -596,12 +670,11 @@ public class SistemaGamificacion {
      * @param usuario     El usuario que se registrará en la competencia.
      */
     public void registrarEnCompetencia(Competencia competencia, Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             // Verificar el estado de la competencia
             String estadoQuery = "SELECT estado FROM CompetenciasParticipacion WHERE competenciaId = ? AND usuarioId = ?";
-            PreparedStatement estadoStmt = conn.prepareStatement(estadoQuery);
+            PreparedStatement estadoStmt = sesion.preparar(estadoQuery);
             estadoStmt.setString(1, competencia.getId());
             estadoStmt.setString(2, usuario.getId());
             ResultSet rsEstado = estadoStmt.executeQuery();
@@ -624,7 +697,7 @@ public class SistemaGamificacion {
             // Insertar en CompetenciasParticipacion
             String insertParticipacionQuery = "INSERT INTO CompetenciasParticipacion (competenciaId, usuarioId, fechaInicio, fechaFin, estado) "
                     + "VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement insertParticipacionStmt = conn.prepareStatement(insertParticipacionQuery);
+            PreparedStatement insertParticipacionStmt = sesion.preparar(insertParticipacionQuery);
             insertParticipacionStmt.setString(1, competencia.getId());
             insertParticipacionStmt.setString(2, usuario.getId());
             insertParticipacionStmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
@@ -634,7 +707,7 @@ public class SistemaGamificacion {
 
             // Insertar en CompetenciasPuntuaciones
             String insertPuntuacionQuery = "INSERT INTO CompetenciasPuntuaciones (competenciaId, usuarioId, puntuacion) VALUES (?, ?, ?)";
-            PreparedStatement insertPuntuacionStmt = conn.prepareStatement(insertPuntuacionQuery);
+            PreparedStatement insertPuntuacionStmt = sesion.preparar(insertPuntuacionQuery);
             insertPuntuacionStmt.setString(1, competencia.getId());
             insertPuntuacionStmt.setString(2, usuario.getId());
             insertPuntuacionStmt.setInt(3, 0); // Puntuación inicial
@@ -656,18 +729,19 @@ public class SistemaGamificacion {
      * @param puntos        Los puntos a añadir.
      */
     public void actualizarPuntuacion(String competenciaId, String usuarioId, int puntos) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "UPDATE CompetenciasPuntuaciones SET puntuacion = puntuacion + ? "
                     + "WHERE competenciaId = ? AND usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setInt(1, puntos);
             stmt.setString(2, competenciaId);
             stmt.setString(3, usuarioId);
             stmt.executeUpdate();
 
-            System.out.println("Puntuación actualizada.");
+            BusEventos.publicar(new EventoDominio.RankingCambiado(usuarioId, competenciaId));
+            Registro.info("Puntuación actualizada", "usuarioId", usuarioId, "competenciaId", competenciaId, "puntos",
+                    puntos);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -682,13 +756,12 @@ public class SistemaGamificacion {
     public List<Usuario> consultarRanking(String competenciaId) {
         List<Usuario> ranking = new ArrayList<>();
 
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT u.id, u.nombre, cp.puntuacion " + "FROM CompetenciasPuntuaciones cp "
                     + "JOIN Usuarios u ON cp.usuarioId = u.id " + "WHERE cp.competenciaId = ? "
                     + "ORDER BY cp.puntuacion DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competenciaId);
             ResultSet rs = stmt.executeQuery();
 
@@ -713,13 +786,12 @@ public class SistemaGamificacion {
     public Usuario anunciarGanador(String competenciaId) {
         Usuario ganador = null;
 
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT u.id, u.nombre, cp.puntuacion " + "FROM CompetenciasPuntuaciones cp "
                     + "JOIN Usuarios u ON cp.usuarioId = u.id " + "WHERE cp.competenciaId = ? "
                     + "ORDER BY cp.puntuacion DESC LIMIT 1";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competenciaId);
             ResultSet rs = stmt.executeQuery();
 
@@ -732,8 +804,8 @@ public class SistemaGamificacion {
         }
 
         if (ganador != null) {
-            System.out.println("Ganador de la competencia: " + ganador.getNombre() + " con "
-                    + ganador.getPuntosTotales() + " puntos.");
+            Registro.info("Ganador de la competencia", "competenciaId", competenciaId, "usuarioId", ganador.getId(),
+                    "puntos", ganador.getPuntosTotales());
         }
 
         return ganador;
@@ -746,12 +818,11 @@ public class SistemaGamificacion {
      * @param usuario     El usuario que se registrará en la competencia.
      */
     public void registrarParticipacionCompetencia(Competencia competencia, Usuario usuario) {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "INSERT INTO CompetenciasParticipacion (competenciaId, usuarioId, fechaInicio, fechaFin, estado) "
                     + "VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, competencia.getId());
             stmt.setString(2, usuario.getId());
             stmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
@@ -759,7 +830,8 @@ public class SistemaGamificacion {
             stmt.setString(5, "REGISTRO"); // Estado inicial
             stmt.executeUpdate();
 
-            System.out.println("Registro en competencia exitoso: " + competencia.getNombre());
+            Registro.info("Usuario registrado en la competencia", "usuarioId", usuario.getId(), "competenciaId",
+                    competencia.getId());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -769,17 +841,16 @@ public class SistemaGamificacion {
      * Inicializa las competencias en la base de datos.
      */
     public void inicializarCompetencias() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT COUNT(*) FROM Competencias";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next() && rs.getInt(1) == 0) {
                 // Insertar competencias generales
                 String insertQuery = "INSERT INTO Competencias (id, nombre, tipoDeporte) VALUES (?, ?, ?)";
-                PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
+                PreparedStatement insertStmt = sesion.preparar(insertQuery);
 
                 insertStmt.setString(1, "C001");
                 insertStmt.setString(2, "Maratón Escolar");
@@ -0,0 +1,380 @@
+package gamificaciondeportiva;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * La clase TablaPaginada muestra una tabla de la base de datos por páginas, con búsqueda de texto y filtros por
+ * columna.
+ * <p>
+ * Nunca se lee la tabla completa: cada página es una consulta {@code ORDER BY clave LIMIT n} que continúa tras la
+ * última clave de la página anterior (paginación por conjunto de claves), así que abrir la tabla o avanzar de página
+ * cuesta lo mismo con cien filas que con cien mil. La búsqueda y los filtros se añaden a la cláusula {@code WHERE} de
+ * esa misma consulta. El total de filas se cuenta aparte, en segundo plano, y se muestra cuando llega sin retrasar la
+ * página.
+ * <p>
+ * Las consultas se ejecutan fuera del hilo de Swing; si el usuario cambia la búsqueda antes de que termine una
+ * consulta, su resultado se descarta.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * TablaPaginada logros = new TablaPaginada("Logros", new String[]{"ID", "Nombre", "Tipo"},
+ *         new String[]{"id", "nombre", "tipo"});
+ * logros.buscarEn("nombre", "descripcion");
+ * logros.agregarFiltro("Tipo", "tipo", "DIARIO", "SEMANAL", "MENSUAL");
+ * logros.cargar();
+ * }
+ * </pre>
+ */
+final class TablaPaginada extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Filas por página.
+     */
+    static final int TAMANO_PAGINA = 50;
+
+    private static final int ESPERA_BUSQUEDA_MS = 300;
+    private static final String TODOS = "Todos";
+
+    private final String tablaSql;
+    private final String[] columnas;
+    private final List<String> columnasBusqueda = new ArrayList<>();
+    private final List<String> columnasFiltro = new ArrayList<>();
+    private final List<JComboBox<String>> selectoresFiltro = new ArrayList<>();
+
+    private final DefaultTableModel modelo;
+    private final JTable tabla;
+    private final JPanel panelFiltros = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+    private final JLabel lblBuscar = new JLabel("Buscar:");
+    private final JTextField txtBuscar = new JTextField(18);
+    private final JButton btnAnterior = new JButton("< Anterior");
+    private final JButton btnSiguiente = new JButton("Siguiente >");
+    private final JLabel lblEstado = new JLabel(" ");
+
+    /**
+     * Claves tras las que empieza cada página anterior a la actual, para volver atrás.
+     */
+    private final Deque<Object> cursoresAnteriores = new ArrayDeque<>();
+    private Object cursor; // null en la primera página
+    private Object ultimaClave;
+    private int filasPagina;
+    private long total = -1; // -1 mientras se cuenta
+    private int generacion;
+    private int generacionConteo;
+
+    /**
+     * Crea la tabla paginada. La primera columna debe ser la clave primaria, que determina el orden.
+     *
+     * @param tablaSql La tabla de la base de datos.
+     * @param titulos  Los títulos de las columnas.
+     * @param columnas Las columnas de la base de datos, en el mismo orden que los títulos.
+     */
+    TablaPaginada(String tablaSql, String[] titulos, String[] columnas) {
+        super(new BorderLayout(0, 5));
+        this.tablaSql = tablaSql;
+        this.columnas = columnas.clone();
+        this.modelo = new DefaultTableModel(titulos, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        this.tabla = new JTable(modelo);
+        setOpaque(false);
+
+        panelFiltros.setOpaque(false);
+        panelFiltros.add(lblBuscar);
+        panelFiltros.add(txtBuscar);
+        lblBuscar.setVisible(false);
+        txtBuscar.setVisible(false);
+
+        Timer esperaBusqueda = new Timer(ESPERA_BUSQUEDA_MS, e -> cargar());
+        esperaBusqueda.setRepeats(false);
+        txtBuscar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                esperaBusqueda.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                esperaBusqueda.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                esperaBusqueda.restart();
+            }
+        });
+
+        btnAnterior.addActionListener(e -> paginaAnterior());
+        btnSiguiente.addActionListener(e -> paginaSiguiente());
+        btnAnterior.setEnabled(false);
+        btnSiguiente.setEnabled(false);
+        JPanel panelPaginas = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 4));
+        panelPaginas.setOpaque(false);
+        panelPaginas.add(lblEstado);
+        panelPaginas.add(btnAnterior);
+        panelPaginas.add(btnSiguiente);
+
+        add(panelFiltros, BorderLayout.NORTH);
+        add(new JScrollPane(tabla), BorderLayout.CENTER);
+        add(panelPaginas, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Activa el cuadro de búsqueda sobre las columnas dadas (coincidencia parcial, sin distinguir mayúsculas según la
+     * intercalación de la base de datos).
+     *
+     * @param columnasTexto Las columnas de texto en las que buscar.
+     */
+    void buscarEn(String... columnasTexto) {
+        columnasBusqueda.addAll(List.of(columnasTexto));
+        lblBuscar.setVisible(true);
+        txtBuscar.setVisible(true);
+    }
+
+    /**
+     * Añade un filtro de igualdad sobre una columna.
+     *
+     * @param titulo  La etiqueta del filtro.
+     * @param columna La columna de la base de datos.
+     * @param valores Los valores que se pueden elegir.
+     */
+    void agregarFiltro(String titulo, String columna, String... valores) {
+        String[] opciones = new String[valores.length + 1];
+        opciones[0] = TODOS;
+        System.arraycopy(valores, 0, opciones, 1, valores.length);
+        JComboBox<String> selector = new JComboBox<>(opciones);
+        selector.addActionListener(e -> cargar());
+        columnasFiltro.add(columna);
+        selectoresFiltro.add(selector);
+        panelFiltros.add(new JLabel(titulo + ":"));
+        panelFiltros.add(selector);
+    }
+
+    /**
+     * Obtiene el modelo con las filas de la página actual.
+     *
+     * @return El modelo de la tabla.
+     */
+    DefaultTableModel getModelo() {
+        return modelo;
+    }
+
+    /**
+     * Obtiene la tabla que muestra la página actual.
+     *
+     * @return La tabla.
+     */
+    JTable getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Vuelve a la primera página con la búsqueda y los filtros actuales y cuenta de nuevo el total.
+     */
+    void cargar() {
+        cursoresAnteriores.clear();
+        cursor = null;
+        consultar(true);
+    }
+
+    /**
+     * Vuelve a leer la página actual y a contar el total, por ejemplo tras crear, editar o eliminar una fila.
+     */
+    void recargar() {
+        consultar(true);
+    }
+
+    private void paginaSiguiente() {
+        if (ultimaClave == null) {
+            return;
+        }
+        cursoresAnteriores.push(cursor == null ? Condicion.SIN_CURSOR : cursor);
+        cursor = ultimaClave;
+        consultar(false);
+    }
+
+    private void paginaAnterior() {
+        if (cursoresAnteriores.isEmpty()) {
+            return;
+        }
+        Object anterior = cursoresAnteriores.pop();
+        cursor = anterior == Condicion.SIN_CURSOR ? null : anterior;
+        consultar(false);
+    }
+
+    /**
+     * Lanza la consulta de la página y, si se pide, la del total. Ambas se ejecutan en segundo plano.
+     */
+    private void consultar(boolean contar) {
+        int consulta = ++generacion;
+        Condicion condicion = construirCondicion();
+        Object cursorPagina = cursor;
+        btnAnterior.setEnabled(false);
+        btnSiguiente.setEnabled(false);
+        if (contar) {
+            total = -1;
+        }
+        actualizarEstado();
+
+        new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() throws Exception {
+                return leerPagina(condicion, cursorPagina);
+            }
+
+            @Override
+            protected void done() {
+                if (consulta != generacion) {
+                    return; // Llegó una búsqueda más reciente
+                }
+                try {
+                    mostrarPagina(get());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    lblEstado.setText("Error al cargar los datos");
+                }
+            }
+        }.execute();
+
+        if (contar) {
+            int conteo = ++generacionConteo;
+            new SwingWorker<Long, Void>() {
+                @Override
+                protected Long doInBackground() throws Exception {
+                    return contarFilas(condicion);
+                }
+
+                @Override
+                protected void done() {
+                    if (conteo != generacionConteo) {
+                        return; // Se pidió otro recuento con otra búsqueda
+                    }
+                    try {
+                        total = get();
+                        actualizarEstado();
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }.execute();
+        }
+    }
+
+    private List<Object[]> leerPagina(Condicion condicion, Object cursorPagina) throws Exception {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", columnas)).append(" FROM ")
+                .append(tablaSql);
+        List<Object> parametros = new ArrayList<>(condicion.parametros);
+        String where = condicion.where;
+        if (cursorPagina != null) {
+            where = where.isEmpty() ? columnas[0] + " > ?" : where + " AND " + columnas[0] + " > ?";
+            parametros.add(cursorPagina);
+        }
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(where);
+        }
+        // Una fila de más indica si existe la página siguiente sin tener que contar
+        sql.append(" ORDER BY ").append(columnas[0]).append(" LIMIT ").append(TAMANO_PAGINA + 1);
+
+        List<Object[]> filas = new ArrayList<>(TAMANO_PAGINA + 1);
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            PreparedStatement stmt = sesion.preparar(sql.toString());
+            for (int i = 0; i < parametros.size(); i++) {
+                stmt.setObject(i + 1, parametros.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] fila = new Object[columnas.length];
+                    for (int i = 0; i < fila.length; i++) {
+                        fila[i] = rs.getObject(i + 1);
+                    }
+                    filas.add(fila);
+                }
+            }
+        }
+        return filas;
+    }
+
+    private long contarFilas(Condicion condicion) throws Exception {
+        String sql = "SELECT COUNT(*) FROM " + tablaSql + (condicion.where.isEmpty() ? "" : " WHERE " + condicion.where);
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            PreparedStatement stmt = sesion.preparar(sql);
+            for (int i = 0; i < condicion.parametros.size(); i++) {
+                stmt.setObject(i + 1, condicion.parametros.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void mostrarPagina(List<Object[]> filas) {
+        boolean haySiguiente = filas.size() > TAMANO_PAGINA;
+        filasPagina = Math.min(filas.size(), TAMANO_PAGINA);
+        modelo.setRowCount(0);
+        for (int i = 0; i < filasPagina; i++) {
+            modelo.addRow(filas.get(i));
+        }
+        ultimaClave = haySiguiente ? filas.get(filasPagina - 1)[0] : null;
+        btnAnterior.setEnabled(!cursoresAnteriores.isEmpty());
+        btnSiguiente.setEnabled(haySiguiente);
+        actualizarEstado();
+    }
+
+    private void actualizarEstado() {
+        int primera = cursoresAnteriores.size() * TAMANO_PAGINA;
+        String filas = filasPagina == 0 ? "Sin resultados" : "Filas " + (primera + 1) + "-" + (primera + filasPagina);
+        lblEstado.setText(filas + (total < 0 ? " (contando...)" : " de " + total));
+    }
+
+    /**
+     * Construye la cláusula WHERE de la búsqueda y los filtros con sus parámetros.
+     */
+    private Condicion construirCondicion() {
+        List<String> partes = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+        for (int i = 0; i < columnasFiltro.size(); i++) {
+            Object valor = selectoresFiltro.get(i).getSelectedItem();
+            if (valor != null && !TODOS.equals(valor)) {
+                partes.add(columnasFiltro.get(i) + " = ?");
+                parametros.add(valor);
+            }
+        }
+        String texto = txtBuscar.getText().trim();
+        if (!texto.isEmpty() && !columnasBusqueda.isEmpty()) {
+            String patron = "%" + texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            List<String> alternativas = new ArrayList<>();
+            for (String columna : columnasBusqueda) {
+                alternativas.add(columna + " LIKE ?");
+                parametros.add(patron);
+            }
+            partes.add("(" + String.join(" OR ", alternativas) + ")");
+        }
+        return new Condicion(String.join(" AND ", partes), parametros);
+    }
+
+    /**
+     * Cláusula WHERE (sin la palabra WHERE) y sus parámetros, capturados en el hilo de Swing.
+     */
+    private record Condicion(String where, List<Object> parametros) {
+        /**
+         * Marca la primera página en la pila de cursores, que no admite null.
+         */
+        static final Object SIN_CURSOR = new Object();
+    }
+}
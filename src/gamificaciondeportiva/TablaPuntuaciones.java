@@ -0,0 +1,275 @@
+package gamificaciondeportiva;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * La clase TablaPuntuaciones almacena las puntuaciones de los participantes de una competencia en arreglos primitivos.
+ * <p>
+ * Cada participante recibe un índice denso (0, 1, 2, ...) al registrarse. Una tabla hash de direccionamiento abierto
+ * traduce el ID del usuario a ese índice, y la puntuación se guarda como un {@code int} en la posición correspondiente.
+ * No se crean objetos por participante más allá de los que ya existen (el usuario y su ID), por lo que el coste por
+ * participante es de unos pocos bytes: la puntuación, la ranura de la tabla hash y dos referencias.
+ * <p>
+ * Concurrencia:
+ * <ul>
+ *   <li>Las sumas de puntos no usan cerrojos: cada puntuación es una celda de un {@link AtomicIntegerArray}.</li>
+ *   <li>La búsqueda de un participante ya registrado tampoco bloquea.</li>
+ *   <li>El registro de participantes nuevos y el crecimiento de la tabla se serializan con un cerrojo.</li>
+ * </ul>
+ * Los datos se guardan en bloques de tamaño fijo que nunca se copian, de modo que una suma concurrente con un
+ * crecimiento de la tabla no se pierde.
+ */
+final class TablaPuntuaciones {
+    private static final int BITS_BLOQUE = 12;
+    private static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANO_BLOQUE - 1;
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private final Object cerrojo = new Object();
+
+    /**
+     * Ranuras de la tabla hash. Cada ranura guarda el índice denso más uno; 0 indica una ranura vacía.
+     */
+    private volatile AtomicIntegerArray ranuras;
+    private volatile AtomicIntegerArray[] bloquesPuntos;
+    private volatile String[][] bloquesIds;
+    private volatile Usuario[][] bloquesUsuarios;
+    private volatile int tamano;
+
+    TablaPuntuaciones() {
+        reiniciar();
+    }
+
+    /**
+     * Elimina todos los participantes.
+     */
+    void reiniciar() {
+        synchronized (cerrojo) {
+            bloquesPuntos = new AtomicIntegerArray[0];
+            bloquesIds = new String[0][];
+            bloquesUsuarios = new Usuario[0][];
+            tamano = 0;
+            ranuras = new AtomicIntegerArray(CAPACIDAD_INICIAL);
+        }
+    }
+
+    /**
+     * Busca el índice de un participante sin bloquear.
+     *
+     * @param id El ID del usuario.
+     * @return El índice denso del participante, o -1 si no está registrado.
+     */
+    int buscar(String id) {
+        AtomicIntegerArray tabla = ranuras;
+        int mascara = tabla.length() - 1;
+        for (int i = mezclar(id.hashCode()) & mascara; ; i = (i + 1) & mascara) {
+            int valor = tabla.get(i);
+            if (valor == 0) {
+                return -1;
+            }
+            int indice = valor - 1;
+            if (id.equals(bloquesIds[indice >>> BITS_BLOQUE][indice & MASCARA_BLOQUE])) {
+                return indice;
+            }
+        }
+    }
+
+    /**
+     * Registra un participante si aún no lo está.
+     *
+     * @param usuario El usuario a registrar.
+     * @return El índice denso del participante.
+     */
+    int registrar(Usuario usuario) {
+        String id = usuario.getId();
+        int indice = buscar(id);
+        if (indice >= 0) {
+            return indice;
+        }
+        synchronized (cerrojo) {
+            indice = buscar(id);
+            if (indice >= 0) {
+                return indice;
+            }
+            indice = tamano;
+            int bloque = indice >>> BITS_BLOQUE;
+            if (bloque == bloquesPuntos.length) {
+                agregarBloque();
+            }
+            bloquesIds[bloque][indice & MASCARA_BLOQUE] = id;
+            bloquesUsuarios[bloque][indice & MASCARA_BLOQUE] = usuario;
+
+            // Factor de carga máximo de 1/2 para que las secuencias de sondeo sean cortas
+            if ((indice + 1) * 2 > ranuras.length()) {
+                redimensionar(ranuras.length() * 2);
+            }
+            insertar(ranuras, id, indice);
+            tamano = indice + 1;
+            return indice;
+        }
+    }
+
+    /**
+     * Suma puntos a un participante.
+     *
+     * @param indice El índice denso del participante.
+     * @param puntos Los puntos a sumar.
+     */
+    void sumar(int indice, int puntos) {
+        bloquesPuntos[indice >>> BITS_BLOQUE].addAndGet(indice & MASCARA_BLOQUE, puntos);
+    }
+
+    /**
+     * Establece la puntuación de un participante.
+     *
+     * @param indice El índice denso del participante.
+     * @param puntos La nueva puntuación.
+     */
+    void establecer(int indice, int puntos) {
+        bloquesPuntos[indice >>> BITS_BLOQUE].set(indice & MASCARA_BLOQUE, puntos);
+    }
+
+    /**
+     * Obtiene la puntuación de un participante.
+     *
+     * @param indice El índice denso del participante.
+     * @return La puntuación actual.
+     */
+    int getPuntos(int indice) {
+        return bloquesPuntos[indice >>> BITS_BLOQUE].get(indice & MASCARA_BLOQUE);
+    }
+
+    /**
+     * Obtiene el usuario registrado en un índice.
+     *
+     * @param indice El índice denso del participante.
+     * @return El usuario.
+     */
+    Usuario getUsuario(int indice) {
+        return bloquesUsuarios[indice >>> BITS_BLOQUE][indice & MASCARA_BLOQUE];
+    }
+
+    /**
+     * Obtiene el número de participantes registrados.
+     *
+     * @return El número de participantes.
+     */
+    int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Obtiene los índices de los {@code k} participantes con mayor puntuación, de mayor a menor.
+     * <p>
+     * Recorre las puntuaciones una sola vez manteniendo un montículo mínimo de tamaño {@code k} sobre arreglos
+     * {@code int}; el coste es O(n log k) y no se copian ni se encapsulan las puntuaciones.
+     *
+     * @param k El número de participantes a obtener.
+     * @return Los índices ordenados por puntuación descendente.
+     */
+    int[] mejores(int k) {
+        int n = tamano;
+        int capacidad = Math.min(k, n);
+        int[] indices = new int[capacidad];
+        int[] valores = new int[capacidad];
+        int ocupados = 0;
+
+        for (int i = 0; i < n; i++) {
+            int puntos = getPuntos(i);
+            if (ocupados < capacidad) {
+                indices[ocupados] = i;
+                valores[ocupados] = puntos;
+                subir(indices, valores, ocupados++);
+            } else if (capacidad > 0 && puntos > valores[0]) {
+                indices[0] = i;
+                valores[0] = puntos;
+                bajar(indices, valores, 0, capacidad);
+            }
+        }
+
+        // Extrae el mínimo repetidamente hacia el final: el arreglo queda en orden descendente
+        for (int fin = ocupados - 1; fin > 0; fin--) {
+            intercambiar(indices, valores, 0, fin);
+            bajar(indices, valores, 0, fin);
+        }
+        return indices;
+    }
+
+    private void agregarBloque() {
+        int bloques = bloquesPuntos.length;
+        AtomicIntegerArray[] puntos = Arrays.copyOf(bloquesPuntos, bloques + 1);
+        String[][] ids = Arrays.copyOf(bloquesIds, bloques + 1);
+        Usuario[][] usuarios = Arrays.copyOf(bloquesUsuarios, bloques + 1);
+        puntos[bloques] = new AtomicIntegerArray(TAMANO_BLOQUE);
+        ids[bloques] = new String[TAMANO_BLOQUE];
+        usuarios[bloques] = new Usuario[TAMANO_BLOQUE];
+        bloquesIds = ids;
+        bloquesUsuarios = usuarios;
+        bloquesPuntos = puntos;
+    }
+
+    private void redimensionar(int capacidad) {
+        AtomicIntegerArray nueva = new AtomicIntegerArray(capacidad);
+        for (int indice = 0; indice < tamano; indice++) {
+            insertar(nueva, bloquesIds[indice >>> BITS_BLOQUE][indice & MASCARA_BLOQUE], indice);
+        }
+        ranuras = nueva;
+    }
+
+    private static void insertar(AtomicIntegerArray tabla, String id, int indice) {
+        int mascara = tabla.length() - 1;
+        int i = mezclar(id.hashCode()) & mascara;
+        while (tabla.get(i) != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabla.set(i, indice + 1);
+    }
+
+    /**
+     * Dispersa los bits del hash para que los IDs con prefijos comunes no se agrupen en ranuras contiguas.
+     */
+    private static int mezclar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void subir(int[] indices, int[] valores, int i) {
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (valores[padre] <= valores[i]) {
+                return;
+            }
+            intercambiar(indices, valores, padre, i);
+            i = padre;
+        }
+    }
+
+    private static void bajar(int[] indices, int[] valores, int i, int n) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < n && valores[izquierdo] < valores[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < n && valores[derecho] < valores[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(indices, valores, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(int[] indices, int[] valores, int a, int b) {
+        int indice = indices[a];
+        indices[a] = indices[b];
+        indices[b] = indice;
+        int valor = valores[a];
+        valores[a] = valores[b];
+        valores[b] = valor;
+    }
+}
@@ -0,0 +1,150 @@
+package gamificaciondeportiva;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase UnidadDeTrabajo agrupa en una sola transacción todos los efectos de una operación de negocio.
+ * <p>
+ * Al registrar una actividad se insertan la actividad, los logros y desafíos cumplidos y los puntos ganados.
+ * En lugar de que cada paso abra su propia conexión y confirme por separado, todos trabajan sobre la sesión de
+ * la unidad y se confirman juntos con un único {@code COMMIT}:
+ * <ul>
+ *   <li>Las lecturas de verificación ven las escrituras anteriores de la misma unidad.</li>
+ *   <li>Los puntos de un mismo usuario se acumulan y se aplican con un solo incremento al confirmar.</li>
+ *   <li>Los efectos en memoria (notificaciones, mensajes) se ejecutan solo si la confirmación tiene éxito.</li>
+ * </ul>
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@code
+ * try (UnidadDeTrabajo unidad = UnidadDeTrabajo.iniciar()) {
+ *     PreparedStatement stmt = unidad.getSesion().preparar("INSERT INTO ...");
+ *     ...
+ *     unidad.sumarPuntos(usuario, 100);
+ *     unidad.confirmar();
+ * }
+ * }
+ * </pre>
+ * Si la unidad se cierra sin confirmar, la transacción se revierte.
+ */
+public class UnidadDeTrabajo implements AutoCloseable {
+    private final AccesoDatos.Sesion sesion;
+    private final Map<Usuario, int[]> puntosPendientes = new LinkedHashMap<>();
+    private final List<Runnable> accionesTrasConfirmar = new ArrayList<>();
+    private ActividadDeportiva.TipoDeporte deporte;
+    private boolean confirmada;
+
+    private UnidadDeTrabajo(AccesoDatos.Sesion sesion) {
+        this.sesion = sesion;
+    }
+
+    /**
+     * Abre una sesión e inicia la transacción de la unidad.
+     *
+     * @return La unidad de trabajo iniciada.
+     * @throws SQLException Si no se puede abrir la sesión o iniciar la transacción.
+     */
+    public static UnidadDeTrabajo iniciar() throws SQLException {
+        AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion();
+        try {
+            sesion.iniciarTransaccion();
+        } catch (SQLException ex) {
+            sesion.close();
+            throw ex;
+        }
+        return new UnidadDeTrabajo(sesion);
+    }
+
+    /**
+     * Obtiene la sesión transaccional de la unidad.
+     *
+     * @return La sesión de la unidad.
+     */
+    public AccesoDatos.Sesion getSesion() {
+        return sesion;
+    }
+
+    /**
+     * Acumula puntos (y la misma cantidad de experiencia) para un usuario. Se aplican al confirmar.
+     *
+     * @param usuario El usuario que gana los puntos.
+     * @param puntos  Los puntos a sumar.
+     */
+    public void sumarPuntos(Usuario usuario, int puntos) {
+        int[] pendiente = puntosPendientes.computeIfAbsent(usuario, u -> new int[2]);
+        pendiente[0] += puntos;
+        pendiente[1] += puntos;
+    }
+
+    /**
+     * Atribuye los puntos de la unidad a un deporte en las clasificaciones por deporte.
+     *
+     * @param deporte El deporte de la actividad que origina la unidad.
+     */
+    public void atribuirA(ActividadDeportiva.TipoDeporte deporte) {
+        this.deporte = deporte;
+    }
+
+    /**
+     * Registra una acción que se ejecutará únicamente si la unidad se confirma con éxito.
+     *
+     * @param accion La acción a ejecutar tras la confirmación.
+     */
+    public void alConfirmar(Runnable accion) {
+        accionesTrasConfirmar.add(accion);
+    }
+
+    /**
+     * Aplica los incrementos de puntos pendientes, confirma la transacción y ejecuta las acciones posteriores.
+     *
+     * @throws SQLException Si ocurre un error al escribir o confirmar; en ese caso nada queda guardado.
+     */
+    public void confirmar() throws SQLException {
+        Map<Usuario, int[]> totales = new LinkedHashMap<>();
+        for (Map.Entry<Usuario, int[]> entrada : puntosPendientes.entrySet()) {
+            int[] pendiente = entrada.getValue();
+            totales.put(entrada.getKey(),
+                    entrada.getKey().incrementarEnBaseDeDatos(sesion, pendiente[0], pendiente[1], deporte));
+        }
+
+        sesion.confirmar();
+        confirmada = true;
+
+        for (Map.Entry<Usuario, int[]> entrada : totales.entrySet()) {
+            if (entrada.getValue() == null) {
+                continue; // El usuario no existe en la base de datos: no se sumó nada
+            }
+            int[] pendiente = puntosPendientes.get(entrada.getKey());
+            entrada.getKey().aplicarTotales(entrada.getValue());
+            entrada.getKey().publicarPuntosOtorgados(pendiente[0], pendiente[1], deporte);
+        }
+        for (Runnable accion : accionesTrasConfirmar) {
+            try {
+                accion.run();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Indica si la unidad se confirmó.
+     *
+     * @return true si la transacción se confirmó con éxito.
+     */
+    public boolean isConfirmada() {
+        return confirmada;
+    }
+
+    /**
+     * Cierra la unidad. Si no se confirmó, la transacción se revierte al liberar la sesión.
+     */
+    @Override
+    public void close() {
+        sesion.close();
+    }
+}
@@ -1,12 +1,12 @@
 package gamificaciondeportiva;
 
 import javax.swing.*;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Representa a un usuario dentro del sistema de gamificación deportiva.
@@ -32,14 +32,24 @@ import java.util.*;
 public class Usuario {
     private String id;
     private String nombre;
-    private int nivel;
-    private int puntosTotales;
-    private int experiencia;
+    /**
+     * Último nivel alcanzado y anunciado. El nivel vigente se calcula con la curva de progresión activa.
+     */
+    private final AtomicInteger nivel = new AtomicInteger(1);
+    private final AtomicInteger puntosTotales = new AtomicInteger();
+    private final AtomicInteger experiencia = new AtomicInteger();
     private List<Logro> logrosObtenidos;
     private List<Desafio> desafiosActivos;
+    /**
+     * Índices en {@link IndiceCatalogo} de los elementos de logrosObtenidos y desafiosActivos, para no recorrer las
+     * listas al agregar.
+     */
+    private final BitSet indicesLogrosObtenidos = new BitSet();
+    private final BitSet indicesDesafiosActivos = new BitSet();
+    private volatile Cumplimientos cumplimientos;
     private byte[] fotoPerfil;
     private boolean esAdmin; // Nuevo atributo
-    private Runnable onCambioDatos;
+    private BusEventos.Suscripcion suscripcionCambios;
 
     /**
      * Constructor de la clase Usuario.
@@ -51,11 +61,9 @@ public class Usuario {
     public Usuario(String id, String nombre, JFrame interfaz) {
         this.id = id;
         this.nombre = nombre;
-        this.nivel = 1;
-        this.puntosTotales = 0;
-        this.experiencia = 0;
         this.logrosObtenidos = new ArrayList<>();
         this.desafiosActivos = new ArrayList<>();
+        this.cumplimientos = new Cumplimientos(id);
     }
 
     /**
@@ -67,11 +75,9 @@ public class Usuario {
     public Usuario(String id, String nombre) {
         this.id = id;
         this.nombre = nombre;
-        this.nivel = 1;
-        this.puntosTotales = 0;
-        this.experiencia = 0;
         this.logrosObtenidos = new ArrayList<>();
         this.desafiosActivos = new ArrayList<>();
+        this.cumplimientos = new Cumplimientos(id);
     }
 
     /**
@@ -81,17 +87,16 @@ public class Usuario {
      */
     public Set<String> getDeportesPracticadosUltimaSemana() {
         Set<String> deportes = new HashSet<>();
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT DISTINCT tipo FROM Actividades WHERE usuarioId = ? AND fecha >= ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, this.getId());
             stmt.setDate(2, java.sql.Date.valueOf(LocalDate.now().minusDays(7)));
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                deportes.add(rs.getString("tipo"));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    deportes.add(rs.getString("tipo"));
+                }
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -106,17 +111,16 @@ public class Usuario {
      */
     public Map<LocalDate, Boolean> getRegistroActividades() {
         Map<LocalDate, Boolean> registro = new HashMap<>();
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT DISTINCT fecha FROM Actividades WHERE usuarioId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, this.getId());
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                LocalDate fecha = rs.getDate("fecha").toLocalDate();
-                registro.put(fecha, true);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate fecha = rs.getDate("fecha").toLocalDate();
+                    registro.put(fecha, true);
+                }
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -125,51 +129,132 @@ public class Usuario {
     }
 
     /**
-     * Actualiza los datos del usuario en la base de datos.
+     * Incrementa los puntos y la experiencia del usuario en la base de datos y devuelve los nuevos totales.
+     * <p>
+     * El incremento se expresa en el servidor ({@code puntosTotales = puntosTotales + ?}) para que dos
+     * acreditaciones simultáneas no se pisen. La lectura posterior se hace dentro de la misma transacción,
+     * con la fila ya bloqueada por el UPDATE, de modo que los totales devueltos corresponden a este incremento.
+     * El nivel calculado a partir de la experiencia devuelta también se guarda, sin retroceder nunca, y los puntos se
+     * anotan en PuntosDiarios para las {@link Clasificaciones}.
+     *
+     * @param sesion  Sesión en la que se ejecuta el incremento. Debe tener una transacción abierta.
+     * @param puntos  Los puntos a sumar.
+     * @param exp     La experiencia a sumar.
+     * @param deporte El deporte al que se atribuyen los puntos, o null.
+     * @return Un arreglo con los puntos totales y la experiencia tras el incremento, o null si el usuario no existe.
+     * @throws SQLException Si ocurre un error al actualizar.
+     */
+    int[] incrementarEnBaseDeDatos(AccesoDatos.Sesion sesion, int puntos, int exp,
+                                   ActividadDeportiva.TipoDeporte deporte) throws SQLException {
+        PreparedStatement update = sesion.preparar(
+                "UPDATE Usuarios SET puntosTotales = puntosTotales + ?, experiencia = experiencia + ? WHERE id = ?");
+        update.setInt(1, puntos);
+        update.setInt(2, exp);
+        update.setString(3, this.id);
+        if (update.executeUpdate() == 0) {
+            return null;
+        }
+
+        PreparedStatement select = sesion.preparar("SELECT puntosTotales, experiencia FROM Usuarios WHERE id = ?");
+        select.setString(1, this.id);
+        int[] totales;
+        try (ResultSet rs = select.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            totales = new int[]{rs.getInt("puntosTotales"), rs.getInt("experiencia")};
+        }
+
+        PreparedStatement nivelStmt = sesion.preparar("UPDATE Usuarios SET nivel = GREATEST(nivel, ?) WHERE id = ?");
+        nivelStmt.setInt(1, calcularNivel(totales[1]));
+        nivelStmt.setString(2, this.id);
+        nivelStmt.executeUpdate();
+        Clasificaciones.registrar(sesion, this.id, deporte, puntos);
+        return totales;
+    }
+
+    /**
+     * Suma puntos y experiencia al usuario en la base de datos y actualiza los contadores en memoria.
+     * Si la escritura falla, los contadores en memoria no cambian.
+     *
+     * @param puntos Los puntos a sumar.
+     * @param exp    La experiencia a sumar.
+     * @return true si el incremento quedó guardado.
      */
-    private void actualizarDatosEnBaseDeDatos() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
-
-            String query = "UPDATE Usuarios SET puntosTotales = ?, experiencia = ? WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, this.puntosTotales);
-            stmt.setInt(2, this.experiencia);
-            stmt.setString(3, this.id);
-            stmt.executeUpdate();
+    private boolean acreditar(int puntos, int exp) {
+        int[] totales;
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
+            sesion.iniciarTransaccion();
+            totales = incrementarEnBaseDeDatos(sesion, puntos, exp, null);
+            sesion.confirmar();
         } catch (Exception ex) {
             ex.printStackTrace();
+            return false;
         }
+        aplicarTotales(totales);
+        return totales != null;
     }
 
     /**
-     * Establece un callback para notificar cambios en los datos del usuario.
+     * Actualiza los contadores en memoria con los totales devueltos por la base de datos.
+     * <p>
+     * Si dos hilos acreditan a la vez, cada uno recibe unos totales distintos; se conserva siempre el mayor
+     * para que una respuesta que llega tarde no haga retroceder el contador. Si no hay totales (el usuario no existe
+     * en la base de datos), los contadores no cambian: sumar solo en memoria los separaría de lo guardado.
      *
-     * @param onCambioDatos El callback a ejecutar cuando cambien los datos.
+     * @param totales Puntos totales y experiencia devueltos por la base de datos, o null.
      */
-    public void setOnCambioDatos(Runnable onCambioDatos) {
-        this.onCambioDatos = onCambioDatos;
+    void aplicarTotales(int[] totales) {
+        if (totales == null) {
+            return;
+        }
+        puntosTotales.accumulateAndGet(totales[0], Math::max);
+        verificarNivel(experiencia.accumulateAndGet(totales[1], Math::max));
     }
 
     /**
-     * Notifica que los datos del usuario han cambiado.
+     * Establece un callback para notificar cambios en los datos del usuario.
+     * <p>
+     * El callback se suscribe al {@link BusEventos} y se ejecuta en el hilo de Swing, una sola vez por ráfaga de
+     * cambios. Establecer un nuevo callback cancela el anterior.
+     *
+     * @param onCambioDatos El callback a ejecutar cuando cambien los datos, o null para no recibir avisos.
      */
-    private void notificarCambioDatos() {
+    public void setOnCambioDatos(Runnable onCambioDatos) {
+        if (suscripcionCambios != null) {
+            suscripcionCambios.cancelar();
+            suscripcionCambios = null;
+        }
         if (onCambioDatos != null) {
-            onCambioDatos.run();
+            suscripcionCambios = BusEventos.suscribirEnInterfaz(eventos -> {
+                if (eventos.stream().anyMatch(evento -> id.equals(evento.usuarioId()))) {
+                    onCambioDatos.run();
+                }
+            }, EventoDominio.PuntosOtorgados.class, EventoDominio.DatosUsuarioActualizados.class);
         }
     }
 
+    /**
+     * Publica que el usuario ganó puntos o experiencia, con los totales actuales.
+     *
+     * @param puntos  Los puntos ganados.
+     * @param exp     La experiencia ganada.
+     * @param deporte El deporte al que se atribuyen los puntos, o null.
+     */
+    void publicarPuntosOtorgados(int puntos, int exp, ActividadDeportiva.TipoDeporte deporte) {
+        BusEventos.publicar(
+                new EventoDominio.PuntosOtorgados(id, puntos, exp, puntosTotales.get(), getNivel(), deporte));
+    }
+
     /**
      * Añade puntos al usuario y actualiza la base de datos.
      *
      * @param puntos Los puntos a añadir.
      */
     public void ganarPuntos(int puntos) {
-        this.puntosTotales += puntos;
-        ganarExperiencia(puntos);
-        actualizarDatosEnBaseDeDatos();
-        notificarCambioDatos();
+        if (acreditar(puntos, puntos)) {
+            publicarPuntosOtorgados(puntos, puntos, null);
+        }
     }
 
     /**
@@ -178,19 +263,31 @@ public class Usuario {
      * @param exp La experiencia a añadir.
      */
     public void ganarExperiencia(int exp) {
-        this.experiencia += exp;
-        verificarNivel();
-        notificarCambioDatos(); // Notifica cambios
+        if (acreditar(0, exp)) {
+            publicarPuntosOtorgados(0, exp, null);
+        }
+    }
+
+    /**
+     * Calcula el nivel correspondiente a una cantidad de experiencia según la curva de progresión activa.
+     *
+     * @param exp La experiencia acumulada.
+     * @return El nivel correspondiente.
+     */
+    static int calcularNivel(int exp) {
+        return CurvaProgresion.actual().nivel(exp);
     }
 
     /**
      * Verifica si el usuario ha subido de nivel basado en su experiencia.
+     *
+     * @param exp La experiencia acumulada tras el último incremento.
      */
-    private void verificarNivel() {
-        int nuevoNivel = (this.experiencia / 1000) + 1;
-        if (nuevoNivel > this.nivel) {
-            this.nivel = nuevoNivel;
-            System.out.println("¡Felicidades! Has alcanzado el nivel " + this.nivel);
+    private void verificarNivel(int exp) {
+        int nuevoNivel = calcularNivel(exp);
+        int anterior = nivel.getAndAccumulate(nuevoNivel, Math::max);
+        if (nuevoNivel > anterior) {
+            Registro.info("Nivel alcanzado", "usuarioId", id, "nivel", nuevoNivel);
         }
     }
 
@@ -200,19 +297,20 @@ public class Usuario {
      * @return La última actividad deportiva del usuario, o null si no hay actividades.
      */
     public ActividadDeportiva getUltimaActividad() {
-        try (Connection conn = DriverManager.getConnection(Configuracion.DB_URL, Configuracion.DB_USER,
-                Configuracion.DB_PASSWORD)) {
+        try (AccesoDatos.Sesion sesion = AccesoDatos.abrirSesion()) {
 
             String query = "SELECT * FROM Actividades WHERE usuarioId = ? ORDER BY fecha DESC, hora DESC LIMIT 1";
-            PreparedStatement stmt = conn.prepareStatement(query);
+            PreparedStatement stmt = sesion.preparar(query);
             stmt.setString(1, this.getId());
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return new ActividadDeportiva(rs.getString("id"),
-                        ActividadDeportiva.TipoDeporte.valueOf(rs.getString("tipo")), rs.getInt("duracionMinutos"),
-                        rs.getDouble("distanciaKm"), this, // Usuario actual
-                        rs.getBoolean("esCompetencia"));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    ActividadDeportiva actividad = new ActividadDeportiva(rs.getString("id"),
+                            ActividadDeportiva.TipoDeporte.valueOf(rs.getString("tipo")), rs.getInt("duracionMinutos"),
+                            rs.getDouble("distanciaKm"), this, // Usuario actual
+                            rs.getBoolean("esCompetencia"));
+                    actividad.setCaloriasQuemadas(rs.getInt("caloriasQuemadas"));
+                    return actividad;
+                }
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -226,7 +324,12 @@ public class Usuario {
      * @param logro El logro a agregar.
      */
     public void agregarLogro(Logro logro) {
-        if (logro != null && !logrosObtenidos.contains(logro)) {
+        if (logro == null) {
+            return;
+        }
+        int indice = IndiceCatalogo.LOGROS.indice(logro.getId());
+        if (!indicesLogrosObtenidos.get(indice)) {
+            indicesLogrosObtenidos.set(indice);
             logrosObtenidos.add(logro);
         }
     }
@@ -237,7 +340,12 @@ public class Usuario {
      * @param desafio El desafío a agregar.
      */
     public void agregarDesafio(Desafio desafio) {
-        if (desafio != null && !desafiosActivos.contains(desafio)) {
+        if (desafio == null) {
+            return;
+        }
+        int indice = IndiceCatalogo.DESAFIOS.indice(desafio.getId());
+        if (!indicesDesafiosActivos.get(indice)) {
+            indicesDesafiosActivos.set(indice);
             desafiosActivos.add(desafio);
         }
     }
@@ -250,6 +358,7 @@ public class Usuario {
 
     public void setId(String id) {
         this.id = id;
+        this.cumplimientos = new Cumplimientos(id);
     }
 
     public String getNombre() {
@@ -260,28 +369,56 @@ public class Usuario {
         this.nombre = nombre;
     }
 
+    /**
+     * Obtiene el nivel del usuario según su experiencia y la curva de progresión activa.
+     *
+     * @return El nivel actual.
+     */
     public int getNivel() {
-        return nivel;
+        return calcularNivel(experiencia.get());
+    }
+
+    /**
+     * Obtiene la experiencia ganada desde que se alcanzó el nivel actual.
+     *
+     * @return La experiencia dentro del nivel.
+     */
+    public int getProgresoNivel() {
+        return CurvaProgresion.actual().progresoEnNivel(experiencia.get());
     }
 
+    /**
+     * Obtiene la experiencia que falta para subir al siguiente nivel.
+     *
+     * @return La experiencia restante, o 0 si el usuario está en el nivel máximo.
+     */
+    public int getExperienciaParaSiguienteNivel() {
+        return CurvaProgresion.actual().experienciaParaSiguiente(experiencia.get());
+    }
+
+    /**
+     * Establece el último nivel alcanzado, para no volver a anunciar niveles ya conseguidos.
+     *
+     * @param nivel El nivel guardado.
+     */
     public void setNivel(int nivel) {
-        this.nivel = nivel;
+        this.nivel.set(nivel);
     }
 
     public int getPuntosTotales() {
-        return puntosTotales;
+        return puntosTotales.get();
     }
 
     public void setPuntosTotales(int puntosTotales) {
-        this.puntosTotales = puntosTotales;
+        this.puntosTotales.set(puntosTotales);
     }
 
     public int getExperiencia() {
-        return experiencia;
+        return experiencia.get();
     }
 
     public void setExperiencia(int experiencia) {
-        this.experiencia = experiencia;
+        this.experiencia.set(experiencia);
     }
 
     public List<Logro> getLogrosObtenidos() {
@@ -290,6 +427,10 @@ public class Usuario {
 
     public void setLogrosObtenidos(List<Logro> logrosObtenidos) {
         this.logrosObtenidos = logrosObtenidos;
+        indicesLogrosObtenidos.clear();
+        for (Logro logro : logrosObtenidos) {
+            indicesLogrosObtenidos.set(IndiceCatalogo.LOGROS.indice(logro.getId()));
+        }
     }
 
     public List<Desafio> getDesafiosActivos() {
@@ -298,6 +439,19 @@ public class Usuario {
 
     public void setDesafiosActivos(List<Desafio> desafiosActivos) {
         this.desafiosActivos = desafiosActivos;
+        indicesDesafiosActivos.clear();
+        for (Desafio desafio : desafiosActivos) {
+            indicesDesafiosActivos.set(IndiceCatalogo.DESAFIOS.indice(desafio.getId()));
+        }
+    }
+
+    /**
+     * Obtiene los logros y desafíos completados por el usuario.
+     *
+     * @return Los cumplimientos del usuario.
+     */
+    Cumplimientos getCumplimientos() {
+        return cumplimientos;
     }
 
     public byte[] getFotoPerfil() {
@@ -0,0 +1,307 @@
+package gamificaciondeportiva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase UsuariosUnicos guarda estimadores {@link HyperLogLog} de usuarios activos y responde cuántos usuarios
+ * distintos hubo en cualquier rango de fechas sin recorrer Actividades.
+ * <p>
+ * Cada estimador pertenece a un ámbito ({@link #DEPORTE} o {@link #COMPETENCIA}), una clave (el deporte, {@link #TODOS}
+ * para todos los deportes, o el ID de la competencia) y un periodo: una fila por día y otra por mes. Para un rango se
+ * fusionan los meses completos y los días sueltos de los extremos, así que un año se resuelve con unas 12 filas por
+ * clave en lugar de 365. El error de la estimación es el de {@link HyperLogLog#ERROR_ESTANDAR} sea cual sea el rango.
+ * <p>
+ * Los estimadores se actualizan dentro de la transacción que registra la actividad mediante un {@link Lote}: cada fila
+ * se lee sin bloquear y se fusiona en memoria, y solo las filas en las que la fusión cambia algún registro se bloquean,
+ * se vuelven a leer y se escriben. Como los registros solo crecen, una fila que ya contiene al usuario no cambia, así
+ * que las filas globales del día y del mes, que comparten todas las actividades, casi nunca quedan bloqueadas hasta el
+ * final de la transacción.
+ */
+final class UsuariosUnicos {
+    /**
+     * Ámbito de los estimadores por deporte.
+     */
+    static final String DEPORTE = "DEPORTE";
+
+    /**
+     * Ámbito de los estimadores por competencia.
+     */
+    static final String COMPETENCIA = "COMPETENCIA";
+
+    /**
+     * Clave del estimador que reúne todos los deportes.
+     */
+    static final String TODOS = "*";
+
+    private static final String DIA = "D";
+    private static final String MES = "M";
+
+    private static final String BLOQUEAR = "INSERT INTO SketchesUsuarios (ambito, clave, periodo, fecha, registros) "
+            + "VALUES (?, ?, ?, ?, NULL) ON DUPLICATE KEY UPDATE registros = registros";
+    private static final String LEER = "SELECT registros FROM SketchesUsuarios "
+            + "WHERE ambito = ? AND clave = ? AND periodo = ? AND fecha = ?";
+    private static final String LEER_BLOQUEADA = LEER + " FOR UPDATE";
+    private static final String ESCRIBIR = "UPDATE SketchesUsuarios SET registros = ? "
+            + "WHERE ambito = ? AND clave = ? AND periodo = ? AND fecha = ?";
+
+    private static volatile boolean tablaVerificada;
+
+    private UsuariosUnicos() {
+    }
+
+    /**
+     * Cuenta a un usuario como activo en una fecha, en la transacción de la sesión.
+     *
+     * @param sesion    La sesión con la transacción en curso.
+     * @param ambito    El ámbito del estimador.
+     * @param clave     La clave del estimador.
+     * @param fecha     La fecha de la actividad.
+     * @param usuarioId El ID del usuario.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static void registrar(AccesoDatos.Sesion sesion, String ambito, String clave, LocalDate fecha, String usuarioId)
+            throws SQLException {
+        Lote lote = new Lote();
+        lote.agregar(ambito, clave, fecha, usuarioId);
+        lote.aplicar(sesion);
+    }
+
+    /**
+     * Estima los usuarios distintos de cada clave de un ámbito en un rango de fechas.
+     *
+     * @param sesion La sesión de acceso a la base de datos.
+     * @param ambito El ámbito.
+     * @param desde  El primer día, incluido.
+     * @param hasta  El último día, incluido.
+     * @return Los estimadores fusionados del rango, por clave.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static Map<String, HyperLogLog> porClave(AccesoDatos.Sesion sesion, String ambito, LocalDate desde,
+                                             LocalDate hasta) throws SQLException {
+        asegurarTabla(sesion);
+        // Meses completos del rango [inicioMeses, finMeses); los días de los extremos se leen sueltos
+        LocalDate inicioMeses = desde.getDayOfMonth() == 1 ? desde : desde.withDayOfMonth(1).plusMonths(1);
+        LocalDate finMeses = hasta.plusDays(1).withDayOfMonth(1);
+        if (!inicioMeses.isBefore(finMeses)) {
+            inicioMeses = hasta.plusDays(1);
+            finMeses = inicioMeses;
+        }
+
+        PreparedStatement stmt = sesion.preparar("SELECT clave, registros FROM SketchesUsuarios WHERE ambito = ? AND ("
+                + "(periodo = 'M' AND fecha >= ? AND fecha < ?) OR "
+                + "(periodo = 'D' AND ((fecha >= ? AND fecha < ?) OR (fecha >= ? AND fecha <= ?))))");
+        stmt.setString(1, ambito);
+        stmt.setDate(2, java.sql.Date.valueOf(inicioMeses));
+        stmt.setDate(3, java.sql.Date.valueOf(finMeses));
+        stmt.setDate(4, java.sql.Date.valueOf(desde));
+        stmt.setDate(5, java.sql.Date.valueOf(inicioMeses));
+        stmt.setDate(6, java.sql.Date.valueOf(finMeses));
+        stmt.setDate(7, java.sql.Date.valueOf(hasta));
+
+        Map<String, HyperLogLog> estimadores = new LinkedHashMap<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                HyperLogLog fila = HyperLogLog.desdeBytes(rs.getBytes(2));
+                HyperLogLog acumulado = estimadores.putIfAbsent(rs.getString(1), fila);
+                if (acumulado != null) {
+                    acumulado.fusionar(fila);
+                }
+            }
+        }
+        return estimadores;
+    }
+
+    /**
+     * Regenera los estimadores por deporte a partir de las marcas de {@link CuboActividad}, mes a mes, dentro de la
+     * transacción de la sesión. Los estimadores por competencia no se tocan: no hay historial del que recalcularlos.
+     *
+     * @param sesion La sesión con la transacción de la reconstrucción.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    static void reconstruirDeportes(AccesoDatos.Sesion sesion) throws SQLException {
+        asegurarTabla(sesion);
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("DELETE FROM SketchesUsuarios WHERE ambito = '" + DEPORTE + "'");
+        }
+        PreparedStatement insertar = sesion.preparar(
+                "INSERT INTO SketchesUsuarios (ambito, clave, periodo, fecha, registros) VALUES (?, ?, ?, ?, ?)");
+        Lote mes = new Lote();
+        LocalDate mesActual = null;
+        // Solo se mantiene en memoria un mes de estimadores a la vez
+        try (Statement stmt = sesion.getConexion().createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT fecha, tipo, usuarioId FROM CuboActividadUsuarios ORDER BY fecha")) {
+            while (rs.next()) {
+                LocalDate fecha = rs.getDate(1).toLocalDate();
+                if (mesActual != null && !fecha.withDayOfMonth(1).equals(mesActual)) {
+                    mes.insertar(insertar);
+                }
+                mesActual = fecha.withDayOfMonth(1);
+                mes.agregarDeporte(rs.getString(2), fecha, rs.getString(3));
+            }
+        }
+        mes.insertar(insertar);
+    }
+
+    private static void asegurarTabla(AccesoDatos.Sesion sesion) throws SQLException {
+        if (tablaVerificada) {
+            return;
+        }
+        if (sesion.enTransaccion()) {
+            // En MySQL un CREATE TABLE confirma implícitamente la transacción en curso: se usa otra conexión
+            try (AccesoDatos.Sesion propia = AccesoDatos.abrirSesion()) {
+                asegurarTabla(propia);
+            }
+            return;
+        }
+        try (Statement stmt = sesion.getConexion().createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS SketchesUsuarios ("
+                    + "ambito VARCHAR(12) NOT NULL, "
+                    + "clave VARCHAR(64) NOT NULL, "
+                    + "periodo CHAR(1) NOT NULL, "
+                    + "fecha DATE NOT NULL, "
+                    + "registros BLOB, "
+                    + "PRIMARY KEY (ambito, clave, periodo, fecha))");
+        }
+        tablaVerificada = true;
+    }
+
+    /**
+     * Agrupa en memoria los usuarios de varias actividades para actualizar cada fila de estimador una sola vez.
+     */
+    static final class Lote {
+        private final Map<Fila, HyperLogLog> filas = new HashMap<>();
+
+        /**
+         * Cuenta a un usuario en la fila diaria y en la mensual de una clave.
+         *
+         * @param ambito    El ámbito del estimador.
+         * @param clave     La clave del estimador.
+         * @param fecha     La fecha de la actividad.
+         * @param usuarioId El ID del usuario.
+         */
+        void agregar(String ambito, String clave, LocalDate fecha, String usuarioId) {
+            filas.computeIfAbsent(new Fila(ambito, clave, DIA, fecha), f -> new HyperLogLog()).agregar(usuarioId);
+            filas.computeIfAbsent(new Fila(ambito, clave, MES, fecha.withDayOfMonth(1)), f -> new HyperLogLog())
+                    .agregar(usuarioId);
+        }
+
+        /**
+         * Cuenta a un usuario en un deporte y en el total de todos los deportes.
+         *
+         * @param tipo      El deporte.
+         * @param fecha     La fecha de la actividad.
+         * @param usuarioId El ID del usuario.
+         */
+        void agregarDeporte(String tipo, LocalDate fecha, String usuarioId) {
+            agregar(DEPORTE, tipo, fecha, usuarioId);
+            agregar(DEPORTE, TODOS, fecha, usuarioId);
+        }
+
+        /**
+         * Fusiona el lote con los estimadores guardados, en la transacción de la sesión, y lo vacía.
+         *
+         * @param sesion La sesión con la transacción en curso.
+         * @throws SQLException Si ocurre un error en la base de datos.
+         */
+        void aplicar(AccesoDatos.Sesion sesion) throws SQLException {
+            if (filas.isEmpty()) {
+                return;
+            }
+            asegurarTabla(sesion);
+            // Primero una lectura sin bloqueo: las filas que ya contienen todos los registros del lote se descartan
+            List<Map.Entry<Fila, HyperLogLog>> cambian = new ArrayList<>();
+            PreparedStatement leer = sesion.preparar(LEER);
+            for (Map.Entry<Fila, HyperLogLog> entrada : filas.entrySet()) {
+                // Una fila que no existe se lee como un estimador vacío, así que la fusión siempre la cambia
+                if (leer(leer, entrada.getKey()).fusionar(entrada.getValue())) {
+                    cambian.add(entrada);
+                }
+            }
+            filas.clear();
+            if (cambian.isEmpty()) {
+                return;
+            }
+
+            // Las filas se bloquean siempre en el mismo orden para que dos lotes no se esperen mutuamente
+            cambian.sort(Map.Entry.comparingByKey());
+            PreparedStatement bloquear = sesion.preparar(BLOQUEAR);
+            for (Map.Entry<Fila, HyperLogLog> entrada : cambian) {
+                entrada.getKey().asignar(bloquear, 1);
+                bloquear.addBatch();
+            }
+            bloquear.executeBatch();
+
+            // Con las filas bloqueadas se vuelven a leer, porque otro lote pudo escribirlas desde la primera lectura
+            PreparedStatement leerBloqueada = sesion.preparar(LEER_BLOQUEADA);
+            PreparedStatement escribir = sesion.preparar(ESCRIBIR);
+            boolean pendientes = false;
+            for (Map.Entry<Fila, HyperLogLog> entrada : cambian) {
+                HyperLogLog guardado = leer(leerBloqueada, entrada.getKey());
+                if (guardado.fusionar(entrada.getValue())) {
+                    escribir.setBytes(1, guardado.aBytes());
+                    entrada.getKey().asignar(escribir, 2);
+                    escribir.addBatch();
+                    pendientes = true;
+                }
+            }
+            if (pendientes) {
+                escribir.executeBatch();
+            }
+        }
+
+        private static HyperLogLog leer(PreparedStatement leer, Fila fila) throws SQLException {
+            fila.asignar(leer, 1);
+            try (ResultSet rs = leer.executeQuery()) {
+                return HyperLogLog.desdeBytes(rs.next() ? rs.getBytes(1) : null);
+            }
+        }
+
+        /**
+         * Descarta los usuarios pendientes.
+         */
+        void limpiar() {
+            filas.clear();
+        }
+
+        private void insertar(PreparedStatement insertar) throws SQLException {
+            for (Map.Entry<Fila, HyperLogLog> entrada : filas.entrySet()) {
+                entrada.getKey().asignar(insertar, 1);
+                insertar.setBytes(5, entrada.getValue().aBytes());
+                insertar.addBatch();
+            }
+            insertar.executeBatch();
+            filas.clear();
+        }
+
+        private record Fila(String ambito, String clave, String periodo, LocalDate fecha) implements Comparable<Fila> {
+            void asignar(PreparedStatement stmt, int primero) throws SQLException {
+                stmt.setString(primero, ambito);
+                stmt.setString(primero + 1, clave);
+                stmt.setString(primero + 2, periodo);
+                stmt.setDate(primero + 3, java.sql.Date.valueOf(fecha));
+            }
+
+            @Override
+            public int compareTo(Fila otra) {
+                int comparacion = ambito.compareTo(otra.ambito);
+                if (comparacion == 0) {
+                    comparacion = clave.compareTo(otra.clave);
+                }
+                if (comparacion == 0) {
+                    comparacion = periodo.compareTo(otra.periodo);
+                }
+                return comparacion != 0 ? comparacion : fecha.compareTo(otra.fecha);
+            }
+        }
+    }
+}